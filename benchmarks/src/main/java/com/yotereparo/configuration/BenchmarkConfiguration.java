@@ -0,0 +1,73 @@
+package com.yotereparo.configuration;
+
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.yotereparo.security.WebSecurityConfig;
+
+/*
+ * Contexto de la aplicación sin la capa web (controladores, MVC y seguridad HTTP), sobre H2 en modo PostgreSQL.
+ * Equivale a HibernateConfiguration salvo por el DataSource y las propiedades de hibernate.
+ */
+@Configuration
+@EnableTransactionManagement
+@ComponentScan(basePackages = "com.yotereparo", excludeFilters = {
+		@Filter(type = FilterType.ANNOTATION, classes = { Controller.class, RestController.class }),
+		@Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+				AppConfig.class, AppInitializer.class, HibernateConfiguration.class, WebSecurityConfig.class })
+})
+@PropertySource(value = {"classpath:application.properties"})
+public class BenchmarkConfiguration {
+
+    @Bean
+    public LocalSessionFactoryBean sessionFactory() {
+        LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
+        sessionFactory.setDataSource(dataSource());
+        sessionFactory.setPackagesToScan(new String[] { "com.yotereparo.model" });
+        sessionFactory.setHibernateProperties(hibernateProperties());
+        return sessionFactory;
+    }
+
+    @Bean(name = "dataSource")
+    public DataSource dataSource() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        return dataSource;
+    }
+
+    private Properties hibernateProperties() {
+        Properties properties = new Properties();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create");
+        // El dataset se genera sin pasar por las validaciones de los DTOs
+        properties.put("javax.persistence.validation.mode", "none");
+        return properties;
+    }
+
+    @Bean
+    @Autowired
+    public HibernateTransactionManager transactionManager(SessionFactory s) {
+        HibernateTransactionManager txManager = new HibernateTransactionManager();
+        txManager.setSessionFactory(s);
+        return txManager;
+    }
+}
@@ -0,0 +1,53 @@
+package com.yotereparo.controller.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Validación de los filtros de GET /services (AbstractFilter.contains) con filtros válidos e inválidos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceFilterBenchmark {
+
+	private ServiceFilter serviceFilter;
+	private Map<String, String> validFilters;
+	private Map<String, String> invalidFilters;
+
+	@Setup
+	public void setUp() {
+		serviceFilter = new ServiceFilter();
+		validFilters = new HashMap<String, String>();
+		validFilters.put("city", "rosario");
+		validFilters.put("District", "12");
+		validFilters.put("TITLE", "plomero");
+		invalidFilters = new HashMap<String, String>(validFilters);
+		invalidFilters.put("price", "1000");
+	}
+
+	@Benchmark
+	public Boolean containsValidFilters() {
+		return serviceFilter.contains(validFilters);
+	}
+
+	@Benchmark
+	public Boolean containsInvalidFilters() {
+		return serviceFilter.contains(invalidFilters);
+	}
+}
@@ -0,0 +1,115 @@
+package com.yotereparo.controller.mapping;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yotereparo.controller.dto.ServiceDto;
+import com.yotereparo.model.Contract;
+import com.yotereparo.model.Message;
+import com.yotereparo.model.PaymentMethod;
+import com.yotereparo.model.Quote;
+import com.yotereparo.model.Service;
+import com.yotereparo.model.ServiceType;
+import com.yotereparo.model.User;
+
+/*
+ * Conversión Servicio -> DTO sobre servicios con historiales de mensajes y presupuestos de distinto tamaño.
+ * convertToDto recorre los mensajes; convertToDetailDto además los presupuestos y sus contratos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceMapperBenchmark {
+
+	@Param({ "0", "100", "5000" })
+	public int history;
+
+	private ServiceMapper serviceMapper;
+	private Service service;
+
+	@Setup
+	public void setUp() {
+		serviceMapper = new ServiceMapper();
+		serviceMapper.messageMapper = new MessageMapper();
+
+		User provider = new User();
+		provider.setId("prestador");
+		User customer = new User();
+		customer.setId("cliente");
+		ServiceType serviceType = new ServiceType();
+		serviceType.setId(1);
+		serviceType.setDescripcion("Plomería");
+		PaymentMethod paymentMethod = new PaymentMethod();
+		paymentMethod.setId(1);
+		paymentMethod.setDescripcion("Efectivo");
+
+		service = new Service();
+		service.setId(1);
+		service.setUsuarioPrestador(provider);
+		service.setTitulo("Reparación de cañerías");
+		service.setDescripcion("Reparación y reemplazo de cañerías de agua");
+		service.setDisponibilidad("Lunes a viernes");
+		service.setInsitu(true);
+		service.setPrecioMaximo(2000f);
+		service.setPrecioMinimo(1000f);
+		service.setHorasEstimadasEjecucion(4f);
+		service.setCantidadTrabajadores(2);
+		service.setTipoServicio(serviceType);
+		service.setFechaCreacion(new DateTime(2020, 1, 1, 0, 0));
+		service.setEstado("ACTIVO");
+		service.addMedioDePago(paymentMethod);
+
+		DateTime date = new DateTime(2020, 2, 1, 10, 0);
+		for (int i = 0; i < history; i++) {
+			Message message = new Message();
+			message.setId(i);
+			message.setServicio(service);
+			message.setUsuarioFinal(customer);
+			message.setFechaConsulta(date.plusMinutes(i));
+			message.setConsulta("¿Trabajan los sábados? #" + i);
+			message.setEstado("RESPONDIDO");
+			service.addMensaje(message);
+
+			Quote quote = new Quote();
+			quote.setId(i);
+			quote.setServicio(service);
+			quote.setUsuarioFinal(customer);
+			quote.setDescripcionSolicitud("Pérdida en la cocina #" + i);
+			quote.setFechaSolicitud(date.plusMinutes(i));
+			quote.setEstado("ACEPTADO");
+			Contract contract = new Contract();
+			contract.setId(i);
+			contract.setPresupuesto(quote);
+			contract.setValoracion(1 + i % 10);
+			contract.setDescripcionValoracion("Valoración #" + i);
+			contract.setEstado("FINALIZADO");
+			quote.setContrato(contract);
+			service.addPresupuesto(quote);
+		}
+	}
+
+	@Benchmark
+	public ServiceDto convertToDto() {
+		return serviceMapper.convertToDto(service);
+	}
+
+	@Benchmark
+	public ServiceDto convertToDetailDto() {
+		return serviceMapper.convertToDetailDto(service);
+	}
+}
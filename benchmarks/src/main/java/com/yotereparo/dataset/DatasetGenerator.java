@@ -0,0 +1,483 @@
+package com.yotereparo.dataset;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.yotereparo.model.Contract;
+import com.yotereparo.model.Message;
+import com.yotereparo.model.Quote;
+import com.yotereparo.model.RatingSummary;
+import com.yotereparo.model.Role;
+import com.yotereparo.model.Service;
+import com.yotereparo.model.User;
+import com.yotereparo.util.SecurityUtils;
+
+/**
+ * Generador determinístico de datasets sintéticos a escala de producción, sobre el esquema de la aplicación
+ * (H2 en modo PostgreSQL o PostgreSQL). Inserta con JDBC en lotes, en el orden de las claves foráneas y con
+ * identificadores explícitos; al terminar reinicia las secuencias de las columnas IDENTITY.
+ *
+ * Con la misma especificación (semilla incluida) el dataset generado es siempre el mismo. La base de datos
+ * debe tener el esquema creado y las tablas vacías.
+ *
+ * @author Rodrigo Yanis
+ */
+public class DatasetGenerator {
+
+	private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+	private static final String[] TRADES = {
+			"Plomería", "Electricidad", "Gasista", "Pintura", "Albañilería",
+			"Carpintería", "Cerrajería", "Herrería", "Jardinería", "Refrigeración" };
+	private static final String[] QUALIFIERS = {
+			"urgente", "a domicilio", "matriculado", "24 horas", "económico", "garantizado", "industrial", "residencial" };
+	private static final String[] DESCRIPTIONS = {
+			"Presupuesto sin cargo.", "Trabajos con garantía escrita.", "Atención de lunes a sábados.",
+			"Materiales de primera calidad.", "Factura A y B.", "Más de diez años de experiencia.",
+			"Urgencias dentro del día.", "Todos los medios de pago." };
+	private static final String[] PAYMENT_METHODS = { "Efectivo", "Tarjeta de débito", "Tarjeta de crédito", "Transferencia" };
+	private static final String[] REQUIREMENTS = {
+			"Acceso al lugar de trabajo", "Conexión eléctrica", "Conexión de agua", "Estacionamiento", "Permiso del consorcio" };
+	private static final String[] STREETS = { "San Martín", "Belgrano", "Rivadavia", "Sarmiento", "Mitre", "Córdoba", "Pellegrini" };
+	private static final String[] QUESTIONS = {
+			"¿Trabajan los sábados?", "¿El presupuesto tiene cargo?", "¿Cuánto demoran en llegar?",
+			"¿Aceptan tarjeta de crédito?", "¿Tienen garantía los trabajos?" };
+
+	private static final String CUSTOMER_ROLE = "USUARIO_FINAL";
+	private static final String[] MEMBERSHIPS = { "GRATUITA", "PLATA", "ORO" };
+	/* Salt común a todos los usuarios generados: el hash de la contraseña se calcula una sola vez */
+	private static final String SALT = "YoTeReparoSalt00";
+	private static final int MINUTES_PER_YEAR = 365 * 24 * 60;
+
+	private final DatasetSpec spec;
+	private final Random random;
+	private final String passwordHash;
+	private final DateTime origin;
+
+	private Connection connection;
+	private final List<Batch> batches = new ArrayList<Batch>();
+	private Batch provinces, cities, districts, roles, paymentMethods, requirements, serviceTypes;
+	private Batch users, userRoles, userDistricts, addresses;
+	private Batch services, servicePaymentMethods, serviceRequirements, messages, quotes, contracts;
+	private Batch userRatings;
+
+	private int serviceId, messageId, quoteId, contractId;
+
+	public DatasetGenerator(DatasetSpec spec) {
+		this.spec = spec;
+		this.random = new Random(spec.getSeed());
+		this.passwordHash = SecurityUtils.encryptPassword(spec.getPassword().concat(SALT));
+		this.origin = spec.getReferenceDate().minusYears(1);
+	}
+
+	/*
+	 * Genera el dataset completo sobre la conexión recibida y devuelve la cantidad de filas insertadas por tabla.
+	 * Confirma la transacción en cada lote; ante un error la conexión queda con el último lote sin confirmar.
+	 */
+	public Map<String, Long> generate(Connection connection) throws SQLException {
+		this.connection = connection;
+		boolean autoCommit = connection.getAutoCommit();
+		connection.setAutoCommit(false);
+		long start = System.currentTimeMillis();
+		logger.info("Generating dataset: {}", spec);
+		try {
+			prepareStatements();
+			generateReferenceData();
+			generateCustomers();
+			generateProviders();
+			flush();
+			resetIdentities();
+			connection.commit();
+		}
+		finally {
+			for (Batch batch : batches)
+				batch.statement.close();
+			connection.setAutoCommit(autoCommit);
+		}
+
+		Map<String, Long> rows = new LinkedHashMap<String, Long>();
+		for (Batch batch : batches)
+			if (batch != userRatings)
+				rows.put(batch.table, batch.rows);
+		logger.info("Dataset generated in {} ms: {}", System.currentTimeMillis() - start, rows);
+		return rows;
+	}
+
+	private void prepareStatements() throws SQLException {
+		// El orden de registro es el orden de las claves foráneas, y con él se ejecutan los lotes
+		provinces = batch("provincia", "id_provincia", "descripcion");
+		cities = batch("ciudad", "id_ciudad", "descripcion", "id_provincia");
+		districts = batch("barrio", "id_barrio", "descripcion", "codigo_postal", "id_ciudad");
+		roles = batch("rol", "id_rol", "descripcion", "estado");
+		paymentMethods = batch("medio_de_pago", "id_mediodepago", "descripcion");
+		requirements = batch("requerimiento", "id_requerimiento", "descripcion");
+		serviceTypes = batch("tipo_servicio", "id_tiposervicio", "descripcion");
+		users = batch("usuario", withRatingColumns("id_usuario", "nombre", "apellido", "email", "fecha_nacimiento",
+				"telefono_principal", "id_ciudad", "contrasena", "salt", "descripcion", "estado", "intentos_ingreso",
+				"fecha_ultimo_cambio_contrasena", "fecha_creacion", "membresia"));
+		userRoles = batch("usuario_rol", "id_usuario", "id_rol");
+		userDistricts = batch("usuario_barrio", "id_usuario", "id_barrio");
+		addresses = batch("direccion", "id_direccion", "calle", "altura", "piso", "departamento", "id_usuario");
+		services = batch("servicio", withRatingColumns("id_servicio", "id_usuario_prestador", "titulo", "descripcion",
+				"disponibilidad", "insitu", "precio_maximo", "precio_minimo", "precio_insumos", "precio_adicionales",
+				"horas_estimadas_ejecucion", "cantidad_trabajadores", "factura_emitida", "id_tiposervicio",
+				"fecha_creacion", "estado"));
+		servicePaymentMethods = batch("servicio_mediodepago", "id_servicio", "id_mediodepago");
+		serviceRequirements = batch("servicio_requerimiento", "id_servicio", "id_requerimiento");
+		messages = batch("mensaje", "id_mensaje", "id_servicio", "id_usuario_final", "fecha_consulta", "fecha_respuesta",
+				"consulta", "respuesta", "estado");
+		quotes = batch("presupuesto", "id_presupuesto", "id_servicio", "id_usuario_final", "descripcion_solicitud",
+				"descripcion_respuesta", "precio_presupuestado", "fecha_inicio_ejecucion_prupuesta",
+				"fecha_fin_ejecucion_prupuesta", "incluye_insumos", "incluye_adicionales", "fecha_solicitud",
+				"fecha_respuesta", "fecha_creacion", "estado", "id_direccion_usuario_final");
+		contracts = batch("contrato", "id_contrato", "id_presupuesto", "fecha_inicio_ejecucion", "fecha_fin_ejecucion",
+				"precio_final", "valoracion", "descripcion_valoracion", "fecha_valoracion", "fecha_creacion", "estado");
+		// La valoración del prestador se conoce recién después de generar sus servicios
+		StringBuilder sql = new StringBuilder("UPDATE usuario SET ");
+		String[] ratingColumns = withRatingColumns();
+		for (int i = 0; i < ratingColumns.length; i++)
+			sql.append(i > 0 ? ", " : "").append(ratingColumns[i]).append(" = ?");
+		userRatings = new Batch("usuario", connection.prepareStatement(sql.append(" WHERE id_usuario = ?").toString()));
+		batches.add(userRatings);
+	}
+
+	private void generateReferenceData() throws SQLException {
+		for (int p = 0; p < spec.getProvinces(); p++)
+			provinces.add("provincia_" + p, "Provincia " + p);
+		for (int c = 0; c < spec.getCities(); c++) {
+			cities.add(cityId(c), "Ciudad " + c, "provincia_" + (c % spec.getProvinces()));
+			for (int d = 0; d < spec.getDistrictsPerCity(); d++)
+				districts.add(districtId(c, d), "Barrio " + c + "." + d, 1000 + districtId(c, d) % 9000, cityId(c));
+		}
+
+		roles.add(CUSTOMER_ROLE, "Usuario final", Role.ACTIVE);
+		for (String membership : MEMBERSHIPS)
+			roles.add(providerRole(membership), "Usuario prestador " + membership.toLowerCase(), Role.ACTIVE);
+		roles.add("SERVICE_ACCOUNT", "Cuenta de servicio", Role.PROTECTED);
+		roles.add("ADMINISTRATOR", "Administrador", Role.PROTECTED);
+		for (int i = 0; i < PAYMENT_METHODS.length; i++)
+			paymentMethods.add(i + 1, PAYMENT_METHODS[i]);
+		for (int i = 0; i < REQUIREMENTS.length; i++)
+			requirements.add(i + 1, REQUIREMENTS[i]);
+		for (int i = 0; i < TRADES.length; i++)
+			serviceTypes.add(i + 1, TRADES[i]);
+	}
+
+	private void generateCustomers() throws SQLException {
+		for (int c = 0; c < spec.getCustomers(); c++) {
+			String id = customerId(c);
+			addUser(id, "Cliente", cityId(random.nextInt(spec.getCities())), null);
+			userRoles.add(id, CUSTOMER_ROLE);
+			// Una dirección por usuario final, con id = índice + 1, para poder referenciarla desde los presupuestos
+			addresses.add(c + 1, STREETS[random.nextInt(STREETS.length)], 100 + random.nextInt(5000),
+					random.nextInt(4) == 0 ? String.valueOf(1 + random.nextInt(10)) : null,
+					random.nextInt(4) == 0 ? String.valueOf((char) ('A' + random.nextInt(6))) : null, id);
+			flushIfFull();
+		}
+	}
+
+	private void generateProviders() throws SQLException {
+		for (int p = 0; p < spec.getProviders(); p++) {
+			String id = "prestador" + p;
+			int city = random.nextInt(spec.getCities());
+			int count = spec.getServicesPerProvider().sample(random);
+			String membership = membership(count);
+			count = Math.min(count, allowance(membership));
+
+			addUser(id, "Prestador", cityId(city), membership);
+			userRoles.add(id, providerRole(membership));
+			int coverage = Math.min(spec.getDistrictsPerCity(), random.nextInt(4));
+			int firstDistrict = coverage > 0 ? random.nextInt(spec.getDistrictsPerCity()) : 0;
+			for (int d = 0; d < coverage; d++)
+				userDistricts.add(id, districtId(city, (firstDistrict + d) % spec.getDistrictsPerCity()));
+
+			RatingSummary providerRating = new RatingSummary();
+			for (int s = 0; s < count; s++)
+				addService(id, providerRating);
+			if (providerRating.getCantidad() > 0) {
+				Object[] values = withRatingValues(providerRating);
+				values = Arrays.copyOf(values, values.length + 1);
+				values[values.length - 1] = id;
+				userRatings.add(values);
+			}
+			flushIfFull();
+		}
+	}
+
+	/*
+	 * Genera un servicio con sus mensajes, presupuestos y contratos. Los hijos se generan antes de insertar el
+	 * servicio para conocer su valoración; se agregan a los lotes después, respetando el orden de las claves foráneas.
+	 */
+	private void addService(String providerId, RatingSummary providerRating) throws SQLException {
+		int id = ++serviceId;
+		int trade = random.nextInt(TRADES.length);
+		DateTime created = randomDate(origin);
+		boolean insitu = random.nextBoolean();
+		float minimum = 500 + random.nextInt(5000);
+		// Los presupuestos solo pueden incluir insumos o adicionales si el servicio les asigna un precio
+		Float supplies = random.nextBoolean() ? minimum / 10 : null;
+		Float extras = random.nextBoolean() ? minimum / 5 : null;
+
+		List<Object[]> serviceMessages = new ArrayList<Object[]>();
+		int messageCount = spec.getMessagesPerService().sample(random);
+		for (int m = 0; m < messageCount; m++) {
+			DateTime asked = randomDate(created);
+			String status = pick(Message.CLOSED, 70, Message.AWAITING_RESPONSE, 15, Message.EXPIRED, 10, Message.ARCHIVED, 5);
+			boolean answered = Message.CLOSED.equals(status) || (Message.ARCHIVED.equals(status) && random.nextBoolean());
+			serviceMessages.add(new Object[] { ++messageId, id, customerId(randomCustomer()), timestamp(asked),
+					answered ? timestamp(asked.plusMinutes(1 + random.nextInt(48 * 60))) : null,
+					QUESTIONS[random.nextInt(QUESTIONS.length)], answered ? "Sí, consultanos por privado." : null, status });
+		}
+
+		RatingSummary rating = new RatingSummary();
+		List<Object[]> serviceQuotes = new ArrayList<Object[]>();
+		List<Object[]> serviceContracts = new ArrayList<Object[]>();
+		int quoteCount = spec.getQuotesPerService().sample(random);
+		for (int q = 0; q < quoteCount; q++) {
+			int customer = randomCustomer();
+			DateTime requested = randomDate(created);
+			DateTime proposedStart = requested.plusDays(1 + random.nextInt(30));
+			String status = pick(Quote.AWAITING_PROVIDER, 15, Quote.AWAITING_CUSTOMER, 15, Quote.ACCEPTED_BY_CUSTOMER, 45,
+					Quote.REJECTED_BY_CUSTOMER, 10, Quote.REJECTED_BY_PROVIDER, 10, Quote.ARCHIVED, 5);
+			boolean answered = !Quote.AWAITING_PROVIDER.equals(status);
+			float price = minimum + random.nextInt((int) minimum + 1);
+			DateTime answeredAt = answered ? requested.plusHours(1 + random.nextInt(72)) : null;
+			serviceQuotes.add(new Object[] { ++quoteId, id, customerId(customer), "Necesito el servicio #" + quoteId,
+					answered ? "Podemos realizarlo en la fecha propuesta." : null, answered ? price : null,
+					timestamp(proposedStart), timestamp(proposedStart.plusHours(1 + random.nextInt(8))),
+					supplies != null && random.nextBoolean(), extras != null && random.nextBoolean(),
+					timestamp(requested), timestamp(answeredAt), timestamp(requested), status,
+					insitu ? customer + 1 : null });
+
+			if (Quote.ACCEPTED_BY_CUSTOMER.equals(status) && random.nextDouble() < spec.getContractRatio()) {
+				String contractStatus = pick(Contract.ALREADY_EXECUTED, 60, Contract.ONGOING_EXECUTION, 15,
+						Contract.PENDING_EXECUTION, 15, Contract.CANCELED_BY_CUSTOMER, 5, Contract.CANCELED_BY_PROVIDER, 5);
+				DateTime start = proposedStart.plusHours(random.nextInt(48));
+				DateTime end = start.plusHours(1 + random.nextInt(16));
+				Integer score = null;
+				if (Contract.ALREADY_EXECUTED.equals(contractStatus) && random.nextInt(5) > 0) {
+					score = randomRating();
+					rating.addAll(score, 1);
+					providerRating.addAll(score, 1);
+				}
+				serviceContracts.add(new Object[] { ++contractId, quoteId, timestamp(start), timestamp(end), price, score,
+						score != null ? "Valoración del contrato #" + contractId : null,
+						score != null ? timestamp(end.plusDays(random.nextInt(7))) : null, timestamp(answeredAt),
+						contractStatus });
+			}
+		}
+
+		services.add(withRatingValues(rating, id, providerId,
+				TRADES[trade] + " " + QUALIFIERS[random.nextInt(QUALIFIERS.length)],
+				DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " " + DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)],
+				"Lunes a viernes", insitu, minimum * 2, minimum, supplies, extras,
+				1f + random.nextInt(8), 1 + random.nextInt(3), random.nextBoolean(), trade + 1, timestamp(created),
+				random.nextInt(20) == 0 ? Service.INACTIVE : Service.ACTIVE));
+		int firstPaymentMethod = random.nextInt(PAYMENT_METHODS.length);
+		for (int i = 0, n = 1 + random.nextInt(3); i < n; i++)
+			servicePaymentMethods.add(id, 1 + (firstPaymentMethod + i) % PAYMENT_METHODS.length);
+		int firstRequirement = random.nextInt(REQUIREMENTS.length);
+		for (int i = 0, n = random.nextInt(3); i < n; i++)
+			serviceRequirements.add(id, 1 + (firstRequirement + i) % REQUIREMENTS.length);
+		for (Object[] message : serviceMessages)
+			messages.add(message);
+		for (Object[] quote : serviceQuotes)
+			quotes.add(quote);
+		for (Object[] contract : serviceContracts)
+			contracts.add(contract);
+	}
+
+	private void addUser(String id, String name, String cityId, String membership) throws SQLException {
+		DateTime created = randomDate(origin);
+		users.add(withRatingValues(new RatingSummary(), id, name, id, id + "@yotereparo.com",
+				new Date(new DateTime(1950 + random.nextInt(50), 1 + random.nextInt(12), 1 + random.nextInt(28), 0, 0)
+						.getMillis()),
+				String.valueOf(3410000000L + random.nextInt(10000000)), cityId, passwordHash, SALT, null, User.ACTIVE, 0,
+				timestamp(created), timestamp(created), membership));
+	}
+
+	/*
+	 * Membresía mínima que admite la cantidad de servicios; si cualquiera la admite se elige según las fracciones
+	 * configuradas.
+	 */
+	private String membership(int services) {
+		double draw = random.nextDouble();
+		if (services > spec.getSilverAllowance() || draw < spec.getGoldProviders())
+			return MEMBERSHIPS[2];
+		if (services > spec.getFreeAllowance() || draw < spec.getGoldProviders() + spec.getSilverProviders())
+			return MEMBERSHIPS[1];
+		return MEMBERSHIPS[0];
+	}
+
+	private int allowance(String membership) {
+		switch (membership) {
+			case "ORO": return spec.getGoldAllowance();
+			case "PLATA": return spec.getSilverAllowance();
+			default: return spec.getFreeAllowance();
+		}
+	}
+
+	/* Índice de usuario final sesgado hacia los primeros índices según customerSkew */
+	private int randomCustomer() {
+		return (int) (spec.getCustomers() * Math.pow(random.nextDouble(), spec.getCustomerSkew()));
+	}
+
+	/* Valoraciones sesgadas hacia los valores altos, como en producción */
+	private int randomRating() {
+		double u = random.nextDouble();
+		return Math.min(RatingSummary.MAX_RATING, RatingSummary.MIN_RATING + (int) (RatingSummary.MAX_RATING * (1 - u * u)));
+	}
+
+	/* Fecha aleatoria entre from y la fecha de referencia */
+	private DateTime randomDate(DateTime from) {
+		int minutes = (int) ((spec.getReferenceDate().getMillis() - from.getMillis()) / 60000);
+		return from.plusMinutes(minutes > 0 ? random.nextInt(Math.min(minutes, MINUTES_PER_YEAR)) : 0);
+	}
+
+	/* Elige uno de los valores según los pesos que lo siguen (valor, peso, valor, peso...) */
+	private String pick(Object... weightedValues) {
+		int total = 0;
+		for (int i = 1; i < weightedValues.length; i += 2)
+			total += (Integer) weightedValues[i];
+		int draw = random.nextInt(total);
+		for (int i = 1; i < weightedValues.length; i += 2) {
+			draw -= (Integer) weightedValues[i];
+			if (draw < 0)
+				return (String) weightedValues[i - 1];
+		}
+		throw new IllegalStateException();
+	}
+
+	private void flushIfFull() throws SQLException {
+		for (Batch batch : batches) {
+			if (batch.pending >= spec.getBatchSize()) {
+				flush();
+				return;
+			}
+		}
+	}
+
+	/* Ejecuta todos los lotes pendientes en el orden de las claves foráneas y confirma la transacción */
+	private void flush() throws SQLException {
+		for (Batch batch : batches)
+			batch.execute();
+		connection.commit();
+	}
+
+	/*
+	 * Las filas se insertan con identificadores explícitos, por lo que las secuencias de las columnas IDENTITY
+	 * se adelantan al máximo generado para que la aplicación pueda seguir insertando.
+	 */
+	private void resetIdentities() throws SQLException {
+		boolean postgreSQL = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgresql");
+		Object[][] identities = {
+				{ "direccion", "id_direccion", spec.getCustomers() }, { "servicio", "id_servicio", serviceId },
+				{ "mensaje", "id_mensaje", messageId }, { "presupuesto", "id_presupuesto", quoteId },
+				{ "contrato", "id_contrato", contractId } };
+		try (Statement statement = connection.createStatement()) {
+			for (Object[] identity : identities) {
+				int max = (Integer) identity[2];
+				if (postgreSQL)
+					statement.execute("SELECT setval(pg_get_serial_sequence('" + identity[0] + "', '" + identity[1]
+							+ "'), " + Math.max(max, 1) + ", " + (max > 0) + ")");
+				else
+					statement.execute("ALTER TABLE " + identity[0] + " ALTER COLUMN " + identity[1]
+							+ " RESTART WITH " + (max + 1));
+			}
+		}
+	}
+
+	private Batch batch(String table, String... columns) throws SQLException {
+		StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (")
+				.append(String.join(", ", columns)).append(") VALUES (");
+		for (int i = 0; i < columns.length; i++)
+			sql.append(i > 0 ? ", ?" : "?");
+		Batch batch = new Batch(table, connection.prepareStatement(sql.append(")").toString()));
+		batches.add(batch);
+		return batch;
+	}
+
+	private static String[] withRatingColumns(String... columns) {
+		String[] result = new String[columns.length + 2 + RatingSummary.MAX_RATING];
+		System.arraycopy(columns, 0, result, 0, columns.length);
+		result[columns.length] = "valoracion_cantidad";
+		result[columns.length + 1] = "valoracion_suma";
+		for (int i = RatingSummary.MIN_RATING; i <= RatingSummary.MAX_RATING; i++)
+			result[columns.length + 1 + i] = "valoracion_" + i;
+		return result;
+	}
+
+	private static Object[] withRatingValues(RatingSummary rating, Object... values) {
+		Object[] result = Arrays.copyOf(values, values.length + 2 + RatingSummary.MAX_RATING);
+		int offset = values.length;
+		result[offset] = rating.getCantidad();
+		result[offset + 1] = rating.getSuma();
+		for (int i = RatingSummary.MIN_RATING; i <= RatingSummary.MAX_RATING; i++)
+			result[offset + 1 + i] = rating.getCantidad(i);
+		return result;
+	}
+
+	private static String cityId(int city) {
+		return "ciudad_" + city;
+	}
+
+	private int districtId(int city, int district) {
+		return city * spec.getDistrictsPerCity() + district + 1;
+	}
+
+	private static String customerId(int customer) {
+		return "cliente" + customer;
+	}
+
+	private static String providerRole(String membership) {
+		return "USUARIO_PRESTADOR_" + membership;
+	}
+
+	private static Timestamp timestamp(DateTime date) {
+		return date != null ? new Timestamp(date.getMillis()) : null;
+	}
+
+	/*
+	 * Sentencia preparada con su lote pendiente.
+	 */
+	private static class Batch {
+		private final String table;
+		private final PreparedStatement statement;
+		private int pending;
+		private long rows;
+
+		Batch(String table, PreparedStatement statement) {
+			this.table = table;
+			this.statement = statement;
+		}
+
+		void add(Object... values) throws SQLException {
+			for (int i = 0; i < values.length; i++)
+				statement.setObject(i + 1, values[i]);
+			statement.addBatch();
+			pending++;
+		}
+
+		void execute() throws SQLException {
+			if (pending > 0) {
+				statement.executeBatch();
+				rows += pending;
+				pending = 0;
+			}
+		}
+	}
+}
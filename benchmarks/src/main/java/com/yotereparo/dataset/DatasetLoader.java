@@ -0,0 +1,76 @@
+package com.yotereparo.dataset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBuilder;
+
+/**
+ * Carga un dataset sintético en una base de datos H2 o PostgreSQL. Se configura con propiedades de sistema:
+ *
+ * 		dataset.jdbc.url, dataset.jdbc.user, dataset.jdbc.password	conexión (por defecto, H2 en archivo)
+ * 		dataset.createSchema=true	crea el esquema a partir del modelo antes de cargar (hbm2ddl create)
+ * 		dataset.*	parámetros del dataset (ver DatasetSpec)
+ *
+ * Los servicios permitidos por membresía se toman de application.properties.
+ *
+ * @author Rodrigo Yanis
+ */
+public class DatasetLoader {
+
+	public static void main(String[] args) throws SQLException, IOException {
+		Properties properties = new Properties();
+		try (InputStream input = DatasetLoader.class.getResourceAsStream("/application.properties")) {
+			Properties application = new Properties();
+			application.load(input);
+			for (String membership : new String[] { "gratuita", "plata", "oro" })
+				properties.setProperty("dataset." + allowanceProperty(membership),
+						application.getProperty("membership.service.creation.allowance." + membership));
+		}
+		properties.putAll(System.getProperties());
+
+		String url = properties.getProperty("dataset.jdbc.url",
+				"jdbc:h2:file:./target/dataset;MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE");
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(url,
+				properties.getProperty("dataset.jdbc.user", "sa"), properties.getProperty("dataset.jdbc.password", ""));
+
+		if (Boolean.parseBoolean(properties.getProperty("dataset.createSchema", "false")))
+			createSchema(dataSource, url.startsWith("jdbc:postgresql")
+					? "org.hibernate.dialect.PostgreSQL9Dialect" : "org.hibernate.dialect.H2Dialect");
+
+		DatasetSpec spec = DatasetSpec.fromProperties(properties);
+		long start = System.currentTimeMillis();
+		try (Connection connection = dataSource.getConnection()) {
+			// La configuración de logging de los benchmarks solo registra advertencias: el resumen va a la salida estándar
+			System.out.println(spec);
+			System.out.println(new DatasetGenerator(spec).generate(connection));
+		}
+		System.out.println("Dataset loaded in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/* Crea el esquema de la aplicación sobre el DataSource a partir del mapeo del modelo */
+	public static void createSchema(DataSource dataSource, String dialect) {
+		LocalSessionFactoryBuilder builder = new LocalSessionFactoryBuilder(dataSource);
+		builder.scanPackages("com.yotereparo.model");
+		builder.setProperty("hibernate.dialect", dialect);
+		builder.setProperty("hibernate.hbm2ddl.auto", "create");
+		try (SessionFactory sessionFactory = builder.buildSessionFactory()) {
+			// El esquema se crea al construir la SessionFactory
+		}
+	}
+
+	private static String allowanceProperty(String membership) {
+		switch (membership) {
+			case "oro": return "goldAllowance";
+			case "plata": return "silverAllowance";
+			default: return "freeAllowance";
+		}
+	}
+}
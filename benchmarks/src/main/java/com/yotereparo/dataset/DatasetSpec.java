@@ -0,0 +1,224 @@
+package com.yotereparo.dataset;
+
+import java.util.Properties;
+
+import org.joda.time.DateTime;
+
+/**
+ * Parámetros del dataset sintético: semilla, cardinalidades y distribuciones. Los valores por defecto aproximan
+ * las proporciones de producción a escala reducida; fromProperties() permite redefinirlos (p.ej. con -D).
+ *
+ * @author Rodrigo Yanis
+ */
+public class DatasetSpec {
+
+	private long seed = 42;
+	/* Fecha de referencia del dataset: las fechas generadas caen en el año anterior a ella */
+	private DateTime referenceDate = new DateTime(2021, 1, 1, 0, 0);
+	/* Contraseña en claro de todos los usuarios generados, para poder autenticarse en las pruebas de carga */
+	private String password = "YoTeReparo123";
+	private int provinces = 5;
+	private int cities = 50;
+	private int districtsPerCity = 10;
+	private int providers = 10000;
+	private int customers = 50000;
+	/* Fracción de prestadores por membresía (el resto es GRATUITA) */
+	private double goldProviders = 0.05;
+	private double silverProviders = 0.25;
+	/* Servicios permitidos por membresía (membership.service.creation.allowance.*) */
+	private int freeAllowance = 3;
+	private int silverAllowance = 10;
+	private int goldAllowance = 1000;
+	private Distribution servicesPerProvider = Distribution.powerLaw(1, 500, 1.2);
+	private Distribution messagesPerService = Distribution.powerLaw(0, 2000, 1.1);
+	private Distribution quotesPerService = Distribution.powerLaw(0, 1000, 1.2);
+	/* Probabilidad de que un presupuesto aceptado termine en contrato */
+	private double contractRatio = 0.8;
+	/*
+	 * Sesgo de la actividad de los usuarios finales: el índice del usuario se obtiene como customers * u^skew,
+	 * con u uniforme en [0, 1). Con skew = 1 la actividad es uniforme; valores mayores concentran la actividad
+	 * en pocos usuarios (bandejas de entrada grandes).
+	 */
+	private double customerSkew = 3;
+	private int batchSize = 1000;
+
+	public static DatasetSpec fromProperties(Properties properties) {
+		DatasetSpec spec = new DatasetSpec();
+		String prefix = "dataset.";
+		for (String name : properties.stringPropertyNames()) {
+			if (!name.startsWith(prefix))
+				continue;
+			String value = properties.getProperty(name);
+			switch (name.substring(prefix.length())) {
+				case "seed": spec.seed = Long.parseLong(value); break;
+				case "referenceDate": spec.referenceDate = DateTime.parse(value); break;
+				case "password": spec.password = value; break;
+				case "provinces": spec.provinces = Integer.parseInt(value); break;
+				case "cities": spec.cities = Integer.parseInt(value); break;
+				case "districtsPerCity": spec.districtsPerCity = Integer.parseInt(value); break;
+				case "providers": spec.providers = Integer.parseInt(value); break;
+				case "customers": spec.customers = Integer.parseInt(value); break;
+				case "goldProviders": spec.goldProviders = Double.parseDouble(value); break;
+				case "silverProviders": spec.silverProviders = Double.parseDouble(value); break;
+				case "freeAllowance": spec.freeAllowance = Integer.parseInt(value); break;
+				case "silverAllowance": spec.silverAllowance = Integer.parseInt(value); break;
+				case "goldAllowance": spec.goldAllowance = Integer.parseInt(value); break;
+				case "servicesPerProvider": spec.servicesPerProvider = Distribution.parse(value); break;
+				case "messagesPerService": spec.messagesPerService = Distribution.parse(value); break;
+				case "quotesPerService": spec.quotesPerService = Distribution.parse(value); break;
+				case "contractRatio": spec.contractRatio = Double.parseDouble(value); break;
+				case "customerSkew": spec.customerSkew = Double.parseDouble(value); break;
+				case "batchSize": spec.batchSize = Integer.parseInt(value); break;
+				default:
+					// Propiedades de conexión (dataset.url, etc.): las interpreta DatasetLoader
+			}
+		}
+		return spec;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+	public DatasetSpec setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+	public DateTime getReferenceDate() {
+		return referenceDate;
+	}
+	public DatasetSpec setReferenceDate(DateTime referenceDate) {
+		this.referenceDate = referenceDate;
+		return this;
+	}
+	public String getPassword() {
+		return password;
+	}
+	public DatasetSpec setPassword(String password) {
+		this.password = password;
+		return this;
+	}
+	public int getProvinces() {
+		return provinces;
+	}
+	public DatasetSpec setProvinces(int provinces) {
+		this.provinces = provinces;
+		return this;
+	}
+	public int getCities() {
+		return cities;
+	}
+	public DatasetSpec setCities(int cities) {
+		this.cities = cities;
+		return this;
+	}
+	public int getDistrictsPerCity() {
+		return districtsPerCity;
+	}
+	public DatasetSpec setDistrictsPerCity(int districtsPerCity) {
+		this.districtsPerCity = districtsPerCity;
+		return this;
+	}
+	public int getProviders() {
+		return providers;
+	}
+	public DatasetSpec setProviders(int providers) {
+		this.providers = providers;
+		return this;
+	}
+	public int getCustomers() {
+		return customers;
+	}
+	public DatasetSpec setCustomers(int customers) {
+		this.customers = customers;
+		return this;
+	}
+	public double getGoldProviders() {
+		return goldProviders;
+	}
+	public DatasetSpec setGoldProviders(double goldProviders) {
+		this.goldProviders = goldProviders;
+		return this;
+	}
+	public double getSilverProviders() {
+		return silverProviders;
+	}
+	public DatasetSpec setSilverProviders(double silverProviders) {
+		this.silverProviders = silverProviders;
+		return this;
+	}
+	public int getFreeAllowance() {
+		return freeAllowance;
+	}
+	public DatasetSpec setFreeAllowance(int freeAllowance) {
+		this.freeAllowance = freeAllowance;
+		return this;
+	}
+	public int getSilverAllowance() {
+		return silverAllowance;
+	}
+	public DatasetSpec setSilverAllowance(int silverAllowance) {
+		this.silverAllowance = silverAllowance;
+		return this;
+	}
+	public int getGoldAllowance() {
+		return goldAllowance;
+	}
+	public DatasetSpec setGoldAllowance(int goldAllowance) {
+		this.goldAllowance = goldAllowance;
+		return this;
+	}
+	public Distribution getServicesPerProvider() {
+		return servicesPerProvider;
+	}
+	public DatasetSpec setServicesPerProvider(Distribution servicesPerProvider) {
+		this.servicesPerProvider = servicesPerProvider;
+		return this;
+	}
+	public Distribution getMessagesPerService() {
+		return messagesPerService;
+	}
+	public DatasetSpec setMessagesPerService(Distribution messagesPerService) {
+		this.messagesPerService = messagesPerService;
+		return this;
+	}
+	public Distribution getQuotesPerService() {
+		return quotesPerService;
+	}
+	public DatasetSpec setQuotesPerService(Distribution quotesPerService) {
+		this.quotesPerService = quotesPerService;
+		return this;
+	}
+	public double getContractRatio() {
+		return contractRatio;
+	}
+	public DatasetSpec setContractRatio(double contractRatio) {
+		this.contractRatio = contractRatio;
+		return this;
+	}
+	public double getCustomerSkew() {
+		return customerSkew;
+	}
+	public DatasetSpec setCustomerSkew(double customerSkew) {
+		this.customerSkew = customerSkew;
+		return this;
+	}
+	public int getBatchSize() {
+		return batchSize;
+	}
+	public DatasetSpec setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "DatasetSpec [seed=" + seed + ", referenceDate=" + referenceDate + ", provinces=" + provinces + ", cities=" + cities
+				+ ", districtsPerCity=" + districtsPerCity + ", providers=" + providers + ", customers=" + customers
+				+ ", goldProviders=" + goldProviders + ", silverProviders=" + silverProviders
+				+ ", freeAllowance=" + freeAllowance + ", silverAllowance=" + silverAllowance
+				+ ", goldAllowance=" + goldAllowance
+				+ ", servicesPerProvider=" + servicesPerProvider + ", messagesPerService=" + messagesPerService
+				+ ", quotesPerService=" + quotesPerService + ", contractRatio=" + contractRatio
+				+ ", customerSkew=" + customerSkew + ", batchSize=" + batchSize + "]";
+	}
+}
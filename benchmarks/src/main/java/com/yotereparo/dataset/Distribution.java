@@ -0,0 +1,89 @@
+package com.yotereparo.dataset;
+
+import java.util.Random;
+
+/**
+ * Distribución discreta de cantidades (servicios por prestador, mensajes por servicio, etc.) usada por el generador
+ * de datasets. Todas las muestras se toman del Random del generador, por lo que el dataset es reproducible.
+ *
+ * Formatos aceptados por parse():
+ * 		constant:N
+ * 		uniform:MIN:MAX
+ * 		powerlaw:MIN:MAX:ALFA	(Pareto acotada, alfa > 0; cuanto menor alfa, más pesada la cola)
+ *
+ * @author Rodrigo Yanis
+ */
+public abstract class Distribution {
+
+	public abstract int sample(Random random);
+
+	public static Distribution constant(int value) {
+		return new Distribution() {
+			public int sample(Random random) {
+				return value;
+			}
+			public String toString() {
+				return "constant:" + value;
+			}
+		};
+	}
+
+	public static Distribution uniform(int min, int max) {
+		if (min < 0 || max < min)
+			throw new IllegalArgumentException("Invalid uniform distribution bounds: " + min + ", " + max);
+		return new Distribution() {
+			public int sample(Random random) {
+				return min + random.nextInt(max - min + 1);
+			}
+			public String toString() {
+				return "uniform:" + min + ":" + max;
+			}
+		};
+	}
+
+	/*
+	 * Pareto acotada a [min, max] muestreada por inversión de la función de distribución. Con min = 0 se desplaza
+	 * el soporte a [1, max + 1] y se resta 1 a cada muestra, para admitir servicios sin mensajes.
+	 */
+	public static Distribution powerLaw(int min, int max, double alpha) {
+		if (min < 0 || max < min || alpha <= 0)
+			throw new IllegalArgumentException("Invalid power-law distribution: " + min + ", " + max + ", " + alpha);
+		final int offset = min == 0 ? 1 : 0;
+		final double low = Math.pow(min + offset, alpha);
+		final double high = Math.pow(max + offset, alpha);
+		return new Distribution() {
+			public int sample(Random random) {
+				double u = random.nextDouble();
+				double x = Math.pow(-(u * high - u * low - high) / (high * low), -1 / alpha);
+				return (int) Math.min(max, Math.max(min, Math.floor(x) - offset));
+			}
+			public String toString() {
+				return "powerlaw:" + min + ":" + max + ":" + alpha;
+			}
+		};
+	}
+
+	public static Distribution parse(String definition) {
+		String[] parts = definition.trim().split(":");
+		try {
+			switch (parts[0].toLowerCase()) {
+				case "constant":
+					if (parts.length == 2)
+						return constant(Integer.parseInt(parts[1]));
+					break;
+				case "uniform":
+					if (parts.length == 3)
+						return uniform(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+					break;
+				case "powerlaw":
+					if (parts.length == 4)
+						return powerLaw(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Double.parseDouble(parts[3]));
+					break;
+			}
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid distribution: " + definition, e);
+		}
+		throw new IllegalArgumentException("Invalid distribution: " + definition);
+	}
+}
@@ -0,0 +1,94 @@
+package com.yotereparo.security.jwt;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.yotereparo.security.service.UserDetailsImpl;
+
+/*
+ * Validación del token JWT de cada request autenticado: con el token ya verificado (cache de claims)
+ * y la primera vez que se presenta (verificación de la firma HS512).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+	private AnnotationConfigApplicationContext context;
+	private JwtUtils jwtUtils;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		Map<String, Object> properties = new HashMap<String, Object>();
+		properties.put("security.jwtSecret", "$svLcfq:NJANSLJqdCUz");
+		properties.put("security.jwtExpirationMs", "3600000");
+		properties.put("security.verifiedTokenCache.maxEntries", "10000");
+		context = new AnnotationConfigApplicationContext();
+		context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("jwt", properties));
+		context.register(JwtUtils.class);
+		context.refresh();
+		jwtUtils = context.getBean(JwtUtils.class);
+
+		UserDetailsImpl principal = new UserDetailsImpl("benchmark", "secret",
+				Collections.<GrantedAuthority>emptyList(), 0);
+		token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(principal, null));
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public boolean validateVerifiedToken() {
+		return jwtUtils.validateJwtToken(token);
+	}
+
+	@Benchmark
+	public boolean validateNewToken(EmptyCache emptyCache) {
+		return emptyCache.jwtUtils.validateJwtToken(emptyCache.token);
+	}
+
+	/*
+	 * Reinicia el cache de claims antes de cada invocación, para medir la verificación completa de la firma.
+	 */
+	@State(Scope.Thread)
+	public static class EmptyCache {
+		private JwtUtils jwtUtils;
+		private String token;
+
+		@Setup(Level.Iteration)
+		public void setUp(JwtUtilsBenchmark benchmark) {
+			jwtUtils = benchmark.jwtUtils;
+			token = benchmark.token;
+		}
+
+		@Setup(Level.Invocation)
+		public void clear() {
+			jwtUtils.init();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.yotereparo.service;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import com.yotereparo.configuration.BenchmarkConfiguration;
+import com.yotereparo.dataset.DatasetGenerator;
+import com.yotereparo.dataset.DatasetSpec;
+import com.yotereparo.dataset.Distribution;
+import com.yotereparo.model.Service;
+import com.yotereparo.util.pagination.PageRequest;
+
+/*
+ * Listado de servicios con filtros (ServiceManagerImpl.getAllServices) sobre H2: los filtros de texto se resuelven
+ * en el índice de búsqueda y su intersección, junto con el resto de los filtros, en una única consulta.
+ * El dataset se genera con DatasetGenerator (semilla fija), con <providers> prestadores de 1 a 10 servicios cada uno
+ * y sin mensajes ni presupuestos, que no intervienen en el listado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ServiceListingBenchmark {
+
+	@Param({ "1000" })
+	public int providers;
+
+	private AnnotationConfigApplicationContext context;
+	private ServiceManager serviceManager;
+	private PageRequest page;
+
+	@Setup
+	public void setUp() throws SQLException {
+		context = new AnnotationConfigApplicationContext(BenchmarkConfiguration.class);
+		DatasetSpec spec = new DatasetSpec()
+				.setCities(20)
+				.setProviders(providers)
+				.setCustomers(1)
+				.setServicesPerProvider(Distribution.uniform(1, 10))
+				.setGoldProviders(1)
+				.setMessagesPerService(Distribution.constant(0))
+				.setQuotesPerService(Distribution.constant(0));
+		try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+			new DatasetGenerator(spec).generate(connection);
+		}
+		serviceManager = context.getBean(ServiceManager.class);
+		serviceManager.rebuildSearchIndex();
+		page = new PageRequest(100, null);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<Service> firstPage() {
+		return serviceManager.getAllServices(page);
+	}
+
+	@Benchmark
+	public List<Service> cityFilter() {
+		return serviceManager.getAllServices(filters("city", "ciudad_3"), page);
+	}
+
+	@Benchmark
+	public List<Service> titleAndCityFilter() {
+		return serviceManager.getAllServices(filters("title", "plomeria", "city", "ciudad_3"), page);
+	}
+
+	@Benchmark
+	public List<Service> titleAndDescriptionFilter() {
+		return serviceManager.getAllServices(filters("title", "urgente", "description", "garantia"), page);
+	}
+
+	private static Map<String, String> filters(String... pairs) {
+		Map<String, String> filters = new HashMap<String, String>();
+		for (int i = 0; i + 1 < pairs.length; i += 2)
+			filters.put(pairs[i], pairs[i + 1]);
+		return filters;
+	}
+}
@@ -0,0 +1,38 @@
+package com.yotereparo.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * Hash de la contraseña (SHA3-256 de contraseña + salt) que se calcula en cada login y cambio de contraseña.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityUtilsBenchmark {
+
+	private String saltedPassword;
+
+	@Setup
+	public void setUp() {
+		saltedPassword = "contraseñaDeBenchmark" + SecurityUtils.saltGenerator();
+	}
+
+	@Benchmark
+	public String encryptPassword() {
+		return SecurityUtils.encryptPassword(saltedPassword);
+	}
+}
@@ -0,0 +1,75 @@
+package com.yotereparo.util.image;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.yotereparo.util.image.ImageResizer.ResizedImage;
+
+/*
+ * Redimensionamiento de la imagen de un servicio (imagen + thumbnail) que ejecutan los workers de imágenes
+ * antes de ServiceManagerImpl.updateServiceImageById, a partir de fotos JPEG de cámara de distintos tamaños.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ImageResizerBenchmark {
+
+	@Param({ "1600x1200", "4000x3000" })
+	public String source;
+
+	private byte[] image;
+	private int size;
+	private int thumbnailSize;
+
+	@Setup
+	public void setUp() throws IOException {
+		String[] dimensions = source.split("x");
+		image = jpeg(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+		size = 1000;
+		thumbnailSize = 100;
+	}
+
+	@Benchmark
+	public ResizedImage resizeServiceImage() throws IOException {
+		return ImageResizer.resize(image, size, thumbnailSize);
+	}
+
+	// Gradiente con ruido, para que el JPEG tenga una complejidad similar a la de una foto
+	private static byte[] jpeg(int width, int height) throws IOException {
+		BufferedImage picture = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = picture.createGraphics();
+		graphics.setPaint(new GradientPaint(0, 0, Color.ORANGE, width, height, Color.BLUE));
+		graphics.fillRect(0, 0, width, height);
+		graphics.dispose();
+		Random random = new Random(42);
+		for (int i = 0; i < width * height / 8; i++)
+			picture.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt(0xFFFFFF));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(picture, "jpg", out);
+		return out.toByteArray();
+	}
+}
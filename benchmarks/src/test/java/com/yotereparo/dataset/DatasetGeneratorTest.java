@@ -0,0 +1,101 @@
+package com.yotereparo.dataset;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/*
+ * Con la misma especificación, el generador produce el mismo dataset: mismas filas por tabla y mismo contenido.
+ * Cada generación usa su propia base H2 en memoria.
+ */
+public class DatasetGeneratorTest {
+
+	@Test
+	public void sameSeedGeneratesSameDataset() throws Exception {
+		Generated first = generate("determinism1", 7);
+		Generated second = generate("determinism2", 7);
+
+		Assert.assertEquals(second.rows, first.rows);
+		Assert.assertEquals(second.checksum, first.checksum);
+		Assert.assertTrue(first.rows.get("servicio") > 0);
+		Assert.assertTrue(first.rows.get("mensaje") > 0);
+	}
+
+	@Test
+	public void differentSeedGeneratesDifferentDataset() throws Exception {
+		Assert.assertNotEquals(generate("determinism3", 8).checksum, generate("determinism4", 7).checksum);
+	}
+
+	private static Generated generate(String database, long seed) throws SQLException, NoSuchAlgorithmException {
+		Properties properties = new Properties();
+		properties.setProperty("dataset.seed", String.valueOf(seed));
+		properties.setProperty("dataset.provinces", "2");
+		properties.setProperty("dataset.cities", "4");
+		properties.setProperty("dataset.districtsPerCity", "3");
+		properties.setProperty("dataset.providers", "20");
+		properties.setProperty("dataset.customers", "50");
+		properties.setProperty("dataset.servicesPerProvider", "powerlaw:1:20:1.2");
+		properties.setProperty("dataset.messagesPerService", "powerlaw:0:30:1.1");
+		properties.setProperty("dataset.quotesPerService", "uniform:0:10");
+		properties.setProperty("dataset.batchSize", "50");
+
+		SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+				"jdbc:h2:mem:" + database + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "", true);
+		try {
+			DatasetLoader.createSchema(dataSource, "org.hibernate.dialect.H2Dialect");
+			try (Connection connection = dataSource.getConnection()) {
+				Generated generated = new Generated();
+				generated.rows = new DatasetGenerator(DatasetSpec.fromProperties(properties)).generate(connection);
+				generated.checksum = checksum(connection, generated.rows);
+				return generated;
+			}
+		}
+		finally {
+			try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+				statement.execute("SHUTDOWN");
+			}
+			dataSource.destroy();
+		}
+	}
+
+	/*
+	 * Resumen SHA-256 del contenido de las tablas generadas, recorridas en orden de todas sus columnas.
+	 */
+	private static String checksum(Connection connection, Map<String, Long> rows) throws SQLException, NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		try (Statement statement = connection.createStatement()) {
+			for (String table : rows.keySet()) {
+				int columns;
+				try (ResultSet metadata = statement.executeQuery("SELECT * FROM " + table + " WHERE 1 = 0")) {
+					columns = metadata.getMetaData().getColumnCount();
+				}
+				StringBuilder orderBy = new StringBuilder("1");
+				for (int i = 2; i <= columns; i++)
+					orderBy.append(", ").append(i);
+				try (ResultSet resultSet = statement.executeQuery("SELECT * FROM " + table + " ORDER BY " + orderBy)) {
+					digest.update(table.getBytes(StandardCharsets.UTF_8));
+					while (resultSet.next())
+						for (int i = 1; i <= columns; i++)
+							digest.update(String.valueOf(resultSet.getObject(i)).concat("|").getBytes(StandardCharsets.UTF_8));
+				}
+			}
+		}
+		return Hex.toHexString(digest.digest());
+	}
+
+	private static class Generated {
+		Map<String, Long> rows;
+		String checksum;
+	}
+}
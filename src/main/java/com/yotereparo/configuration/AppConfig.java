@@ -1,9 +1,12 @@
 package com.yotereparo.configuration;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-import org.modelmapper.ModelMapper;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
@@ -12,32 +15,46 @@ import org.springframework.context.support.ResourceBundleMessageSource;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.orm.hibernate5.support.OpenSessionInViewInterceptor;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
-import com.yotereparo.controller.dto.ContractDto;
-import com.yotereparo.controller.dto.MessageDto;
-import com.yotereparo.controller.dto.QuoteDto;
-import com.yotereparo.controller.dto.ServiceDto;
-import com.yotereparo.controller.dto.UserDto;
-import com.yotereparo.model.Contract;
-import com.yotereparo.model.Message;
-import com.yotereparo.model.Quote;
-import com.yotereparo.model.Service;
-import com.yotereparo.model.User;
+import com.yotereparo.util.metrics.EndpointMetricsInterceptor;
  
 @Configuration
 @EnableWebMvc
+@EnableScheduling
 @ComponentScan(basePackages = "com.yotereparo")
 public class AppConfig implements WebMvcConfigurer {
 	
+	@Autowired
+	private SessionFactory sessionFactory;
+	@Autowired
+	private EndpointMetricsInterceptor endpointMetricsInterceptor;
+	
 	@Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/static/**").addResourceLocations("/static/");
     }
 	
+	/*
+	 * Las asociaciones de las entidades son LAZY: cada DAO carga el entity graph de su caso de uso y
+	 * la sesión se mantiene abierta durante el request para que los mappers resuelvan, en lotes, lo que efectivamente serializan.
+	 * El interceptor de métricas se registra primero para que su medición incluya al resto.
+	 */
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(endpointMetricsInterceptor);
+		OpenSessionInViewInterceptor openSessionInViewInterceptor = new OpenSessionInViewInterceptor();
+		openSessionInViewInterceptor.setSessionFactory(sessionFactory);
+		registry.addWebRequestInterceptor(openSessionInViewInterceptor);
+	}
+	
 	@Bean
     public MessageSource messageSource() {
         ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
@@ -47,9 +64,21 @@ public class AppConfig implements WebMvcConfigurer {
 	
 	public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
 	    converters.add(byteArrayHttpMessageConverter());
+	    converters.add(textPlainHttpMessageConverter());
 	    converters.add(mappingJackson2HttpMessageConverter());
 	}
 	
+	/*
+	 * Solo para respuestas text/plain (p. ej. /metrics): las respuestas JSON siguen resolviéndose con Jackson.
+	 */
+	@Bean
+	public StringHttpMessageConverter textPlainHttpMessageConverter() {
+		StringHttpMessageConverter stringHttpMessageConverter = new StringHttpMessageConverter(StandardCharsets.UTF_8);
+		stringHttpMessageConverter.setSupportedMediaTypes(Collections.singletonList(MediaType.TEXT_PLAIN));
+		stringHttpMessageConverter.setWriteAcceptCharset(false);
+		return stringHttpMessageConverter;
+	}
+	
 	@Bean
 	public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter() {
 		MappingJackson2HttpMessageConverter jackson2HttpMessageConverter = new MappingJackson2HttpMessageConverter();
@@ -63,62 +92,6 @@ public class AppConfig implements WebMvcConfigurer {
 	    return arrayHttpMessageConverter;
 	}
 	
-	@Bean
-	public ModelMapper modelMapper() {
-		ModelMapper modelMapper = new ModelMapper();
-		// UserDto -> User
-		modelMapper.createTypeMap(UserDto.class, User.class).addMappings(mapper -> {
-			mapper.skip(User::setCiudad);
-			mapper.skip(User::setServicios);
-		});
-		// User -> UserDto
-		modelMapper.createTypeMap(User.class, UserDto.class).addMappings(mapper -> {
-			mapper.map(src -> src.getCiudad().getId(), UserDto::setCiudad);
-			mapper.skip(UserDto::setServicios);
-		});
-		// ServiceDto -> Service
-		modelMapper.createTypeMap(ServiceDto.class, Service.class).addMappings(mapper -> {
-			mapper.skip(Service::setTipoServicio);
-			mapper.skip(Service::setUsuarioPrestador);
-		});
-		// Service -> ServiceDto
-		modelMapper.createTypeMap(Service.class, ServiceDto.class).addMappings(mapper -> {
-			mapper.map(src -> src.getTipoServicio().getDescripcion(), ServiceDto::setTipoServicio);
-			mapper.map(src -> src.getUsuarioPrestador().getId(), ServiceDto::setUsuarioPrestador);
-		});
-		// QuoteDto -> Quote
-		modelMapper.createTypeMap(QuoteDto.class, Quote.class).addMappings(mapper -> {
-			mapper.skip(Quote::setUsuarioFinal);
-			mapper.skip(Quote::setServicio);
-			mapper.skip(Quote::setContrato);
-		});
-		// Quote -> QuoteDto
-		modelMapper.createTypeMap(Quote.class, QuoteDto.class).addMappings(mapper -> {
-			mapper.map(src -> src.getUsuarioFinal().getId(), QuoteDto::setUsuarioFinal);
-			mapper.map(src -> src.getServicio().getId(), QuoteDto::setServicio);
-			mapper.skip(QuoteDto::setContrato);
-		});
-		// ContractDto -> Contract
-		modelMapper.createTypeMap(ContractDto.class, Contract.class).addMappings(mapper -> {
-			mapper.skip(Contract::setPresupuesto);
-		});
-		// Contract -> ContractDto
-		modelMapper.createTypeMap(Contract.class, ContractDto.class).addMappings(mapper -> {
-			mapper.map(src -> src.getPresupuesto().getId(), ContractDto::setPresupuesto);
-		});
-		// MessageDto -> Message
-		modelMapper.createTypeMap(MessageDto.class, Message.class).addMappings(mapper -> {
-			mapper.skip(Message::setUsuarioFinal);
-			mapper.skip(Message::setServicio);
-		});
-		// Message -> MessageDto
-		modelMapper.createTypeMap(Message.class, MessageDto.class).addMappings(mapper -> {
-			mapper.map(src -> src.getUsuarioFinal().getId(), MessageDto::setUsuarioFinal);
-			mapper.map(src -> src.getServicio().getId(), MessageDto::setServicio);
-		});
-	    return modelMapper;
-	}
-	 
 	private List<MediaType> getSupportedMediaTypes() {
 	    List<MediaType> list = new ArrayList<MediaType>();
 	    list.add(MediaType.IMAGE_JPEG);
@@ -0,0 +1,37 @@
+package com.yotereparo.configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.yotereparo.util.blob.BlobStore;
+import com.yotereparo.util.blob.FileSystemBlobStore;
+
+/**
+ * Selecciona el backend de almacenamiento de blobs (imágenes de Servicios y Usuarios)
+ * de acuerdo con la propiedad <blob.store.type>.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Configuration
+public class BlobStoreConfiguration {
+
+	@Autowired
+	private Environment environment;
+
+	@Bean
+	public BlobStore blobStore() throws IOException {
+		String type = environment.getRequiredProperty("blob.store.type");
+		switch (type) {
+			case "filesystem":
+				return new FileSystemBlobStore(Paths.get(environment.getRequiredProperty("blob.store.filesystem.root")));
+			default:
+				throw new IllegalStateException("Unsupported blob store type: " + type);
+		}
+	}
+}
@@ -1,6 +1,11 @@
 package com.yotereparo.configuration;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
  
@@ -11,10 +16,16 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.orm.hibernate5.HibernateTransactionManager;
 import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import com.yotereparo.util.datasource.ReadWriteRoutingDataSource;
+import com.yotereparo.util.metrics.ConnectionPoolMetrics;
+import com.yotereparo.util.metrics.QueryCounter;
+import com.yotereparo.util.transaction.ReadOnlyStatementGuard;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
  
 @Configuration
 @EnableTransactionManagement
@@ -24,6 +35,8 @@ public class HibernateConfiguration {
  
     @Autowired
     private Environment environment;
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
     
     @Bean
     public LocalSessionFactoryBean sessionFactory() {
@@ -34,14 +47,72 @@ public class HibernateConfiguration {
         return sessionFactory;
      }
      
-    @Bean
+    /*
+     * DataSource respaldado por un pool de conexiones (HikariCP), evitando abrir una conexión
+     * física a PostgreSQL por cada sesión de hibernate.
+     * Si se configuran réplicas (jdbc.replica.urls), cada una con su propio pool, las transacciones de solo lectura
+     * se envían a las réplicas y el resto del tráfico al primario (ReadWriteRoutingDataSource).
+     */
+    @Bean(destroyMethod = "close")
     public DataSource dataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(environment.getRequiredProperty("jdbc.driverClassName"));
-        dataSource.setUrl(environment.getRequiredProperty("jdbc.url"));
-        dataSource.setUsername(environment.getRequiredProperty("jdbc.username"));
-        dataSource.setPassword(environment.getRequiredProperty("jdbc.password"));
-        return dataSource;
+        String poolName = environment.getRequiredProperty("jdbc.pool.name");
+        HikariDataSource primary = connectionPool(poolName, environment.getRequiredProperty("jdbc.url"), false);
+        List<String> replicaUrls = replicaUrls();
+        if (replicaUrls.isEmpty())
+            return primary;
+        
+        Map<String, DataSource> replicas = new LinkedHashMap<String, DataSource>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String replicaPoolName = poolName + "-replica-" + (i + 1);
+            replicas.put(replicaPoolName, connectionPool(replicaPoolName, replicaUrls.get(i), true));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, 
+        		environment.getRequiredProperty("jdbc.replica.lag.query"), 
+        		environment.getRequiredProperty("jdbc.replica.lag.max.ms", Long.class));
+    }
+    
+    /*
+     * Las réplicas comparten credenciales y dimensionamiento con el primario, y sus conexiones son de solo lectura.
+     * Las métricas del pool (ConnectionPoolMetrics) corresponden al primario.
+     */
+    private HikariDataSource connectionPool(String poolName, String url, boolean replica) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setDriverClassName(environment.getRequiredProperty("jdbc.driverClassName").trim());
+        config.setJdbcUrl(url);
+        config.setReadOnly(replica);
+        config.setUsername(environment.getRequiredProperty("jdbc.username"));
+        config.setPassword(environment.getRequiredProperty("jdbc.password"));
+        
+        // Dimensionamiento y timeouts del pool
+        config.setMinimumIdle(environment.getRequiredProperty("jdbc.pool.minimumIdle", Integer.class));
+        config.setMaximumPoolSize(environment.getRequiredProperty("jdbc.pool.maximumPoolSize", Integer.class));
+        config.setConnectionTimeout(environment.getRequiredProperty("jdbc.pool.connectionTimeout.ms", Long.class));
+        config.setIdleTimeout(environment.getRequiredProperty("jdbc.pool.idleTimeout.ms", Long.class));
+        config.setMaxLifetime(environment.getRequiredProperty("jdbc.pool.maxLifetime.ms", Long.class));
+        // Validación de conexiones (JDBC4 Connection.isValid) y detección de conexiones no devueltas
+        config.setValidationTimeout(environment.getRequiredProperty("jdbc.pool.validationTimeout.ms", Long.class));
+        config.setLeakDetectionThreshold(environment.getRequiredProperty("jdbc.pool.leakDetectionThreshold.ms", Long.class));
+        
+        // Cache de prepared statements del lado del driver de PostgreSQL
+        config.addDataSourceProperty("prepareThreshold", 
+        		environment.getRequiredProperty("jdbc.pool.statementCache.prepareThreshold"));
+        config.addDataSourceProperty("preparedStatementCacheQueries", 
+        		environment.getRequiredProperty("jdbc.pool.statementCache.queries"));
+        config.addDataSourceProperty("preparedStatementCacheSizeMiB", 
+        		environment.getRequiredProperty("jdbc.pool.statementCache.sizeMiB"));
+        
+        config.setRegisterMbeans(true);
+        if (!replica)
+            config.setMetricsTrackerFactory(connectionPoolMetrics);
+        return new HikariDataSource(config);
+    }
+    
+    private List<String> replicaUrls() {
+        return Arrays.stream(environment.getProperty("jdbc.replica.urls", "").split(","))
+        		.map(String::trim)
+        		.filter(url -> !url.isEmpty())
+        		.collect(Collectors.toList());
     }
      
     private Properties hibernateProperties() {
@@ -50,6 +121,14 @@ public class HibernateConfiguration {
         properties.put("hibernate.show_sql", environment.getRequiredProperty("hibernate.show_sql"));
         properties.put("hibernate.format_sql", environment.getRequiredProperty("hibernate.format_sql"));
         properties.put("hibernate.temp.use_jdbc_metadata_defaults", environment.getRequiredProperty("hibernate.temp.use_jdbc_metadata_defaults"));
+        // Estadísticas globales (contadores) sin el log de métricas por sesión, y conteo de sentencias por request
+        properties.put("hibernate.generate_statistics", environment.getRequiredProperty("hibernate.generate_statistics"));
+        properties.put("hibernate.session.events.log", "false");
+        // Sin escrituras dentro de transacciones de solo lectura
+        properties.put("hibernate.session_factory.statement_inspector", new ReadOnlyStatementGuard(new QueryCounter()));
+        // Con réplicas, la conexión se libera al terminar cada transacción para que la siguiente se enrute de nuevo
+        if (!replicaUrls().isEmpty())
+            properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
         return properties;        
     }
      
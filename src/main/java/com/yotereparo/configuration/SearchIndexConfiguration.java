@@ -0,0 +1,34 @@
+package com.yotereparo.configuration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.yotereparo.util.search.InMemoryServiceSearchIndex;
+import com.yotereparo.util.search.ServiceSearchIndex;
+
+/**
+ * Selecciona la implementación del índice de búsqueda de Servicios de acuerdo con la propiedad <search.index.type>.
+ * El índice se construye al iniciar la aplicación desde ServiceManager.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Configuration
+public class SearchIndexConfiguration {
+
+	@Autowired
+	private Environment environment;
+
+	@Bean
+	public ServiceSearchIndex serviceSearchIndex() {
+		String type = environment.getRequiredProperty("search.index.type");
+		switch (type) {
+			case "memory":
+				return new InMemoryServiceSearchIndex();
+			default:
+				throw new IllegalStateException("Unsupported search index type: " + type);
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package com.yotereparo.configuration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.yotereparo.util.similarity.InMemoryServiceSimilarityIndex;
+import com.yotereparo.util.similarity.ServiceSimilarityIndex;
+
+/**
+ * Selecciona la implementación del índice de duplicados de Servicios de acuerdo con la propiedad <similarity.index.type>,
+ * con el umbral de similitud de contenido <similarity.threshold> (entre 0 y 1).
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Configuration
+public class SimilarityIndexConfiguration {
+
+	@Autowired
+	private Environment environment;
+
+	@Bean
+	public ServiceSimilarityIndex serviceSimilarityIndex() {
+		String type = environment.getRequiredProperty("similarity.index.type");
+		double threshold = environment.getRequiredProperty("similarity.threshold", Double.class);
+		switch (type) {
+			case "memory":
+				return new InMemoryServiceSimilarityIndex(threshold);
+			default:
+				throw new IllegalStateException("Unsupported similarity index type: " + type);
+		}
+	}
+}
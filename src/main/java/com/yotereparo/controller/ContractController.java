@@ -1,15 +1,17 @@
 package com.yotereparo.controller;
 
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -27,31 +29,38 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.yotereparo.controller.dto.ContractDto;
 import com.yotereparo.controller.dto.validation.ContractValidation;
+import com.yotereparo.controller.filter.ParticipantFilter;
 import com.yotereparo.controller.mapping.ContractMapper;
 import com.yotereparo.model.Contract;
-import com.yotereparo.model.Quote;
-import com.yotereparo.model.Service;
-import com.yotereparo.model.User;
+import com.yotereparo.security.RoleClassifier;
 import com.yotereparo.service.ContractService;
-import com.yotereparo.service.UserService;
 import com.yotereparo.util.MiscUtils;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.Cursor;
+import com.yotereparo.util.pagination.Page;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.pagination.PaginationUtils;
 /**
  * Controlador REST SpringMVC que expone servicios básicos para la gestión de Contratos.
  * 
  * @author Rodrigo Yanis
  * 
  */
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { PaginationUtils.NEXT_CURSOR_HEADER, HttpHeaders.LINK })
 @RestController
 public class ContractController {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ContractController.class);
 	
+	private static final Function<Contract, Cursor> pageKey = 
+			contract -> Cursor.of(contract.getFechaCreacion(), contract.getId());
+	
+	private static final String USER_ROLE_PARAMETER = "userRole";
+	
 	@Autowired
     ContractService contractService;
 	@Autowired
-    UserService userService;
+    RoleClassifier roleClassifier;
 	@Autowired
     MessageSource messageSource;
 	@Autowired
@@ -59,66 +68,82 @@ public class ContractController {
 	@Autowired
 	ContractMapper contractMapper;
 	@Autowired
+	ParticipantFilter supportedFilters;
+	@Autowired
 	MiscUtils miscUtils;
+	@Autowired
+	PaginationUtils paginationUtils;
 
 	/*
 	 * Devuelve todos los Contratos registradas en formato JSON.
+	 * Con <userRole> (customer/provider) se limita a los contratos del usuario autenticado en ese rol.
+	 * Admite los filtros <status> (estados separados por coma), <from> y <to> (fechas ISO 8601) y se pagina por cursor.
 	 */
 	@RequestMapping(
 			value = { "/contracts" }, 
 			produces = "application/json; charset=UTF-8", 
 			method = RequestMethod.GET)
 	@PreAuthorize("hasAuthority('USUARIO_FINAL')")
-	public ResponseEntity<?> listContracts(@RequestParam(required = false) String userRole) {
+	public ResponseEntity<?> listContracts(@RequestParam(required = false) Map<String,String> parameters,
+			@RequestParam(required = false) String userRole,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String after) {
 		logger.info("ListContracts - GET - Processing request for a list with all existing contracts.");
         try {
-        	Set<Contract> contracts = new HashSet<Contract>(0);
+        	PageRequest page = paginationUtils.getPageRequest(limit, after);
+        	if (page == null) {
+        		logger.warn("ListContracts - GET - Request failed - Invalid pagination parameters.");
+        		FieldError error = new FieldError("Contract","error",
+        				messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+        		return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+        	}
+        	
+        	Map<String,String> filters = (parameters != null) ? 
+        			new HashMap<String,String>(parameters) : new HashMap<String,String>();
+        	filters.remove(USER_ROLE_PARAMETER);
+        	filters.remove(PaginationUtils.LIMIT_PARAMETER);
+        	filters.remove(PaginationUtils.AFTER_PARAMETER);
+        	if (!filters.isEmpty() && !supportedFilters.contains(filters)) {
+        		logger.warn("ListContracts - GET - Request failed - Unsupported filters.");
+        		FieldError error = new FieldError("Contract","error",
+        				messageSource.getMessage("unsupported.filters", null, Locale.getDefault()));
+        		return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+        	}
+        	
+        	List<Contract> contracts = null;
         	
         	String authenticatedUsername = 
-					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-			User authenticatedUser = userService.getUserById(authenticatedUsername);
-			
-			if (userRole == null || userRole.isEmpty()) {
-				if (userService.isServiceAccountOrAdministrator(authenticatedUser))
-					contracts = new HashSet<Contract>(contractService.getAllContracts());
-				else {
-					logger.warn("ListContracts - GET - Request failed - User <{}> doesn't have access to all contracts.", 
-							authenticatedUsername);
-					FieldError error = new FieldError("Authorization","error",
-							messageSource.getMessage("client.error.unauthorized", null, Locale.getDefault()));
-					return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.FORBIDDEN);
-				}
-			}
-			else if ("customer".equalsIgnoreCase(userRole)) {
-				logger.debug("Fetching all contracts of customer: <{}>", authenticatedUsername);
-				for(Quote quote : authenticatedUser.getPresupuestos()) {
-					Contract contract = quote.getContrato();
-					if (contract != null) {
-						contractService.refreshContractStatus(contract);
-						contracts.add(contract);
-					}
-				}
-			}
-			else if ("provider".equalsIgnoreCase(userRole)) {
-				logger.debug("Fetching all contracts of provider: <{}>", authenticatedUsername);
-				for (Service service : authenticatedUser.getServicios())
-					for(Quote quote : service.getPresupuestos()) {
-						Contract contract = quote.getContrato();
-						if (contract != null) {
-							contractService.refreshContractStatus(contract);
-							contracts.add(contract);
-						}
-					}
-			}
-            
-        	if (contracts != null && !contracts.isEmpty()) {
+        			((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
+        	
+        	if (userRole == null || userRole.isEmpty()) {
+        		if (roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication()))
+        			contracts = contractService.getAllContracts(filters, page);
+        		else {
+        			logger.warn("ListContracts - GET - Request failed - User <{}> doesn't have access to all contracts.", 
+        					authenticatedUsername);
+        			FieldError error = new FieldError("Authorization","error",
+        					messageSource.getMessage("client.error.unauthorized", null, Locale.getDefault()));
+        			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.FORBIDDEN);
+        		}
+        	}
+        	else if ("customer".equalsIgnoreCase(userRole)) {
+        		logger.debug("Fetching contracts of customer: <{}>", authenticatedUsername);
+        		contracts = contractService.getContractsByCustomer(authenticatedUsername, filters, page);
+        	}
+        	else if ("provider".equalsIgnoreCase(userRole)) {
+        		logger.debug("Fetching contracts of provider: <{}>", authenticatedUsername);
+        		contracts = contractService.getContractsByProvider(authenticatedUsername, filters, page);
+        	}
+        	
+        	Page<Contract> contractPage = Page.of(contracts, page, pageKey);
+        	if (!contractPage.isEmpty()) {
 				
-				List<ContractDto> contractsDto = contracts.stream()
+				List<ContractDto> contractsDto = contractPage.getItems().stream()
 		                .map(contract -> contractMapper.convertToDto(contract))
 		                .collect(Collectors.toList());
 				
 	        	logger.info("ListContracts - GET - Exiting method, providing response resource to client.");
-	            return new ResponseEntity<List<ContractDto>>(contractsDto, HttpStatus.OK);
+	            return new ResponseEntity<List<ContractDto>>(
+	            		contractsDto, paginationUtils.getPaginationHeaders(contractPage), HttpStatus.OK);
             }
             else {
             	logger.warn("ListContracts - GET - Request failed - No contracts were found.");
@@ -153,7 +178,7 @@ public class ContractController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = 
     					contract.getPresupuesto().getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = 
@@ -206,7 +231,7 @@ public class ContractController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = 
     					contract.getPresupuesto().getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			
@@ -268,7 +293,7 @@ public class ContractController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = 
     					contract.getPresupuesto().getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = 
@@ -325,7 +350,7 @@ public class ContractController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = 
     					contract.getPresupuesto().getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = 
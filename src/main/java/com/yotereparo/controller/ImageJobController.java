@@ -0,0 +1,92 @@
+package com.yotereparo.controller;
+
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.yotereparo.security.RoleClassifier;
+import com.yotereparo.service.ImageProcessingService;
+import com.yotereparo.service.UserService;
+import com.yotereparo.util.MiscUtils;
+import com.yotereparo.util.image.ImageJob;
+/**
+ * Controlador REST SpringMVC que expone el estado de los trabajos de procesamiento de imágenes.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+public class ImageJobController {
+
+	private static final Logger logger = LoggerFactory.getLogger(ImageJobController.class);
+
+	@Autowired
+	ImageProcessingService imageProcessingService;
+	@Autowired
+	UserService userService;
+	@Autowired
+	RoleClassifier roleClassifier;
+	@Autowired
+    MessageSource messageSource;
+	@Autowired
+	MiscUtils miscUtils;
+
+	/*
+	 * Devuelve el estado del trabajo de procesamiento de imagen. Sólo puede ser consultado por quien lo solicitó,
+	 * o por cuentas de servicio y administradores.
+	 */
+	@RequestMapping(
+			value = { "/images/jobs/{id}" },
+			produces = "application/json; charset=UTF-8",
+			method = RequestMethod.GET)
+	@PreAuthorize("isAuthenticated()")
+	public ResponseEntity<?> getImageJob(@PathVariable("id") String id) {
+		logger.info("GetImageJob - GET - Processing request for image job <{}>.", id);
+        try {
+        	ImageJob job = imageProcessingService.getJobById(id);
+        	if (job != null) {
+        		String authenticatedUsername =
+    					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
+        		if (authenticatedUsername.equalsIgnoreCase(job.getSolicitante()) ||
+        				roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication())) {
+        			logger.info("GetImageJob - GET - Exiting method, providing response resource to client.");
+        			return new ResponseEntity<ImageJob>(job, HttpStatus.OK);
+        		}
+        		else {
+        			logger.warn("GetImageJob - GET - Request failed - User <{}> doesn't have access to image job <{}>.",
+        					authenticatedUsername, id);
+        			FieldError error = new FieldError("Authorization","error",
+        					messageSource.getMessage("client.error.unauthorized", null, Locale.getDefault()));
+        			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.FORBIDDEN);
+        		}
+        	}
+        	else {
+        		logger.warn("GetImageJob - GET - Request failed - Image job with id <{}> not found.", id);
+        		FieldError error = new FieldError("ImageJob","error",
+        				messageSource.getMessage("image.job.doesnt.exist", new String[]{id}, Locale.getDefault()));
+        		return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
+        	}
+        }
+		catch (Exception e) {
+			logger.error("GetImageJob - GET - Request failed - Error procesing request: ", e);
+			FieldError error = new FieldError("ImageJob","error",
+					messageSource.getMessage("server.error", null, Locale.getDefault()));
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
+}
@@ -1,9 +1,10 @@
 package com.yotereparo.controller;
 
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -29,32 +30,45 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import com.yotereparo.controller.dto.MessageDto;
 import com.yotereparo.controller.dto.validation.MessageValidation;
+import com.yotereparo.controller.filter.ParticipantFilter;
 import com.yotereparo.controller.mapping.MessageMapper;
 import com.yotereparo.model.Message;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
+import com.yotereparo.security.RoleClassifier;
 import com.yotereparo.service.MessageService;
 import com.yotereparo.service.ServiceManager;
 import com.yotereparo.service.UserService;
 import com.yotereparo.util.MiscUtils;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.Cursor;
+import com.yotereparo.util.pagination.Page;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.pagination.PaginationUtils;
 /**
  * Controlador REST SpringMVC que expone servicios básicos para la gestión de Mensajes.
  * 
  * @author Rodrigo Yanis
  * 
  */
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { PaginationUtils.NEXT_CURSOR_HEADER, HttpHeaders.LINK })
 @RestController
 public class MessageController {
 	
 	private static final Logger logger = LoggerFactory.getLogger(MessageController.class);
 	
+	private static final Function<Message, Cursor> pageKey = 
+			message -> Cursor.of(message.getFechaConsulta(), message.getId());
+	
+	private static final String USER_ROLE_PARAMETER = "userRole";
+	
 	@Autowired
     MessageService messageService;
 	@Autowired
     UserService userService;
 	@Autowired
+    RoleClassifier roleClassifier;
+	@Autowired
     ServiceManager serviceManager;
 	@Autowired
     MessageSource messageSource;
@@ -63,28 +77,55 @@ public class MessageController {
 	@Autowired
 	MessageMapper messageMapper;
 	@Autowired
+	ParticipantFilter supportedFilters;
+	@Autowired
 	MiscUtils miscUtils;
+	@Autowired
+	PaginationUtils paginationUtils;
 
 	/*
 	 * Devuelve todos los mensajes registrados en formato JSON.
+	 * Con <userRole> (customer/provider) se limita a los mensajes del usuario autenticado en ese rol.
+	 * Admite los filtros <status> (estados separados por coma), <from> y <to> (fechas ISO 8601) y se pagina por cursor.
 	 */
 	@RequestMapping(
 			value = { "/messages" }, 
 			produces = "application/json; charset=UTF-8", 
 			method = RequestMethod.GET)
 	@PreAuthorize("hasAuthority('USUARIO_FINAL')")
-	public ResponseEntity<?> listMessages(@RequestParam(required = false) String userRole) {
+	public ResponseEntity<?> listMessages(@RequestParam(required = false) Map<String,String> parameters,
+			@RequestParam(required = false) String userRole,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String after) {
 		logger.info("ListMessages - GET - Processing request for a list with all existing messages.");
 		try {
-			Set<Message> messages = new HashSet<Message>(0);
+			PageRequest page = paginationUtils.getPageRequest(limit, after);
+			if (page == null) {
+				logger.warn("ListMessages - GET - Request failed - Invalid pagination parameters.");
+				FieldError error = new FieldError("Message","error",
+						messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			Map<String,String> filters = (parameters != null) ? 
+					new HashMap<String,String>(parameters) : new HashMap<String,String>();
+			filters.remove(USER_ROLE_PARAMETER);
+			filters.remove(PaginationUtils.LIMIT_PARAMETER);
+			filters.remove(PaginationUtils.AFTER_PARAMETER);
+			if (!filters.isEmpty() && !supportedFilters.contains(filters)) {
+				logger.warn("ListMessages - GET - Request failed - Unsupported filters.");
+				FieldError error = new FieldError("Message","error",
+						messageSource.getMessage("unsupported.filters", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			List<Message> messages = null;
 			
 			String authenticatedUsername = 
 					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-			User authenticatedUser = userService.getUserById(authenticatedUsername);
 			
 			if (userRole == null || userRole.isEmpty()) {
-				if (userService.isServiceAccountOrAdministrator(authenticatedUser))
-					messages = new HashSet<Message>(messageService.getAllMessages());
+				if (roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication()))
+					messages = messageService.getAllMessages(filters, page);
 				else {
 					logger.warn("ListMessages - GET - Request failed - User <{}> doesn't have access to all messages.", 
 							authenticatedUsername);
@@ -94,22 +135,23 @@ public class MessageController {
 				}
 			}
 			else if ("customer".equalsIgnoreCase(userRole)) {
-				logger.debug("Fetching all messages made by user: <{}>", authenticatedUsername);
-				messages = authenticatedUser.getMensajes();
+				logger.debug("Fetching messages of customer: <{}>", authenticatedUsername);
+				messages = messageService.getMessagesByCustomer(authenticatedUsername, filters, page);
 			}
 			else if ("provider".equalsIgnoreCase(userRole)) {
-				logger.debug("Fetching all messages directed to user: <{}>", authenticatedUsername);
-				for (Service service : authenticatedUser.getServicios())
-					messages.addAll(service.getMensajes());
+				logger.debug("Fetching messages of provider: <{}>", authenticatedUsername);
+				messages = messageService.getMessagesByProvider(authenticatedUsername, filters, page);
 			}
 			
-			if (messages != null && !messages.isEmpty()) {
-				List<MessageDto> messagesDto = messages.stream()
+			Page<Message> messagePage = Page.of(messages, page, pageKey);
+			if (!messagePage.isEmpty()) {
+				List<MessageDto> messagesDto = messagePage.getItems().stream()
 		                .map(message -> messageMapper.convertToDto(message))
 		                .collect(Collectors.toList());
 				
 	        	logger.info("ListMessages - GET - Exiting method, providing response resource to client.");
-	            return new ResponseEntity<List<MessageDto>>(messagesDto, HttpStatus.OK);
+	            return new ResponseEntity<List<MessageDto>>(
+	            		messagesDto, paginationUtils.getPaginationHeaders(messagePage), HttpStatus.OK);
 	        }
 	        else {
 	        	logger.warn("ListMessages - GET - Request failed - No messages were found.");
@@ -144,7 +186,7 @@ public class MessageController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = message.getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = 
     					message.getServicio().getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
@@ -253,7 +295,7 @@ public class MessageController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndProvider = 
     					message.getServicio().getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
     			
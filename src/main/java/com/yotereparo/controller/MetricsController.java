@@ -0,0 +1,120 @@
+package com.yotereparo.controller;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.yotereparo.util.MiscUtils;
+import com.yotereparo.util.metrics.ConnectionPoolMetrics;
+import com.yotereparo.util.metrics.PrometheusMetricsExporter;
+import com.yotereparo.util.metrics.PrometheusTextWriter;
+import com.yotereparo.util.metrics.StatusTransitionMetrics;
+/**
+ * Controlador REST SpringMVC que expone métricas operativas de la aplicación.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+public class MetricsController {
+
+	private static final Logger logger = LoggerFactory.getLogger(MetricsController.class);
+
+	@Autowired
+	ConnectionPoolMetrics connectionPoolMetrics;
+	@Autowired
+	StatusTransitionMetrics statusTransitionMetrics;
+	@Autowired
+	PrometheusMetricsExporter prometheusMetricsExporter;
+	@Autowired
+    MessageSource messageSource;
+	@Autowired
+	MiscUtils miscUtils;
+
+	/*
+	 * Devuelve las métricas de la aplicación (endpoints, hibernate, pool de conexiones y cola de imágenes)
+	 * en el formato de texto de Prometheus, para ser recolectadas por un scraper.
+	 */
+	@RequestMapping(
+			value = { "/metrics" },
+			produces = PrometheusTextWriter.CONTENT_TYPE,
+			method = RequestMethod.GET)
+	@PreAuthorize("hasAuthority('SERVICE_ACCOUNT') or hasAuthority('ADMINISTRATOR')")
+	public ResponseEntity<?> scrapeMetrics() {
+		logger.debug("ScrapeMetrics - GET - Processing request for application metrics.");
+        try {
+        	String metrics = prometheusMetricsExporter.scrape();
+
+        	logger.debug("ScrapeMetrics - GET - Exiting method, providing response resource to client.");
+        	HttpHeaders headers = new HttpHeaders();
+        	headers.set(HttpHeaders.CONTENT_TYPE, PrometheusTextWriter.CONTENT_TYPE);
+            return new ResponseEntity<String>(metrics, headers, HttpStatus.OK);
+        }
+		catch (Exception e) {
+			logger.error("ScrapeMetrics - GET - Request failed - Error procesing request: ", e);
+			return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
+	
+	/*
+	 * Devuelve el estado del pool de conexiones JDBC (saturación, tiempos de espera y de uso) en formato JSON.
+	 */
+	@RequestMapping(
+			value = { "/metrics/pool" },
+			produces = "application/json; charset=UTF-8",
+			method = RequestMethod.GET)
+	@PreAuthorize("hasAuthority('SERVICE_ACCOUNT') or hasAuthority('ADMINISTRATOR')")
+	public ResponseEntity<?> getConnectionPoolMetrics() {
+		logger.info("GetConnectionPoolMetrics - GET - Processing request for connection pool metrics.");
+        try {
+        	Map<String, Object> snapshot = connectionPoolMetrics.getSnapshot();
+
+        	logger.info("GetConnectionPoolMetrics - GET - Exiting method, providing response resource to client.");
+            return new ResponseEntity<Map<String, Object>>(snapshot, HttpStatus.OK);
+        }
+		catch (Exception e) {
+			logger.error("GetConnectionPoolMetrics - GET - Request failed - Error procesing request: ", e);
+			FieldError error = new FieldError("Metrics","error",
+					messageSource.getMessage("server.error", null, Locale.getDefault()));
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
+	
+	/*
+	 * Devuelve la cantidad de registros que cambiaron de estado en la última ejecución del scheduler y el acumulado.
+	 */
+	@RequestMapping(
+			value = { "/metrics/transitions" },
+			produces = "application/json; charset=UTF-8",
+			method = RequestMethod.GET)
+	@PreAuthorize("hasAuthority('SERVICE_ACCOUNT') or hasAuthority('ADMINISTRATOR')")
+	public ResponseEntity<?> getStatusTransitionMetrics() {
+		logger.info("GetStatusTransitionMetrics - GET - Processing request for status transition metrics.");
+        try {
+        	Map<String, Object> snapshot = statusTransitionMetrics.getSnapshot();
+
+        	logger.info("GetStatusTransitionMetrics - GET - Exiting method, providing response resource to client.");
+            return new ResponseEntity<Map<String, Object>>(snapshot, HttpStatus.OK);
+        }
+		catch (Exception e) {
+			logger.error("GetStatusTransitionMetrics - GET - Request failed - Error procesing request: ", e);
+			FieldError error = new FieldError("Metrics","error",
+					messageSource.getMessage("server.error", null, Locale.getDefault()));
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
+}
@@ -1,9 +1,10 @@
 package com.yotereparo.controller;
 
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Set;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -29,30 +30,38 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import com.yotereparo.controller.dto.QuoteDto;
 import com.yotereparo.controller.dto.validation.QuoteValidation;
+import com.yotereparo.controller.filter.ParticipantFilter;
 import com.yotereparo.controller.mapping.QuoteMapper;
 import com.yotereparo.model.Quote;
-import com.yotereparo.model.Service;
-import com.yotereparo.model.User;
+import com.yotereparo.security.RoleClassifier;
 import com.yotereparo.service.QuoteService;
-import com.yotereparo.service.UserService;
 import com.yotereparo.util.MiscUtils;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.Cursor;
+import com.yotereparo.util.pagination.Page;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.pagination.PaginationUtils;
 /**
  * Controlador REST SpringMVC que expone servicios básicos para la gestión de Presupuestos.
  * 
  * @author Rodrigo Yanis
  * 
  */
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { PaginationUtils.NEXT_CURSOR_HEADER, HttpHeaders.LINK })
 @RestController
 public class QuoteController {
 	
 	private static final Logger logger = LoggerFactory.getLogger(QuoteController.class);
 	
+	private static final Function<Quote, Cursor> pageKey = 
+			quote -> Cursor.of(quote.getFechaCreacion(), quote.getId());
+	
+	private static final String USER_ROLE_PARAMETER = "userRole";
+	
 	@Autowired
     QuoteService quoteService;
 	@Autowired
-    UserService userService;
+    RoleClassifier roleClassifier;
 	@Autowired
     MessageSource messageSource;
 	@Autowired
@@ -60,28 +69,55 @@ public class QuoteController {
 	@Autowired
 	QuoteMapper quoteMapper;
 	@Autowired
+	ParticipantFilter supportedFilters;
+	@Autowired
 	MiscUtils miscUtils;
+	@Autowired
+	PaginationUtils paginationUtils;
 
 	/*
 	 * Devuelve todos los presupuestos registrados en formato JSON.
+	 * Con <userRole> (customer/provider) se limita a los presupuestos del usuario autenticado en ese rol.
+	 * Admite los filtros <status> (estados separados por coma), <from> y <to> (fechas ISO 8601) y se pagina por cursor.
 	 */
 	@RequestMapping(
 			value = { "/quotes" }, 
 			produces = "application/json; charset=UTF-8", 
 			method = RequestMethod.GET)
 	@PreAuthorize("hasAuthority('USUARIO_FINAL')")
-	public ResponseEntity<?> listQuotes(@RequestParam(required = false) String userRole) {
+	public ResponseEntity<?> listQuotes(@RequestParam(required = false) Map<String,String> parameters,
+			@RequestParam(required = false) String userRole,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String after) {
 		logger.info("ListQuotes - GET - Processing request for a list with all existing quotes.");
 		try {
-			Set<Quote> quotes = new HashSet<Quote>(0);
+			PageRequest page = paginationUtils.getPageRequest(limit, after);
+			if (page == null) {
+				logger.warn("ListQuotes - GET - Request failed - Invalid pagination parameters.");
+				FieldError error = new FieldError("Quote","error",
+						messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			Map<String,String> filters = (parameters != null) ? 
+					new HashMap<String,String>(parameters) : new HashMap<String,String>();
+			filters.remove(USER_ROLE_PARAMETER);
+			filters.remove(PaginationUtils.LIMIT_PARAMETER);
+			filters.remove(PaginationUtils.AFTER_PARAMETER);
+			if (!filters.isEmpty() && !supportedFilters.contains(filters)) {
+				logger.warn("ListQuotes - GET - Request failed - Unsupported filters.");
+				FieldError error = new FieldError("Quote","error",
+						messageSource.getMessage("unsupported.filters", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			List<Quote> quotes = null;
 			
 			String authenticatedUsername = 
 					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-			User authenticatedUser = userService.getUserById(authenticatedUsername);
 			
 			if (userRole == null || userRole.isEmpty()) {
-				if (userService.isServiceAccountOrAdministrator(authenticatedUser))
-					quotes = new HashSet<Quote>(quoteService.getAllQuotes());
+				if (roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication()))
+					quotes = quoteService.getAllQuotes(filters, page);
 				else {
 					logger.warn("ListQuotes - GET - Request failed - User <{}> doesn't have access to all quotes.", 
 							authenticatedUsername);
@@ -91,22 +127,23 @@ public class QuoteController {
 				}
 			}
 			else if ("customer".equalsIgnoreCase(userRole)) {
-				logger.debug("Fetching all quotes made by user: <{}>", authenticatedUsername);
-				quotes = authenticatedUser.getPresupuestos();
+				logger.debug("Fetching quotes of customer: <{}>", authenticatedUsername);
+				quotes = quoteService.getQuotesByCustomer(authenticatedUsername, filters, page);
 			}
 			else if ("provider".equalsIgnoreCase(userRole)) {
-				logger.debug("Fetching all quotes directed to user: <{}>", authenticatedUsername);
-				for (Service service : authenticatedUser.getServicios())
-					quotes.addAll(service.getPresupuestos());
+				logger.debug("Fetching quotes of provider: <{}>", authenticatedUsername);
+				quotes = quoteService.getQuotesByProvider(authenticatedUsername, filters, page);
 			}
 			
-			if (quotes != null && !quotes.isEmpty()) {
-				List<QuoteDto> quotesDto = quotes.stream()
+			Page<Quote> quotePage = Page.of(quotes, page, pageKey);
+			if (!quotePage.isEmpty()) {
+				List<QuoteDto> quotesDto = quotePage.getItems().stream()
 		                .map(quote -> quoteMapper.convertToDto(quote))
 		                .collect(Collectors.toList());
 				
 	        	logger.info("ListQuotes - GET - Exiting method, providing response resource to client.");
-	            return new ResponseEntity<List<QuoteDto>>(quotesDto, HttpStatus.OK);
+	            return new ResponseEntity<List<QuoteDto>>(
+	            		quotesDto, paginationUtils.getPaginationHeaders(quotePage), HttpStatus.OK);
 	        }
 	        else {
 	        	logger.warn("ListQuotes - GET - Request failed - No quotes were found.");
@@ -141,7 +178,7 @@ public class QuoteController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = quote.getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = 
     					quote.getServicio().getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
@@ -249,7 +286,7 @@ public class QuoteController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = quote.getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = 
     					quote.getServicio().getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
@@ -325,7 +362,7 @@ public class QuoteController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = quote.getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			
     			if (isServiceAccountOrAdministrator || isOwnerAndCustomer) {
@@ -380,7 +417,7 @@ public class QuoteController {
     			String authenticatedUsername = 
     					((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
     			boolean isServiceAccountOrAdministrator = 
-    					userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+    					roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
     			boolean isOwnerAndCustomer = quote.getUsuarioFinal().getId().equalsIgnoreCase(authenticatedUsername);
     			boolean isOwnerAndProvider = quote.getServicio().getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
     			
@@ -1,25 +1,19 @@
 package com.yotereparo.controller;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import javax.imageio.ImageIO;
-
-import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
-import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -33,6 +27,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -43,26 +38,39 @@ import com.yotereparo.controller.dto.validation.ServiceValidation;
 import com.yotereparo.controller.filter.ServiceFilter;
 import com.yotereparo.controller.mapping.ServiceMapper;
 import com.yotereparo.model.Service;
+import com.yotereparo.security.RoleClassifier;
+import com.yotereparo.service.ImageProcessingService;
+import com.yotereparo.service.RatingService;
 import com.yotereparo.service.ServiceManager;
-import com.yotereparo.service.UserService;
 import com.yotereparo.util.MiscUtils;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.error.MembershipAllowanceError;
+import com.yotereparo.util.error.SimilarServiceError;
+import com.yotereparo.util.image.ImageJob;
+import com.yotereparo.util.image.ImageResponseUtils;
+import com.yotereparo.util.pagination.Cursor;
+import com.yotereparo.util.pagination.Page;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.pagination.PaginationUtils;
 /**
  * Controlador REST SpringMVC que expone servicios básicos para la gestión de Servicios.
  * 
  * @author Rodrigo Yanis
  * 
  */
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { PaginationUtils.NEXT_CURSOR_HEADER, HttpHeaders.LINK })
 @RestController
 public class ServiceController {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ServiceController.class);
 	
+	private static final Function<Service, Cursor> pageKey = 
+			service -> Cursor.of(service.getFechaCreacion(), service.getId());
+	
 	@Autowired
     ServiceManager serviceManager;
 	@Autowired
-    UserService userService;
+    RoleClassifier roleClassifier;
 	@Autowired
     MessageSource messageSource;
 	@Autowired
@@ -73,21 +81,43 @@ public class ServiceController {
 	ServiceFilter supportedFilters;
 	@Autowired
 	MiscUtils miscUtils;
+	@Autowired
+	PaginationUtils paginationUtils;
+	@Autowired
+	ImageProcessingService imageProcessingService;
+	@Autowired
+	ImageResponseUtils imageResponseUtils;
+	@Autowired
+	RatingService ratingService;
 
 	/*
-	 * Devuelve todos los servicios registrados en formato JSON.
+	 * Devuelve los servicios registrados en formato JSON, paginados por cursor (parámetros <limit> y <after>).
 	 */
 	@RequestMapping(
 			value = { "/services" }, 
 			produces = "application/json; charset=UTF-8", 
 			method = RequestMethod.GET)
-	public ResponseEntity<?> listServices(@RequestParam(required = false) Map<String,String> filters) {
+	public ResponseEntity<?> listServices(@RequestParam(required = false) Map<String,String> parameters,
+			@RequestParam(required = false) Integer limit, @RequestParam(required = false) String after) {
 		logger.info("ListServices - GET - Processing request from all existing services.");
 		try {
+			PageRequest page = paginationUtils.getPageRequest(limit, after);
+			if (page == null) {
+				logger.warn("ListServices - GET - Request failed - Invalid pagination parameters.");
+				FieldError error = new FieldError("Service","error",
+						messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			Map<String,String> filters = (parameters != null) ? 
+					new HashMap<String,String>(parameters) : new HashMap<String,String>();
+			filters.remove(PaginationUtils.LIMIT_PARAMETER);
+			filters.remove(PaginationUtils.AFTER_PARAMETER);
+			
 			List<Service> services = null;
-			if (filters != null && !filters.isEmpty()) {
+			if (!filters.isEmpty()) {
 				if (supportedFilters.contains(filters))
-					services = serviceManager.getAllServices(filters);
+					services = serviceManager.getAllServices(filters, page);
 				else {
 					logger.warn("ListServices - GET - Request failed - Unsupported filters.");
 					FieldError error = new FieldError("Service","error",
@@ -96,15 +126,17 @@ public class ServiceController {
 				}
 			}
 			else
-				services = serviceManager.getAllServices();
+				services = serviceManager.getAllServices(page);
 			
-			if (services != null && !services.isEmpty()) {
-				List<ServiceDto> servicesDto = services.stream()
+			Page<Service> servicePage = Page.of(services, page, pageKey);
+			if (!servicePage.isEmpty()) {
+				List<ServiceDto> servicesDto = servicePage.getItems().stream()
 		                .map(service -> serviceMapper.convertToDto(service))
 		                .collect(Collectors.toList());
 				
 	        	logger.info("ListServices - GET - Exiting method, providing response resource to client.");
-	            return new ResponseEntity<List<ServiceDto>>(servicesDto, HttpStatus.OK);
+	            return new ResponseEntity<List<ServiceDto>>(
+	            		servicesDto, paginationUtils.getPaginationHeaders(servicePage), HttpStatus.OK);
 	        }
 	        else {
 	        	logger.warn("ListServices - GET - Request failed - No services were found.");
@@ -119,6 +151,53 @@ public class ServiceController {
 		}
     }
 	
+	/*
+	 * Devuelve en formato JSON hasta <limit> servicios que coinciden con el texto <q>, ordenados por relevancia.
+	 */
+	@RequestMapping(
+			value = { "/services/search" }, 
+			produces = "application/json; charset=UTF-8", 
+			method = RequestMethod.GET)
+	public ResponseEntity<?> searchServices(@RequestParam(required = false) String q,
+			@RequestParam(required = false) Integer limit) {
+		logger.info("SearchServices - GET - Processing request for services matching <{}>.", q);
+		try {
+			if (q == null || q.trim().isEmpty()) {
+				logger.warn("SearchServices - GET - Request failed - Empty search text.");
+				FieldError error = new FieldError("Service","q",
+						messageSource.getMessage("search.query.not.empty", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			PageRequest page = paginationUtils.getPageRequest(limit, null);
+			if (page == null) {
+				logger.warn("SearchServices - GET - Request failed - Invalid pagination parameters.");
+				FieldError error = new FieldError("Service","error",
+						messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			List<Service> services = serviceManager.searchServices(q, page.getLimit());
+			if (!services.isEmpty()) {
+				List<ServiceDto> servicesDto = services.stream()
+		                .map(service -> serviceMapper.convertToDto(service))
+		                .collect(Collectors.toList());
+				
+	        	logger.info("SearchServices - GET - Exiting method, providing response resource to client.");
+	            return new ResponseEntity<List<ServiceDto>>(servicesDto, HttpStatus.OK);
+	        }
+	        else {
+	        	logger.warn("SearchServices - GET - Request failed - No services were found.");
+	        	return new ResponseEntity<List<ServiceDto>>(HttpStatus.NO_CONTENT);
+	        }
+		}
+		catch (Exception e) {
+			logger.error("SearchServices - GET - Request failed - Error procesing request: ", e);
+			FieldError error = new FieldError("Service","error",
+					messageSource.getMessage("server.error", null, Locale.getDefault()));
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
+	
 	/*
 	 * Devuelve el servicio solicitado en formato JSON.
 	 */
@@ -129,11 +208,11 @@ public class ServiceController {
 	public ResponseEntity<?> getService(@PathVariable("id") Integer id) {
 		logger.info("GetService - GET - Processing request for service <{}>.", id);
         try {
-        	Service service = serviceManager.getServiceById(id);
+        	Service service = serviceManager.getServiceDetailById(id);
             
     		if (service != null) {
             	logger.info("GetService - GET - Exiting method, providing response resource to client.");
-                return new ResponseEntity<ServiceDto>(serviceMapper.convertToDto(service), HttpStatus.OK);
+                return new ResponseEntity<ServiceDto>(serviceMapper.convertToDetailDto(service), HttpStatus.OK);
             }
             else {
             	logger.warn("GetService - GET - Request failed - Service with id <{}> not found.", id);
@@ -150,6 +229,55 @@ public class ServiceController {
 		}
     }
 	
+	/*
+	 * Devuelve en formato JSON hasta <limit> servicios, de cualquier prestador, posiblemente duplicados del servicio 
+	 * solicitado, del más al menos similar. Pensado para la revisión de moderadores.
+	 */
+	@RequestMapping(
+			value = { "/services/{id}/duplicates" }, 
+			produces = "application/json; charset=UTF-8", 
+			method = RequestMethod.GET)
+	@PreAuthorize("hasAuthority('ADMINISTRATOR')")
+	public ResponseEntity<?> getNearDuplicateServices(@PathVariable("id") Integer id,
+			@RequestParam(required = false) Integer limit) {
+		logger.info("GetNearDuplicateServices - GET - Processing request for services similar to service <{}>.", id);
+		try {
+			PageRequest page = paginationUtils.getPageRequest(limit, null);
+			if (page == null) {
+				logger.warn("GetNearDuplicateServices - GET - Request failed - Invalid pagination parameters.");
+				FieldError error = new FieldError("Service","error",
+						messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+			}
+			
+			List<Service> services = serviceManager.getNearDuplicateServices(id, page.getLimit());
+			if (services == null) {
+				logger.warn("GetNearDuplicateServices - GET - Request failed - Service with id <{}> not found.", id);
+                FieldError error = new FieldError("Service","error",
+                		messageSource.getMessage("service.doesnt.exist", new Integer[]{id}, Locale.getDefault()));
+                return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
+			}
+			else if (!services.isEmpty()) {
+				List<ServiceDto> servicesDto = services.stream()
+		                .map(service -> serviceMapper.convertToDto(service))
+		                .collect(Collectors.toList());
+				
+	        	logger.info("GetNearDuplicateServices - GET - Exiting method, providing response resource to client.");
+	            return new ResponseEntity<List<ServiceDto>>(servicesDto, HttpStatus.OK);
+	        }
+	        else {
+	        	logger.warn("GetNearDuplicateServices - GET - Request failed - No similar services were found.");
+	        	return new ResponseEntity<List<ServiceDto>>(HttpStatus.NO_CONTENT);
+	        }
+		}
+		catch (Exception e) {
+			logger.error("GetNearDuplicateServices - GET - Request failed - Error procesing request: ", e);
+			FieldError error = new FieldError("Service","error",
+					messageSource.getMessage("server.error", null, Locale.getDefault()));
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
+	
 	/*
 	 * Crea un servicio con los valores del JSON payload recibido.
 	 */
@@ -170,40 +298,32 @@ public class ServiceController {
 			
 			// Setteamos el usuario prestador de acuerdo al usuario autenticado que está registrando el request.
 			clientInput.setUsuarioPrestador(authenticatedUsername);
-			if (userService.hasMembershipAllowance(userService.getUserById(authenticatedUsername))) {
-				if (!serviceValidation.validateRequest(clientInput, result).hasErrors()) {
-					Service service = serviceMapper.convertToEntity(clientInput);
-					if (!serviceManager.similarExist(service)) {
-						serviceManager.createService(service);
-						
-						HttpHeaders headers = new HttpHeaders();
-				        headers.setLocation(ucBuilder.path("/services/{id}").buildAndExpand(service.getId()).toUri());
-				        
-				        logger.info("CreateService - POST - Exiting method, providing response resource to client.");
-						return new ResponseEntity<>(headers, HttpStatus.CREATED);
-					}
-					else {
-						logger.warn("CreateService - POST - Request failed - Unable to create service. "
-								+ "Service <{}> is too similar to another service", service.getTitulo());
-			            FieldError error = new FieldError("Service","error",
-			            		messageSource.getMessage("service.too.similar", new String[]{service.getTitulo()}, Locale.getDefault()));
-			            return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.CONFLICT);
-					}
-				}
-				else {
-					logger.warn("CreateService - POST - Request failed - Input validation error(s) detected.");
-					return new ResponseEntity<>(miscUtils.getFormatedResponseErrorList(result), HttpStatus.BAD_REQUEST);
-				}
+			if (!serviceValidation.validateRequest(clientInput, result).hasErrors()) {
+				Service service = serviceMapper.convertToEntity(clientInput);
+				// La franquicia y la similitud se verifican en la transacción de alta, con el prestador bloqueado
+				serviceManager.createService(service);
+				
+				HttpHeaders headers = new HttpHeaders();
+		        headers.setLocation(ucBuilder.path("/services/{id}").buildAndExpand(service.getId()).toUri());
+		        
+		        logger.info("CreateService - POST - Exiting method, providing response resource to client.");
+				return new ResponseEntity<>(headers, HttpStatus.CREATED);
 			}
 			else {
-				logger.warn("CreateService - POST - Request failed - User <{}> can't create any more services.", 
-						authenticatedUsername);
-				FieldError error = new FieldError("User","membresia",
-						messageSource.getMessage("user.membership.insufficient.allowance", 
-								new String[]{authenticatedUsername}, Locale.getDefault()));
-				return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.FORBIDDEN);
+				logger.warn("CreateService - POST - Request failed - Input validation error(s) detected.");
+				return new ResponseEntity<>(miscUtils.getFormatedResponseErrorList(result), HttpStatus.BAD_REQUEST);
 			}
         }
+		catch (MembershipAllowanceError e) {
+			logger.warn("CreateService - POST - Request failed - User <{}> can't create any more services.", 
+					clientInput.getUsuarioPrestador());
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(e), HttpStatus.FORBIDDEN);
+		}
+		catch (SimilarServiceError e) {
+			logger.warn("CreateService - POST - Request failed - Unable to create service. "
+					+ "Service <{}> is too similar to another service", clientInput.getTitulo());
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(e), HttpStatus.CONFLICT);
+		}
 		catch (CustomResponseError e) {
 			logger.warn("CreateService - POST - Request failed - Validation error(s) detected.");
 			return new ResponseEntity<>(miscUtils.getFormatedResponseError(e), HttpStatus.BAD_REQUEST);
@@ -238,7 +358,7 @@ public class ServiceController {
 				String authenticatedUsername = 
 						((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
 				boolean isServiceAccountOrAdministrator = 
-						userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+						roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
 				boolean isOwnerProvider = 
 						service.getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
 				// Verificamos que el servicio siendo procesado le pertenezca al usuario autenticado
@@ -248,19 +368,11 @@ public class ServiceController {
 					clientInput.setUsuarioPrestador(service.getUsuarioPrestador().getId());
 					if (!serviceValidation.validateRequest(clientInput, result).hasErrors()) {
 						Service updatedService = serviceMapper.convertToEntity(clientInput);
-						if (!serviceManager.similarExist(updatedService)) {
-							serviceManager.updateService(updatedService);
-							
-							logger.info("UpdateService - PUT - Exiting method, providing response resource to client.");
-							return new ResponseEntity<ServiceDto>(serviceMapper.convertToDto(serviceManager.getServiceById(id)), HttpStatus.OK);
-						}
-						else {
-							logger.warn("UpdateService - PUT - Request failed - Unable to update service. "
-									+ "Service <{}> is too similar to another service", service.getTitulo());
-				            FieldError error = new FieldError("Service","error",
-				            		messageSource.getMessage("service.too.similar", new String[]{service.getTitulo()}, Locale.getDefault()));
-				            return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.CONFLICT);
-						}
+						// La similitud se verifica en la transacción de modificación, con el prestador bloqueado
+						serviceManager.updateService(updatedService);
+						
+						logger.info("UpdateService - PUT - Exiting method, providing response resource to client.");
+						return new ResponseEntity<ServiceDto>(serviceMapper.convertToDetailDto(serviceManager.getServiceById(id)), HttpStatus.OK);
 					}
 					else {
 						logger.warn("UpdateService - PUT - Request failed - Input validation error(s) detected.");
@@ -282,6 +394,11 @@ public class ServiceController {
 	            return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
 			}
 		}
+		catch (SimilarServiceError e) {
+			logger.warn("UpdateService - PUT - Request failed - Unable to update service. "
+					+ "Service <{}> is too similar to another service", clientInput.getTitulo());
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(e), HttpStatus.CONFLICT);
+		}
 		catch (CustomResponseError e) {
 			logger.warn("UpdateService - PUT - Request failed - Validation error(s) detected.");
 			return new ResponseEntity<>(miscUtils.getFormatedResponseError(e), HttpStatus.BAD_REQUEST);
@@ -313,7 +430,7 @@ public class ServiceController {
 				String authenticatedUsername = 
 						((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
 				boolean isServiceAccountOrAdministrator = 
-						userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+						roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
 				boolean isOwnerProvider = 
 						service.getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
 				// Verificamos que el servicio siendo procesado le pertenezca al usuario autenticado
@@ -365,7 +482,7 @@ public class ServiceController {
 				String authenticatedUsername = 
 						((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
 				boolean isServiceAccountOrAdministrator = 
-						userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+						roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
 				boolean isOwnerProvider = 
 						service.getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
 				// Verificamos que el servicio siendo procesado le pertenezca al usuario autenticado
@@ -438,45 +555,26 @@ public class ServiceController {
 			value = { "/services/{id}/photo", "/services/{id}/photo/thumbnail" }, 
 			produces = "application/json; charset=UTF-8",
 			method = RequestMethod.GET)
-    public ResponseEntity<?> getServiceImage(@PathVariable("id") Integer id) {
+    public ResponseEntity<?> getServiceImage(@PathVariable("id") Integer id, ServletWebRequest request) {
 		logger.info("GetServiceImage - GET - Processing request for service's <{}> image.", id);
 		try {
-			Service service = serviceManager.getServiceById(id);
-			if (service != null) {
-				// evaluamos el uri path del request para determinar si vamos a estar trabajando con la foto o con el thumbnail
-				String requestUri = ServletUriComponentsBuilder.fromCurrentRequestUri().toUriString();
-				byte[] serviceImage;
-	 			if (requestUri.contains("thumbnail")) {
-	 				serviceImage = service.getThumbnail();
-	 			}
-				else {
-					serviceImage = service.getImagen();
-				}
-	 			// procesamos el request
-	 			if (serviceImage != null) {
-					ByteArrayOutputStream bao = new ByteArrayOutputStream();
-			        InputStream is = new ByteArrayInputStream(serviceImage);
-			        BufferedImage img = ImageIO.read(is);
-			        ImageIO.write(img, "png", bao);
-			        
-			        HttpHeaders headers = new HttpHeaders();
-					headers.setCacheControl(CacheControl.noCache().getHeaderValue());
-					headers.setContentType(MediaType.IMAGE_PNG);
-					
-					serviceImage = bao.toByteArray();
-					bao.close();
-					img.flush();
-					
-					logger.info("GetServiceImage - GET - Exiting method, providing response resource to client.");
-					return new ResponseEntity<byte[]>(serviceImage, headers, HttpStatus.OK);
-				}
-				else {
-					logger.warn("GetServiceImage - GET - Request failed - Unable to fetch service's image. "
-							+ "No image was found for service <{}>.", id);
-		        	FieldError error = new FieldError("Service","imagen",
-		        			messageSource.getMessage("service.doesnt.have.image", new Integer[]{id}, Locale.getDefault()));
-		        	return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
-				}
+			// evaluamos el uri path del request para determinar si vamos a estar trabajando con la foto o con el thumbnail
+			String requestUri = ServletUriComponentsBuilder.fromCurrentRequestUri().toUriString();
+			// obtenemos únicamente la referencia a la imagen, sin hidratar el servicio
+			String serviceImage = serviceManager.getServiceImageHashById(id, requestUri.contains("thumbnail"));
+			if (serviceImage != null) {
+				imageResponseUtils.writeImage(serviceImage, request);
+				
+				logger.info("GetServiceImage - GET - Exiting method, providing response resource to client.");
+				// la respuesta ya fue escrita directamente desde el BlobStore
+				return null;
+			}
+			else if (serviceManager.getServiceById(id) != null) {
+				logger.warn("GetServiceImage - GET - Request failed - Unable to fetch service's image. "
+						+ "No image was found for service <{}>.", id);
+	        	FieldError error = new FieldError("Service","imagen",
+	        			messageSource.getMessage("service.doesnt.have.image", new Integer[]{id}, Locale.getDefault()));
+	        	return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
 	        }
 			else {
 				logger.warn("GetServiceImage - GET - Request failed - Unable to fetch service's image. "
@@ -495,8 +593,9 @@ public class ServiceController {
 	}
 	
 	/*
-	 * Actualiza la imagen (y su thumbnail) del servicio. 
+	 * Encola la actualización de la imagen (y su thumbnail) del servicio. 
 	 * El JSON payload es la foto codificada en un string base64.
+	 * Responde 202 con el trabajo de procesamiento, cuyo estado puede consultarse en /images/jobs/{id}.
 	 */
 	@RequestMapping(
 			value = { "/services/{id}/photo" }, 
@@ -507,7 +606,8 @@ public class ServiceController {
 			+ " or hasAuthority('USUARIO_PRESTADOR_PLATA')"
 			+ " or hasAuthority('USUARIO_PRESTADOR_ORO')"
 			+ " or hasAuthority('ADMINISTRATOR')")
-    public ResponseEntity<?> updateServiceImage(@PathVariable("id") Integer id, @RequestBody ObjectNode photoPayload) {
+    public ResponseEntity<?> updateServiceImage(@PathVariable("id") Integer id, @RequestBody ObjectNode photoPayload, 
+    		UriComponentsBuilder ucBuilder) {
 		logger.info("UpdateServiceImage - PUT - Processing request for service's <{}> image.", id);
 		// parseamos el json object recibido y generamos el byte array validando la estructura del request al mismo tiempo.
 		try { 
@@ -519,15 +619,24 @@ public class ServiceController {
 					String authenticatedUsername = 
 							((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
 					boolean isServiceAccountOrAdministrator = 
-							userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+							roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
 					boolean isOwnerProvider = 
 							service.getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
 					// Verificamos que el servicio siendo procesado le pertenezca al usuario autenticado
 					if (isServiceAccountOrAdministrator || isOwnerProvider) {
-						serviceManager.updateServiceImageById(id, Base64.getDecoder().decode(b64photo));
+						ImageJob job = imageProcessingService.submitServiceImage(
+								id, Base64.getDecoder().decode(b64photo), authenticatedUsername);
+						if (job == null) {
+							logger.warn("UpdateServiceImage - PUT - Request failed - Image processing queue is full.");
+							FieldError error = new FieldError("Service","foto",
+									messageSource.getMessage("image.processing.unavailable", null, Locale.getDefault()));
+							return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.SERVICE_UNAVAILABLE);
+						}
 						
+						HttpHeaders headers = new HttpHeaders();
+						headers.setLocation(ucBuilder.path("/images/jobs/{id}").buildAndExpand(job.getId()).toUri());
 						logger.info("UpdateServiceImage - PUT - Exiting method, providing response resource to client.");
-						return new ResponseEntity<String>(HttpStatus.OK);
+						return new ResponseEntity<ImageJob>(job, headers, HttpStatus.ACCEPTED);
 					}
 					else {
 						logger.warn("UpdateServiceImage - PUT - Request failed - Service <{}> doesn't belong to user <{}>.", 
@@ -585,12 +694,12 @@ public class ServiceController {
 				String authenticatedUsername = 
 						((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
 				boolean isServiceAccountOrAdministrator = 
-						userService.isServiceAccountOrAdministrator(userService.getUserById(authenticatedUsername));
+						roleClassifier.isServiceAccountOrAdministrator(SecurityContextHolder.getContext().getAuthentication());
 				boolean isOwnerProvider = 
 						service.getUsuarioPrestador().getId().equalsIgnoreCase(authenticatedUsername);
 				// Verificamos que el servicio siendo procesado le pertenezca al usuario autenticado
 				if (isServiceAccountOrAdministrator || isOwnerProvider) {
-					serviceManager.updateServiceImageById(id, null);
+					serviceManager.updateServiceImageById(id, null, null);
 					
 					logger.info("DeleteServiceImage - DELETE - Exiting method, providing response resource to client.");
 					return new ResponseEntity<String>(HttpStatus.OK);
@@ -617,4 +726,28 @@ public class ServiceController {
 			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
 		}
 	}
+	
+	/*
+	 * Reconstruye los resúmenes de valoraciones de servicios y prestadores a partir de los contratos valorados.
+	 */
+	@RequestMapping(
+			value = { "/services/ratings/rebuild" }, 
+			produces = "application/json; charset=UTF-8",
+			method = RequestMethod.POST)
+	@PreAuthorize("hasAuthority('ADMINISTRATOR')")
+	public ResponseEntity<?> rebuildRatingSummaries() {
+		logger.info("RebuildRatingSummaries - POST - Processing request for rating summaries rebuild.");
+		try {
+			ratingService.rebuildRatingSummaries();
+			
+			logger.info("RebuildRatingSummaries - POST - Exiting method, providing response resource to client.");
+			return new ResponseEntity<>(HttpStatus.OK);
+		}
+		catch (Exception e) {
+			logger.error("RebuildRatingSummaries - POST - Request failed - Error procesing request: ", e);
+			FieldError error = new FieldError("Service","error",
+					messageSource.getMessage("server.error", null, Locale.getDefault()));
+			return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.INTERNAL_SERVER_ERROR);
+		}
+    }
 }
@@ -1,26 +1,21 @@
 package com.yotereparo.controller;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.util.Base64;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import javax.imageio.ImageIO;
-
-import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
-import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -28,7 +23,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -39,9 +36,16 @@ import com.yotereparo.controller.dto.UserPasswordChangeDto;
 import com.yotereparo.controller.dto.validation.UserValidation;
 import com.yotereparo.controller.mapping.UserMapper;
 import com.yotereparo.model.User;
+import com.yotereparo.service.ImageProcessingService;
 import com.yotereparo.service.UserService;
 import com.yotereparo.util.MiscUtils;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.image.ImageJob;
+import com.yotereparo.util.image.ImageResponseUtils;
+import com.yotereparo.util.pagination.Cursor;
+import com.yotereparo.util.pagination.Page;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.pagination.PaginationUtils;
 
 /**
  * Controlador REST SpringMVC que expone servicios básicos para la gestión de Usuarios.
@@ -49,12 +53,15 @@ import com.yotereparo.util.error.CustomResponseError;
  * @author Rodrigo Yanis
  * 
  */
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = { PaginationUtils.NEXT_CURSOR_HEADER, HttpHeaders.LINK })
 @RestController
 public class UserController {
 	
 	private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 	
+	private static final Function<User, Cursor> pageKey = 
+			user -> Cursor.of(user.getFechaCreacion(), user.getId());
+	
 	@Autowired
     UserService userService;
 	@Autowired
@@ -65,6 +72,12 @@ public class UserController {
 	UserMapper userMapper;
 	@Autowired
 	MiscUtils miscUtils;
+	@Autowired
+	PaginationUtils paginationUtils;
+	@Autowired
+	ImageProcessingService imageProcessingService;
+	@Autowired
+	ImageResponseUtils imageResponseUtils;
 
 	/*
 	 * Devuelve todos los usuarios registrados en formato JSON.
@@ -74,19 +87,29 @@ public class UserController {
 			produces = "application/json; charset=UTF-8", 
 			method = RequestMethod.GET)
 	@PreAuthorize("hasAuthority('ADMINISTRATOR')")
-	public ResponseEntity<?> listUsers() {
+	public ResponseEntity<?> listUsers(@RequestParam(required = false) Integer limit, 
+			@RequestParam(required = false) String after) {
 		logger.info("ListUsers - GET - Processing request for a list with all existing users.");
         try {
-			List<User> users = userService.getAllUsers();
+        	PageRequest page = paginationUtils.getPageRequest(limit, after);
+        	if (page == null) {
+        		logger.warn("ListUsers - GET - Request failed - Invalid pagination parameters.");
+        		FieldError error = new FieldError("User","error",
+        				messageSource.getMessage("invalid.pagination", null, Locale.getDefault()));
+        		return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.BAD_REQUEST);
+        	}
+        	
+			Page<User> userPage = Page.of(userService.getAllUsers(page), page, pageKey);
 	        		
-			if (users != null && !users.isEmpty()) {
+			if (!userPage.isEmpty()) {
 				
-				List<UserDto> usersDto = users.stream()
+				List<UserDto> usersDto = userPage.getItems().stream()
 		                .map(user -> userMapper.convertToDto(user))
 		                .collect(Collectors.toList());
 				
 	        	logger.info("ListUsers - GET - Exiting method, providing response resource to client.");
-	            return new ResponseEntity<List<UserDto>>(usersDto, HttpStatus.OK);
+	            return new ResponseEntity<List<UserDto>>(
+	            		usersDto, paginationUtils.getPaginationHeaders(userPage), HttpStatus.OK);
 	        }
 	        else {
 	        	logger.warn("ListUsers - GET - Request failed - No users were found.");
@@ -112,7 +135,7 @@ public class UserController {
 	public ResponseEntity<?> getUser(@PathVariable("id") String id) {
 		logger.info("GetUser - GET - Processing request for user <{}>.", id);
         try {
-        	User user = userService.getUserById(id.toLowerCase());
+        	User user = userService.getUserProfileById(id.toLowerCase());
             
     		if (user != null) {
             	logger.info("GetUser - GET - Exiting method, providing response resource to client.");
@@ -309,47 +332,28 @@ public class UserController {
 			produces = "application/json; charset=UTF-8",
 			method = RequestMethod.GET)
 	@PreAuthorize("authentication.principal.username.equalsIgnoreCase(#id) or hasAuthority('ADMINISTRATOR')")
-    public ResponseEntity<?> getUserPhoto(@PathVariable("id") String id) {
+    public ResponseEntity<?> getUserPhoto(@PathVariable("id") String id, ServletWebRequest request) {
 		id = id.toLowerCase();
 		logger.info("GetUserPhoto - GET - Processing request for user's <{}> photo.", id);
 		try {
-			User user = userService.getUserById(id);
-			if (user != null) {			
-				// Evaluamos el uri path del request para determinar si vamos a estar trabajando 
-				// con la foto o con el thumbnail
-				String requestUri = ServletUriComponentsBuilder.fromCurrentRequestUri().toUriString();
-				byte[] userPhoto;
-	 			if (requestUri.contains("thumbnail")) {
-	 				userPhoto = user.getThumbnail();
-	 			}
-				else {
-					userPhoto = user.getFoto();
-				}
-	 			// procesamos el request
-	 			if (userPhoto != null) {
-					ByteArrayOutputStream bao = new ByteArrayOutputStream();
-			        InputStream is = new ByteArrayInputStream(userPhoto);
-			        BufferedImage img = ImageIO.read(is);
-			        ImageIO.write(img, "png", bao);
-			        
-			        HttpHeaders headers = new HttpHeaders();
-					headers.setCacheControl(CacheControl.noCache().getHeaderValue());
-					headers.setContentType(MediaType.IMAGE_PNG);
-					
-					userPhoto = bao.toByteArray();
-					bao.close();
-					img.flush();
-					
-					logger.info("GetUserPhoto - GET - Exiting method, providing response resource to client.");
-					return new ResponseEntity<byte[]>(userPhoto, headers, HttpStatus.OK);
-				}
-				else {
-					logger.warn("GetUserPhoto - GET - Request failed - Unable to fetch user's photo. "
-							+ "No photo was found for user <{}>.", id);
-		        	FieldError error = new FieldError("User","foto",
-		        			messageSource.getMessage("user.doesnt.have.photo", new String[]{id}, Locale.getDefault()));
-		        	return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
-				}
+			// Evaluamos el uri path del request para determinar si vamos a estar trabajando 
+			// con la foto o con el thumbnail
+			String requestUri = ServletUriComponentsBuilder.fromCurrentRequestUri().toUriString();
+			// Obtenemos únicamente la referencia a la foto, sin hidratar el usuario
+			String userPhoto = userService.getUserPhotoHashById(id, requestUri.contains("thumbnail"));
+			if (userPhoto != null) {
+				imageResponseUtils.writeImage(userPhoto, request);
+				
+				logger.info("GetUserPhoto - GET - Exiting method, providing response resource to client.");
+				// La respuesta ya fue escrita directamente desde el BlobStore
+				return null;
+			}
+			else if (userService.getUserById(id) != null) {
+				logger.warn("GetUserPhoto - GET - Request failed - Unable to fetch user's photo. "
+						+ "No photo was found for user <{}>.", id);
+	        	FieldError error = new FieldError("User","foto",
+	        			messageSource.getMessage("user.doesnt.have.photo", new String[]{id}, Locale.getDefault()));
+	        	return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.NOT_FOUND);
 	        }
 			else {
 				logger.warn("GetUserPhoto - GET - Request failed - Unable to fetch user's photo. User <{}> doesn't exist.", id);
@@ -367,8 +371,9 @@ public class UserController {
 	}
 	
 	/*
-	 * Actualiza la foto (y su thumbnail) del usuario. 
+	 * Encola la actualización de la foto (y su thumbnail) del usuario. 
 	 * El JSON payload es la foto codificada en un string base64.
+	 * Responde 202 con el trabajo de procesamiento, cuyo estado puede consultarse en /images/jobs/{id}.
 	 */
 	@RequestMapping(
 			value = { "/users/{id}/photo" }, 
@@ -376,7 +381,8 @@ public class UserController {
 			produces = "application/json; charset=UTF-8",
 			method = RequestMethod.PUT)
 	@PreAuthorize("authentication.principal.username.equalsIgnoreCase(#id) or hasAuthority('ADMINISTRATOR')")
-    public ResponseEntity<?> updateUserPhoto(@PathVariable("id") String id, @RequestBody ObjectNode photoPayload) {
+    public ResponseEntity<?> updateUserPhoto(@PathVariable("id") String id, @RequestBody ObjectNode photoPayload, 
+    		UriComponentsBuilder ucBuilder) {
 		id = id.toLowerCase();
 		logger.info("UpdateUserPhoto - PUT - Processing request for user's <{}> photo.", id);
 		// parseamos el json object recibido y generamos el byte array validando la estructura del request al mismo tiempo.
@@ -385,10 +391,21 @@ public class UserController {
 			if (jsonPhotoPayload != null) {
 				byte[] b64photo = jsonPhotoPayload.asText().getBytes();
 				if (userService.getUserById(id) != null) {
-					userService.updateUserPhotoById(id, Base64.getDecoder().decode(b64photo));
+					String authenticatedUsername = 
+							((UserDetails)SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
+					ImageJob job = imageProcessingService.submitUserPhoto(
+							id, Base64.getDecoder().decode(b64photo), authenticatedUsername);
+					if (job == null) {
+						logger.warn("UpdateUserPhoto - PUT - Request failed - Image processing queue is full.");
+						FieldError error = new FieldError("User","foto",
+								messageSource.getMessage("image.processing.unavailable", null, Locale.getDefault()));
+						return new ResponseEntity<>(miscUtils.getFormatedResponseError(error), HttpStatus.SERVICE_UNAVAILABLE);
+					}
 					
+					HttpHeaders headers = new HttpHeaders();
+					headers.setLocation(ucBuilder.path("/images/jobs/{id}").buildAndExpand(job.getId()).toUri());
 					logger.info("UpdateUserPhoto - PUT - Exiting method, providing response resource to client.");
-					return new ResponseEntity<String>(HttpStatus.OK);
+					return new ResponseEntity<ImageJob>(job, headers, HttpStatus.ACCEPTED);
 		        }
 				else {
 					logger.warn("UpdateUserPhoto - PUT - Request failed - Unable to update user's photo. "
@@ -432,7 +449,7 @@ public class UserController {
 		logger.info("DeleteUserPhoto - DELETE - Processing request for user's <{}> photo.", id);
 		try {
 			if (userService.getUserById(id) != null) {
-				userService.updateUserPhotoById(id, null);
+				userService.updateUserPhotoById(id, null, null);
 				
 				logger.info("DeleteUserPhoto - DELETE - Exiting method, providing response resource to client.");
 				return new ResponseEntity<String>(HttpStatus.OK);
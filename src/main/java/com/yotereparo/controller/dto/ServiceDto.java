@@ -1,6 +1,7 @@
 package com.yotereparo.controller.dto;
 
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.validation.constraints.Digits;
@@ -45,6 +46,12 @@ public class ServiceDto {
 	@JsonProperty(access = Access.READ_ONLY)
 	private Float valoracionPromedio;
 	
+	@JsonProperty(access = Access.READ_ONLY)
+	private Integer cantidadValoraciones;
+	
+	@JsonProperty(access = Access.READ_ONLY)
+	private Map<Integer, Integer> distribucionValoraciones;
+	
 	@NotNull(message = "{service.insitu.not.null}")
 	private boolean insitu;
 	
@@ -153,6 +160,24 @@ public class ServiceDto {
 		this.valoracionPromedio = valoracionPromedio;
 	}
 
+	@JsonIgnore
+	public Integer getCantidadValoraciones() {
+		return cantidadValoraciones;
+	}
+
+	public void setCantidadValoraciones(Integer cantidadValoraciones) {
+		this.cantidadValoraciones = cantidadValoraciones;
+	}
+
+	@JsonIgnore
+	public Map<Integer, Integer> getDistribucionValoraciones() {
+		return distribucionValoraciones;
+	}
+
+	public void setDistribucionValoraciones(Map<Integer, Integer> distribucionValoraciones) {
+		this.distribucionValoraciones = distribucionValoraciones;
+	}
+
 	public boolean isInsitu() {
 		return insitu;
 	}
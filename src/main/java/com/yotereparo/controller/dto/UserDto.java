@@ -84,6 +84,12 @@ public class UserDto {
 	@Pattern(regexp = "GRATUITA|PLATA|ORO", flags = Pattern.Flag.CASE_INSENSITIVE, message = "{user.membresia.unsupported.value}")
 	private String membresia;
 	
+	@JsonProperty(access = Access.READ_ONLY)
+	private Float valoracionPromedio;
+	
+	@JsonProperty(access = Access.READ_ONLY)
+	private Integer cantidadValoraciones;
+	
 	@JsonProperty(access = Access.READ_ONLY)
 	private Set<Role> roles = new HashSet<Role>(0);
 	
@@ -237,6 +243,24 @@ public class UserDto {
 		this.membresia = (membresia != null && !membresia.isEmpty()) ? membresia.toUpperCase() : null;
 	}
 	
+	@JsonIgnore
+	public Float getValoracionPromedio() {
+		return valoracionPromedio;
+	}
+	
+	public void setValoracionPromedio(Float valoracionPromedio) {
+		this.valoracionPromedio = valoracionPromedio;
+	}
+	
+	@JsonIgnore
+	public Integer getCantidadValoraciones() {
+		return cantidadValoraciones;
+	}
+	
+	public void setCantidadValoraciones(Integer cantidadValoraciones) {
+		this.cantidadValoraciones = cantidadValoraciones;
+	}
+	
 	@JsonIgnore
 	public Set<Role> getRoles() {
 		return roles;
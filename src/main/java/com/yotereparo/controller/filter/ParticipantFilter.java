@@ -0,0 +1,11 @@
+package com.yotereparo.controller.filter;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class ParticipantFilter extends AbstractFilter {
+	
+	public ParticipantFilter() {
+		super.filters = new String[] {"status", "from", "to"};
+	}
+}
@@ -1,6 +1,5 @@
 package com.yotereparo.controller.mapping;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -18,18 +17,37 @@ import com.yotereparo.service.QuoteService;
 public class ContractMapper implements Mapper<Contract, ContractDto> {
 	
 	@Autowired
-    ModelMapper modelMapper;
-	@Autowired
 	QuoteService quoteService;
 	
 	@Override
 	public ContractDto convertToDto(Contract contract) {
-	    return modelMapper.map(contract, ContractDto.class);
+		ContractDto contractDto = new ContractDto();
+		contractDto.setId(contract.getId());
+		if (contract.getPresupuesto() != null)
+			contractDto.setPresupuesto(contract.getPresupuesto().getId());
+		contractDto.setFechaInicioEjecucion(contract.getFechaInicioEjecucion());
+		contractDto.setFechaFinEjecucion(contract.getFechaFinEjecucion());
+		contractDto.setPrecioFinal(contract.getPrecioFinal());
+		contractDto.setValoracion(contract.getValoracion());
+		contractDto.setDescripcionValoracion(contract.getDescripcionValoracion());
+		contractDto.setFechaValoracion(contract.getFechaValoracion());
+		contractDto.setFechaCreacion(contract.getFechaCreacion());
+		contractDto.setEstado(contract.getEstado());
+	    return contractDto;
 	}
 	
 	@Override
 	public Contract convertToEntity(ContractDto contractDto) {
-		Contract contract = modelMapper.map(contractDto, Contract.class);
+		Contract contract = new Contract();
+		contract.setId(contractDto.getId());
+		contract.setFechaInicioEjecucion(contractDto.getFechaInicioEjecucion());
+		contract.setFechaFinEjecucion(contractDto.getFechaFinEjecucion());
+		contract.setPrecioFinal(contractDto.getPrecioFinal());
+		contract.setValoracion(contractDto.getValoracion());
+		contract.setDescripcionValoracion(contractDto.getDescripcionValoracion());
+		contract.setFechaValoracion(contractDto.getFechaValoracion());
+		contract.setFechaCreacion(contractDto.getFechaCreacion());
+		contract.setEstado(contractDto.getEstado());
 		contract.setPresupuesto(quoteService.getQuoteById(contractDto.getPresupuesto()));
 	    return contract;
 	}
@@ -0,0 +1,23 @@
+package com.yotereparo.controller.mapping;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Utilidades compartidas por los conversores Entidad <-> DTO.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+final class MappingUtils {
+
+	private MappingUtils() { }
+
+	/*
+	 * Copia superficial de la colección: entidad y DTO no comparten la instancia del Set
+	 * (en particular, el DTO nunca retiene una colección administrada por Hibernate).
+	 */
+	static <T> Set<T> copyOf(Set<T> source) {
+		return (source != null) ? new HashSet<T>(source) : null;
+	}
+}
@@ -1,6 +1,5 @@
 package com.yotereparo.controller.mapping;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -19,20 +18,35 @@ import com.yotereparo.service.UserService;
 public class MessageMapper implements Mapper<Message, MessageDto> {
 	
 	@Autowired
-    ModelMapper modelMapper;
-	@Autowired
 	UserService userService;
 	@Autowired
 	ServiceManager serviceManager;
 	
 	@Override
 	public MessageDto convertToDto(Message message) {
-	    return modelMapper.map(message, MessageDto.class);
+		MessageDto messageDto = new MessageDto();
+		messageDto.setId(message.getId());
+		if (message.getServicio() != null)
+			messageDto.setServicio(message.getServicio().getId());
+		if (message.getUsuarioFinal() != null)
+			messageDto.setUsuarioFinal(message.getUsuarioFinal().getId());
+		messageDto.setFechaConsulta(message.getFechaConsulta());
+		messageDto.setFechaRespuesta(message.getFechaRespuesta());
+		messageDto.setConsulta(message.getConsulta());
+		messageDto.setRespuesta(message.getRespuesta());
+		messageDto.setEstado(message.getEstado());
+	    return messageDto;
 	}
 	
 	@Override
 	public Message convertToEntity(MessageDto messageDto) {
-		Message message = modelMapper.map(messageDto, Message.class);
+		Message message = new Message();
+		message.setId(messageDto.getId());
+		message.setFechaConsulta(messageDto.getFechaConsulta());
+		message.setFechaRespuesta(messageDto.getFechaRespuesta());
+		message.setConsulta(messageDto.getConsulta());
+		message.setRespuesta(messageDto.getRespuesta());
+		message.setEstado(messageDto.getEstado());
 		message.setServicio(serviceManager.getServiceById(messageDto.getServicio()));
 		message.setUsuarioFinal(userService.getUserById(messageDto.getUsuarioFinal()));
 	    return message;
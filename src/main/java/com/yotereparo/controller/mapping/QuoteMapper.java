@@ -1,6 +1,5 @@
 package com.yotereparo.controller.mapping;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -8,6 +7,7 @@ import com.yotereparo.controller.dto.QuoteDto;
 import com.yotereparo.model.Address;
 import com.yotereparo.model.Contract;
 import com.yotereparo.model.Quote;
+import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
 import com.yotereparo.service.ContractService;
 import com.yotereparo.service.ServiceManager;
@@ -23,8 +23,6 @@ import com.yotereparo.service.UserService;
 public class QuoteMapper implements Mapper<Quote, QuoteDto> {
 	
 	@Autowired
-    ModelMapper modelMapper;
-	@Autowired
 	UserService userService;
 	@Autowired
 	ServiceManager serviceManager;
@@ -33,8 +31,26 @@ public class QuoteMapper implements Mapper<Quote, QuoteDto> {
 	
 	@Override
 	public QuoteDto convertToDto(Quote quote) {
-		QuoteDto quoteDto = modelMapper.map(quote, QuoteDto.class);
-		quoteDto.setPrecioTotal(quote.getServicio().getPrecioMinimo(), quote.getServicio().getPrecioInsumos(), quote.getServicio().getPrecioAdicionales());
+		QuoteDto quoteDto = new QuoteDto();
+		quoteDto.setId(quote.getId());
+		if (quote.getUsuarioFinal() != null)
+			quoteDto.setUsuarioFinal(quote.getUsuarioFinal().getId());
+		quoteDto.setDescripcionSolicitud(quote.getDescripcionSolicitud());
+		quoteDto.setDescripcionRespuesta(quote.getDescripcionRespuesta());
+		quoteDto.setPrecioPresupuestado(quote.getPrecioPresupuestado());
+		quoteDto.setFechaInicioEjecucionPropuesta(quote.getFechaInicioEjecucionPropuesta());
+		quoteDto.setFechaFinEjecucionPropuesta(quote.getFechaFinEjecucionPropuesta());
+		quoteDto.setIncluyeInsumos(quote.isIncluyeInsumos());
+		quoteDto.setIncluyeAdicionales(quote.isIncluyeAdicionales());
+		quoteDto.setFechaSolicitud(quote.getFechaSolicitud());
+		quoteDto.setFechaRespuesta(quote.getFechaRespuesta());
+		quoteDto.setFechaCreacion(quote.getFechaCreacion());
+		quoteDto.setEstado(quote.getEstado());
+		quoteDto.setDireccionUsuarioFinal(quote.getDireccionUsuarioFinal());
+
+		Service service = quote.getServicio();
+		quoteDto.setServicio(service.getId());
+		quoteDto.setPrecioTotal(service.getPrecioMinimo(), service.getPrecioInsumos(), service.getPrecioAdicionales());
 		
 		Contract contract = quote.getContrato();
 		if (contract != null)
@@ -44,7 +60,19 @@ public class QuoteMapper implements Mapper<Quote, QuoteDto> {
 	
 	@Override
 	public Quote convertToEntity(QuoteDto quoteDto) {
-		Quote quote = modelMapper.map(quoteDto, Quote.class);
+		Quote quote = new Quote();
+		quote.setId(quoteDto.getId());
+		quote.setDescripcionSolicitud(quoteDto.getDescripcionSolicitud());
+		quote.setDescripcionRespuesta(quoteDto.getDescripcionRespuesta());
+		quote.setPrecioPresupuestado(quoteDto.getPrecioPresupuestado());
+		quote.setFechaInicioEjecucionPropuesta(quoteDto.getFechaInicioEjecucionPropuesta());
+		quote.setFechaFinEjecucionPropuesta(quoteDto.getFechaFinEjecucionPropuesta());
+		quote.setIncluyeInsumos(quoteDto.isIncluyeInsumos());
+		quote.setIncluyeAdicionales(quoteDto.isIncluyeAdicionales());
+		quote.setFechaSolicitud(quoteDto.getFechaSolicitud());
+		quote.setFechaRespuesta(quoteDto.getFechaRespuesta());
+		quote.setFechaCreacion(quoteDto.getFechaCreacion());
+		quote.setEstado(quoteDto.getEstado());
 		quote.setServicio(serviceManager.getServiceById(quoteDto.getServicio()));
 		
 		Integer contractId = quoteDto.getContrato();
@@ -3,7 +3,6 @@ package com.yotereparo.controller.mapping;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +11,7 @@ import com.yotereparo.controller.dto.ServiceDto;
 import com.yotereparo.model.Contract;
 import com.yotereparo.model.Message;
 import com.yotereparo.model.Quote;
+import com.yotereparo.model.RatingSummary;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.ServiceRatingEntry;
 import com.yotereparo.service.ServiceTypeService;
@@ -27,8 +27,6 @@ import com.yotereparo.service.UserService;
 public class ServiceMapper implements Mapper<Service, ServiceDto> {
 	
 	@Autowired
-    ModelMapper modelMapper;
-	@Autowired
 	UserService userService;
 	@Autowired
 	ServiceTypeService serviceTypeService;
@@ -37,34 +35,58 @@ public class ServiceMapper implements Mapper<Service, ServiceDto> {
 	
 	@Override
 	public ServiceDto convertToDto(Service service) {
-		ServiceDto serviceDto = modelMapper.map(service, ServiceDto.class);
-		// Cálculo de la valoración del servicio
+		ServiceDto serviceDto = new ServiceDto();
+		serviceDto.setId(service.getId());
+		if (service.getUsuarioPrestador() != null)
+			serviceDto.setUsuarioPrestador(service.getUsuarioPrestador().getId());
+		serviceDto.setTitulo(service.getTitulo());
+		serviceDto.setDescripcion(service.getDescripcion());
+		serviceDto.setDisponibilidad(service.getDisponibilidad());
+		serviceDto.setInsitu(service.isInsitu());
+		serviceDto.setPrecioMaximo(service.getPrecioMaximo());
+		serviceDto.setPrecioMinimo(service.getPrecioMinimo());
+		if (service.getPrecioMaximo() != null && service.getPrecioMinimo() != null)
+			serviceDto.setPrecioPromedio(service.getPrecioPromedio());
+		serviceDto.setPrecioInsumos(service.getPrecioInsumos());
+		serviceDto.setPrecioAdicionales(service.getPrecioAdicionales());
+		serviceDto.setHorasEstimadasEjecucion(service.getHorasEstimadasEjecucion());
+		serviceDto.setCantidadTrabajadores(service.getCantidadTrabajadores());
+		serviceDto.setFacturaEmitida(service.isFacturaEmitida());
+		if (service.getTipoServicio() != null)
+			serviceDto.setTipoServicio(service.getTipoServicio().getDescripcion());
+		serviceDto.setFechaCreacion(service.getFechaCreacion());
+		serviceDto.setEstado(service.getEstado());
+		serviceDto.setMediosDePago(MappingUtils.copyOf(service.getMediosDePago()));
+		serviceDto.setRequerimientos(MappingUtils.copyOf(service.getRequerimientos()));
+		// La valoración se toma del resumen desnormalizado del servicio, sin recorrer presupuestos y contratos
+		RatingSummary rating = service.getValoracion();
+		serviceDto.setValoracionPromedio(rating.getPromedio());
+		serviceDto.setCantidadValoraciones(rating.getCantidad());
+		serviceDto.setDistribucionValoraciones(rating.getDistribucion());
+	    // Hacemos pasar cada Mensaje por su respectivo converter para no omitir cualquier regla que se aplique en el mismo.
+	    Set<Message> mensajes = service.getMensajes();
+	    if (mensajes != null && !mensajes.isEmpty()) {
+	    	serviceDto.setMensajes(new HashSet<MessageDto>(mensajes.size() * 2));
+	    	for (Message msg : mensajes) {
+	    		serviceDto.addMensaje(messageMapper.convertToDto(msg));
+	    	}
+	    }
+	    return serviceDto;
+	}
+	
+	/*
+	 * Igual que convertToDto, agregando el detalle de cada valoración recibida (valor y descripción).
+	 * Recorre los presupuestos y contratos del servicio, por lo que se reserva para la vista de un único servicio.
+	 */
+	public ServiceDto convertToDetailDto(Service service) {
+		ServiceDto serviceDto = convertToDto(service);
 		Set<Quote> quotes = service.getPresupuestos();
 	    if (quotes != null && !quotes.isEmpty()) {
-	    	int ratedContracts = 0;
-			int accumulatedRating = 0;
 	    	for (Quote quote : quotes) {
 	    		Contract contract = quote.getContrato();
-				if (contract != null && contract.getValoracion() != null) {
-					// Agregamos la valoración al DTO de servicio.
+				if (contract != null && contract.getValoracion() != null)
 					serviceDto.addValoracion(
 							new ServiceRatingEntry(contract.getValoracion(), contract.getDescripcionValoracion()));
-					// Promediamos la valoración del servicio con las valoraciones de cada uno de sus contratos.
-					ratedContracts++;
-					accumulatedRating = accumulatedRating + contract.getValoracion();
-				}
-	    	}
-	    	if (ratedContracts != 0) {
-				serviceDto.setValoracionPromedio( 
-						(float) (Math.round(((float) accumulatedRating / (float) ratedContracts) * 10.0)/10.0));
-	    	}
-	    }
-	    // Hacemos pasar cada Mensaje por su respectivo converter para no omitir cualquier regla que se aplique en el mismo.
-	    Set<Message> mensajes = service.getMensajes();
-	    if (mensajes != null && !mensajes.isEmpty()) {
-	    	serviceDto.setMensajes(new HashSet<MessageDto>(0));
-	    	for (Message msg : mensajes) {
-	    		serviceDto.addMensaje(messageMapper.convertToDto(msg));
 	    	}
 	    }
 	    return serviceDto;
@@ -72,7 +94,27 @@ public class ServiceMapper implements Mapper<Service, ServiceDto> {
 	
 	@Override
 	public Service convertToEntity(ServiceDto serviceDto) {
-		Service service = modelMapper.map(serviceDto, Service.class);
+		Service service = new Service();
+		service.setId(serviceDto.getId());
+		service.setTitulo(serviceDto.getTitulo());
+		service.setDescripcion(serviceDto.getDescripcion());
+		service.setDisponibilidad(serviceDto.getDisponibilidad());
+		service.setInsitu(serviceDto.isInsitu());
+		service.setPrecioMaximo(serviceDto.getPrecioMaximo());
+		service.setPrecioMinimo(serviceDto.getPrecioMinimo());
+		if (serviceDto.getPrecioMaximo() != null && serviceDto.getPrecioMinimo() != null)
+			service.setPrecioPromedio(serviceDto.getPrecioPromedio());
+		service.setPrecioInsumos(serviceDto.getPrecioInsumos());
+		service.setPrecioAdicionales(serviceDto.getPrecioAdicionales());
+		service.setHorasEstimadasEjecucion(serviceDto.getHorasEstimadasEjecucion());
+		service.setCantidadTrabajadores(serviceDto.getCantidadTrabajadores());
+		service.setFacturaEmitida(serviceDto.isFacturaEmitida());
+		service.setFechaCreacion(serviceDto.getFechaCreacion());
+		service.setEstado(serviceDto.getEstado());
+		if (serviceDto.getMediosDePago() != null)
+			service.setMediosDePago(MappingUtils.copyOf(serviceDto.getMediosDePago()));
+		if (serviceDto.getRequerimientos() != null)
+			service.setRequerimientos(MappingUtils.copyOf(serviceDto.getRequerimientos()));
 		service.setUsuarioPrestador(userService.getUserById(serviceDto.getUsuarioPrestador().toLowerCase()));
 		service.setTipoServicio(serviceTypeService.getServiceTypeByDescription(serviceDto.getTipoServicio()));
 	    return service;
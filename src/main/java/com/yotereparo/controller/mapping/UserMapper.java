@@ -3,7 +3,6 @@ package com.yotereparo.controller.mapping;
 import java.util.HashSet;
 import java.util.Set;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -22,8 +21,6 @@ import com.yotereparo.service.CityService;
 @Component
 public class UserMapper implements Mapper<User, UserDto> {
 	
-	@Autowired
-    ModelMapper modelMapper;
 	@Autowired
     CityService cityService;
 	@Autowired 
@@ -33,11 +30,38 @@ public class UserMapper implements Mapper<User, UserDto> {
 	
 	@Override
 	public UserDto convertToDto(User user) {
-	    UserDto userDto = modelMapper.map(user, UserDto.class);
+	    UserDto userDto = new UserDto();
+	    userDto.setId(user.getId());
+	    userDto.setNombre(user.getNombre());
+	    userDto.setApellido(user.getApellido());
+	    userDto.setEmail(user.getEmail());
+	    userDto.setFechaNacimiento(user.getFechaNacimiento());
+	    userDto.setTelefonoPrincipal(user.getTelefonoPrincipal());
+	    userDto.setTelefonoAlternativo(user.getTelefonoAlternativo());
+	    if (user.getCiudad() != null)
+	    	userDto.setCiudad(user.getCiudad().getId());
+	    userDto.setContrasena(user.getContrasena());
+	    userDto.setDescripcion(user.getDescripcion());
+	    userDto.setEstado(user.getEstado());
+	    if (user.getIntentosIngreso() != null)
+	    	userDto.setIntentosIngreso(user.getIntentosIngreso());
+	    userDto.setFechaUltimoCambioContrasena(user.getFechaUltimoCambioContrasena());
+	    userDto.setFechaUltimoIngreso(user.getFechaUltimoIngreso());
+	    userDto.setFechaExpiracionContrasena(user.getFechaExpiracionContrasena());
+	    userDto.setFechaCreacion(user.getFechaCreacion());
+	    userDto.setMembresia(user.getMembresia());
+	    userDto.setRoles(MappingUtils.copyOf(user.getRoles()));
+	    userDto.setDirecciones(MappingUtils.copyOf(user.getDirecciones()));
+	    userDto.setBarrios(MappingUtils.copyOf(user.getBarrios()));
+	    // Valoración como prestador, a partir del resumen desnormalizado del usuario
+	    if (user.getValoracion().getCantidad() > 0) {
+	    	userDto.setValoracionPromedio(user.getValoracion().getPromedio());
+	    	userDto.setCantidadValoraciones(user.getValoracion().getCantidad());
+	    }
 	    // Hacemos pasar cada Servicio por su respectivo converter para no omitir cualquier regla que se aplique en el mismo.
 	    Set<Service> services = user.getServicios();
 	    if (services != null && !services.isEmpty()) {
-	    	userDto.setServicios(new HashSet<ServiceDto>(0));
+	    	userDto.setServicios(new HashSet<ServiceDto>(services.size() * 2));
 	    	for (Service serv : services) {
 	    		userDto.addServicio(serviceMapper.convertToDto(serv));
 	    	}
@@ -50,7 +74,29 @@ public class UserMapper implements Mapper<User, UserDto> {
 		// Quito ID a direcciones ya que estos son autogenerados
 		userDto.getDirecciones().forEach(direccion -> direccion.setId(null));
 		
-	    User user = modelMapper.map(userDto, User.class);
+	    User user = new User();
+	    user.setId(userDto.getId());
+	    user.setNombre(userDto.getNombre());
+	    user.setApellido(userDto.getApellido());
+	    user.setEmail(userDto.getEmail());
+	    user.setFechaNacimiento(userDto.getFechaNacimiento());
+	    user.setTelefonoPrincipal(userDto.getTelefonoPrincipal());
+	    user.setTelefonoAlternativo(userDto.getTelefonoAlternativo());
+	    user.setContrasena(userDto.getContrasena());
+	    user.setDescripcion(userDto.getDescripcion());
+	    user.setEstado(userDto.getEstado());
+	    user.setIntentosIngreso(userDto.getIntentosIngreso());
+	    user.setFechaUltimoCambioContrasena(userDto.getFechaUltimoCambioContrasena());
+	    user.setFechaUltimoIngreso(userDto.getFechaUltimoIngreso());
+	    user.setFechaExpiracionContrasena(userDto.getFechaExpiracionContrasena());
+	    user.setFechaCreacion(userDto.getFechaCreacion());
+	    user.setMembresia(userDto.getMembresia());
+	    if (userDto.getRoles() != null)
+	    	user.setRoles(MappingUtils.copyOf(userDto.getRoles()));
+	    if (userDto.getDirecciones() != null)
+	    	user.setDirecciones(MappingUtils.copyOf(userDto.getDirecciones()));
+	    if (userDto.getBarrios() != null)
+	    	user.setBarrios(MappingUtils.copyOf(userDto.getBarrios()));
 	    user.setCiudad(cityService.getCityById(userDto.getCiudad()));
 	    return user;
 	}
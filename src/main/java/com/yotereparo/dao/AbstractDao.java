@@ -3,11 +3,31 @@ package com.yotereparo.dao;
 import java.io.Serializable;
 
 import java.lang.reflect.ParameterizedType;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.SingularAttribute;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
+
 /**
  * Clase base para implementaciones de DAOs. 
  * Brinda wrappers comunes para operaciones con hibernate.
@@ -16,6 +36,9 @@ import org.springframework.beans.factory.annotation.Autowired;
  * 
  */
 public abstract class AbstractDao<PK extends Serializable, T> {
+	// Hint JPA que limita la carga a los atributos del entity graph indicado (el resto queda LAZY)
+	protected static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+	
 	private final Class<T> persistentClass;
 	
 	@SuppressWarnings("unchecked")
@@ -33,6 +56,28 @@ public abstract class AbstractDao<PK extends Serializable, T> {
     public T getByKey(PK key) {
         return (T) getSession().get(persistentClass, key);
     }
+    
+    /*
+     * Obtiene la entidad aplicando el entity graph del caso de uso. Un graph nulo equivale a getByKey(key).
+     */
+    public T getByKey(PK key, String fetchGraph) {
+    	if (fetchGraph == null)
+    		return getByKey(key);
+    	return getSession().find(persistentClass, key, 
+    			Collections.singletonMap(FETCH_GRAPH_HINT, getSession().getEntityGraph(fetchGraph)));
+    }
+ 
+    /*
+     * Obtiene únicamente el atributo indicado de la entidad, sin hidratarla completa (útil para referencias o columnas puntuales).
+     * Devuelve null tanto si la entidad no existe como si el atributo es nulo.
+     */
+    protected <Y> Y getAttributeByKey(SingularAttribute<T, PK> keyAttribute, PK key, SingularAttribute<T, Y> attribute) {
+    	CriteriaBuilder cb = getSession().getCriteriaBuilder();
+    	CriteriaQuery<Y> criteriaQuery = cb.createQuery(attribute.getJavaType());
+    	Root<T> root = criteriaQuery.from(persistentClass);
+    	criteriaQuery.select(root.get(attribute)).where(cb.equal(root.get(keyAttribute), key));
+    	return getSession().createQuery(criteriaQuery).uniqueResultOptional().orElse(null);
+    }
  
     public void persist(T entity) {
         getSession().persist(entity);
@@ -45,4 +90,115 @@ public abstract class AbstractDao<PK extends Serializable, T> {
     public void delete(T entity) {
         getSession().delete(entity);
     }
+    
+    /*
+     * Predicado de paginación por cursor (keyset) sobre la clave de orden (fecha, id):
+     * selecciona las filas estrictamente posteriores a la última fila entregada.
+     */
+    protected <ID extends Comparable<? super ID>> Predicate keysetAfter(CriteriaBuilder cb, 
+    		Expression<DateTime> timestamp, Expression<ID> id, DateTime afterTimestamp, ID afterId) {
+    	return cb.or(
+    			cb.greaterThan(timestamp, afterTimestamp),
+    			cb.and(cb.equal(timestamp, afterTimestamp), cb.greaterThan(id, afterId)));
+    }
+    
+    /*
+     * Predicados de los filtros comunes a los listados por participante (mensajes, presupuestos y contratos):
+     * 		status	estados separados por coma
+     * 		from	fecha ISO 8601 sobre la clave de orden del listado, inclusive
+     * 		to		fecha ISO 8601 sobre la clave de orden del listado, exclusiva
+     * Devuelve null si algún filtro no está soportado o su valor es inválido.
+     */
+    protected List<Predicate> participantFilters(CriteriaBuilder cb, Expression<String> status, 
+    		Expression<DateTime> timestamp, Map<String,String> filters) {
+    	List<Predicate> predicates = new ArrayList<Predicate>();
+    	if (filters == null)
+    		return predicates;
+    	for (Entry<String, String> filter : filters.entrySet()) {
+    		String value = filter.getValue();
+    		if (filter.getKey() == null || value == null || value.trim().isEmpty())
+    			return null;
+    		try {
+    			switch (filter.getKey().toLowerCase()) {
+    				case "status":
+    					predicates.add(status.in(Arrays.asList(value.trim().toUpperCase().split("\\s*,\\s*"))));
+    					break;
+    				case "from":
+    					predicates.add(cb.greaterThanOrEqualTo(timestamp, DateTime.parse(value.trim())));
+    					break;
+    				case "to":
+    					predicates.add(cb.lessThan(timestamp, DateTime.parse(value.trim())));
+    					break;
+    				default:
+    					return null;
+    			}
+    		}
+    		catch (IllegalArgumentException e) {
+    			return null;
+    		}
+    	}
+    	return predicates;
+    }
+    
+    /*
+     * Claves de blob no nulas de una consulta que devuelve pares (imagen, thumbnail).
+     */
+    protected List<String> getImageHashes(Query<Object[]> query) {
+    	List<String> hashes = new ArrayList<String>();
+    	for (Object[] row : query.getResultList())
+    		for (Object hash : row)
+    			if (hash != null)
+    				hashes.add((String) hash);
+    	return hashes;
+    }
+    
+    /*
+     * Imágenes de una consulta nativa que devuelve filas (id, imagen, thumbnail) de las columnas bytea heredadas.
+     */
+    @SuppressWarnings("unchecked")
+    protected List<LegacyImage<PK>> getLegacyImages(Query<?> query, int limit) {
+    	List<LegacyImage<PK>> images = new ArrayList<LegacyImage<PK>>();
+    	for (Object row : query.setMaxResults(limit).list()) {
+    		Object[] columns = (Object[]) row;
+    		images.add(new LegacyImage<PK>((PK) columns[0], (byte[]) columns[1], (byte[]) columns[2]));
+    	}
+    	return images;
+    }
+    
+    /*
+     * Indica si la columna existe en la tabla, p.ej. columnas heredadas que el modelo ya no mapea pero que el esquema
+     * conserva hasta completar una migración. Contempla tanto identificadores en minúsculas como en mayúsculas.
+     */
+    protected boolean columnExists(String table, String column) {
+    	return getSession().doReturningWork(connection -> {
+    		DatabaseMetaData metaData = connection.getMetaData();
+    		for (String[] name : new String[][] { { table, column }, { table.toUpperCase(), column.toUpperCase() } })
+    			try (ResultSet columns = metaData.getColumns(null, null, name[0], name[1])) {
+    				if (columns.next())
+    					return true;
+    			}
+    		return false;
+    	});
+    }
+    
+    /*
+     * Ejecuta la consulta limitando el resultado a la página solicitada (más una fila para detectar la siguiente).
+     * Si no se solicita página, devuelve el resultado completo.
+     */
+    protected List<T> getResultPage(CriteriaQuery<T> criteriaQuery, PageRequest page) {
+    	return getResultPage(criteriaQuery, page, null);
+    }
+    
+    /*
+     * Igual que getResultPage(criteriaQuery, page), aplicando además el entity graph del caso de uso.
+     * Los graphs utilizados en consultas paginadas no deben incluir colecciones, para que el límite se aplique en la base.
+     */
+    protected List<T> getResultPage(CriteriaQuery<T> criteriaQuery, PageRequest page, String fetchGraph) {
+    	Query<T> query = getSession().createQuery(criteriaQuery);
+    	if (fetchGraph != null)
+    		query.setHint(FETCH_GRAPH_HINT, getSession().getEntityGraph(fetchGraph));
+    	if (page != null)
+    		query.setMaxResults(page.getFetchSize());
+    	return query.getResultList();
+    }
 }
@@ -1,8 +1,12 @@
 package com.yotereparo.dao;
 
 import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
 
 import com.yotereparo.model.Contract;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface ContractDao {
 	
@@ -13,4 +17,18 @@ public interface ContractDao {
     void deleteContractById(Integer id);
     
     List<Contract> getAllContracts();
+    
+    List<Contract> getAllContracts(PageRequest page);
+    
+    List<Contract> getAllContracts(Map<String,String> filters, PageRequest page);
+    
+    List<Contract> getContractsByCustomer(String customerId, Map<String,String> filters, PageRequest page);
+    
+    List<Contract> getContractsByProvider(String providerId, Map<String,String> filters, PageRequest page);
+    
+    int startContracts(DateTime now);
+    
+    int finishContracts(DateTime now);
+    
+    List<Object[]> getRatingCounts();
 }
@@ -1,14 +1,25 @@
 package com.yotereparo.dao;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
 import org.hibernate.query.Query;
+import org.joda.time.DateTime;
 import org.springframework.stereotype.Repository;
 
 import com.yotereparo.model.Contract;
+import com.yotereparo.model.Quote;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de acceso a datos para Contratos. Su objetivo es abstraer la interacción con la API de hibernate.
@@ -34,10 +45,105 @@ public class ContractDaoImpl extends AbstractDao<Integer, Contract> implements C
 	}
 	
 	public List<Contract> getAllContracts() {
+		return getAllContracts(null);
+	}
+	
+	public List<Contract> getAllContracts(PageRequest page) {
+		return getAllContracts(null, page);
+	}
+	
+	public List<Contract> getAllContracts(Map<String,String> filters, PageRequest page) {
+		return getContracts(null, null, filters, page);
+	}
+	
+	/*
+	 * Contratos celebrados por el usuario final <customerId>.
+	 */
+	public List<Contract> getContractsByCustomer(String customerId, Map<String,String> filters, PageRequest page) {
+		return getContracts(contract -> contract.get("presupuesto").get("usuarioFinal").get("id"), customerId, filters, page);
+	}
+	
+	/*
+	 * Contratos celebrados sobre los servicios del prestador <providerId>.
+	 */
+	public List<Contract> getContractsByProvider(String providerId, Map<String,String> filters, PageRequest page) {
+		return getContracts(contract -> contract.get("presupuesto").get("servicio").get("usuarioPrestador").get("id"), 
+				providerId, filters, page);
+	}
+	
+	/*
+	 * Devuelve, en una única consulta, los registros en los que <userId> participa según <participant> (todos si es nulo),
+	 * aplicando los filtros recibidos (ver AbstractDao.participantFilters).
+	 * El resultado se ordena por (fechaCreacion, id) y, si se solicita una página, se continúa a partir de su cursor.
+	 */
+	private List<Contract> getContracts(Function<Root<Contract>, Expression<String>> participant, String userId, 
+			Map<String,String> filters, PageRequest page) {
 		CriteriaBuilder builder = getSession().getCriteriaBuilder();
 		CriteriaQuery<Contract> criteriaQuery = builder.createQuery(Contract.class);
-		criteriaQuery.from(Contract.class);
+		Root<Contract> root = criteriaQuery.from(Contract.class);
+		Path<DateTime> timestamp = root.get("fechaCreacion");
+		Path<Integer> id = root.get("id");
+		
+		List<Predicate> predicates = participantFilters(builder, root.get("estado"), timestamp, filters);
+		if (predicates == null)
+			return Collections.emptyList();
+		if (participant != null) {
+			predicates.add(builder.equal(participant.apply(root), userId));
+			// Las bandejas de cliente y prestador no incluyen contratos de presupuestos archivados
+			predicates.add(builder.notEqual(root.get("presupuesto").get("estado"), Quote.ARCHIVED));
+		}
+		if (page != null && page.getAfter() != null) {
+			Integer afterId = page.getAfter().getIntegerId();
+			if (afterId == null)
+				return Collections.emptyList();
+			predicates.add(keysetAfter(builder, timestamp, id, page.getAfter().getDateTime(), afterId));
+		}
+		criteriaQuery.where(predicates.toArray(new Predicate[predicates.size()]))
+			.orderBy(builder.asc(timestamp), builder.asc(id));
 		
-		return getSession().createQuery(criteriaQuery).getResultList();
+		return getResultPage(criteriaQuery, page, Contract.LISTING_GRAPH);
+	}
+	
+	/*
+	 * Pasa a ejecución, en una única sentencia, los contratos pendientes cuya fecha de inicio ya pasó.
+	 * Debe invocarse luego de finishContracts, para no pasar por ejecución contratos que ya finalizaron.
+	 * Devuelve la cantidad de contratos actualizados.
+	 */
+	public int startContracts(DateTime now) {
+		Query<?> query = getSession().createQuery(
+				"UPDATE Contract c SET c.estado = :ongoingExecution "
+				+ "WHERE c.estado = :pendingExecution AND c.fechaInicioEjecucion < :now");
+		query.setParameter("ongoingExecution", Contract.ONGOING_EXECUTION);
+		query.setParameter("pendingExecution", Contract.PENDING_EXECUTION);
+		query.setParameter("now", now);
+		return query.executeUpdate();
+	}
+	
+	/*
+	 * Marca como ejecutados, en una única sentencia, los contratos pendientes o en ejecución cuya fecha de fin ya pasó.
+	 * Devuelve la cantidad de contratos actualizados.
+	 */
+	public int finishContracts(DateTime now) {
+		Query<?> query = getSession().createQuery(
+				"UPDATE Contract c SET c.estado = :alreadyExecuted "
+				+ "WHERE c.estado IN (:transitionalStates) "
+				+ "AND c.fechaInicioEjecucion < :now AND c.fechaFinEjecucion < :now");
+		query.setParameter("alreadyExecuted", Contract.ALREADY_EXECUTED);
+		query.setParameterList("transitionalStates", Arrays.asList(Contract.PENDING_EXECUTION, Contract.ONGOING_EXECUTION));
+		query.setParameter("now", now);
+		return query.executeUpdate();
+	}
+	
+	/*
+	 * Cantidad de contratos valorados agrupados por (servicio, prestador, valoración),
+	 * para reconstruir los resúmenes de valoraciones.
+	 */
+	public List<Object[]> getRatingCounts() {
+		return getSession().createQuery(
+				"SELECT s.id, s.usuarioPrestador.id, c.valoracion, COUNT(c) "
+				+ "FROM Contract c JOIN c.presupuesto q JOIN q.servicio s "
+				+ "WHERE c.valoracion IS NOT NULL "
+				+ "GROUP BY s.id, s.usuarioPrestador.id, c.valoracion", Object[].class)
+				.getResultList();
 	}
 }
@@ -1,8 +1,12 @@
 package com.yotereparo.dao;
 
 import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
 
 import com.yotereparo.model.Message;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface MessageDao {
 	
@@ -13,4 +17,18 @@ public interface MessageDao {
     void deleteMessageById(Integer id);
      
     List<Message> getAllMessages();
+    
+    List<Message> getAllMessages(PageRequest page);
+    
+    List<Message> getAllMessages(Map<String,String> filters, PageRequest page);
+    
+    List<Message> getMessagesByCustomer(String customerId, Map<String,String> filters, PageRequest page);
+    
+    List<Message> getMessagesByProvider(String providerId, Map<String,String> filters, PageRequest page);
+    
+    DateTime getLastMessageDate(String customerId, Integer serviceId, DateTime since);
+    
+    int expireMessages(DateTime askedBefore);
+    
+    int archiveMessages(DateTime closedBefore);
 }
@@ -1,14 +1,23 @@
 package com.yotereparo.dao;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
 import org.hibernate.query.Query;
+import org.joda.time.DateTime;
 import org.springframework.stereotype.Repository;
 
 import com.yotereparo.model.Message;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de acceso a datos para Mensajes. Su objetivo es abstraer la interacción con la API de hibernate.
@@ -34,10 +43,106 @@ public class MessageDaoImpl extends AbstractDao<Integer, Message> implements Mes
 	}
  
 	public List<Message> getAllMessages() {
+		return getAllMessages(null);
+	}
+	
+	public List<Message> getAllMessages(PageRequest page) {
+		return getAllMessages(null, page);
+	}
+	
+	public List<Message> getAllMessages(Map<String,String> filters, PageRequest page) {
+		return getMessages(null, null, filters, page);
+	}
+	
+	/*
+	 * Mensajes realizados por el usuario final <customerId>.
+	 */
+	public List<Message> getMessagesByCustomer(String customerId, Map<String,String> filters, PageRequest page) {
+		return getMessages(message -> message.get("usuarioFinal").get("id"), customerId, filters, page);
+	}
+	
+	/*
+	 * Mensajes dirigidos a los servicios del prestador <providerId>.
+	 */
+	public List<Message> getMessagesByProvider(String providerId, Map<String,String> filters, PageRequest page) {
+		return getMessages(message -> message.get("servicio").get("usuarioPrestador").get("id"), providerId, filters, page);
+	}
+	
+	/*
+	 * Devuelve la fecha del último mensaje del usuario final al servicio posterior a <since>, o null si no existe.
+	 * La consulta se resuelve sobre el índice (id_usuario_final, id_servicio, fecha_consulta).
+	 */
+	public DateTime getLastMessageDate(String customerId, Integer serviceId, DateTime since) {
+		Query<DateTime> query = getSession().createQuery(
+				"SELECT max(m.fechaConsulta) FROM Message m "
+				+ "WHERE m.usuarioFinal.id = :customerId AND m.servicio.id = :serviceId AND m.fechaConsulta > :since", 
+				DateTime.class);
+		query.setParameter("customerId", customerId);
+		query.setParameter("serviceId", serviceId);
+		query.setParameter("since", since);
+		return query.uniqueResult();
+	}
+	
+	/*
+	 * Devuelve, en una única consulta, los registros en los que <userId> participa según <participant> (todos si es nulo),
+	 * aplicando los filtros recibidos (ver AbstractDao.participantFilters).
+	 * El resultado se ordena por (fechaConsulta, id) y, si se solicita una página, se continúa a partir de su cursor.
+	 */
+	private List<Message> getMessages(Function<Root<Message>, Expression<String>> participant, String userId, 
+			Map<String,String> filters, PageRequest page) {
 		CriteriaBuilder builder = getSession().getCriteriaBuilder();
 		CriteriaQuery<Message> criteriaQuery = builder.createQuery(Message.class);
-		criteriaQuery.from(Message.class);
+		Root<Message> root = criteriaQuery.from(Message.class);
+		Path<DateTime> timestamp = root.get("fechaConsulta");
+		Path<Integer> id = root.get("id");
+		
+		List<Predicate> predicates = participantFilters(builder, root.get("estado"), timestamp, filters);
+		if (predicates == null)
+			return Collections.emptyList();
+		if (participant != null) {
+			predicates.add(builder.equal(participant.apply(root), userId));
+			// Las bandejas de cliente y prestador no incluyen mensajes archivados
+			predicates.add(builder.notEqual(root.get("estado"), Message.ARCHIVED));
+		}
+		if (page != null && page.getAfter() != null) {
+			Integer afterId = page.getAfter().getIntegerId();
+			if (afterId == null)
+				return Collections.emptyList();
+			predicates.add(keysetAfter(builder, timestamp, id, page.getAfter().getDateTime(), afterId));
+		}
+		criteriaQuery.where(predicates.toArray(new Predicate[predicates.size()]))
+			.orderBy(builder.asc(timestamp), builder.asc(id));
 		
-		return getSession().createQuery(criteriaQuery).getResultList();
+		return getResultPage(criteriaQuery, page, Message.LISTING_GRAPH);
+	}
+	
+	/*
+	 * Marca como expirados, en una única sentencia, los mensajes sin respuesta consultados antes de <askedBefore>.
+	 * Devuelve la cantidad de mensajes actualizados.
+	 */
+	public int expireMessages(DateTime askedBefore) {
+		Query<?> query = getSession().createQuery(
+				"UPDATE Message m SET m.estado = :expired "
+				+ "WHERE m.estado = :awaitingResponse AND m.fechaConsulta < :askedBefore");
+		query.setParameter("expired", Message.EXPIRED);
+		query.setParameter("awaitingResponse", Message.AWAITING_RESPONSE);
+		query.setParameter("askedBefore", askedBefore);
+		return query.executeUpdate();
+	}
+	
+	/*
+	 * Archiva, en una única sentencia, los mensajes cerrados (respondidos antes de <closedBefore>)
+	 * y los expirados (consultados antes de <closedBefore>). Devuelve la cantidad de mensajes actualizados.
+	 */
+	public int archiveMessages(DateTime closedBefore) {
+		Query<?> query = getSession().createQuery(
+				"UPDATE Message m SET m.estado = :archived "
+				+ "WHERE (m.estado = :closed AND m.fechaRespuesta < :closedBefore) "
+				+ "OR (m.estado = :expired AND m.fechaConsulta < :closedBefore)");
+		query.setParameter("archived", Message.ARCHIVED);
+		query.setParameter("closed", Message.CLOSED);
+		query.setParameter("expired", Message.EXPIRED);
+		query.setParameter("closedBefore", closedBefore);
+		return query.executeUpdate();
 	}
 }
@@ -0,0 +1,16 @@
+package com.yotereparo.dao;
+
+import java.util.List;
+
+import org.joda.time.DateTime;
+
+import com.yotereparo.model.PrincipalInvalidation;
+
+public interface PrincipalInvalidationDao {
+	
+	void createInvalidation(PrincipalInvalidation invalidation);
+	
+	List<PrincipalInvalidation> getInvalidationsSince(DateTime since);
+	
+	int deleteInvalidationsBefore(DateTime before);
+}
@@ -0,0 +1,41 @@
+package com.yotereparo.dao;
+
+import java.util.List;
+
+import org.hibernate.query.Query;
+import org.joda.time.DateTime;
+import org.springframework.stereotype.Repository;
+
+import com.yotereparo.model.PrincipalInvalidation;
+
+/**
+ * Capa de acceso a datos para las invalidaciones de principals cacheados. 
+ * Su objetivo es abstraer la interacción con la API de hibernate.
+ * 
+ * @author Rodrigo Yanis
+ * 
+ */
+@Repository
+public class PrincipalInvalidationDaoImpl extends AbstractDao<Long, PrincipalInvalidation> implements PrincipalInvalidationDao {
+
+	public void createInvalidation(PrincipalInvalidation invalidation) {
+		persist(invalidation);
+	}
+	
+	public List<PrincipalInvalidation> getInvalidationsSince(DateTime since) {
+		Query<PrincipalInvalidation> query = getSession().createQuery(
+				"FROM PrincipalInvalidation i WHERE i.fecha >= :since ORDER BY i.id", PrincipalInvalidation.class);
+		query.setParameter("since", since);
+		return query.getResultList();
+	}
+	
+	/*
+	 * Elimina, en una única sentencia, las invalidaciones anteriores a <before>.
+	 * Devuelve la cantidad de invalidaciones eliminadas.
+	 */
+	public int deleteInvalidationsBefore(DateTime before) {
+		Query<?> query = getSession().createQuery("DELETE FROM PrincipalInvalidation i WHERE i.fecha < :before");
+		query.setParameter("before", before);
+		return query.executeUpdate();
+	}
+}
@@ -1,8 +1,11 @@
 package com.yotereparo.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.yotereparo.model.Quote;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface QuoteDao {
 	
@@ -13,4 +16,14 @@ public interface QuoteDao {
     void deleteQuoteById(Integer id);
      
     List<Quote> getAllQuotes();
+    
+    List<Quote> getAllQuotes(PageRequest page);
+    
+    List<Quote> getAllQuotes(Map<String,String> filters, PageRequest page);
+    
+    List<Quote> getQuotesByCustomer(String customerId, Map<String,String> filters, PageRequest page);
+    
+    List<Quote> getQuotesByProvider(String providerId, Map<String,String> filters, PageRequest page);
+    
+    boolean quoteExistsBetween(String customerId, Integer serviceId, Collection<String> statuses);
 }
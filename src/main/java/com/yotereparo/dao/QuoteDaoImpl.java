@@ -1,14 +1,24 @@
 package com.yotereparo.dao;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
 
 import org.hibernate.query.Query;
+import org.joda.time.DateTime;
 import org.springframework.stereotype.Repository;
 
 import com.yotereparo.model.Quote;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de acceso a datos para Presupuestos. Su objetivo es abstraer la interacción con la API de hibernate.
@@ -34,10 +44,76 @@ public class QuoteDaoImpl extends AbstractDao<Integer, Quote> implements QuoteDa
 	}
  
 	public List<Quote> getAllQuotes() {
+		return getAllQuotes(null);
+	}
+	
+	public List<Quote> getAllQuotes(PageRequest page) {
+		return getAllQuotes(null, page);
+	}
+	
+	public List<Quote> getAllQuotes(Map<String,String> filters, PageRequest page) {
+		return getQuotes(null, null, filters, page);
+	}
+	
+	/*
+	 * Presupuestos solicitados por el usuario final <customerId>.
+	 */
+	public List<Quote> getQuotesByCustomer(String customerId, Map<String,String> filters, PageRequest page) {
+		return getQuotes(quote -> quote.get("usuarioFinal").get("id"), customerId, filters, page);
+	}
+	
+	/*
+	 * Presupuestos solicitados a los servicios del prestador <providerId>.
+	 */
+	public List<Quote> getQuotesByProvider(String providerId, Map<String,String> filters, PageRequest page) {
+		return getQuotes(quote -> quote.get("servicio").get("usuarioPrestador").get("id"), providerId, filters, page);
+	}
+	
+	/*
+	 * Verifica si existe algún presupuesto entre el usuario final y el servicio, opcionalmente restringido a <statuses>.
+	 * La consulta se resuelve sobre el índice (id_usuario_final, id_servicio) y se corta en la primera fila encontrada.
+	 */
+	public boolean quoteExistsBetween(String customerId, Integer serviceId, Collection<String> statuses) {
+		Query<Integer> query = getSession().createQuery(
+				"SELECT q.id FROM Quote q WHERE q.usuarioFinal.id = :customerId AND q.servicio.id = :serviceId"
+				+ (statuses != null ? " AND q.estado IN (:statuses)" : ""), Integer.class);
+		query.setParameter("customerId", customerId);
+		query.setParameter("serviceId", serviceId);
+		if (statuses != null)
+			query.setParameterList("statuses", statuses);
+		return !query.setMaxResults(1).getResultList().isEmpty();
+	}
+	
+	/*
+	 * Devuelve, en una única consulta, los registros en los que <userId> participa según <participant> (todos si es nulo),
+	 * aplicando los filtros recibidos (ver AbstractDao.participantFilters).
+	 * El resultado se ordena por (fechaCreacion, id) y, si se solicita una página, se continúa a partir de su cursor.
+	 */
+	private List<Quote> getQuotes(Function<Root<Quote>, Expression<String>> participant, String userId, 
+			Map<String,String> filters, PageRequest page) {
 		CriteriaBuilder builder = getSession().getCriteriaBuilder();
 		CriteriaQuery<Quote> criteriaQuery = builder.createQuery(Quote.class);
-		criteriaQuery.from(Quote.class);
+		Root<Quote> root = criteriaQuery.from(Quote.class);
+		Path<DateTime> timestamp = root.get("fechaCreacion");
+		Path<Integer> id = root.get("id");
+		
+		List<Predicate> predicates = participantFilters(builder, root.get("estado"), timestamp, filters);
+		if (predicates == null)
+			return Collections.emptyList();
+		if (participant != null) {
+			predicates.add(builder.equal(participant.apply(root), userId));
+			// Las bandejas de cliente y prestador no incluyen presupuestos archivados
+			predicates.add(builder.notEqual(root.get("estado"), Quote.ARCHIVED));
+		}
+		if (page != null && page.getAfter() != null) {
+			Integer afterId = page.getAfter().getIntegerId();
+			if (afterId == null)
+				return Collections.emptyList();
+			predicates.add(keysetAfter(builder, timestamp, id, page.getAfter().getDateTime(), afterId));
+		}
+		criteriaQuery.where(predicates.toArray(new Predicate[predicates.size()]))
+			.orderBy(builder.asc(timestamp), builder.asc(id));
 		
-		return getSession().createQuery(criteriaQuery).getResultList();
+		return getResultPage(criteriaQuery, page, Quote.LISTING_GRAPH);
 	}
 }
@@ -0,0 +1,47 @@
+package com.yotereparo.dao;
+
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import com.yotereparo.model.RatingSummary;
+
+/**
+ * Sentencias de actualización del resumen de valoraciones (RatingSummary) embebido en Servicios y Usuarios.
+ * Los incrementos se aplican en la base (x = x + delta), de modo que valoraciones concurrentes no se pisen entre sí.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+final class RatingSummaryUpdates {
+
+	private RatingSummaryUpdates() {
+	}
+
+	static int applyDelta(Session session, Class<?> entity, Object id, RatingSummary delta) {
+		StringBuilder hql = new StringBuilder("UPDATE ").append(entity.getName()).append(" e SET ")
+				.append("e.valoracion.cantidad = e.valoracion.cantidad + :cantidad, ")
+				.append("e.valoracion.suma = e.valoracion.suma + :suma");
+		for (int rating = RatingSummary.MIN_RATING; rating <= RatingSummary.MAX_RATING; rating++)
+			if (delta.getCantidad(rating) != 0)
+				hql.append(", e.valoracion.valor").append(rating)
+					.append(" = e.valoracion.valor").append(rating).append(" + :valor").append(rating);
+		hql.append(" WHERE e.id = :id");
+
+		Query<?> query = session.createQuery(hql.toString());
+		query.setParameter("cantidad", delta.getCantidad());
+		query.setParameter("suma", delta.getSuma());
+		for (int rating = RatingSummary.MIN_RATING; rating <= RatingSummary.MAX_RATING; rating++)
+			if (delta.getCantidad(rating) != 0)
+				query.setParameter("valor" + rating, delta.getCantidad(rating));
+		query.setParameter("id", id);
+		return query.executeUpdate();
+	}
+
+	static int reset(Session session, Class<?> entity) {
+		StringBuilder hql = new StringBuilder("UPDATE ").append(entity.getName()).append(" e SET ")
+				.append("e.valoracion.cantidad = 0, e.valoracion.suma = 0");
+		for (int rating = RatingSummary.MIN_RATING; rating <= RatingSummary.MAX_RATING; rating++)
+			hql.append(", e.valoracion.valor").append(rating).append(" = 0");
+		return session.createQuery(hql.toString()).executeUpdate();
+	}
+}
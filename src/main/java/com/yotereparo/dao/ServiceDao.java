@@ -1,18 +1,53 @@
 package com.yotereparo.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import com.yotereparo.model.RatingSummary;
 import com.yotereparo.model.Service;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface ServiceDao {
 	
 	Service getServiceById(Integer id);
+	
+	Service getServiceById(Integer id, String fetchGraph);
+	
+	String getServiceImageHashById(Integer id, boolean thumbnail);
+	
+	List<String> getImageHashes();
+	
+	List<LegacyImage<Integer>> getLegacyImages(Integer afterId, int limit);
+	
+	boolean setLegacyImageHashes(Integer id, String imageHash, String thumbnailHash);
 	 
     void createService(Service service);
      
     void deleteServiceById(Integer id);
     
-    List<Service> getAllServices(String attributeKey, String attributeValue);
+    int countActiveServicesByProvider(String providerId);
+    
+    Map<Integer, String> getServiceTitlesByProvider(String providerId);
      
-    List<Service> getAllServices(Object filter);
+    List<Service> getAllServices(Map<String,String> filters, PageRequest page);
+    
+    List<Service> getAllServices(Map<String,String> filters, Collection<Integer> ids, PageRequest page);
+    
+    List<Service> getServicesByIds(Collection<Integer> ids);
+    
+    void forEachServiceText(ServiceTextConsumer consumer);
+    
+    void forEachService(Consumer<Service> consumer);
+    
+    int updateRatingSummary(Integer id, RatingSummary delta);
+    
+    int resetRatingSummaries();
+    
+    @FunctionalInterface
+    interface ServiceTextConsumer {
+    	void accept(Integer id, String title, String description);
+    }
 }
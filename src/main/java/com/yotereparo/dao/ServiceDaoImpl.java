@@ -1,8 +1,17 @@
 package com.yotereparo.dao;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
-import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Join;
@@ -15,12 +24,16 @@ import javax.persistence.criteria.Subquery;
 import org.hibernate.query.Query;
 import org.springframework.stereotype.Repository;
 
-import com.yotereparo.model.City;
+import com.yotereparo.model.City_;
 import com.yotereparo.model.District;
 import com.yotereparo.model.District_;
+import com.yotereparo.model.RatingSummary;
 import com.yotereparo.model.Service;
+import com.yotereparo.model.Service_;
 import com.yotereparo.model.User;
 import com.yotereparo.model.User_;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de acceso a datos para Servicios. Su objetivo es abstraer la interacción con la API de hibernate.
@@ -30,11 +43,61 @@ import com.yotereparo.model.User_;
  */
 @Repository
 public class ServiceDaoImpl extends AbstractDao<Integer, Service> implements ServiceDao {
+	
+	// Estados de servicio que no cuentan para la franquicia de la membresía del prestador
+	private static final List<String> COUNTED_SERVICES_EXCLUDED_STATUSES = 
+			Collections.unmodifiableList(Arrays.asList(Service.ARCHIVED, Service.BLOCKED));
+	
+	// Coincide con el @BatchSize de las colecciones de Servicio
+	private static final int FOR_EACH_PAGE_SIZE = 50;
+	
+	// Ids por sentencia en el filtro del índice de búsqueda: el driver de PostgreSQL admite hasta 32767 parámetros
+	private static final int MAX_IDS_PER_QUERY = 10000;
 
 	public Service getServiceById(Integer id) {
 		return getByKey(id);
 	}
 	
+	public Service getServiceById(Integer id, String fetchGraph) {
+		return getByKey(id, fetchGraph);
+	}
+	
+	public String getServiceImageHashById(Integer id, boolean thumbnail) {
+		return getAttributeByKey(Service_.id, id, thumbnail ? Service_.hashThumbnail : Service_.hashImagen);
+	}
+	
+	/*
+	 * Claves de blob de las imágenes y thumbnails referenciadas por algún servicio.
+	 */
+	public List<String> getImageHashes() {
+		return getImageHashes(getSession().createQuery("SELECT s.hashImagen, s.hashThumbnail FROM Service s "
+				+ "WHERE s.hashImagen IS NOT NULL OR s.hashThumbnail IS NOT NULL", Object[].class));
+	}
+	
+	/*
+	 * Servicios con imagen en las columnas bytea heredadas y sin referencia al BlobStore, por id a partir de <afterId>.
+	 * Devuelve una lista vacía si las columnas heredadas ya se eliminaron del esquema.
+	 */
+	public List<LegacyImage<Integer>> getLegacyImages(Integer afterId, int limit) {
+		if (!columnExists("servicio", "imagen"))
+			return Collections.emptyList();
+		return getLegacyImages(getSession().createSQLQuery("SELECT id_servicio, imagen, thumbnail FROM servicio "
+				+ "WHERE imagen IS NOT NULL AND hash_imagen IS NULL AND id_servicio > :afterId ORDER BY id_servicio")
+				.setParameter("afterId", afterId), limit);
+	}
+	
+	/*
+	 * Registra las referencias de una imagen migrada, salvo que el servicio ya tenga una imagen en el BlobStore.
+	 */
+	public boolean setLegacyImageHashes(Integer id, String imageHash, String thumbnailHash) {
+		Query<?> query = getSession().createSQLQuery("UPDATE servicio SET hash_imagen = :imageHash, "
+				+ "hash_thumbnail = :thumbnailHash WHERE id_servicio = :id AND hash_imagen IS NULL");
+		query.setParameter("imageHash", imageHash);
+		query.setParameter("thumbnailHash", thumbnailHash);
+		query.setParameter("id", id);
+		return query.executeUpdate() > 0;
+	}
+	
 	public void createService(Service service) {
 		persist(service);
 	}
@@ -45,65 +108,209 @@ public class ServiceDaoImpl extends AbstractDao<Integer, Service> implements Ser
         query.executeUpdate();
 	}
 	
-	public List<Service> getAllServices(String attributeKey, String attributeValue) {
-		TypedQuery<Service> query = null;
-		if (attributeKey != null && !attributeKey.isEmpty()) {
-			String filterNonFinalServices = " AND s.estado <> '"+Service.ARCHIVED+"' AND s.estado <> '"+Service.BLOCKED+"'";
-			switch (attributeKey) {
-				case ("title"):
-					query = getSession().createQuery(
-							"SELECT s FROM com.yotereparo.model.Service s WHERE LOWER(s.titulo) LIKE :value"
-							+ filterNonFinalServices,
-							Service.class);
-					break;
-				case ("description"):
-					query = getSession().createQuery(
-							"SELECT s FROM com.yotereparo.model.Service s WHERE LOWER(s.descripcion) LIKE :value"
-							+ filterNonFinalServices,
-							Service.class);
-					break;
+	/*
+	 * Cantidad de servicios del prestador que cuentan para la franquicia de su membresía (no archivados ni bloqueados).
+	 * La consulta se resuelve sobre el índice (id_usuario_prestador, estado).
+	 */
+	public int countActiveServicesByProvider(String providerId) {
+		Query<Long> query = getSession().createQuery(
+				"SELECT count(s) FROM Service s WHERE s.usuarioPrestador.id = :providerId AND s.estado NOT IN (:excluded)", 
+				Long.class);
+		query.setParameter("providerId", providerId);
+		query.setParameterList("excluded", COUNTED_SERVICES_EXCLUDED_STATUSES);
+		return query.uniqueResult().intValue();
+	}
+	
+	public List<Service> getAllServices(Map<String,String> filters, PageRequest page) {
+		return getAllServices(filters, null, page);
+	}
+	
+	/*
+	 * Construye una única consulta con todos los filtros recibidos (user, city, district) combinados por conjunción,
+	 * de modo que cualquier combinación de filtros se resuelva en un solo round trip.
+	 * Si se recibe <ids> (resultado del índice de búsqueda), el resultado se restringe además a esos servicios.
+	 * Si algún filtro no puede satisfacerse (valor vacío o inválido), se devuelve una lista vacía sin consultar la base.
+	 * El resultado se ordena por (fechaCreacion, id) y, si se solicita una página, se continúa a partir de su cursor.
+	 * Más de <MAX_IDS_PER_QUERY> ids se consultan por tramos: cada tramo devuelve a lo sumo una página, y las páginas
+	 * de los tramos se combinan respetando el orden.
+	 */
+	public List<Service> getAllServices(Map<String,String> filters, Collection<Integer> ids, PageRequest page) {
+		if (ids == null || ids.size() <= MAX_IDS_PER_QUERY)
+			return getAllServicesAmong(filters, ids, page);
+		
+		List<Integer> idList = new ArrayList<Integer>(ids);
+		List<Service> services = new ArrayList<Service>();
+		for (int from = 0; from < idList.size(); from += MAX_IDS_PER_QUERY)
+			services.addAll(getAllServicesAmong(filters, 
+					idList.subList(from, Math.min(from + MAX_IDS_PER_QUERY, idList.size())), page));
+		services.sort(Comparator.comparing(Service::getFechaCreacion).thenComparing(Service::getId));
+		if (page != null && services.size() > page.getFetchSize())
+			return new ArrayList<Service>(services.subList(0, page.getFetchSize()));
+		return services;
+	}
+	
+	private List<Service> getAllServicesAmong(Map<String,String> filters, Collection<Integer> ids, PageRequest page) {
+		if (ids != null && ids.isEmpty())
+			return Collections.emptyList();
+		
+		CriteriaBuilder cb = getSession().getCriteriaBuilder();
+		CriteriaQuery<Service> cq = cb.createQuery(Service.class);
+		Root<Service> service = cq.from(Service.class);
+		
+		ServicePredicateBuilder predicateBuilder = new ServicePredicateBuilder(cb, cq, service);
+		List<Predicate> predicates = new ArrayList<Predicate>();
+		predicates.add(cb.notEqual(service.get(Service_.estado), Service.ARCHIVED));
+		predicates.add(cb.notEqual(service.get(Service_.estado), Service.BLOCKED));
+		
+		if (filters != null)
+			for (Entry<String, String> filter : filters.entrySet()) {
+				Predicate predicate = predicateBuilder.build(filter.getKey(), filter.getValue());
+				if (predicate == null)
+					return Collections.emptyList();
+				predicates.add(predicate);
 			}
-			query.setParameter("value", "%"+attributeValue+"%");
+		if (ids != null)
+			predicates.add(service.get(Service_.id).in(ids));
+		
+		if (page != null && page.getAfter() != null) {
+			Integer afterId = page.getAfter().getIntegerId();
+			if (afterId == null)
+				return Collections.emptyList();
+			predicates.add(keysetAfter(cb, service.get(Service_.fechaCreacion), service.get(Service_.id), 
+					page.getAfter().getDateTime(), afterId));
 		}
-		return query.getResultList();
+		
+		cq.select(service)
+			.where(predicates.toArray(new Predicate[predicates.size()]))
+			.orderBy(cb.asc(service.get(Service_.fechaCreacion)), cb.asc(service.get(Service_.id)));
+		return getResultPage(cq, page, Service.LISTING_GRAPH);
 	}
- 
-	public List<Service> getAllServices(Object filter) {
-		Query<Service> query = null;
+	
+	/*
+	 * Devuelve los servicios visibles (no archivados ni bloqueados) entre los ids recibidos, sin un orden particular.
+	 */
+	public List<Service> getServicesByIds(Collection<Integer> ids) {
+		if (ids == null || ids.isEmpty())
+			return Collections.emptyList();
+		
 		CriteriaBuilder cb = getSession().getCriteriaBuilder();
 		CriteriaQuery<Service> cq = cb.createQuery(Service.class);
 		Root<Service> service = cq.from(Service.class);
+		cq.select(service).where(
+				service.get(Service_.id).in(ids),
+				cb.notEqual(service.get(Service_.estado), Service.ARCHIVED),
+				cb.notEqual(service.get(Service_.estado), Service.BLOCKED));
+		return getResultPage(cq, null, Service.LISTING_GRAPH);
+	}
+	
+	/*
+	 * Recorre (id, titulo, descripcion) de todos los servicios sin materializar las entidades,
+	 * para construir el índice de búsqueda.
+	 */
+	public void forEachServiceText(ServiceTextConsumer consumer) {
+		Query<Object[]> query = getSession().createQuery(
+				"SELECT s.id, s.titulo, s.descripcion FROM Service s", Object[].class);
+		try (Stream<Object[]> rows = query.stream()) {
+			rows.forEach(row -> consumer.accept((Integer) row[0], (String) row[1], (String) row[2]));
+		}
+	}
+	
+	/*
+	 * Recorre todos los servicios, en páginas de <FOR_EACH_PAGE_SIZE> ordenadas por id, para construir el índice
+	 * de similitud, junto con su tipo y prestador. Las entidades de la página siguen en la sesión mientras se procesan, de modo que los medios de pago
+	 * y requerimientos se cargan con una consulta por colección y página (@BatchSize); al terminar la página se quitan
+	 * de la sesión, y el recorrido no acumula el catálogo completo en memoria.
+	 */
+	public void forEachService(Consumer<Service> consumer) {
+		Integer lastId = 0;
+		List<Service> page;
+		do {
+			page = getSession().createQuery("SELECT s FROM Service s JOIN FETCH s.tipoServicio JOIN FETCH s.usuarioPrestador "
+					+ "WHERE s.id > :lastId ORDER BY s.id", Service.class)
+					.setParameter("lastId", lastId)
+					.setMaxResults(FOR_EACH_PAGE_SIZE)
+					.list();
+			for (Service service : page)
+				consumer.accept(service);
+			for (Service service : page)
+				getSession().detach(service);
+			if (!page.isEmpty())
+				lastId = page.get(page.size() - 1).getId();
+		} while (page.size() == FOR_EACH_PAGE_SIZE);
+	}
+	
+	/*
+	 * Títulos de todos los servicios del prestador, por id; la consulta se resuelve con el índice por prestador.
+	 */
+	public Map<Integer, String> getServiceTitlesByProvider(String providerId) {
+		Map<Integer, String> titles = new HashMap<Integer, String>();
+		getSession().createQuery("SELECT s.id, s.titulo FROM Service s WHERE s.usuarioPrestador.id = :providerId", Object[].class)
+				.setParameter("providerId", providerId)
+				.list()
+				.forEach(row -> titles.put((Integer) row[0], (String) row[1]));
+		return titles;
+	}
+	
+	/*
+	 * Suma <delta> al resumen de valoraciones del servicio.
+	 */
+	public int updateRatingSummary(Integer id, RatingSummary delta) {
+		return RatingSummaryUpdates.applyDelta(getSession(), Service.class, id, delta);
+	}
+	
+	public int resetRatingSummaries() {
+		return RatingSummaryUpdates.reset(getSession(), Service.class);
+	}
+	
+	/*
+	 * Traduce cada filtro soportado a su predicado Criteria sobre la raíz <Service>.
+	 * El join con el usuario prestador se crea una única vez y se reutiliza entre filtros.
+	 */
+	private static class ServicePredicateBuilder {
+		private final CriteriaBuilder cb;
+		private final CriteriaQuery<Service> cq;
+		private final Root<Service> service;
+		private Join<Service, User> provider;
 		
-		Predicate constructedFilter = null;
-		Predicate filterNonFinalServices = cb.and(
-				cb.notEqual(service.get("estado"), Service.ARCHIVED), 
-				cb.notEqual(service.get("estado"), Service.BLOCKED));
+		ServicePredicateBuilder(CriteriaBuilder cb, CriteriaQuery<Service> cq, Root<Service> service) {
+			this.cb = cb;
+			this.cq = cq;
+			this.service = service;
+		}
+		
+		private Join<Service, User> provider() {
+			if (provider == null)
+				provider = service.join(Service_.usuarioPrestador, JoinType.INNER);
+			return provider;
+		}
 		
-		if (filter != null) {
-			switch (filter.getClass().getSimpleName()) {
-				case ("User"):
-					constructedFilter = cb.equal(service.get("usuarioPrestador"), (User) filter);
-					break;
-				case ("District"):
-					District district = (District) filter;
-					Subquery<User> sub = cq.subquery(User.class);
+		Predicate build(String key, String value) {
+			if (key == null || value == null || value.isEmpty())
+				return null;
+			switch (key.toLowerCase()) {
+				case "user":
+					return cb.equal(service.get(Service_.usuarioPrestador).get(User_.id), value);
+				case "city":
+					return cb.equal(provider().get(User_.ciudad).get(City_.id), value);
+				case "district":
+					Integer districtId;
+					try {
+						districtId = Integer.parseInt(value);
+					}
+					catch (NumberFormatException e) {
+						return null;
+					}
+					Subquery<Integer> sub = cq.subquery(Integer.class);
 					Root<User> subRoot = sub.from(User.class);
 					SetJoin<User, District> subDistricts = subRoot.join(User_.barrios);
-					sub.select(subRoot);
-					sub.where(cb.equal(subDistricts.get(District_.id), district.getId()));
-					constructedFilter = service.get("usuarioPrestador").in(sub);
-					break;
-				case ("City"):
-					Join<Service, User> p = service.join("usuarioPrestador", JoinType.INNER);
-					constructedFilter = cb.equal(p.get("ciudad"), (City) filter);
-					break;
+					sub.select(subDistricts.get(District_.id));
+					sub.where(
+							cb.equal(subRoot, service.get(Service_.usuarioPrestador)),
+							cb.equal(subDistricts.get(District_.id), districtId));
+					return cb.exists(sub);
+				default:
+					return null;
 			}
 		}
-		if (constructedFilter != null)
-			cq.select(service).where(cb.and(constructedFilter, filterNonFinalServices));
-		else
-			cq.select(service).where(filterNonFinalServices);
-		query = getSession().createQuery(cq);
-		return query.getResultList();
 	}
 }
@@ -2,17 +2,38 @@ package com.yotereparo.dao;
 
 import java.util.List;
 
+import com.yotereparo.model.RatingSummary;
 import com.yotereparo.model.User;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface UserDao {
 	
 	User getUserById(String id);
 	
+	User getUserById(String id, String fetchGraph);
+	
+	String getUserPhotoHashById(String id, boolean thumbnail);
+	
+	List<String> getPhotoHashes();
+	
+	List<LegacyImage<String>> getLegacyPhotos(String afterId, int limit);
+	
+	boolean setLegacyPhotoHashes(String id, String photoHash, String thumbnailHash);
+	
 	User getUserByEmail(String email);
 	 
     void createUser(User user);
      
+    void lockUserById(String id);
+    
     void deleteUserById(String id);
      
     List<User> getAllUsers();
+    
+    List<User> getAllUsers(PageRequest page);
+    
+    int updateRatingSummary(String id, RatingSummary delta);
+    
+    int resetRatingSummaries();
 }
@@ -1,14 +1,22 @@
 package com.yotereparo.dao;
 
+import java.util.Collections;
 import java.util.List;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
 
 import org.hibernate.query.Query;
+import org.joda.time.DateTime;
 import org.springframework.stereotype.Repository;
 
+import com.yotereparo.model.RatingSummary;
 import com.yotereparo.model.User;
+import com.yotereparo.model.User_;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de acceso a datos para Usuarios. Su objetivo es abstraer la interacción con la API de hibernate.
@@ -23,6 +31,46 @@ public class UserDaoImpl extends AbstractDao<String, User> implements UserDao {
 		return getByKey(id);
 	}
 	
+	public User getUserById(String id, String fetchGraph) {
+		return getByKey(id, fetchGraph);
+	}
+	
+	public String getUserPhotoHashById(String id, boolean thumbnail) {
+		return getAttributeByKey(User_.id, id, thumbnail ? User_.hashThumbnail : User_.hashFoto);
+	}
+	
+	/*
+	 * Claves de blob de las fotos y thumbnails referenciadas por algún usuario.
+	 */
+	public List<String> getPhotoHashes() {
+		return getImageHashes(getSession().createQuery("SELECT u.hashFoto, u.hashThumbnail FROM User u "
+				+ "WHERE u.hashFoto IS NOT NULL OR u.hashThumbnail IS NOT NULL", Object[].class));
+	}
+	
+	/*
+	 * Usuarios con foto en las columnas bytea heredadas y sin referencia al BlobStore, por id a partir de <afterId>.
+	 * Devuelve una lista vacía si las columnas heredadas ya se eliminaron del esquema.
+	 */
+	public List<LegacyImage<String>> getLegacyPhotos(String afterId, int limit) {
+		if (!columnExists("usuario", "foto"))
+			return Collections.emptyList();
+		return getLegacyImages(getSession().createSQLQuery("SELECT id_usuario, foto, thumbnail FROM usuario "
+				+ "WHERE foto IS NOT NULL AND hash_foto IS NULL AND id_usuario > :afterId ORDER BY id_usuario")
+				.setParameter("afterId", afterId), limit);
+	}
+	
+	/*
+	 * Registra las referencias de una foto migrada, salvo que el usuario ya tenga una foto en el BlobStore.
+	 */
+	public boolean setLegacyPhotoHashes(String id, String photoHash, String thumbnailHash) {
+		Query<?> query = getSession().createSQLQuery("UPDATE usuario SET hash_foto = :photoHash, "
+				+ "hash_thumbnail = :thumbnailHash WHERE id_usuario = :id AND hash_foto IS NULL");
+		query.setParameter("photoHash", photoHash);
+		query.setParameter("thumbnailHash", thumbnailHash);
+		query.setParameter("id", id);
+		return query.executeUpdate() > 0;
+	}
+	
 	public User getUserByEmail(String email) {
 		return getSession().bySimpleNaturalId(User.class).load(email);
 	}
@@ -31,6 +79,15 @@ public class UserDaoImpl extends AbstractDao<String, User> implements UserDao {
 		persist(user);
 	}
 
+	/*
+	 * Bloquea la fila del usuario hasta el fin de la transacción en curso.
+	 */
+	public void lockUserById(String id) {
+		Query<?> query = getSession().createSQLQuery("SELECT id_usuario FROM usuario WHERE id_usuario = :id FOR UPDATE");
+		query.setParameter("id", id);
+		query.list();
+	}
+	
 	public void deleteUserById(String id) {
 		Query<?> query = getSession().createSQLQuery("DELETE FROM usuario WHERE id_usuario = :id");
 		query.setParameter("id", id);
@@ -38,10 +95,38 @@ public class UserDaoImpl extends AbstractDao<String, User> implements UserDao {
 	}
  
 	public List<User> getAllUsers() {
+		return getAllUsers(null);
+	}
+	
+	/*
+	 * Devuelve los registros ordenados por (fechaCreacion, id), continuando a partir del cursor de la página solicitada.
+	 */
+	public List<User> getAllUsers(PageRequest page) {
 		CriteriaBuilder builder = getSession().getCriteriaBuilder();
 		CriteriaQuery<User> criteriaQuery = builder.createQuery(User.class);
-		criteriaQuery.from(User.class);
+		Root<User> root = criteriaQuery.from(User.class);
+		Path<DateTime> timestamp = root.get("fechaCreacion");
+		Path<String> id = root.get("id");
 		
-		return getSession().createQuery(criteriaQuery).getResultList();
+		if (page != null && page.getAfter() != null) {
+			String afterId = page.getAfter().getStringId();
+			if (afterId == null)
+				return Collections.emptyList();
+			criteriaQuery.where(keysetAfter(builder, timestamp, id, page.getAfter().getDateTime(), afterId));
+		}
+		criteriaQuery.orderBy(builder.asc(timestamp), builder.asc(id));
+		
+		return getResultPage(criteriaQuery, page);
+	}
+	
+	/*
+	 * Suma <delta> al resumen de valoraciones del usuario prestador.
+	 */
+	public int updateRatingSummary(String id, RatingSummary delta) {
+		return RatingSummaryUpdates.applyDelta(getSession(), User.class, id, delta);
+	}
+	
+	public int resetRatingSummaries() {
+		return RatingSummaryUpdates.reset(getSession(), User.class);
 	}
 }
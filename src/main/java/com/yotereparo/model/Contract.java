@@ -7,7 +7,11 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedSubgraph;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
@@ -16,8 +20,16 @@ import org.joda.time.DateTime;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
-@Table(name="contrato")
+@Table(name="contrato", indexes = { @Index(name = "contrato_presupuesto_idx", columnList = "id_presupuesto") })
+@NamedEntityGraph(name = Contract.LISTING_GRAPH, 
+	attributeNodes = { @NamedAttributeNode(value = "presupuesto", subgraph = "presupuesto") },
+	subgraphs = { @NamedSubgraph(name = "presupuesto", attributeNodes = {
+			@NamedAttributeNode("servicio"),
+			@NamedAttributeNode("usuarioFinal") }) })
 public class Contract {
+	// Plan de carga para listados: el presupuesto y sus extremos se resuelven en la misma consulta
+	public static final String LISTING_GRAPH = "Contract.listing";
+	
 	// Constantes de estado
 	public static final String PENDING_EXECUTION = "PENDIENTE";
 	public static final String ONGOING_EXECUTION = "EN_PROCESO";
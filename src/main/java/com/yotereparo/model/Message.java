@@ -6,8 +6,11 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 
 import org.hibernate.annotations.Type;
@@ -15,8 +18,17 @@ import org.joda.time.DateTime;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
-@Table(name="mensaje")
+@Table(name="mensaje", indexes = {
+		@Index(name = "mensaje_usuario_final_idx", columnList = "id_usuario_final, fecha_consulta, id_mensaje"),
+		@Index(name = "mensaje_servicio_idx", columnList = "id_servicio, fecha_consulta, id_mensaje"),
+		@Index(name = "mensaje_usuario_final_servicio_idx", columnList = "id_usuario_final, id_servicio, fecha_consulta") })
+@NamedEntityGraph(name = Message.LISTING_GRAPH, attributeNodes = {
+		@NamedAttributeNode("servicio"),
+		@NamedAttributeNode("usuarioFinal") })
 public class Message {
+	// Plan de carga para listados: el servicio y el usuario final se resuelven en la misma consulta
+	public static final String LISTING_GRAPH = "Message.listing";
+	
 	// Constantes de estado
 	public static final String AWAITING_RESPONSE = "ESPERANDO_RESPUESTA";
 	public static final String CLOSED = "CERRADO";
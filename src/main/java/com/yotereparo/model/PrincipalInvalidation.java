@@ -0,0 +1,75 @@
+package com.yotereparo.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Type;
+import org.joda.time.DateTime;
+
+/**
+ * Registro de que los principals cacheados de un usuario dejaron de ser válidos (cambio de roles, estado
+ * o contraseña, o baja). Cada nodo consulta periódicamente los registros recientes para descartar
+ * sus propias copias; los registros se eliminan una vez vencido el ttl del cache.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Entity
+@Table(name="invalidacion_principal", indexes = {
+		@Index(name = "invalidacion_principal_fecha_idx", columnList = "fecha") })
+public class PrincipalInvalidation {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id_invalidacion", nullable = false)
+	private Long id;
+
+	@Column(name = "id_usuario", nullable = false)
+	private String idUsuario;
+
+	@Column(name = "fecha", nullable = false)
+	@Type(type="org.jadira.usertype.dateandtime.joda.PersistentDateTime")
+	private DateTime fecha;
+
+	public PrincipalInvalidation() { }
+
+	public PrincipalInvalidation(String idUsuario, DateTime fecha) {
+		this.idUsuario = idUsuario;
+		this.fecha = fecha;
+	}
+
+	/* Getters & Setters */
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getIdUsuario() {
+		return idUsuario;
+	}
+
+	public void setIdUsuario(String idUsuario) {
+		this.idUsuario = idUsuario;
+	}
+
+	public DateTime getFecha() {
+		return fecha;
+	}
+
+	public void setFecha(DateTime fecha) {
+		this.fecha = fecha;
+	}
+
+	@Override
+	public String toString() {
+		return "PrincipalInvalidation [id=" + id + ", idUsuario=" + idUsuario + ", fecha=" + fecha + "]";
+	}
+}
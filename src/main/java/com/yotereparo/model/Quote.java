@@ -7,8 +7,11 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
@@ -18,8 +21,19 @@ import org.joda.time.DateTime;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
-@Table(name="presupuesto")
+@Table(name="presupuesto", indexes = {
+		@Index(name = "presupuesto_usuario_final_idx", columnList = "id_usuario_final, fecha_creacion, id_presupuesto"),
+		@Index(name = "presupuesto_servicio_idx", columnList = "id_servicio, fecha_creacion, id_presupuesto"),
+		@Index(name = "presupuesto_usuario_final_servicio_idx", columnList = "id_usuario_final, id_servicio, estado") })
+@NamedEntityGraph(name = Quote.LISTING_GRAPH, attributeNodes = {
+		@NamedAttributeNode("servicio"),
+		@NamedAttributeNode("usuarioFinal"),
+		@NamedAttributeNode("direccionUsuarioFinal"),
+		@NamedAttributeNode("contrato") })
 public class Quote {
+	// Plan de carga para listados: el servicio, el usuario final, la dirección y el contrato se resuelven en la misma consulta
+	public static final String LISTING_GRAPH = "Quote.listing";
+	
 	// Constantes de estado
 	public static final String AWAITING_PROVIDER = "ESPERANDO_USUARIO_PRESTADOR";
 	public static final String AWAITING_CUSTOMER = "ESPERANDO_USUARIO_FINAL";
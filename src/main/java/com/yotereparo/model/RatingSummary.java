@@ -0,0 +1,144 @@
+package com.yotereparo.model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+
+/**
+ * Resumen desnormalizado de las valoraciones recibidas (cantidad, suma y distribución por valor),
+ * embebido en Servicios y Usuarios prestadores. Se actualiza de forma incremental al valorarse un contrato,
+ * de modo que los listados obtengan el promedio sin recorrer presupuestos y contratos.
+ *
+ * Las columnas solo se escriben mediante las sentencias de RatingSummaryUpdates (x = x + delta): se excluyen del
+ * INSERT y del UPDATE de la entidad, para que guardar un Servicio o Usuario cargado antes de una valoración
+ * no sobrescriba el resumen con valores desactualizados.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Embeddable
+public class RatingSummary {
+
+	// Escala de valoración de los contratos (ver ContractDto)
+	public static final int MIN_RATING = 1;
+	public static final int MAX_RATING = 10;
+
+	@Column(name = "valoracion_cantidad", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int cantidad;
+
+	@Column(name = "valoracion_suma", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int suma;
+
+	// Cantidad de valoraciones recibidas con cada valor de la escala
+	@Column(name = "valoracion_1", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor1;
+	@Column(name = "valoracion_2", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor2;
+	@Column(name = "valoracion_3", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor3;
+	@Column(name = "valoracion_4", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor4;
+	@Column(name = "valoracion_5", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor5;
+	@Column(name = "valoracion_6", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor6;
+	@Column(name = "valoracion_7", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor7;
+	@Column(name = "valoracion_8", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor8;
+	@Column(name = "valoracion_9", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor9;
+	@Column(name = "valoracion_10", columnDefinition = "INTEGER DEFAULT 0", nullable = false, insertable = false, updatable = false)
+	private int valor10;
+
+	public RatingSummary() { }
+
+	/*
+	 * Diferencia a aplicar sobre el resumen cuando una valoración pasa de <previousRating> (null si no existía)
+	 * a <rating>.
+	 */
+	public static RatingSummary delta(Integer previousRating, int rating) {
+		RatingSummary delta = new RatingSummary();
+		if (previousRating == null)
+			delta.cantidad = 1;
+		else {
+			delta.suma -= previousRating;
+			delta.add(previousRating, -1);
+		}
+		delta.suma += rating;
+		delta.add(rating, 1);
+		return delta;
+	}
+
+	/*
+	 * Acumula <count> valoraciones con valor <rating>.
+	 */
+	public void add(int rating, int count) {
+		switch (rating) {
+			case 1: valor1 += count; break;
+			case 2: valor2 += count; break;
+			case 3: valor3 += count; break;
+			case 4: valor4 += count; break;
+			case 5: valor5 += count; break;
+			case 6: valor6 += count; break;
+			case 7: valor7 += count; break;
+			case 8: valor8 += count; break;
+			case 9: valor9 += count; break;
+			case 10: valor10 += count; break;
+			default: throw new IllegalArgumentException("Rating out of range: " + rating);
+		}
+	}
+
+	public void addAll(int rating, int count) {
+		cantidad += count;
+		suma += rating * count;
+		add(rating, count);
+	}
+
+	public int getCantidad() {
+		return cantidad;
+	}
+
+	public int getSuma() {
+		return suma;
+	}
+
+	public int getCantidad(int rating) {
+		switch (rating) {
+			case 1: return valor1;
+			case 2: return valor2;
+			case 3: return valor3;
+			case 4: return valor4;
+			case 5: return valor5;
+			case 6: return valor6;
+			case 7: return valor7;
+			case 8: return valor8;
+			case 9: return valor9;
+			case 10: return valor10;
+			default: throw new IllegalArgumentException("Rating out of range: " + rating);
+		}
+	}
+
+	/*
+	 * Promedio redondeado a un decimal, o null si no hay valoraciones.
+	 */
+	public Float getPromedio() {
+		if (cantidad == 0)
+			return null;
+		return (float) (Math.round(((float) suma / (float) cantidad) * 10.0) / 10.0);
+	}
+
+	public Map<Integer, Integer> getDistribucion() {
+		Map<Integer, Integer> distribucion = new TreeMap<Integer, Integer>();
+		for (int rating = MIN_RATING; rating <= MAX_RATING; rating++)
+			distribucion.put(rating, getCantidad(rating));
+		return distribucion;
+	}
+
+	@Override
+	public String toString() {
+		return "RatingSummary [cantidad=" + cantidad + ", suma=" + suma + ", distribucion=" + getDistribucion() + "]";
+	}
+}
@@ -1,32 +1,51 @@
 package com.yotereparo.model;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.Transient;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.Where;
 import org.joda.time.DateTime;
 import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
-@Table(name="servicio")
+@Table(name="servicio", indexes = { @Index(name = "servicio_usuario_prestador_estado_idx", columnList = "id_usuario_prestador,estado") })
+@NamedEntityGraphs({
+	@NamedEntityGraph(name = Service.LISTING_GRAPH, attributeNodes = {
+			@NamedAttributeNode("usuarioPrestador"),
+			@NamedAttributeNode("tipoServicio") }),
+	@NamedEntityGraph(name = Service.DETAIL_GRAPH, attributeNodes = {
+			@NamedAttributeNode("usuarioPrestador"),
+			@NamedAttributeNode("tipoServicio"),
+			@NamedAttributeNode("mediosDePago"),
+			@NamedAttributeNode("requerimientos") })
+})
 public class Service {
+	// Planes de carga por caso de uso, el resto de las asociaciones se inicializan bajo demanda
+	public static final String LISTING_GRAPH = "Service.listing";
+	public static final String DETAIL_GRAPH = "Service.detail";
+	
 	// Constantes de estado
 	public static final String ACTIVE = "ACTIVO";
 	public static final String INACTIVE = "INACTIVO";
@@ -80,9 +99,12 @@ public class Service {
 	@Column(name = "factura_emitida", nullable = false)
 	private boolean facturaEmitida;
 	
-	private byte[] imagen;
+	// Referencias (hash de contenido) a las imágenes en el BlobStore
+	@Column(name = "hash_imagen", nullable = true)
+	private String hashImagen;
 	
-	private byte[] thumbnail;
+	@Column(name = "hash_thumbnail", nullable = true)
+	private String hashThumbnail;
 	
 	@ManyToOne
     @JoinColumn(name="id_tiposervicio", nullable=false, updatable = true, insertable = true)
@@ -95,25 +117,33 @@ public class Service {
 	
 	private String estado;
 	
-	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.EAGER)
+	// Resumen de las valoraciones recibidas, mantenido por RatingService
+	@Embedded
+	private RatingSummary valoracion = new RatingSummary();
+	
+	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.LAZY)
+	@BatchSize(size = 50)
     @JoinTable(name="servicio_mediodepago",
         joinColumns = {@JoinColumn(name="id_servicio")},
         inverseJoinColumns = {@JoinColumn(name="id_mediodepago")}    
     )
 	private Set<PaymentMethod> mediosDePago = new HashSet<PaymentMethod>(0);
 	
-	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.EAGER)
+	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.LAZY)
+	@BatchSize(size = 50)
     @JoinTable(name="servicio_requerimiento",
         joinColumns = {@JoinColumn(name="id_servicio")},
         inverseJoinColumns = {@JoinColumn(name="id_requerimiento")}    
     )
 	private Set<Requirement> requerimientos = new HashSet<Requirement>(0);
 	
-	@OneToMany(mappedBy = "servicio", fetch = FetchType.EAGER, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@OneToMany(mappedBy = "servicio", fetch = FetchType.LAZY, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@BatchSize(size = 50)
 	@Where(clause = "estado <> '"+Quote.ARCHIVED+"'")
 	private Set<Quote> presupuestos = new HashSet<Quote>(0);
 	
-	@OneToMany(mappedBy = "servicio", fetch = FetchType.EAGER, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@OneToMany(mappedBy = "servicio", fetch = FetchType.LAZY, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@BatchSize(size = 50)
 	@Where(clause = "estado <> '"+Message.ARCHIVED+"'")
 	private Set<Message> mensajes = new HashSet<Message>(0);
 		
@@ -225,18 +255,18 @@ public class Service {
 		this.facturaEmitida = facturaEmitida;
 	}
 
-	public byte[] getImagen() {
-		return imagen;
+	public String getHashImagen() {
+		return hashImagen;
 	}
-	public void setImagen(byte[] imagen) {
-		this.imagen = imagen;
+	public void setHashImagen(String hashImagen) {
+		this.hashImagen = hashImagen;
 	}
 
-	public byte[] getThumbnail() {
-		return thumbnail;
+	public String getHashThumbnail() {
+		return hashThumbnail;
 	}
-	public void setThumbnail(byte[] thumbnail) {
-		this.thumbnail = thumbnail;
+	public void setHashThumbnail(String hashThumbnail) {
+		this.hashThumbnail = hashThumbnail;
 	}
 
 	public ServiceType getTipoServicio() {
@@ -259,6 +289,10 @@ public class Service {
 	public void setEstado(String estado) {
 		this.estado = estado;
 	}
+	
+	public RatingSummary getValoracion() {
+		return valoracion;
+	}
 
 	public Set<PaymentMethod> getMediosDePago() {
 		return mediosDePago;
@@ -312,31 +346,6 @@ public class Service {
     	mensajes.remove(mensaje);
     }
 
-	public boolean similarTo(Service service) {
-		if (service == null)
-			return false;
-		if (this.id == service.id)
-			return false;
-		if (this.titulo.equalsIgnoreCase(service.titulo) ||
-				( this.descripcion.equalsIgnoreCase(service.descripcion) &&
-				  this.disponibilidad.equalsIgnoreCase(service.disponibilidad) &&
-				  this.insitu == service.insitu &&
-				  this.precioMaximo.equals(service.precioMaximo) &&
-				  this.precioMinimo.equals(service.precioMinimo) &&
-				  this.precioInsumos.equals(service.precioInsumos) &&
-				  this.precioAdicionales.equals(service.precioAdicionales) &&
-				  this.horasEstimadasEjecucion.equals(service.horasEstimadasEjecucion) &&
-				  this.cantidadTrabajadores.equals(service.cantidadTrabajadores) &&
-				  this.facturaEmitida == service.facturaEmitida &&
-				  Arrays.equals(imagen, service.imagen) &&
-				  Arrays.equals(thumbnail, service.thumbnail) &&
-				  this.tipoServicio.equals(service.tipoServicio) &&
-				  this.mediosDePago.equals(service.mediosDePago) &&
-				  this.requerimientos.equals(service.requerimientos) ))
-			return true;
-		return false;
-    }
-
 	@Override
 	public boolean equals(Object obj) {
 		if (this == obj)
@@ -380,7 +389,10 @@ public class Service {
 				return false;
 		} else if (!horasEstimadasEjecucion.equals(other.horasEstimadasEjecucion))
 			return false;
-		if (!Arrays.equals(imagen, other.imagen))
+		if (hashImagen == null) {
+			if (other.hashImagen != null)
+				return false;
+		} else if (!hashImagen.equals(other.hashImagen))
 			return false;
 		if (mediosDePago == null) {
 			if (other.mediosDePago != null)
@@ -422,7 +434,10 @@ public class Service {
 				return false;
 		} else if (!mensajes.equals(other.mensajes))
 			return false;
-		if (!Arrays.equals(thumbnail, other.thumbnail))
+		if (hashThumbnail == null) {
+			if (other.hashThumbnail != null)
+				return false;
+		} else if (!hashThumbnail.equals(other.hashThumbnail))
 			return false;
 		if (tipoServicio == null) {
 			if (other.tipoServicio != null)
@@ -449,8 +464,8 @@ public class Service {
 				+ precioMaximo + ", precioMinimo=" + precioMinimo + ", precioPromedio=" + precioPromedio
 				+ ", precioInsumos=" + precioInsumos + ", precioAdicionales=" + precioAdicionales
 				+ ", horasEstimadasEjecucion=" + horasEstimadasEjecucion + ", cantidadTrabajadores="
-				+ cantidadTrabajadores + ", facturaEmitida=" + facturaEmitida + ", imagen=" + Arrays.toString(imagen)
-				+ ", thumbnail=" + Arrays.toString(thumbnail) + ", tipoServicio=" + tipoServicio + ", fechaCreacion="
+				+ cantidadTrabajadores + ", facturaEmitida=" + facturaEmitida + ", hashImagen=" + hashImagen
+				+ ", hashThumbnail=" + hashThumbnail + ", tipoServicio=" + tipoServicio + ", fechaCreacion="
 				+ fechaCreacion + ", estado=" + estado + ", mediosDePago=" + mediosDePago + ", requerimientos="
 				+ requerimientos + ", presupuestos=" + presupuestos + ", mensajes=" + mensajes + "]";
 	}
@@ -0,0 +1,34 @@
+package com.yotereparo.model;
+
+import javax.persistence.metamodel.SetAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.StaticMetamodel;
+
+import org.joda.time.DateTime;
+
+@StaticMetamodel(Service.class)
+public class Service_ {
+	public static volatile SingularAttribute<Service, Integer> id;
+	public static volatile SingularAttribute<Service, User> usuarioPrestador;
+	public static volatile SingularAttribute<Service, String> titulo;
+	public static volatile SingularAttribute<Service, String> descripcion;
+	public static volatile SingularAttribute<Service, String> disponibilidad;
+	public static volatile SingularAttribute<Service, Boolean> insitu;
+	public static volatile SingularAttribute<Service, Float> precioMaximo;
+	public static volatile SingularAttribute<Service, Float> precioMinimo;
+	public static volatile SingularAttribute<Service, Float> precioInsumos;
+	public static volatile SingularAttribute<Service, Float> precioAdicionales;
+	public static volatile SingularAttribute<Service, Float> horasEstimadasEjecucion;
+	public static volatile SingularAttribute<Service, Integer> cantidadTrabajadores;
+	public static volatile SingularAttribute<Service, Boolean> facturaEmitida;
+	public static volatile SingularAttribute<Service, String> hashImagen;
+	public static volatile SingularAttribute<Service, String> hashThumbnail;
+	public static volatile SingularAttribute<Service, ServiceType> tipoServicio;
+	public static volatile SingularAttribute<Service, DateTime> fechaCreacion;
+	public static volatile SingularAttribute<Service, String> estado;
+	public static volatile SingularAttribute<Service, RatingSummary> valoracion;
+	public static volatile SetAttribute<Service, PaymentMethod> mediosDePago;
+	public static volatile SetAttribute<Service, Requirement> requerimientos;
+	public static volatile SetAttribute<Service, Quote> presupuestos;
+	public static volatile SetAttribute<Service, Message> mensajes;
+}
@@ -1,21 +1,25 @@
 package com.yotereparo.model;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.persistence.JoinColumn;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.NaturalId;
 import org.hibernate.annotations.Type;
 import org.hibernate.annotations.Where;
@@ -25,7 +29,22 @@ import org.springframework.format.annotation.DateTimeFormat;
 
 @Entity
 @Table(name="usuario") 
+@NamedEntityGraphs({
+	@NamedEntityGraph(name = User.AUTH_GRAPH, attributeNodes = {
+			@NamedAttributeNode("roles") }),
+	@NamedEntityGraph(name = User.PROFILE_GRAPH, attributeNodes = {
+			@NamedAttributeNode("ciudad"),
+			@NamedAttributeNode("roles") })
+})
 public class User {
+	/*
+	 * Planes de carga por caso de uso, el resto de las asociaciones se inicializan bajo demanda.
+	 * Cada plan trae a lo sumo una colección: varias en el mismo join multiplican las filas (producto cartesiano);
+	 * direcciones y barrios se cargan en una consulta adicional cada una (@BatchSize).
+	 */
+	public static final String AUTH_GRAPH = "User.auth";
+	public static final String PROFILE_GRAPH = "User.profile";
+	
 	// Constantes de estado
 	public static final String ACTIVE = "ACTIVO";
 	public static final String INACTIVE = "INACTIVO";
@@ -64,9 +83,12 @@ public class User {
     @JoinColumn(name="id_ciudad", nullable=false, updatable = true, insertable = true)
 	private City ciudad;
 	
-	private byte[] foto;
+	// Referencias (hash de contenido) a las imágenes en el BlobStore
+	@Column(name = "hash_foto", nullable = true)
+	private String hashFoto;
 	
-	private byte[] thumbnail;
+	@Column(name = "hash_thumbnail", nullable = true)
+	private String hashThumbnail;
 	
 	private String contrasena;
 	
@@ -76,6 +98,10 @@ public class User {
 	
 	private String estado;
 	
+	// Resumen de las valoraciones recibidas como prestador, mantenido por RatingService
+	@Embedded
+	private RatingSummary valoracion = new RatingSummary();
+	
 	@Column(name = "intentos_ingreso", nullable = false)
 	private Integer intentosIngreso;
 	
@@ -101,11 +127,13 @@ public class User {
 	
 	private String membresia;
 	
-	@OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+	@OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
 	@JoinColumn(name = "id_usuario", nullable = false, updatable = false, insertable = true)
+	@BatchSize(size = 50)
 	private Set<Address> direcciones = new HashSet<Address>(0);
 	
-	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.EAGER)
+	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.LAZY)
+	@BatchSize(size = 50)
     @JoinTable(name="usuario_rol",
         joinColumns = {@JoinColumn(name="id_usuario")},
         inverseJoinColumns = {@JoinColumn(name="id_rol")}    
@@ -113,22 +141,26 @@ public class User {
 	@Where(clause = "estado <> '"+Role.INACTIVE+"'")
 	private Set<Role> roles = new HashSet<Role>(0);
 	
-	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.EAGER)
+	@ManyToMany(cascade=CascadeType.MERGE,fetch=FetchType.LAZY)
+	@BatchSize(size = 50)
     @JoinTable(name="usuario_barrio",
         joinColumns = {@JoinColumn(name="id_usuario")},
         inverseJoinColumns = {@JoinColumn(name="id_barrio")}    
     )
 	private Set<District> barrios = new HashSet<District>(0);
 	
-	@OneToMany(mappedBy = "usuarioPrestador", fetch = FetchType.EAGER, cascade=CascadeType.MERGE, orphanRemoval = true)
+	@OneToMany(mappedBy = "usuarioPrestador", fetch = FetchType.LAZY, cascade=CascadeType.MERGE, orphanRemoval = true)
+	@BatchSize(size = 50)
 	@Where(clause = "estado <> '"+Service.ARCHIVED+"' OR estado <> '"+Service.BLOCKED+"'")
 	private Set<Service> servicios  = new HashSet<Service>(0);
 	
-	@OneToMany(mappedBy = "usuarioFinal", fetch = FetchType.EAGER, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@OneToMany(mappedBy = "usuarioFinal", fetch = FetchType.LAZY, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@BatchSize(size = 50)
 	@Where(clause = "estado <> '"+Quote.ARCHIVED+"'")
 	private Set<Quote> presupuestos = new HashSet<Quote>(0);
 	
-	@OneToMany(mappedBy = "usuarioFinal", fetch = FetchType.EAGER, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@OneToMany(mappedBy = "usuarioFinal", fetch = FetchType.LAZY, cascade = CascadeType.MERGE, orphanRemoval = true)
+	@BatchSize(size = 50)
 	@Where(clause = "estado <> '"+Message.ARCHIVED+"'")
 	private Set<Message> mensajes = new HashSet<Message>(0);
 
@@ -191,18 +223,18 @@ public class User {
 		this.ciudad = ciudad;
 	}
 
-	public byte[] getFoto() {
-		return foto;
+	public String getHashFoto() {
+		return hashFoto;
 	}
-	public void setFoto(byte[] foto) {
-		this.foto = foto;
+	public void setHashFoto(String hashFoto) {
+		this.hashFoto = hashFoto;
 	}
 
-	public byte[] getThumbnail() {
-		return thumbnail;
+	public String getHashThumbnail() {
+		return hashThumbnail;
 	}
-	public void setThumbnail(byte[] thumbnail) {
-		this.thumbnail = thumbnail;
+	public void setHashThumbnail(String hashThumbnail) {
+		this.hashThumbnail = hashThumbnail;
 	}
 
 	public String getContrasena() {
@@ -233,6 +265,10 @@ public class User {
 		this.estado = estado;
 	}
 	
+	public RatingSummary getValoracion() {
+		return valoracion;
+	}
+	
 	public Integer getIntentosIngreso()	{
 		return intentosIngreso;
 	}
@@ -442,7 +478,10 @@ public class User {
 				return false;
 		} else if (!fechaUltimoIngreso.equals(other.fechaUltimoIngreso))
 			return false;
-		if (!Arrays.equals(foto, other.foto))
+		if (hashFoto == null) {
+			if (other.hashFoto != null)
+				return false;
+		} else if (!hashFoto.equals(other.hashFoto))
 			return false;
 		if (id == null) {
 			if (other.id != null)
@@ -486,7 +525,10 @@ public class User {
 				return false;
 		} else if (!telefonoPrincipal.equals(other.telefonoPrincipal))
 			return false;
-		if (!Arrays.equals(thumbnail, other.thumbnail))
+		if (hashThumbnail == null) {
+			if (other.hashThumbnail != null)
+				return false;
+		} else if (!hashThumbnail.equals(other.hashThumbnail))
 			return false;
 		return true;
 	}
@@ -495,8 +537,8 @@ public class User {
 	public String toString() {
 		return "User [id=" + id + ", nombre=" + nombre + ", apellido=" + apellido + ", email=" + email
 				+ ", fechaNacimiento=" + fechaNacimiento + ", telefonoPrincipal=" + telefonoPrincipal
-				+ ", telefonoAlternativo=" + telefonoAlternativo + ", ciudad=" + ciudad + ", foto="
-				+ Arrays.toString(foto) + ", thumbnail=" + Arrays.toString(thumbnail) + ", contrasena=" + contrasena
+				+ ", telefonoAlternativo=" + telefonoAlternativo + ", ciudad=" + ciudad + ", hashFoto="
+				+ hashFoto + ", hashThumbnail=" + hashThumbnail + ", contrasena=" + contrasena
 				+ ", salt=" + salt + ", descripcion=" + descripcion + ", estado=" + estado + ", intentosIngreso="
 				+ intentosIngreso + ", fechaUltimoCambioContrasena=" + fechaUltimoCambioContrasena
 				+ ", fechaUltimoIngreso=" + fechaUltimoIngreso + ", fechaExpiracionContrasena="
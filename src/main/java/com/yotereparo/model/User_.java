@@ -17,12 +17,13 @@ public class User_ {
 	public static volatile SingularAttribute<User, String> telefonoPrincipal;
 	public static volatile SingularAttribute<User, String> telefonoAlternativo;
 	public static volatile SingularAttribute<User, City> ciudad;
-	public static volatile SingularAttribute<User, byte[]> foto;
-	public static volatile SingularAttribute<User, byte[]> thumbnail;
+	public static volatile SingularAttribute<User, String> hashFoto;
+	public static volatile SingularAttribute<User, String> hashThumbnail;
 	public static volatile SingularAttribute<User, String> contrasena;
 	public static volatile SingularAttribute<User, String> salt;
 	public static volatile SingularAttribute<User, String> descripcion;
 	public static volatile SingularAttribute<User, String> estado;
+	public static volatile SingularAttribute<User, RatingSummary> valoracion;
 	public static volatile SingularAttribute<User, Integer> intentosIngreso;
 	public static volatile SingularAttribute<User, DateTime> fechaUltimoCambioContrasena;
 	public static volatile SingularAttribute<User, DateTime> fechaUltimoIngreso;
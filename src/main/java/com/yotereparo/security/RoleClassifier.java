@@ -0,0 +1,101 @@
+package com.yotereparo.security;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.yotereparo.model.Role;
+import com.yotereparo.security.service.UserDetailsImpl;
+import com.yotereparo.util.SpringEnvironmentUtils;
+
+/**
+ * Clasificación de los roles configurados (role.id.*) en capacidades, representadas como bits de un entero.
+ * La tabla rol -> capacidades se construye una única vez al iniciar el contexto; a partir de ella las
+ * capacidades de un usuario se calculan una vez por principal, y cada verificación es una operación de bits.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class RoleClassifier {
+
+	private static final Logger logger = LoggerFactory.getLogger(RoleClassifier.class);
+
+	public static final int USUARIO_FINAL = 1;
+	public static final int USUARIO_PRESTADOR = 1 << 1;
+	public static final int SERVICE_ACCOUNT = 1 << 2;
+	public static final int ADMINISTRATOR = 1 << 3;
+	public static final int SERVICE_ACCOUNT_OR_ADMINISTRATOR = SERVICE_ACCOUNT | ADMINISTRATOR;
+
+	@Autowired
+	ConfigurableEnvironment environment;
+
+	private Map<String, Integer> capabilitiesByRole;
+
+	@PostConstruct
+	public void init() {
+		Map<String, Integer> capabilities = new HashMap<String, Integer>();
+		register(capabilities, "role.id.usuariofinal", USUARIO_FINAL);
+		register(capabilities, "role.id.usuarioprestador", USUARIO_PRESTADOR);
+		register(capabilities, "role.id.serviceaccount", SERVICE_ACCOUNT);
+		register(capabilities, "role.id.administrator", ADMINISTRATOR);
+		capabilitiesByRole = Collections.unmodifiableMap(capabilities);
+		logger.debug("Role capabilities: {}", capabilitiesByRole);
+	}
+
+	private void register(Map<String, Integer> capabilities, String propertyPrefix, int capability) {
+		for (Object roleId : SpringEnvironmentUtils.getPropertiesStartingWith(environment, propertyPrefix).values())
+			capabilities.merge(roleId.toString(), capability, (current, added) -> current | added);
+	}
+
+	public static boolean hasAny(int capabilities, int mask) {
+		return (capabilities & mask) != 0;
+	}
+
+	public int classify(String roleId) {
+		Integer capabilities = capabilitiesByRole.get(roleId);
+		return (capabilities != null) ? capabilities : 0;
+	}
+
+	public int classifyRoles(Collection<Role> roles) {
+		int capabilities = 0;
+		for (Role role : roles)
+			capabilities |= classify(role.getId());
+		return capabilities;
+	}
+
+	public int classifyAuthorities(Collection<? extends GrantedAuthority> authorities) {
+		int capabilities = 0;
+		for (GrantedAuthority authority : authorities)
+			capabilities |= classify(authority.getAuthority());
+		return capabilities;
+	}
+
+	/*
+	 * Capacidades del usuario autenticado. Se toman del principal, donde se calcularon al construirlo;
+	 * solo si el principal es de otro tipo se recalculan a partir de sus authorities.
+	 */
+	public int getCapabilities(Authentication authentication) {
+		if (authentication == null)
+			return 0;
+		Object principal = authentication.getPrincipal();
+		if (principal instanceof UserDetailsImpl)
+			return ((UserDetailsImpl) principal).getCapabilities();
+		return classifyAuthorities(authentication.getAuthorities());
+	}
+
+	public boolean isServiceAccountOrAdministrator(Authentication authentication) {
+		return hasAny(getCapabilities(authentication), SERVICE_ACCOUNT_OR_ADMINISTRATOR);
+	}
+}
@@ -18,6 +18,10 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.yotereparo.security.service.PrincipalCache;
+
+import io.jsonwebtoken.Claims;
+
 public class AuthTokenFilter extends OncePerRequestFilter {
 	@Autowired
 	private JwtUtils jwtUtils;
@@ -25,6 +29,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 	@Autowired
 	private UserDetailsService userDetailsService;
 
+	@Autowired
+	private PrincipalCache principalCache;
+
 	private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
 	@Override
@@ -32,10 +39,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 			throws ServletException, IOException {
 		try {
 			String jwt = parseJwt(request);
-			if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-				String username = jwtUtils.getUserNameFromJwtToken(jwt);
+			// Validamos el token y obtenemos sus claims en un único parseo
+			Claims claims = (jwt != null) ? jwtUtils.getValidatedClaims(jwt) : null;
+			if (claims != null) {
+				String username = claims.getSubject();
+				long issuedAt = claims.getIssuedAt().getTime();
 
-				UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+				// Resolvemos el principal desde el cache, y solo ante un miss consultamos la base
+				UserDetails userDetails = principalCache.get(username, issuedAt);
+				if (userDetails == null) {
+					userDetails = userDetailsService.loadUserByUsername(username);
+					principalCache.put(username, issuedAt, userDetails);
+				}
 				UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
 						userDetails, null, userDetails.getAuthorities());
 				authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
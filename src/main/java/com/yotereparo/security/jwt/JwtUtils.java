@@ -1,7 +1,13 @@
 package com.yotereparo.security.jwt;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 
+import javax.annotation.PostConstruct;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +15,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import com.yotereparo.security.service.UserDetailsImpl;
+import com.yotereparo.util.cache.ExpiringCache;
+
 import io.jsonwebtoken.*;
 
 @Component
@@ -21,6 +29,17 @@ public class JwtUtils {
 	@Value("${security.jwtExpirationMs}")
 	private int jwtExpirationMs;
 
+	@Value("${security.verifiedTokenCache.maxEntries}")
+	private int verifiedTokenCacheMaxEntries;
+
+	// Digest del token -> claims ya verificados. Cada entrada vence junto con el token que la originó.
+	private ExpiringCache<String, Claims> verifiedTokens;
+
+	@PostConstruct
+	public void init() {
+		verifiedTokens = new ExpiringCache<String, Claims>(verifiedTokenCacheMaxEntries);
+	}
+
 	public String generateJwtToken(Authentication authentication) {
 
 		UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
@@ -34,13 +53,36 @@ public class JwtUtils {
 	}
 
 	public String getUserNameFromJwtToken(String token) {
-		return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+		Claims claims = getValidatedClaims(token);
+		return (claims != null) ? claims.getSubject() : null;
 	}
 
 	public boolean validateJwtToken(String authToken) {
+		return getValidatedClaims(authToken) != null;
+	}
+
+	/*
+	 * Valida el token y devuelve sus claims, o null si el token es inválido o expiró.
+	 * La firma se verifica una única vez por token: los claims verificados se cachean hasta la expiración del token.
+	 */
+	public Claims getValidatedClaims(String authToken) {
+		if (authToken == null || authToken.isEmpty()) {
+			logger.error("JWT claims string is empty");
+			return null;
+		}
+
+		String digest = digest(authToken);
+		Claims claims = verifiedTokens.get(digest);
+		if (claims != null)
+			return claims;
+
 		try {
-			Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-			return true;
+			claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken).getBody();
+			long expiresAt = (claims.getExpiration() != null)
+					? claims.getExpiration().getTime()
+					: System.currentTimeMillis() + jwtExpirationMs;
+			verifiedTokens.put(digest, claims, expiresAt);
+			return claims;
 		} catch (SignatureException e) {
 			logger.error("Invalid JWT signature: {}", e.getMessage());
 		} catch (MalformedJwtException e) {
@@ -53,6 +95,16 @@ public class JwtUtils {
 			logger.error("JWT claims string is empty: {}", e.getMessage());
 		}
 
-		return false;
+		return null;
+	}
+
+	// No mantenemos los tokens en memoria, solo su digest
+	private static String digest(String token) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
 	}
 }
\ No newline at end of file
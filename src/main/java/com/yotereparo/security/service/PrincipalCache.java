@@ -0,0 +1,136 @@
+package com.yotereparo.security.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.joda.time.DateTime;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.yotereparo.dao.PrincipalInvalidationDao;
+import com.yotereparo.model.PrincipalInvalidation;
+import com.yotereparo.util.cache.ExpiringCache;
+
+/**
+ * Cache acotado de principals autenticados, indexado por (subject, issued-at) del JWT.
+ * Evita resolver el usuario y sus roles contra la base en cada request autenticado.
+ *
+ * Las entradas expiran luego de <security.principalCache.ttlMs>, y se invalidan explícitamente
+ * desde la capa de servicio cuando cambian los roles, el estado o la contraseña del usuario.
+ * Cada invalidación se registra además en la base, y el resto de los nodos la aplica al consultarlas
+ * cada <security.principalCache.invalidation.poll.ms>: ese es el lapso en que otro nodo puede seguir
+ * autorizando con el estado anterior del usuario.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class PrincipalCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+	@Value("${security.principalCache.maxEntries}")
+	private int maxEntries;
+
+	@Value("${security.principalCache.ttlMs}")
+	private long ttlMs;
+
+	@Autowired
+	private PrincipalInvalidationDao invalidationDao;
+
+	private ExpiringCache<Key, UserDetails> entries;
+	// Invalidaciones ya aplicadas en este nodo, con su fecha, mientras la consulta periódica pueda volver a leerlas
+	private final Map<Long, DateTime> appliedInvalidations = new HashMap<Long, DateTime>();
+
+	@PostConstruct
+	public void init() {
+		entries = new ExpiringCache<Key, UserDetails>(maxEntries);
+	}
+
+	public UserDetails get(String username, long issuedAt) {
+		return entries.get(new Key(username, issuedAt));
+	}
+
+	public void put(String username, long issuedAt, UserDetails principal) {
+		entries.put(new Key(username, issuedAt), principal, System.currentTimeMillis() + ttlMs);
+	}
+
+	/*
+	 * Descarta los principals cacheados del usuario y registra la invalidación para el resto de los nodos,
+	 * en la misma transacción que el cambio. Al confirmarse se descartan nuevamente, para que un request
+	 * concurrente no vuelva a cachear el estado anterior.
+	 */
+	@Transactional
+	public void invalidate(String username) {
+		evictUser(username);
+		invalidationDao.createInvalidation(new PrincipalInvalidation(username, new DateTime()));
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictUser(username);
+				}
+			});
+		}
+	}
+
+	/*
+	 * Aplica las invalidaciones registradas por cualquier nodo. Se releen todas las del último ttl, ya que
+	 * una transacción puede confirmarse después de que una consulta posterior a su fecha no la encontrara;
+	 * las ya aplicadas se ignoran. La transacción es de escritura para leer del primario, sin la demora
+	 * de las réplicas, y elimina las invalidaciones que ya no pueden afectar a ninguna entrada.
+	 */
+	@Scheduled(initialDelayString = "${security.principalCache.invalidation.poll.ms}", 
+			fixedDelayString = "${security.principalCache.invalidation.poll.ms}")
+	@Transactional
+	public void applyInvalidations() {
+		DateTime now = new DateTime();
+		DateTime since = now.minus(ttlMs);
+		for (PrincipalInvalidation invalidation : invalidationDao.getInvalidationsSince(since))
+			if (appliedInvalidations.putIfAbsent(invalidation.getId(), invalidation.getFecha()) == null)
+				evictUser(invalidation.getIdUsuario());
+		appliedInvalidations.values().removeIf(fecha -> fecha.isBefore(since));
+		invalidationDao.deleteInvalidationsBefore(now.minus(2 * ttlMs));
+	}
+
+	private void evictUser(String username) {
+		if (entries.removeIf(key -> key.username.equals(username)))
+			logger.debug("Cached principal of user <{}> invalidated", username);
+	}
+
+	private static final class Key {
+		private final String username;
+		private final long issuedAt;
+
+		private Key(String username, long issuedAt) {
+			this.username = username;
+			this.issuedAt = issuedAt;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			Key other = (Key) o;
+			return issuedAt == other.issuedAt && username.equals(other.username);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(username, issuedAt);
+		}
+	}
+}
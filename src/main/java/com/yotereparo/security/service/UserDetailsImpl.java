@@ -22,14 +22,19 @@ public class UserDetailsImpl implements UserDetails {
 
 	private Collection<? extends GrantedAuthority> authorities;
 
+	// Capacidades de los roles del usuario (ver RoleClassifier), calculadas al construir el principal
+	@JsonIgnore
+	private int capabilities;
+
 	public UserDetailsImpl(String username, String password,
-			Collection<? extends GrantedAuthority> authorities) {
+			Collection<? extends GrantedAuthority> authorities, int capabilities) {
 		this.username = username;
 		this.password = password;
 		this.authorities = authorities;
+		this.capabilities = capabilities;
 	}
 
-	public static UserDetailsImpl build(User user) {
+	public static UserDetailsImpl build(User user, int capabilities) {
 		List<GrantedAuthority> authorities = user.getRoles().stream()
 				.map(role -> new SimpleGrantedAuthority(role.getId()))
 				.collect(Collectors.toList());
@@ -37,7 +42,12 @@ public class UserDetailsImpl implements UserDetails {
 		return new UserDetailsImpl(
 				user.getId(),
 				user.getContrasena(),
-				authorities);
+				authorities,
+				capabilities);
+	}
+
+	public int getCapabilities() {
+		return capabilities;
 	}
 
 	@Override
@@ -7,16 +7,21 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.yotereparo.dao.UserDao;
+import com.yotereparo.model.User;
+import com.yotereparo.security.RoleClassifier;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 	@Autowired
 	UserDao dao;
+	@Autowired
+	RoleClassifier roleClassifier;
 
 	@Override
 	@Transactional
 	public UserDetails loadUserByUsername(String username) {
-		return UserDetailsImpl.build(dao.getUserById(username));
+		User user = dao.getUserById(username, User.AUTH_GRAPH);
+		return UserDetailsImpl.build(user, roleClassifier.classifyRoles(user.getRoles()));
 	}
 
 }
\ No newline at end of file
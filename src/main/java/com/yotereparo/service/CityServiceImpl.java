@@ -8,9 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.yotereparo.dao.CityDaoImpl;
 import com.yotereparo.model.City;
 import com.yotereparo.model.District;
 
@@ -25,22 +23,21 @@ import com.yotereparo.model.District;
  * 
  */
 @Service("cityService")
-@Transactional 
 public class CityServiceImpl implements CityService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(CityServiceImpl.class);
 	
 	@Autowired
-	private CityDaoImpl dao;
+	private ReferenceDataService referenceDataService;
 
 	public List<City> getAllCities() {
 		logger.debug("Fetching all cities");
-		return dao.getAllCities();
+		return referenceDataService.getReferenceData().getCities();
 	}
 
 	public City getCityById(String id) {
 		logger.debug("Fetching city <{}>", id);
-		return dao.getCityById(id);
+		return referenceDataService.getReferenceData().getCityById(id);
 	}
 	
 	public Set<District> getValidDistricts(City city, Set<District> districts){
@@ -67,9 +64,6 @@ public class CityServiceImpl implements CityService {
 	
 	public boolean cityContainsDistrict(City city, District district) {
 		logger.debug("Validating that district <{}> belongs in city with ID <{}>", district.getId(), city.getId());
-		for (District entry : city.getBarrios())
-			if (entry.getId() == district.getId())
-				return true;
-		return false;
+		return referenceDataService.getReferenceData().cityContainsDistrict(city.getId(), district.getId());
 	}
 }
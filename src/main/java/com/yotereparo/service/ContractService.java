@@ -1,9 +1,11 @@
 package com.yotereparo.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.yotereparo.model.Contract;
 import com.yotereparo.model.Quote;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface ContractService {
     
@@ -11,6 +13,10 @@ public interface ContractService {
     
     void refreshContractStatus(Contract contract);
     
+    int startContracts();
+    
+    int finishContracts();
+    
     void setContractAsFinishedById(Integer id);
     
     void customerCancelsContractById(Integer id);
@@ -26,4 +32,12 @@ public interface ContractService {
     Contract getContractById(Integer id);
  
     List<Contract> getAllContracts();
+    
+    List<Contract> getAllContracts(PageRequest page);
+    
+    List<Contract> getAllContracts(Map<String,String> filters, PageRequest page);
+    
+    List<Contract> getContractsByCustomer(String customerId, Map<String,String> filters, PageRequest page);
+    
+    List<Contract> getContractsByProvider(String providerId, Map<String,String> filters, PageRequest page);
 }
\ No newline at end of file
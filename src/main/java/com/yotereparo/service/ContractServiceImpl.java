@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.joda.time.DateTime;
@@ -18,6 +19,7 @@ import com.yotereparo.dao.ContractDaoImpl;
 import com.yotereparo.model.Contract;
 import com.yotereparo.model.Quote;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de servicio para Contratos.
@@ -44,6 +46,8 @@ public class ContractServiceImpl implements ContractService {
 	private ContractDaoImpl dao;
 	@Autowired
     private MessageSource messageSource;
+	@Autowired
+	private RatingService ratingService;
 
 	@Override
 	public void createContract(Quote quote) throws CustomResponseError {
@@ -104,9 +108,29 @@ public class ContractServiceImpl implements ContractService {
 		}
 	}
 	
+	/*
+	 * Los contratos pasan a ejecución y finalizan en bloque desde StatusTransitionScheduler.
+	 * Las operaciones de escritura reevalúan el estado del contrato que modifican, para no depender del intervalo del scheduler.
+	 */
+	@Override
+	public int startContracts() {
+		int started = dao.startContracts(new DateTime());
+		if (started > 0)
+			logger.info("<{}> contracts have been set as <{}>", started, Contract.ONGOING_EXECUTION);
+		return started;
+	}
+	
+	@Override
+	public int finishContracts() {
+		int finished = dao.finishContracts(new DateTime());
+		if (finished > 0)
+			logger.info("<{}> contracts have been set as <{}>", finished, Contract.ALREADY_EXECUTED);
+		return finished;
+	}
+	
 	@Override
 	public void setContractAsFinishedById(Integer id) {
-		Contract entity = getContractById(id);
+		Contract entity = getRefreshedContractById(id);
 		if (entity.getEstado().equals(Contract.ONGOING_EXECUTION)) {
 			logger.info("Setting contract <{}> as <{}>", entity.getId(), Contract.ALREADY_EXECUTED);
 			entity.setEstado(Contract.ALREADY_EXECUTED);
@@ -122,7 +146,7 @@ public class ContractServiceImpl implements ContractService {
 	
 	@Override
 	public void customerCancelsContractById(Integer id) {
-		Contract entity = getContractById(id);
+		Contract entity = getRefreshedContractById(id);
 		if (entity.getEstado().equals(Contract.PENDING_EXECUTION)) {
 			logger.info("Setting contract <{}> as <{}>", entity.getId(), Contract.CANCELED_BY_CUSTOMER);
 			entity.setEstado(Contract.CANCELED_BY_CUSTOMER);
@@ -138,7 +162,7 @@ public class ContractServiceImpl implements ContractService {
 
 	@Override
 	public void providerCancelsContractById(Integer id) {
-		Contract entity = getContractById(id);
+		Contract entity = getRefreshedContractById(id);
 		if (entity.getEstado().equals(Contract.PENDING_EXECUTION)) {
 			logger.info("Setting contract <{}> as <{}>", entity.getId(), Contract.CANCELED_BY_PROVIDER);
 			entity.setEstado(Contract.CANCELED_BY_PROVIDER);
@@ -154,15 +178,18 @@ public class ContractServiceImpl implements ContractService {
 
 	@Override
 	public void rateContractById(Integer contractId, Integer rate, String description) {
-		Contract entity = getContractById(contractId);
+		Contract entity = getRefreshedContractById(contractId);
 		if (entity.getEstado().equals(Contract.ALREADY_EXECUTED)) {
 			if (rate != null) {
-				if (rate != entity.getValoracion()) {
+				if (!rate.equals(entity.getValoracion())) {
+					Integer previousRate = entity.getValoracion();
 					logger.debug("Updating attribute 'Valoracion' from contract <{}>", entity.getId());
 					entity.setValoracion(rate);
 					
 					logger.debug("Updating attribute 'FechaValoracion' from contract <{}>", entity.getId());
 					entity.setFechaValoracion(new DateTime());
+					
+					ratingService.updateRatingSummaries(entity, previousRate);
 				}
 				if ((description == null && entity.getDescripcionValoracion() != null) || 
 					(description != null && !description.equalsIgnoreCase(entity.getDescripcionValoracion()))) {
@@ -189,7 +216,7 @@ public class ContractServiceImpl implements ContractService {
 	
 	@Override
 	public void archiveContractById(Integer id) {
-		Contract entity = getContractById(id);
+		Contract entity = getRefreshedContractById(id);
 		if (finalStates.contains(entity.getEstado())) {
 			logger.info("Setting contract <{}> as <{}>", entity.getId(), Contract.ARCHIVED);
 			entity.setEstado(Contract.ARCHIVED);
@@ -210,24 +237,51 @@ public class ContractServiceImpl implements ContractService {
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public Contract getContractById(Integer id) {
 		logger.debug("Fetching contract <{}>", id);
-		Contract contract = dao.getByKey(id);
+		return dao.getByKey(id);
+	}
+	
+	private Contract getRefreshedContractById(Integer id) {
+		Contract contract = getContractById(id);
 		if (contract != null && transitionalStates.contains(contract.getEstado()))
 			refreshContractStatus(contract);
 		return contract;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Contract> getAllContracts() {
 		logger.debug("Fetching all contracts");
-		List<Contract> contracts = dao.getAllContracts();
-		if (contracts != null)
-			contracts.forEach(contract -> {
-				if (transitionalStates.contains(contract.getEstado()))
-					refreshContractStatus(contract);
-			});
-		
-		return contracts;
+		return dao.getAllContracts();
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Contract> getAllContracts(PageRequest page) {
+		logger.debug("Fetching all contracts - page: <{}>", page);
+		return dao.getAllContracts(page);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Contract> getAllContracts(Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching all contracts - filters: <{}> - page: <{}>", filters, page);
+		return dao.getAllContracts(filters, page);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Contract> getContractsByCustomer(String customerId, Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching contracts of customer <{}> - filters: <{}> - page: <{}>", customerId, filters, page);
+		return dao.getContractsByCustomer(customerId, filters, page);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Contract> getContractsByProvider(String providerId, Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching contracts of provider <{}> - filters: <{}> - page: <{}>", providerId, filters, page);
+		return dao.getContractsByProvider(providerId, filters, page);
 	}
 }
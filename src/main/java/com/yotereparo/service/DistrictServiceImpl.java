@@ -6,9 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.yotereparo.dao.DistrictDaoImpl;
 import com.yotereparo.model.District;
 
 /**
@@ -22,21 +20,20 @@ import com.yotereparo.model.District;
  * 
  */
 @Service("districtService")
-@Transactional 
 public class DistrictServiceImpl implements DistrictService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(DistrictServiceImpl.class);
 	
 	@Autowired
-	private DistrictDaoImpl dao;
+	private ReferenceDataService referenceDataService;
 
 	public List<District> getAllDistricts() {
 		logger.debug("Fetching all districts");
-		return dao.getAllDistricts();
+		return referenceDataService.getReferenceData().getDistricts();
 	}
 
 	public District getDistrictById(Integer id) {
 		logger.debug("Fetching district <{}>", id);
-		return dao.getDistrictById(id);
+		return referenceDataService.getReferenceData().getDistrictById(id);
 	}
 }
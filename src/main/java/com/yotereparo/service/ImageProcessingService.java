@@ -0,0 +1,26 @@
+package com.yotereparo.service;
+
+import com.yotereparo.util.image.ImageJob;
+
+public interface ImageProcessingService {
+
+	ImageJob submitServiceImage(Integer id, byte[] image, String requester);
+
+	ImageJob submitUserPhoto(String id, byte[] photo, String requester);
+
+	ImageJob getJobById(String id);
+
+	int getQueuedJobs();
+
+	int getQueueCapacity();
+
+	int getActiveJobs();
+
+	long getRejectedJobs();
+
+	int purgeFinishedJobs();
+
+	int sweepOrphanBlobs();
+
+	int backfillLegacyImages();
+}
@@ -0,0 +1,261 @@
+package com.yotereparo.service;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.yotereparo.util.blob.BlobStore;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.image.ImageJob;
+import com.yotereparo.util.image.ImageResizer;
+import com.yotereparo.util.image.ImageResizer.ResizedImage;
+
+/**
+ * Capa de servicio para el procesamiento asíncrono de imágenes de Servicios y Usuarios.
+ * Las imágenes suscriptas se encolan en un pool acotado de workers, que las redimensiona fuera del hilo
+ * del request, las almacena en el BlobStore y persiste sus referencias en una transacción corta e independiente.
+ *
+ * Cuando la cola está llena la solicitud se rechaza (back-pressure) en lugar de acumular imágenes en memoria.
+ *
+ * Los blobs que dejan de estar referenciados (imágenes reemplazadas, o de servicios y usuarios eliminados)
+ * se eliminan periódicamente del BlobStore.
+ *
+ * Las imágenes anteriores al BlobStore, aún en las columnas bytea servicio.imagen/thumbnail y usuario.foto/thumbnail,
+ * se copian periódicamente al BlobStore y se registran sus referencias. Esas columnas deben conservarse hasta que
+ * el backfill informe que no quedan imágenes por migrar, y recién entonces eliminarse del esquema.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Service("imageProcessingService")
+public class ImageProcessingServiceImpl implements ImageProcessingService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ImageProcessingServiceImpl.class);
+
+	@Autowired
+	private ServiceManager serviceManager;
+	@Autowired
+	private UserService userService;
+	@Autowired
+	private BlobStore blobStore;
+	@Autowired
+	private Environment environment;
+
+	private final Map<String, ImageJob> jobs = new ConcurrentHashMap<String, ImageJob>();
+	private ThreadPoolExecutor executor;
+	private int queueCapacity;
+	private final LongAdder rejectedJobs = new LongAdder();
+
+	@PostConstruct
+	public void init() {
+		int workers = Integer.parseInt(environment.getProperty("image.processing.workers"));
+		queueCapacity = Integer.parseInt(environment.getProperty("image.processing.queue.capacity"));
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "image-worker-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+		logger.info("Image processing pool started with <{}> workers and a queue of <{}> jobs", workers, queueCapacity);
+	}
+
+	@PreDestroy
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	/*
+	 *  Encola el redimensionamiento de la imagen del servicio. Devuelve null si la cola de procesamiento está llena.
+	 */
+	@Override
+	public ImageJob submitServiceImage(Integer id, byte[] image, String requester) {
+		ImageJob job = new ImageJob(ImageJob.SERVICE_IMAGE, String.valueOf(id), requester);
+		int size = Integer.parseInt(environment.getProperty("image.service.size.px"));
+		int thumbnailSize = Integer.parseInt(environment.getProperty("image.thumbnail.size.px"));
+		return submit(job, () -> {
+			ResizedImage resized = ImageResizer.resize(image, size, thumbnailSize);
+			serviceManager.updateServiceImageById(id, blobStore.put(resized.getImage()), blobStore.put(resized.getThumbnail()));
+		});
+	}
+
+	/*
+	 *  Encola el redimensionamiento de la foto del usuario. Devuelve null si la cola de procesamiento está llena.
+	 */
+	@Override
+	public ImageJob submitUserPhoto(String id, byte[] photo, String requester) {
+		ImageJob job = new ImageJob(ImageJob.USER_PHOTO, id, requester);
+		int size = Integer.parseInt(environment.getProperty("image.user.size.px"));
+		int thumbnailSize = Integer.parseInt(environment.getProperty("image.thumbnail.size.px"));
+		return submit(job, () -> {
+			ResizedImage resized = ImageResizer.resize(photo, size, thumbnailSize);
+			userService.updateUserPhotoById(id, blobStore.put(resized.getImage()), blobStore.put(resized.getThumbnail()));
+		});
+	}
+
+	@Override
+	public ImageJob getJobById(String id) {
+		logger.debug("Fetching image job <{}>", id);
+		return (id != null) ? jobs.get(id) : null;
+	}
+
+	@Override
+	public int getQueuedJobs() {
+		return executor.getQueue().size();
+	}
+
+	@Override
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	@Override
+	public int getActiveJobs() {
+		return executor.getActiveCount();
+	}
+
+	@Override
+	public long getRejectedJobs() {
+		return rejectedJobs.sum();
+	}
+
+	/*
+	 *  Elimina los blobs que ningún servicio ni usuario referencia. Como un mismo contenido puede estar referenciado
+	 *  por varios registros, no se elimina al reemplazarse, sino en este barrido. Se conservan los blobs escritos dentro
+	 *  de <blob.sweep.grace.minutes>, cuyo trabajo puede no haber confirmado aún su referencia.
+	 */
+	@Override
+	@Scheduled(initialDelayString = "${blob.sweep.interval.ms}", fixedDelayString = "${blob.sweep.interval.ms}")
+	public int sweepOrphanBlobs() {
+		// El corte se fija antes de leer las referencias
+		long modifiedBefore = new DateTime().minusMinutes(
+				Integer.parseInt(environment.getProperty("blob.sweep.grace.minutes"))).getMillis();
+		Set<String> referencedKeys = new HashSet<String>(serviceManager.getImageHashes());
+		referencedKeys.addAll(userService.getPhotoHashes());
+		try {
+			int deleted = blobStore.deleteUnreferenced(referencedKeys, modifiedBefore);
+			logger.info("Blob sweep finished - <{}> unreferenced blobs deleted, <{}> referenced", deleted, referencedKeys.size());
+			return deleted;
+		}
+		catch (IOException e) {
+			logger.error("Blob sweep failed - Caught exception: ", e);
+			return 0;
+		}
+	}
+
+	/*
+	 *  Descarta los trabajos finalizados hace más de <image.processing.job.retention.minutes>, cuya ventana de
+	 *  consulta ya expiró. Devuelve la cantidad de trabajos descartados.
+	 */
+	@Override
+	@Scheduled(initialDelayString = "${image.processing.job.purge.interval.ms}", 
+			fixedDelayString = "${image.processing.job.purge.interval.ms}")
+	public int purgeFinishedJobs() {
+		DateTime threshold = new DateTime().minusMinutes(
+				Integer.parseInt(environment.getProperty("image.processing.job.retention.minutes")));
+		int before = jobs.size();
+		jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+		int purged = before - jobs.size();
+		if (purged > 0)
+			logger.debug("<{}> finished image jobs purged", purged);
+		return purged;
+	}
+
+	/*
+	 *  Copia al BlobStore las imágenes y fotos que siguen en las columnas bytea heredadas, en lotes de
+	 *  <blob.backfill.batch.size> por id, y registra sus referencias. Es idempotente: solo toma los registros sin
+	 *  referencia, y no hace nada una vez eliminadas las columnas. Devuelve la cantidad de imágenes migradas.
+	 */
+	@Override
+	@Scheduled(initialDelayString = "${blob.backfill.initial.delay.ms}", fixedDelayString = "${blob.backfill.interval.ms}")
+	public int backfillLegacyImages() {
+		int batchSize = Integer.parseInt(environment.getProperty("blob.backfill.batch.size"));
+		int services = 0, users = 0;
+		try {
+			Integer lastServiceId = 0;
+			List<LegacyImage<Integer>> images;
+			while (!(images = serviceManager.getLegacyImages(lastServiceId, batchSize)).isEmpty()) {
+				for (LegacyImage<Integer> image : images) {
+					lastServiceId = image.getId();
+					if (serviceManager.migrateLegacyImageById(image.getId(), blobStore.put(image.getImage()),
+							image.getThumbnail() != null ? blobStore.put(image.getThumbnail()) : null))
+						services++;
+				}
+			}
+			String lastUserId = "";
+			List<LegacyImage<String>> photos;
+			while (!(photos = userService.getLegacyPhotos(lastUserId, batchSize)).isEmpty()) {
+				for (LegacyImage<String> photo : photos) {
+					lastUserId = photo.getId();
+					if (userService.migrateLegacyPhotoById(photo.getId(), blobStore.put(photo.getImage()),
+							photo.getThumbnail() != null ? blobStore.put(photo.getThumbnail()) : null))
+						users++;
+				}
+			}
+			if (services + users > 0)
+				logger.info("Legacy image backfill finished - <{}> service images and <{}> user photos migrated", services, users);
+			else
+				logger.debug("Legacy image backfill finished - no legacy images left to migrate");
+		}
+		catch (IOException e) {
+			logger.error("Legacy image backfill interrupted after <{}> service images and <{}> user photos - Caught exception: ",
+					services, users, e);
+		}
+		return services + users;
+	}
+
+	private ImageJob submit(ImageJob job, ImageTask task) {
+		jobs.put(job.getId(), job);
+		try {
+			executor.execute(() -> run(job, task));
+			logger.info("Image job <{}> queued for {} <{}>", job.getId(), job.getTipo(), job.getRecurso());
+			return job;
+		}
+		catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			rejectedJobs.increment();
+			logger.warn("Image processing queue is full, rejecting job for {} <{}>", job.getTipo(), job.getRecurso());
+			return null;
+		}
+	}
+
+	private void run(ImageJob job, ImageTask task) {
+		job.start();
+		try {
+			task.run();
+			job.complete();
+			logger.info("Image job <{}> completed", job.getId());
+		}
+		catch (Exception e) {
+			logger.error("Image job <{}> failed: ", job.getId(), e);
+			job.fail(e.getMessage());
+		}
+	}
+
+	@FunctionalInterface
+	private interface ImageTask {
+		void run() throws Exception;
+	}
+}
@@ -1,16 +1,22 @@
 package com.yotereparo.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.yotereparo.model.Message;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface MessageService {
     
     void createMessage(Message message);
     
     void refreshMessageStatus(Message message);
+    
+    int expireMessages();
+    
+    int archiveMessages();
      
     void updateMessage(Message message);
     
@@ -20,5 +26,13 @@ public interface MessageService {
     
     List<Message> getAllMessages();
     
+    List<Message> getAllMessages(PageRequest page);
+    
+    List<Message> getAllMessages(Map<String,String> filters, PageRequest page);
+    
+    List<Message> getMessagesByCustomer(String customerId, Map<String,String> filters, PageRequest page);
+    
+    List<Message> getMessagesByProvider(String providerId, Map<String,String> filters, PageRequest page);
+    
     boolean wasServiceRecentlyMessagedByUser(Service service, User user);
 }
@@ -2,20 +2,29 @@ package com.yotereparo.service;
 
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.core.env.Environment;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.yotereparo.dao.MessageDaoImpl;
 import com.yotereparo.model.Message;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
+import com.yotereparo.util.cache.CooldownTracker;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de servicio para Mensajes.
@@ -39,6 +48,20 @@ public class MessageServiceImpl implements MessageService {
 	private Environment environment;
 	@Autowired
     private MessageSource messageSource;
+	
+	@Value("${message.newMessageCooldown.timeoffset.minutes}")
+	private int newMessageCooldownMinutes;
+	@Value("${message.newMessageCooldown.tracker.maxEntries}")
+	private int newMessageCooldownMaxEntries;
+	
+	// Último mensaje reciente por (servicio, usuario final), para resolver la regla de enfriamiento sin consultar la base
+	private CooldownTracker<String> recentMessages;
+	
+	@PostConstruct
+	public void init() {
+		recentMessages = new CooldownTracker<String>(
+				TimeUnit.MINUTES.toMillis(newMessageCooldownMinutes), newMessageCooldownMaxEntries);
+	}
 
 	public void createMessage(Message message) {
 		if (message.getConsulta() == null || message.getConsulta().isEmpty()) {
@@ -60,6 +83,20 @@ public class MessageServiceImpl implements MessageService {
 		logger.info("Commiting creation of message for service <{}> by user <{}>.", 
 				message.getServicio().getId(), message.getUsuarioFinal().getId());
 		dao.persist(message);
+		
+		// El mensaje solo cuenta para el enfriamiento una vez confirmado
+		String cooldownKey = getCooldownKey(message.getServicio(), message.getUsuarioFinal());
+		long sentAt = message.getFechaConsulta().getMillis();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					recentMessages.record(cooldownKey, sentAt);
+				}
+			});
+		}
+		else
+			recentMessages.record(cooldownKey, sentAt);
 	}
 	
 	public void refreshMessageStatus(Message message) {
@@ -69,8 +106,8 @@ public class MessageServiceImpl implements MessageService {
 			int timeoffsetArchiving = Integer.parseInt(environment.getProperty("message.archiving.timeoffset.days"));
 			if (message.getEstado().equals(Message.AWAITING_RESPONSE)) {
 				// Los mensajes tienen un tiempo de vida de N días
-				if (message.getFechaConsulta().isAfter(
-					new DateTime().plusDays(Integer.parseInt(environment.getProperty("message.expiration.timeoffset.days"))))) {
+				if (message.getFechaConsulta().plusDays(
+						Integer.parseInt(environment.getProperty("message.expiration.timeoffset.days"))).isBeforeNow()) {
 					
 					message.setEstado(Message.EXPIRED);
 					dao.saveOrUpdate(message);
@@ -96,8 +133,29 @@ public class MessageServiceImpl implements MessageService {
 		}
 	}
 
+	/*
+	 * Los mensajes se expiran y archivan en bloque desde StatusTransitionScheduler.
+	 * Las operaciones de escritura reevalúan el estado del mensaje que modifican, para no depender del intervalo del scheduler.
+	 */
+	public int expireMessages() {
+		int timeoffsetExpiration = Integer.parseInt(environment.getProperty("message.expiration.timeoffset.days"));
+		int expired = dao.expireMessages(new DateTime().minusDays(timeoffsetExpiration));
+		if (expired > 0)
+			logger.info("<{}> messages have been set as <{}>", expired, Message.EXPIRED);
+		return expired;
+	}
+	
+	public int archiveMessages() {
+		int timeoffsetArchiving = Integer.parseInt(environment.getProperty("message.archiving.timeoffset.days"));
+		int archived = dao.archiveMessages(new DateTime().minusDays(timeoffsetArchiving));
+		if (archived > 0)
+			logger.info("<{}> messages have been set as <{}>", archived, Message.ARCHIVED);
+		return archived;
+	}
+
 	public void updateMessage(Message message) {
 		Message entity = getMessageById(message.getId());
+		refreshMessageStatus(entity);
 		
 		if (entity.getEstado().equals(Message.AWAITING_RESPONSE)) {
 			if (!message.getUsuarioFinal().getId().equals(entity.getUsuarioFinal().getId())) {
@@ -159,30 +217,62 @@ public class MessageServiceImpl implements MessageService {
 		dao.deleteMessageById(id);
 	}
 	
+	@Transactional(readOnly = true)
 	public Message getMessageById(Integer id) {
 		logger.debug("Fetching message by id <{}>", id);
-		Message message = dao.getMessageById(id);
-		if (message != null)
-			refreshMessageStatus(message);
-		return message;
+		return dao.getMessageById(id);
 	}
 	
+	@Transactional(readOnly = true)
 	public List<Message> getAllMessages() {
 		logger.debug("Fetching all messages");
-		List<Message> messages = dao.getAllMessages();
-		if (messages != null)
-			messages.forEach(message -> refreshMessageStatus(message));
-		return messages;
+		return dao.getAllMessages();
 	}
 	
+	@Transactional(readOnly = true)
+	public List<Message> getAllMessages(PageRequest page) {
+		logger.debug("Fetching all messages - page: <{}>", page);
+		return dao.getAllMessages(page);
+	}
+	
+	@Transactional(readOnly = true)
+	public List<Message> getAllMessages(Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching all messages - filters: <{}> - page: <{}>", filters, page);
+		return dao.getAllMessages(filters, page);
+	}
+	
+	@Transactional(readOnly = true)
+	public List<Message> getMessagesByCustomer(String customerId, Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching messages of customer <{}> - filters: <{}> - page: <{}>", customerId, filters, page);
+		return dao.getMessagesByCustomer(customerId, filters, page);
+	}
+	
+	@Transactional(readOnly = true)
+	public List<Message> getMessagesByProvider(String providerId, Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching messages of provider <{}> - filters: <{}> - page: <{}>", providerId, filters, page);
+		return dao.getMessagesByProvider(providerId, filters, page);
+	}
+	
+	/*
+	 *  No es de solo lectura: la verificación contra la base se resuelve en el primario,
+	 *  ya que una réplica con retraso podría no ver un mensaje recién enviado.
+	 */
 	public boolean wasServiceRecentlyMessagedByUser(Service service, User user) {
 		logger.debug("Verifying if user <{}> has recently messaged service <{}>.", user.getId(), service.getId());
-		int timeoffsetNewMessageCooldown = 
-				Integer.parseInt(environment.getProperty("message.newMessageCooldown.timeoffset.minutes"));
-		for (Message message : user.getMensajes()) 
-			if (message.getServicio().getId().equals(service.getId()))
-				if (message.getFechaConsulta().plusMinutes(timeoffsetNewMessageCooldown).isAfterNow())
-					return true;
-		return false;
+		String cooldownKey = getCooldownKey(service, user);
+		if (recentMessages.isCoolingDown(cooldownKey))
+			return true;
+		
+		// Sin registro local (reinicio, otro nodo o entrada descartada): se confirma contra la base
+		DateTime lastMessageDate = dao.getLastMessageDate(user.getId(), service.getId(), 
+				new DateTime().minus(recentMessages.getCooldownMs()));
+		if (lastMessageDate == null)
+			return false;
+		recentMessages.record(cooldownKey, lastMessageDate.getMillis());
+		return true;
+	}
+	
+	private String getCooldownKey(Service service, User user) {
+		return service.getId() + ":" + user.getId();
 	}
 }
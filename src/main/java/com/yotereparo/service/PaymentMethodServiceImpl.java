@@ -6,9 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.yotereparo.dao.PaymentMethodDaoImpl;
 import com.yotereparo.model.PaymentMethod;
 
 /**
@@ -22,26 +20,25 @@ import com.yotereparo.model.PaymentMethod;
  * 
  */
 @Service("paymentMethodService")
-@Transactional 
 public class PaymentMethodServiceImpl implements PaymentMethodService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(PaymentMethodServiceImpl.class);
 	
 	@Autowired
-	private PaymentMethodDaoImpl dao;
+	private ReferenceDataService referenceDataService;
 
 	public List<PaymentMethod> getAllPaymentMethods() {
 		logger.debug("Fetching all payment methods");
-		return dao.getAllPaymentMethods();
+		return referenceDataService.getReferenceData().getPaymentMethods();
 	}
 
 	public PaymentMethod getPaymentMethodById(Integer id) {
 		logger.debug("Fetching payment method by id <{}>", id);
-		return dao.getPaymentMethodById(id);
+		return referenceDataService.getReferenceData().getPaymentMethodById(id);
 	}
 	
 	public PaymentMethod getPaymentMethodByDescription(String description) {
 		logger.debug("Fetching payment method <{}>", description);
-		return dao.getPaymentMethodByDescription(description);
+		return referenceDataService.getReferenceData().getPaymentMethodByDescription(description);
 	}
 }
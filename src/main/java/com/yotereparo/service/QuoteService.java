@@ -1,10 +1,12 @@
 package com.yotereparo.service;
 
 import java.util.List;
+import java.util.Map;
 
 import com.yotereparo.model.Quote;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface QuoteService {
     
@@ -29,4 +31,12 @@ public interface QuoteService {
     Boolean quoteExistBetween(User user, Service service);
     
     List<Quote> getAllQuotes();
+    
+    List<Quote> getAllQuotes(PageRequest page);
+    
+    List<Quote> getAllQuotes(Map<String,String> filters, PageRequest page);
+    
+    List<Quote> getQuotesByCustomer(String customerId, Map<String,String> filters, PageRequest page);
+    
+    List<Quote> getQuotesByProvider(String providerId, Map<String,String> filters, PageRequest page);
 }
@@ -1,7 +1,9 @@
 package com.yotereparo.service;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
@@ -15,6 +17,7 @@ import com.yotereparo.model.Quote;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de servicio para Presupuestos.
@@ -32,6 +35,9 @@ public class QuoteServiceImpl implements QuoteService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(QuoteServiceImpl.class);
 	
+	// Estados de un proceso de presupuestación en curso
+	private static final List<String> ACTIVE_STATUSES = Arrays.asList(Quote.AWAITING_CUSTOMER, Quote.AWAITING_PROVIDER);
+	
 	@Autowired
 	private QuoteDaoImpl dao;
 	@Autowired
@@ -335,38 +341,66 @@ public class QuoteServiceImpl implements QuoteService {
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public Quote getQuoteById(Integer id) {
 		logger.debug("Fetching quote <{}>", id);
 		return dao.getByKey(id);
 	}
 	
+	/*
+	 *  Las verificaciones previas a un alta no son de solo lectura: se resuelven en el primario,
+	 *  ya que una réplica con retraso podría no ver un presupuesto recién registrado.
+	 */
 	@Override
 	public Boolean activeQuoteExistBetween(User user, Service service) {
+		if (user == null || service == null)
+			return false;
 		logger.debug("Validating existence of an active quotation process between user <{}> and service <{}>", 
 				user.getId(), service.getId());
-		if (user != null && service != null)
-			for (Quote presupuesto : user.getPresupuestos())
-				if (presupuesto.getServicio().getId() == service.getId())
-					if (presupuesto.getEstado().equals(Quote.AWAITING_CUSTOMER) || 
-						presupuesto.getEstado().equals(Quote.AWAITING_PROVIDER))
-						return true;
-		return false;
+		return dao.quoteExistsBetween(user.getId(), service.getId(), ACTIVE_STATUSES);
 	}
 	
 	@Override
 	public Boolean quoteExistBetween(User user, Service service) {
-		logger.debug("Validating existence of an active quotation process between user <{}> and service <{}>", 
+		if (user == null || service == null)
+			return false;
+		logger.debug("Validating existence of a quotation process between user <{}> and service <{}>", 
 				user.getId(), service.getId());
-		if (user != null && service != null)
-			for (Quote presupuesto : user.getPresupuestos())
-				if (presupuesto.getServicio().getId() == service.getId())
-					return true;
-		return false;
+		return dao.quoteExistsBetween(user.getId(), service.getId(), null);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<Quote> getAllQuotes() {
 		logger.debug("Fetching all quotes");
 		return dao.getAllQuotes();
 	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Quote> getAllQuotes(PageRequest page) {
+		logger.debug("Fetching all quotes - page: <{}>", page);
+		return dao.getAllQuotes(page);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Quote> getAllQuotes(Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching all quotes - filters: <{}> - page: <{}>", filters, page);
+		return dao.getAllQuotes(filters, page);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Quote> getQuotesByCustomer(String customerId, Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching quotes of customer <{}> - filters: <{}> - page: <{}>", customerId, filters, page);
+		return dao.getQuotesByCustomer(customerId, filters, page);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Quote> getQuotesByProvider(String providerId, Map<String,String> filters, PageRequest page) {
+		logger.debug("Fetching quotes of provider <{}> - filters: <{}> - page: <{}>", providerId, filters, page);
+		return dao.getQuotesByProvider(providerId, filters, page);
+	}
 }
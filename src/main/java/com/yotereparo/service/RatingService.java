@@ -0,0 +1,10 @@
+package com.yotereparo.service;
+
+import com.yotereparo.model.Contract;
+
+public interface RatingService {
+
+	void updateRatingSummaries(Contract contract, Integer previousRating);
+
+	void rebuildRatingSummaries();
+}
@@ -0,0 +1,76 @@
+package com.yotereparo.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.yotereparo.dao.ContractDaoImpl;
+import com.yotereparo.dao.ServiceDaoImpl;
+import com.yotereparo.dao.UserDaoImpl;
+import com.yotereparo.model.Contract;
+import com.yotereparo.model.RatingSummary;
+import com.yotereparo.model.Service;
+
+/**
+ * Capa de servicio para los resúmenes de valoraciones de Servicios y Usuarios prestadores.
+ * Los resúmenes se actualizan de forma incremental al valorarse un contrato, y pueden reconstruirse
+ * por completo a partir de los contratos valorados.
+ * 
+ * @author Rodrigo Yanis
+ * 
+ */
+@org.springframework.stereotype.Service("ratingService")
+@Transactional
+public class RatingServiceImpl implements RatingService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RatingServiceImpl.class);
+
+	@Autowired
+	private ServiceDaoImpl serviceDao;
+	@Autowired
+	private UserDaoImpl userDao;
+	@Autowired
+	private ContractDaoImpl contractDao;
+
+	/*
+	 * Aplica sobre el servicio del contrato y su prestador el cambio de valoración de <previousRating>
+	 * (null si el contrato no estaba valorado) a la valoración actual del contrato.
+	 */
+	@Override
+	public void updateRatingSummaries(Contract contract, Integer previousRating) {
+		Integer rating = contract.getValoracion();
+		if (rating == null || rating.equals(previousRating))
+			return;
+
+		Service service = contract.getPresupuesto().getServicio();
+		RatingSummary delta = RatingSummary.delta(previousRating, rating);
+		logger.debug("Updating rating summaries of service <{}> and provider <{}> - rating: <{}> -> <{}>",
+				service.getId(), service.getUsuarioPrestador().getId(), previousRating, rating);
+		serviceDao.updateRatingSummary(service.getId(), delta);
+		userDao.updateRatingSummary(service.getUsuarioPrestador().getId(), delta);
+	}
+
+	@Override
+	public void rebuildRatingSummaries() {
+		logger.info("Rebuilding rating summaries of services and providers");
+		Map<Integer, RatingSummary> services = new HashMap<Integer, RatingSummary>();
+		Map<String, RatingSummary> providers = new HashMap<String, RatingSummary>();
+		for (Object[] row : contractDao.getRatingCounts()) {
+			int rating = (Integer) row[2];
+			int count = ((Long) row[3]).intValue();
+			services.computeIfAbsent((Integer) row[0], key -> new RatingSummary()).addAll(rating, count);
+			providers.computeIfAbsent((String) row[1], key -> new RatingSummary()).addAll(rating, count);
+		}
+
+		serviceDao.resetRatingSummaries();
+		userDao.resetRatingSummaries();
+		services.forEach(serviceDao::updateRatingSummary);
+		providers.forEach(userDao::updateRatingSummary);
+		logger.info("Rating summaries rebuilt - <{}> services and <{}> providers with ratings", 
+				services.size(), providers.size());
+	}
+}
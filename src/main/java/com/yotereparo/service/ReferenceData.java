@@ -0,0 +1,154 @@
+package com.yotereparo.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.yotereparo.model.City;
+import com.yotereparo.model.District;
+import com.yotereparo.model.PaymentMethod;
+import com.yotereparo.model.Requirement;
+import com.yotereparo.model.Role;
+import com.yotereparo.model.ServiceType;
+
+/**
+ * Foto inmutable de los datos de referencia (ciudades, barrios, roles, medios de pago, requerimientos y
+ * tipos de servicio), indexada por ID y por descripción.
+ *
+ * Se construye completa y se reemplaza de forma atómica en cada refresco, por lo que las consultas
+ * nunca observan un estado parcial. Las entidades contenidas están desasociadas de la sesión de Hibernate.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class ReferenceData {
+
+	public static final ReferenceData EMPTY = new ReferenceData(
+			Collections.<City>emptyList(), Collections.<District>emptyList(), Collections.<Role>emptyList(),
+			Collections.<PaymentMethod>emptyList(), Collections.<Requirement>emptyList(), Collections.<ServiceType>emptyList());
+
+	private final List<City> cities;
+	private final List<District> districts;
+	private final List<Role> roles;
+	private final List<PaymentMethod> paymentMethods;
+	private final List<Requirement> requirements;
+	private final List<ServiceType> serviceTypes;
+
+	private final Map<String, City> citiesById;
+	private final Map<Integer, District> districtsById;
+	private final Map<String, Role> rolesById;
+	private final Map<Integer, PaymentMethod> paymentMethodsById;
+	private final Map<String, PaymentMethod> paymentMethodsByDescription;
+	private final Map<Integer, Requirement> requirementsById;
+	private final Map<String, Requirement> requirementsByDescription;
+	private final Map<Integer, ServiceType> serviceTypesById;
+	private final Map<String, ServiceType> serviceTypesByDescription;
+	// Ciudad -> IDs de sus barrios
+	private final Map<String, Set<Integer>> districtIdsByCity;
+
+	public ReferenceData(List<City> cities, List<District> districts, List<Role> roles,
+			List<PaymentMethod> paymentMethods, List<Requirement> requirements, List<ServiceType> serviceTypes) {
+		this.cities = Collections.unmodifiableList(cities);
+		this.districts = Collections.unmodifiableList(districts);
+		this.roles = Collections.unmodifiableList(roles);
+		this.paymentMethods = Collections.unmodifiableList(paymentMethods);
+		this.requirements = Collections.unmodifiableList(requirements);
+		this.serviceTypes = Collections.unmodifiableList(serviceTypes);
+
+		citiesById = index(cities, City::getId);
+		districtsById = index(districts, District::getId);
+		rolesById = index(roles, Role::getId);
+		paymentMethodsById = index(paymentMethods, PaymentMethod::getId);
+		paymentMethodsByDescription = index(paymentMethods, PaymentMethod::getDescripcion);
+		requirementsById = index(requirements, Requirement::getId);
+		requirementsByDescription = index(requirements, Requirement::getDescripcion);
+		serviceTypesById = index(serviceTypes, ServiceType::getId);
+		serviceTypesByDescription = index(serviceTypes, ServiceType::getDescripcion);
+
+		Map<String, Set<Integer>> districtIndex = new HashMap<String, Set<Integer>>(cities.size() * 2);
+		for (City city : cities) {
+			Set<Integer> districtIds = new HashSet<Integer>();
+			if (city.getBarrios() != null)
+				for (District district : city.getBarrios())
+					districtIds.add(district.getId());
+			districtIndex.put(city.getId(), Collections.unmodifiableSet(districtIds));
+		}
+		districtIdsByCity = Collections.unmodifiableMap(districtIndex);
+	}
+
+	private static <K, T> Map<K, T> index(List<T> entries, Function<T, K> key) {
+		Map<K, T> index = new HashMap<K, T>(entries.size() * 2);
+		for (T entry : entries)
+			index.put(key.apply(entry), entry);
+		return Collections.unmodifiableMap(index);
+	}
+
+	public List<City> getCities() {
+		return cities;
+	}
+
+	public City getCityById(String id) {
+		return citiesById.get(id);
+	}
+
+	public boolean cityContainsDistrict(String cityId, Integer districtId) {
+		Set<Integer> districtIds = districtIdsByCity.get(cityId);
+		return districtIds != null && districtIds.contains(districtId);
+	}
+
+	public List<District> getDistricts() {
+		return districts;
+	}
+
+	public District getDistrictById(Integer id) {
+		return districtsById.get(id);
+	}
+
+	public List<Role> getRoles() {
+		return roles;
+	}
+
+	public Role getRoleById(String id) {
+		return rolesById.get(id);
+	}
+
+	public List<PaymentMethod> getPaymentMethods() {
+		return paymentMethods;
+	}
+
+	public PaymentMethod getPaymentMethodById(Integer id) {
+		return paymentMethodsById.get(id);
+	}
+
+	public PaymentMethod getPaymentMethodByDescription(String description) {
+		return paymentMethodsByDescription.get(description);
+	}
+
+	public List<Requirement> getRequirements() {
+		return requirements;
+	}
+
+	public Requirement getRequirementById(Integer id) {
+		return requirementsById.get(id);
+	}
+
+	public Requirement getRequirementByDescription(String description) {
+		return requirementsByDescription.get(description);
+	}
+
+	public List<ServiceType> getServiceTypes() {
+		return serviceTypes;
+	}
+
+	public ServiceType getServiceTypeById(Integer id) {
+		return serviceTypesById.get(id);
+	}
+
+	public ServiceType getServiceTypeByDescription(String description) {
+		return serviceTypesByDescription.get(description);
+	}
+}
@@ -0,0 +1,8 @@
+package com.yotereparo.service;
+
+public interface ReferenceDataService {
+
+	ReferenceData getReferenceData();
+
+	void refreshReferenceData();
+}
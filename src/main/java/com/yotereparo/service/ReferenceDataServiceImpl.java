@@ -0,0 +1,80 @@
+package com.yotereparo.service;
+
+import java.util.ArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.yotereparo.dao.CityDaoImpl;
+import com.yotereparo.dao.DistrictDaoImpl;
+import com.yotereparo.dao.PaymentMethodDaoImpl;
+import com.yotereparo.dao.RequirementDaoImpl;
+import com.yotereparo.dao.RoleDaoImpl;
+import com.yotereparo.dao.ServiceTypeDaoImpl;
+
+/**
+ * Registro en memoria de los datos de referencia de la aplicación.
+ * Se carga completo al iniciar el contexto y se refresca periódicamente (o a demanda, luego de
+ * modificar cualquiera de estos datos), reemplazando la foto vigente de forma atómica.
+ *
+ * Las consultas no abren transacción ni acceden a la base.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Service("referenceDataService")
+public class ReferenceDataServiceImpl implements ReferenceDataService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReferenceDataServiceImpl.class);
+
+	@Autowired
+	private CityDaoImpl cityDao;
+	@Autowired
+	private DistrictDaoImpl districtDao;
+	@Autowired
+	private RoleDaoImpl roleDao;
+	@Autowired
+	private PaymentMethodDaoImpl paymentMethodDao;
+	@Autowired
+	private RequirementDaoImpl requirementDao;
+	@Autowired
+	private ServiceTypeDaoImpl serviceTypeDao;
+
+	private volatile ReferenceData referenceData = ReferenceData.EMPTY;
+
+	@Override
+	public ReferenceData getReferenceData() {
+		return referenceData;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	@EventListener(classes = ContextRefreshedEvent.class, condition = "#root.event.applicationContext.parent == null")
+	@Scheduled(initialDelayString = "${reference.data.refresh.interval.ms}", fixedDelayString = "${reference.data.refresh.interval.ms}")
+	public void refreshReferenceData() {
+		logger.debug("Refreshing reference data");
+		try {
+			ReferenceData refreshed = new ReferenceData(
+					new ArrayList<>(cityDao.getAllCities()),
+					new ArrayList<>(districtDao.getAllDistricts()),
+					new ArrayList<>(roleDao.getAllRoles()),
+					new ArrayList<>(paymentMethodDao.getAllPaymentMethods()),
+					new ArrayList<>(requirementDao.getAllRequirements()),
+					new ArrayList<>(serviceTypeDao.getAllServiceTypes()));
+			referenceData = refreshed;
+			logger.info("Reference data refreshed: {} cities, {} districts, {} roles, {} payment methods, {} requirements, {} service types",
+					refreshed.getCities().size(), refreshed.getDistricts().size(), refreshed.getRoles().size(),
+					refreshed.getPaymentMethods().size(), refreshed.getRequirements().size(), refreshed.getServiceTypes().size());
+		}
+		catch (Exception e) {
+			// Se conserva la foto anterior: es preferible servir datos algo desactualizados que ninguno
+			logger.error("Reference data refresh failed, keeping previous snapshot - Caught exception: ", e);
+		}
+	}
+}
@@ -6,9 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.yotereparo.dao.RequirementDaoImpl;
 import com.yotereparo.model.Requirement;
 
 /**
@@ -23,26 +21,25 @@ import com.yotereparo.model.Requirement;
  */
 
 @Service("requirementService")
-@Transactional 
 public class RequirementServiceImpl implements RequirementService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(RequirementServiceImpl.class);
 	
 	@Autowired
-	private RequirementDaoImpl dao;
+	private ReferenceDataService referenceDataService;
 
 	public List<Requirement> getAllRequirements() {
 		logger.debug("Fetching all requirements");
-		return dao.getAllRequirements();
+		return referenceDataService.getReferenceData().getRequirements();
 	}
 
 	public Requirement getRequirementById(Integer id) {
 		logger.debug("Fetching requirement by id <{}>", id);
-		return dao.getRequirementById(id);
+		return referenceDataService.getReferenceData().getRequirementById(id);
 	}
 	
 	public Requirement getRequirementByDescription(String description) {
 		logger.debug("Fetching requirement by description <{}>", description);
-		return dao.getRequirementByDescription(description);
+		return referenceDataService.getReferenceData().getRequirementByDescription(description);
 	}
 }
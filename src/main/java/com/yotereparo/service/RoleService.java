@@ -9,8 +9,4 @@ public interface RoleService {
     List<Role> getAllRoles(); 
      
     Role getRoleById(String id);
-    
-    List<Role> getAllPrestadorRoles();
-    
-    List<Role> getAllFinalRoles();
 }
@@ -1,19 +1,13 @@
 package com.yotereparo.service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.yotereparo.dao.RoleDaoImpl;
 import com.yotereparo.model.Role;
-import com.yotereparo.util.SpringEnvironmentUtils;
 
 /**
  * Capa de servicio para Roles.
@@ -26,43 +20,20 @@ import com.yotereparo.util.SpringEnvironmentUtils;
  * 
  */
 @Service("roleService")
-@Transactional 
 public class RoleServiceImpl implements RoleService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(RoleServiceImpl.class);
 	
 	@Autowired
-	private RoleDaoImpl dao;
-	@Autowired
-	private ConfigurableEnvironment environment;
+	private ReferenceDataService referenceDataService;
 
 	public List<Role> getAllRoles() {
 		logger.debug("Fetching all roles");
-		return dao.getAllRoles();
+		return referenceDataService.getReferenceData().getRoles();
 	}
 
 	public Role getRoleById(String id) {
 		logger.trace("Fetching role <{}>", id);
-		return dao.getRoleById(id);
-	}
-	
-	public List<Role> getAllPrestadorRoles() {
-		Map<String, Object> filteredRolesInProperties = SpringEnvironmentUtils.getPropertiesStartingWith(environment, "role.id.usuarioprestador");
-		List<Role> prestadorRoles = new ArrayList<Role>();
-		for (Object roleId : filteredRolesInProperties.values()) {
-			prestadorRoles.add(getRoleById(roleId.toString())); 
-		}
-		
-		return prestadorRoles;
-	}
-	
-	public List<Role> getAllFinalRoles() {
-		Map<String, Object> filteredRolesInProperties = SpringEnvironmentUtils.getPropertiesStartingWith(environment, "role.id.usuariofinal");
-		List<Role> finalRoles = new ArrayList<Role>();
-		for (Object roleId : filteredRolesInProperties.values()) {
-			finalRoles.add(getRoleById(roleId.toString())); 
-		}
-		
-		return finalRoles;
+		return referenceDataService.getReferenceData().getRoleById(id);
 	}
 }
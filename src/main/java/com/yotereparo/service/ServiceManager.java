@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Map;
 
 import com.yotereparo.model.Service;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface ServiceManager {
     
@@ -19,11 +21,33 @@ public interface ServiceManager {
      
     Service getServiceById(Integer id);
     
-    void updateServiceImageById(Integer id, byte[] image);
+    Service getServiceDetailById(Integer id);
+    
+    String getServiceImageHashById(Integer id, boolean thumbnail);
+    
+    List<String> getImageHashes();
+    
+    void updateServiceImageById(Integer id, String imageHash, String thumbnailHash);
+    
+    List<LegacyImage<Integer>> getLegacyImages(Integer afterId, int limit);
+    
+    boolean migrateLegacyImageById(Integer id, String imageHash, String thumbnailHash);
     
     boolean similarExist(Service service);
     
+    List<Service> getNearDuplicateServices(Integer id, int limit);
+    
     List<Service> getAllServices(); 
     
     List<Service> getAllServices(Map<String,String> filter);
+    
+    List<Service> getAllServices(PageRequest page);
+    
+    List<Service> getAllServices(Map<String,String> filter, PageRequest page);
+    
+    List<Service> searchServices(String text, int limit);
+    
+    void rebuildSearchIndex();
+    
+    void rebuildSimilarityIndex();
 }
@@ -1,34 +1,40 @@
 package com.yotereparo.service;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.stream.Collectors;
 
-import javax.imageio.ImageIO;
-
-import org.imgscalr.Scalr;
-import org.imgscalr.Scalr.Method;
-import org.imgscalr.Scalr.Mode;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.yotereparo.dao.ServiceDaoImpl;
-import com.yotereparo.model.City;
-import com.yotereparo.model.District;
 import com.yotereparo.model.Service;
 import com.yotereparo.model.User;
+import com.yotereparo.util.blob.LegacyImage;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.error.MembershipAllowanceError;
+import com.yotereparo.util.error.SimilarServiceError;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.search.ServiceSearchIndex;
+import com.yotereparo.util.similarity.ServiceFingerprint;
+import com.yotereparo.util.similarity.ServiceSimilarityIndex;
 
 /**
  * Capa de servicio para Servicios.
@@ -46,6 +52,13 @@ public class ServiceManagerImpl implements ServiceManager {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ServiceManagerImpl.class);
 	
+	// Filtros que se resuelven contra el índice de búsqueda, y el campo del índice correspondiente
+	private static final Map<String, ServiceSearchIndex.Field> TEXT_FILTERS = new HashMap<String, ServiceSearchIndex.Field>();
+	static {
+		TEXT_FILTERS.put("title", ServiceSearchIndex.Field.TITLE);
+		TEXT_FILTERS.put("description", ServiceSearchIndex.Field.DESCRIPTION);
+	}
+	
 	@Autowired
 	private ServiceDaoImpl dao;
 	@Autowired
@@ -53,20 +66,37 @@ public class ServiceManagerImpl implements ServiceManager {
 	@Autowired
     private UserService userService;
 	@Autowired
-	private DistrictService districtService;
+	private ServiceSearchIndex searchIndex;
 	@Autowired
-	private CityService cityService;
+	private ServiceSimilarityIndex similarityIndex;
 	
 	@Override
 	public void createService(Service service) {
 		User user = service.getUsuarioPrestador();
 		if (userService.isProvider(user))
 			if (user.getDirecciones() != null && user.getDirecciones().size() != 0) {
+				// Verificación definitiva de la franquicia, con la fila del prestador bloqueada hasta el commit
+				if (!userService.hasMembershipAllowance(user, true)) {
+					logger.debug("Service <{}> can't be created. User <{}> has no membership allowance left", 
+							service.getTitulo(), user.getId());
+					throw new MembershipAllowanceError("User","membresia",
+							messageSource.getMessage("user.membership.insufficient.allowance", 
+									new String[]{user.getId()}, Locale.getDefault()));
+				}
+				// Con la fila del prestador bloqueada, otra alta concurrente no puede registrar un servicio similar
+				if (similarExist(service)) {
+					logger.debug("Service <{}> can't be created. It is too similar to another service of user <{}>", 
+							service.getTitulo(), user.getId());
+					throw new SimilarServiceError("Service","titulo",
+							messageSource.getMessage("service.too.similar", 
+									new String[]{service.getTitulo()}, Locale.getDefault()));
+				}
 				service.setFechaCreacion(new DateTime());
 				service.setEstado(Service.ACTIVE);
 				
 				logger.info("Commiting creation of service <{}>", service.getTitulo());
 				dao.persist(service);
+				indexAfterCommit(service);
 			}
 			else {
 				logger.debug("Service <{}> can't be created. User <{}> has no registered address", 
@@ -98,6 +128,15 @@ public class ServiceManagerImpl implements ServiceManager {
 							null, Locale.getDefault()));
 		}
 		
+		userService.lockUserById(entity.getUsuarioPrestador().getId());
+		if (similarExist(service)) {
+			logger.debug("Service <{}> can't be updated. It is too similar to another service of user <{}>", 
+					service.getId(), entity.getUsuarioPrestador().getId());
+			throw new SimilarServiceError("Service","titulo",
+					messageSource.getMessage("service.too.similar", 
+							new String[]{service.getTitulo()}, Locale.getDefault()));
+		}
+		
 		if (!service.getTitulo().equals(entity.getTitulo())) {
 			logger.debug("Updating attribute 'Titulo' from service <{}>", service.getId());
 			entity.setTitulo(service.getTitulo());
@@ -219,6 +258,7 @@ public class ServiceManagerImpl implements ServiceManager {
 		}
 		
 		logger.info("Commiting update for service <{}>", service.getId());
+		indexAfterCommit(entity);
 	}
 	
 	@Override
@@ -243,142 +283,285 @@ public class ServiceManagerImpl implements ServiceManager {
 	public void deleteServiceById(Integer id) {
 		logger.info("Commiting deletion of service <{}>", id);
 		dao.deleteServiceById(id);
+		afterCommit(() -> {
+			searchIndex.remove(id);
+			similarityIndex.remove(id);
+		});
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public Service getServiceById(Integer id) {
 		logger.debug("Fetching service <{}>", id);
 		return dao.getByKey(id);
 	}
 	
+	@Override
+	@Transactional(readOnly = true)
+	public Service getServiceDetailById(Integer id) {
+		logger.debug("Fetching service detail <{}>", id);
+		return dao.getServiceById(id, Service.DETAIL_GRAPH);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public String getServiceImageHashById(Integer id, boolean thumbnail) {
+		logger.debug("Fetching {} reference of service <{}>", thumbnail ? "thumbnail" : "image", id);
+		return dao.getServiceImageHashById(id, thumbnail);
+	}
+	
+	/*
+	 *  Referencias vigentes, para el barrido de blobs huérfanos; se leen del primario.
+	 */
+	@Override
+	public List<String> getImageHashes() {
+		logger.debug("Fetching image references of all services");
+		return dao.getImageHashes();
+	}
+	
+	/*
+	 *  Imágenes aún almacenadas en las columnas heredadas, para su migración al BlobStore; se leen del primario.
+	 */
+	@Override
+	public List<LegacyImage<Integer>> getLegacyImages(Integer afterId, int limit) {
+		logger.debug("Fetching up to <{}> legacy service images after service <{}>", limit, afterId);
+		return dao.getLegacyImages(afterId, limit);
+	}
+	
+	/*
+	 *  Registra las referencias de una imagen heredada ya copiada al BlobStore. Si mientras tanto el servicio recibió
+	 *  una imagen nueva, se conserva esa y devuelve false.
+	 */
+	@Override
+	public boolean migrateLegacyImageById(Integer id, String imageHash, String thumbnailHash) {
+		if (!dao.setLegacyImageHashes(id, imageHash, thumbnailHash))
+			return false;
+		logger.debug("Legacy image of service <{}> migrated to <{}>", id, imageHash);
+		// La imagen forma parte de la firma de atributos del servicio
+		fingerprintAfterCommit(dao.getServiceById(id));
+		return true;
+	}
+	
 	/*
-	 *  Actualiza la imagen y el thumbnail del Servicio haciendo un resize de la imagen suscripta,
-	 *  Si el parámetro <image> es nulo, eliminamos la imagen y thumbnail actual del servicio.
+	 *  Actualiza las referencias a la imagen y el thumbnail del Servicio, ya almacenados en el BlobStore
+	 *  por ImageProcessingService, de modo que la transacción solo abarque la escritura de las referencias.
+	 *  Si el parámetro <imageHash> es nulo, eliminamos la imagen y thumbnail actual del servicio.
 	 */
 	@Override
-	public void updateServiceImageById(Integer id, byte[] image) {
+	public void updateServiceImageById(Integer id, String imageHash, String thumbnailHash) {
 		Service entity = dao.getServiceById(id);
-		if (image != null) {
-	        try {
-	        	// Reformateamos la imagen suscripta para normalizar archivos muy grandes, y generamos el thumbnail
-	        	InputStream is = new ByteArrayInputStream(image);
-		        BufferedImage img = ImageIO.read(is);
-		        logger.debug("Resizing input image");
-		        BufferedImage serviceImage = Scalr.resize(img, Method.ULTRA_QUALITY,
-	                    Mode.AUTOMATIC, 1000, 1000);
-		        logger.debug("Building thumbnail from input image");
-		        BufferedImage serviceThumbnail = Scalr.resize(img, Method.ULTRA_QUALITY,
-	                    Mode.AUTOMATIC, 100, 100);
-		        
-		        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		        ImageIO.write(serviceImage, "png", baos);
-		        logger.debug("Updating attribute 'Imagen' from service <{}>",id);
-		        entity.setImagen(baos.toByteArray());
-		        
-		        baos.reset();
-	        	ImageIO.write(serviceThumbnail, "png", baos);
-	        	logger.debug("Updating attribute 'Thumbnail' from service <{}>",id);
-		        entity.setThumbnail(baos.toByteArray());
-		        
-		        img.flush();
-		        serviceImage.flush();
-		        serviceThumbnail.flush();
-		        baos.close();
-	        }
-	        catch (IOException e) {
-	        	logger.error("IOException: {}", e.getMessage());
-		        throw new RuntimeException(e.getMessage());
-	        }
-	        finally {
-	        	logger.info("Commiting update for service <{}>", id);
-	        }
+		if (entity == null)
+			throw new CustomResponseError("Service","id",
+					messageSource.getMessage("service.doesnt.exist", new Integer[]{id}, Locale.getDefault()));
+		if (imageHash != null) {
+			logger.debug("Updating attribute 'Imagen' and 'Thumbnail' from service <{}>",id);
+			entity.setHashImagen(imageHash);
+			entity.setHashThumbnail(thumbnailHash);
+			logger.info("Commiting update for service <{}>", id);
 		}
 		else {
-			if (entity.getImagen() != null || entity.getThumbnail() != null) {
+			if (entity.getHashImagen() != null || entity.getHashThumbnail() != null) {
 				logger.debug("Deleting attribute 'Imagen' and 'Thumbnail' from service <{}>",id);
 				
-				entity.setImagen(null);
-				entity.setThumbnail(null);
+				entity.setHashImagen(null);
+				entity.setHashThumbnail(null);
 			}
 			
 			logger.debug("No 'Imagen' nor 'Thumbnail' registered for service <{}>, discarding transaction.",id);
 		}
+		// La imagen forma parte de la firma de atributos del servicio
+		fingerprintAfterCommit(entity);
 	}
 	
+	/*
+	 *  Un servicio es similar a otro del mismo prestador si tienen el mismo título, o los mismos atributos y un contenido
+	 *  (título y descripción) con similitud mayor o igual a <similarity.threshold>.
+	 *  La base es la referencia: el título se compara con los servicios registrados del prestador, y los candidatos
+	 *  por contenido que propone el índice de huellas (local al nodo) solo cuentan si siguen registrados.
+	 *  Se ejecuta en el primario, y dentro de las transacciones de alta y modificación con el prestador bloqueado.
+	 */
 	@Override
 	public boolean similarExist(Service service) {
 		logger.debug("Verifying that service with title <{}> is not similar to already registered services", 
 				service.getTitulo());
-		User relatedUser = service.getUsuarioPrestador();
-		for (Service s : relatedUser.getServicios())
-			if (service.equals(s) || service.similarTo(s)) 
+		String providerId = service.getUsuarioPrestador().getId();
+		Map<Integer, String> registeredTitles = dao.getServiceTitlesByProvider(providerId);
+		registeredTitles.remove(service.getId());
+		String title = ServiceFingerprint.normalizeTitle(service.getTitulo());
+		for (Entry<Integer, String> registeredTitle : registeredTitles.entrySet())
+			if (title.equals(ServiceFingerprint.normalizeTitle(registeredTitle.getValue()))) {
+				logger.debug("Service with title <{}> has the same title as service <{}>", 
+						service.getTitulo(), registeredTitle.getKey());
 				return true;
-		return false;
+			}
+		Set<Integer> duplicates = new HashSet<Integer>(
+				similarityIndex.findDuplicates(fingerprint(service), providerId, service.getId()));
+		duplicates.retainAll(registeredTitles.keySet());
+		if (!duplicates.isEmpty())
+			logger.debug("Service with title <{}> is similar to services <{}>", service.getTitulo(), duplicates);
+		return !duplicates.isEmpty();
+	}
+	
+	/*
+	 *  Servicios de cualquier prestador posiblemente duplicados del servicio indicado, para revisión de moderadores.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Service> getNearDuplicateServices(Integer id, int limit) {
+		logger.debug("Fetching services similar to service <{}>", id);
+		Service service = getServiceById(id);
+		if (service == null)
+			return null;
+		List<Integer> ranking = similarityIndex.findNearDuplicates(fingerprint(service), id, limit);
+		Map<Integer, Integer> positions = new HashMap<Integer, Integer>();
+		for (int i = 0; i < ranking.size(); i++)
+			positions.put(ranking.get(i), i);
+		List<Service> services = new ArrayList<Service>(dao.getServicesByIds(ranking));
+		services.sort(Comparator.comparing(s -> positions.get(s.getId())));
+		return services;
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
 	public List<Service> getAllServices() {
-		logger.debug("Fetching all services");
-		return dao.getAllServices(null);
+		return getAllServices((PageRequest) null);
 	}
 	
 	@Override
+	@Transactional(readOnly = true)
+	public List<Service> getAllServices(PageRequest page) {
+		logger.debug("Fetching all services - page: <{}>", page);
+		return dao.getAllServices(null, page);
+	}
+	
+	/*
+	 *  Los filtros de texto (title, description) se resuelven contra el índice de búsqueda;
+	 *  el resto, junto con los ids obtenidos del índice, en una única consulta en la capa de acceso a datos.
+	 */
+	@Override
+	@Transactional(readOnly = true)
 	public List<Service> getAllServices(Map<String,String> filters) {
-		List<Service> filteredServices = new ArrayList<Service>();
-		List<Service> serviceListAfterFilters = new ArrayList<Service>();
-		if (filters != null && !filters.isEmpty()) {
-			String filterKey = null;
-			String filterValue = null;
-			int entryCount = 0;
+		return getAllServices(filters, null);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public List<Service> getAllServices(Map<String,String> filters, PageRequest page) {
+		Map<String,String> normalizedFilters = new HashMap<String,String>();
+		if (filters != null)
 			for (Entry <String, String> filter : filters.entrySet()) {
-				entryCount++;
-				filterKey = filter.getKey().toLowerCase();
-				filterValue = filter.getValue().toLowerCase();
-				switch (filterKey) {
-					case "user":
-						User user = userService.getUserById(filterValue);
-						logger.debug("Fetching all services - filtering by user: <{}>", filterValue);
-						if (user != null)
-							filteredServices = dao.getAllServices(user);
-						break;
-					case "district":
-						try {
-							District district = districtService.getDistrictById(Integer.parseInt(filterValue));
-							logger.debug("Fetching all services - filtering by district: <{}>", filterValue);
-							if (district != null)
-								filteredServices = dao.getAllServices(district);
-						}
-						catch (NumberFormatException e) { }
-						break;
-					case "city":
-						City city = cityService.getCityById(filterValue);
-						logger.debug("Fetching all services - filtering by city: <{}>", filterValue);
-						if (city != null)
-							filteredServices = dao.getAllServices(city);
-						break;
-					case "title":
-						logger.debug("Fetching all services - filtering by title: <{}>", filterValue);
-						if (filterValue != null && !filterValue.isEmpty())
-							filteredServices = dao.getAllServices(filterKey, filterValue);
-						break;
-					case "description":
-						logger.debug("Fetching all services - filtering by description: <{}>", filterValue);
-						if (filterValue != null && !filterValue.isEmpty())
-							filteredServices = dao.getAllServices(filterKey, filterValue);
-						break;
-				}
-				
-				if (entryCount == 1)
-					serviceListAfterFilters.addAll(filteredServices);
-				else
-					serviceListAfterFilters.retainAll(filteredServices);
-				
-				filteredServices.clear();
-				
-				if (serviceListAfterFilters.isEmpty())
-					break;
+				String filterKey = filter.getKey().toLowerCase();
+				String filterValue = (filter.getValue() != null) ? filter.getValue().toLowerCase() : null;
+				logger.debug("Fetching all services - filtering by {}: <{}>", filterKey, filterValue);
+				normalizedFilters.put(filterKey, filterValue);
 			}
+		
+		Set<Integer> ids = null;
+		for (Entry<String, ServiceSearchIndex.Field> textFilter : TEXT_FILTERS.entrySet()) {
+			if (!normalizedFilters.containsKey(textFilter.getKey()))
+				continue;
+			Set<Integer> matches = searchIndex.match(textFilter.getValue(), normalizedFilters.remove(textFilter.getKey()));
+			if (ids == null)
+				ids = new HashSet<Integer>(matches);
+			else
+				ids.retainAll(matches);
 		}
-		return serviceListAfterFilters;
+		return dao.getAllServices(normalizedFilters, ids, page);
+	}
+	
+	/*
+	 *  Devuelve hasta <limit> servicios que coinciden con el texto, ordenados por relevancia.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public List<Service> searchServices(String text, int limit) {
+		logger.debug("Searching services - text: <{}>, limit: <{}>", text, limit);
+		List<Integer> ranking = searchIndex.search(text, limit);
+		Map<Integer, Integer> positions = new HashMap<Integer, Integer>();
+		for (int i = 0; i < ranking.size(); i++)
+			positions.put(ranking.get(i), i);
+		List<Service> services = new ArrayList<Service>(dao.getServicesByIds(ranking));
+		services.sort(Comparator.comparing(service -> positions.get(service.getId())));
+		return services;
+	}
+	
+	/*
+	 *  Se construye al iniciar el contexto raíz (el evento del contexto del servlet se ignora) y luego periódicamente,
+	 *  ya que el índice es local al nodo. La carga se hace sobre un índice nuevo, que reemplaza al anterior al terminar.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@EventListener(classes = ContextRefreshedEvent.class, condition = "#root.event.applicationContext.parent == null")
+	@Scheduled(initialDelayString = "${search.index.rebuild.interval.ms}", fixedDelayString = "${search.index.rebuild.interval.ms}")
+	public void rebuildSearchIndex() {
+		logger.info("Building service search index");
+		searchIndex.rebuild(index -> dao.forEachServiceText(index::index));
+		logger.info("Service search index built - <{}> services indexed", searchIndex.size());
+	}
+	
+	/*
+	 *  Igual que el índice de búsqueda: al iniciar el contexto raíz y luego periódicamente, sobre un índice nuevo.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	@EventListener(classes = ContextRefreshedEvent.class, condition = "#root.event.applicationContext.parent == null")
+	@Scheduled(initialDelayString = "${similarity.index.rebuild.interval.ms}", fixedDelayString = "${similarity.index.rebuild.interval.ms}")
+	public void rebuildSimilarityIndex() {
+		logger.info("Building service similarity index");
+		similarityIndex.rebuild(index -> dao.forEachService(service -> 
+			index.index(service.getId(), service.getUsuarioPrestador().getId(), fingerprint(service))));
+		logger.info("Service similarity index built - <{}> services indexed", similarityIndex.size());
+	}
+	
+	/*
+	 *  El índice se actualiza recién al confirmarse la transacción, para no exponer cambios que luego se descartan.
+	 */
+	private void indexAfterCommit(Service service) {
+		Integer id = service.getId();
+		String title = service.getTitulo();
+		String description = service.getDescripcion();
+		afterCommit(() -> searchIndex.index(id, title, description));
+		fingerprintAfterCommit(service);
+	}
+	
+	private void fingerprintAfterCommit(Service service) {
+		Integer id = service.getId();
+		String providerId = service.getUsuarioPrestador().getId();
+		ServiceFingerprint fingerprint = fingerprint(service);
+		afterCommit(() -> similarityIndex.index(id, providerId, fingerprint));
+	}
+	
+	/*
+	 *  Huella del servicio: título, contenido y el resto de los atributos que definen al servicio
+	 *  (los medios de pago y requerimientos, por id y ordenados).
+	 */
+	private static ServiceFingerprint fingerprint(Service service) {
+		return ServiceFingerprint.of(service.getTitulo(), service.getDescripcion(), Arrays.asList(
+				service.getDisponibilidad() != null ? service.getDisponibilidad().toLowerCase() : null,
+				service.isInsitu(),
+				service.getPrecioMaximo(),
+				service.getPrecioMinimo(),
+				service.getPrecioInsumos(),
+				service.getPrecioAdicionales(),
+				service.getHorasEstimadasEjecucion(),
+				service.getCantidadTrabajadores(),
+				service.isFacturaEmitida(),
+				service.getHashImagen(),
+				service.getHashThumbnail(),
+				service.getTipoServicio() != null ? service.getTipoServicio().getId() : null,
+				service.getMediosDePago().stream().map(medio -> medio.getId()).sorted().collect(Collectors.toList()),
+				service.getRequerimientos().stream().map(requerimiento -> requerimiento.getId()).sorted().collect(Collectors.toList())));
+	}
+	
+	private void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		else
+			action.run();
 	}
 }
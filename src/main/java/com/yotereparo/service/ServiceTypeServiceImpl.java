@@ -6,9 +6,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import com.yotereparo.dao.ServiceTypeDaoImpl;
 import com.yotereparo.model.ServiceType;
 
 /**
@@ -22,26 +20,25 @@ import com.yotereparo.model.ServiceType;
  * 
  */
 @Service("serviceTypeService")
-@Transactional
 public class ServiceTypeServiceImpl implements ServiceTypeService {
 	
 	private static final Logger logger = LoggerFactory.getLogger(ServiceTypeServiceImpl.class);
 	
 	@Autowired
-	private ServiceTypeDaoImpl dao;
+	private ReferenceDataService referenceDataService;
 
 	public List<ServiceType> getAllServiceTypes() {
 		logger.debug("Fetching all service types");
-		return dao.getAllServiceTypes();
+		return referenceDataService.getReferenceData().getServiceTypes();
 	}
 
 	public ServiceType getServiceTypeById(Integer id) {
 		logger.debug("Fetching service type by id <{}>", id);
-		return dao.getServiceTypeById(id);
+		return referenceDataService.getReferenceData().getServiceTypeById(id);
 	}
 	
 	public ServiceType getServiceTypeByDescription(String description) {
 		logger.debug("Fetching service type <{}>", description);
-		return dao.getServiceTypeByDescription(description);
+		return referenceDataService.getReferenceData().getServiceTypeByDescription(description);
 	}
 }
@@ -0,0 +1,56 @@
+package com.yotereparo.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.yotereparo.util.metrics.StatusTransitionMetrics;
+
+/**
+ * Ejecuta periódicamente las transiciones de estado temporales de Mensajes y Contratos
+ * (expiración y archivado de mensajes, inicio y fin de ejecución de contratos).
+ *
+ * Cada transición es una única sentencia UPDATE sobre todos los registros alcanzados, por lo que
+ * las lecturas no necesitan reevaluar el estado de cada registro.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class StatusTransitionScheduler {
+
+	private static final Logger logger = LoggerFactory.getLogger(StatusTransitionScheduler.class);
+
+	@Autowired
+	private MessageService messageService;
+	@Autowired
+	private ContractService contractService;
+	@Autowired
+	private StatusTransitionMetrics metrics;
+
+	@Scheduled(initialDelayString = "${status.transition.interval.ms}", fixedDelayString = "${status.transition.interval.ms}")
+	public void run() {
+		logger.debug("Running scheduled status transitions");
+		long start = System.nanoTime();
+		try {
+			Map<String, Integer> transitioned = new LinkedHashMap<String, Integer>();
+			transitioned.put("messagesExpired", messageService.expireMessages());
+			transitioned.put("messagesArchived", messageService.archiveMessages());
+			// Los contratos finalizados se resuelven primero, para no pasarlos por ejecución
+			transitioned.put("contractsFinished", contractService.finishContracts());
+			transitioned.put("contractsStarted", contractService.startContracts());
+
+			metrics.recordRun(transitioned, System.nanoTime() - start);
+			logger.debug("Scheduled status transitions finished: {}", transitioned);
+		}
+		catch (Exception e) {
+			metrics.recordFailure(System.nanoTime() - start);
+			logger.error("Scheduled status transitions failed - Caught exception: ", e);
+		}
+	}
+}
@@ -3,6 +3,8 @@ package com.yotereparo.service;
 import java.util.List;
 
 import com.yotereparo.model.User;
+import com.yotereparo.util.blob.LegacyImage;
+import com.yotereparo.util.pagination.PageRequest;
 
 public interface UserService {
     
@@ -19,12 +21,24 @@ public interface UserService {
     void deleteUserById(String id);
  
     List<User> getAllUsers(); 
+    
+    List<User> getAllUsers(PageRequest page);
      
     User getUserById(String id);
     
+    User getUserProfileById(String id);
+    
+    String getUserPhotoHashById(String id, boolean thumbnail);
+    
+    List<String> getPhotoHashes();
+    
     User getUserByEmail(String email);
     
-    void updateUserPhotoById(String id, byte[] b64photo);
+    void updateUserPhotoById(String id, String photoHash, String thumbnailHash);
+    
+    List<LegacyImage<String>> getLegacyPhotos(String afterId, int limit);
+    
+    boolean migrateLegacyPhotoById(String id, String photoHash, String thumbnailHash);
     
     boolean isProvider(User user);
     
@@ -33,4 +47,8 @@ public interface UserService {
     boolean isServiceAccountOrAdministrator(User user);
     
     boolean hasMembershipAllowance(User user);
+    
+    boolean hasMembershipAllowance(User user, boolean lock);
+    
+    void lockUserById(String id);
 }
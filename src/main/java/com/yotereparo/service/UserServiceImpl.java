@@ -1,21 +1,13 @@
 package com.yotereparo.service;
 
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import javax.imageio.ImageIO;
-
-import org.imgscalr.Scalr;
-import org.imgscalr.Scalr.Method;
-import org.imgscalr.Scalr.Mode;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,16 +17,20 @@ import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.yotereparo.dao.ServiceDaoImpl;
 import com.yotereparo.dao.UserDaoImpl;
 import com.yotereparo.model.Address;
 import com.yotereparo.model.Role;
 import com.yotereparo.model.User;
+import com.yotereparo.security.RoleClassifier;
+import com.yotereparo.security.service.PrincipalCache;
 import com.yotereparo.util.SecurityUtils;
+import com.yotereparo.util.blob.LegacyImage;
 import com.yotereparo.util.error.CustomResponseError;
+import com.yotereparo.util.pagination.PageRequest;
 
 /**
  * Capa de servicio para Usuarios. 
@@ -62,6 +58,15 @@ public class UserServiceImpl implements UserService {
 	private RoleService roleService;
 	@Autowired
 	private CityService cityService;
+	@Autowired
+	private PrincipalCache principalCache;
+	@Autowired
+	private RoleClassifier roleClassifier;
+	@Autowired
+	private ServiceDaoImpl serviceDao;
+	
+	// Franquicia de creación de servicios por membresía, leída de la configuración una única vez
+	private final Map<String, Integer> membershipAllowances = new ConcurrentHashMap<String, Integer>();
 
 	public void createUser(User user) {
 		if (getUserByEmail(user.getEmail()) != null) {
@@ -215,6 +220,8 @@ public class UserServiceImpl implements UserService {
 				
 			logger.debug("Updating attribute 'Membresia' from user <{}>", user.getId());
 			entity.setMembresia(user.getMembresia());
+			// Los roles cambiaron, descartamos el principal cacheado
+			principalCache.invalidate(entity.getId());
 		}
 		
 		/* Comparamos las direcciones del usuario actualizado con las existentes, y calculamos
@@ -301,10 +308,8 @@ public class UserServiceImpl implements UserService {
 		// ignoramos la validación de la contraseña actual
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		boolean isServiceAccountOrAdministrator = false;
-		if (!(authentication instanceof AnonymousAuthenticationToken)) {
-			String authenticatedUsername = ((UserDetails)authentication.getPrincipal()).getUsername();
-			isServiceAccountOrAdministrator = isServiceAccountOrAdministrator(getUserById(authenticatedUsername));
-		}
+		if (!(authentication instanceof AnonymousAuthenticationToken))
+			isServiceAccountOrAdministrator = roleClassifier.isServiceAccountOrAdministrator(authentication);
 		
 		// La verdadera contraseña actual debe ser igual a la contraseña actual ingresada por el usuario
 		if (currentPassword.equals(trueCurrentPassword) || isServiceAccountOrAdministrator) {
@@ -326,6 +331,7 @@ public class UserServiceImpl implements UserService {
 					logger.warn("Enabling previously blocked user <{}>", user.getId());
 					user.setEstado(User.ACTIVE);
 				}
+				principalCache.invalidate(user.getId());
 			}
 			else
 				throw new CustomResponseError("User","contrasena",
@@ -360,6 +366,7 @@ public class UserServiceImpl implements UserService {
 			if (!entity.getEstado().equals(User.BLOCKED)) {
 				logger.warn("Disabling user <{}>: Too many failed login attempts", user.getId());
 				entity.setEstado(User.BLOCKED);
+				principalCache.invalidate(entity.getId());
 			}
 		
 		logger.info("Failed login attempt registered for user <{}>", user.getId());
@@ -368,107 +375,142 @@ public class UserServiceImpl implements UserService {
 	public void deleteUserById(String id) {
 		logger.info("Commiting deletion of user <{}>", id);
 		dao.deleteUserById(id);
+		principalCache.invalidate(id);
 	}
 
+	@Transactional(readOnly = true)
 	public List<User> getAllUsers() {
 		logger.debug("Fetching all users");
 		return dao.getAllUsers();
 	}
+	
+	@Transactional(readOnly = true)
+	public List<User> getAllUsers(PageRequest page) {
+		logger.debug("Fetching all users - page: <{}>", page);
+		return dao.getAllUsers(page);
+	}
 
+	@Transactional(readOnly = true)
 	public User getUserById(String id) {
 		logger.debug("Fetching user <{}>", id);
 		return dao.getUserById(id);
 	}
 	
+	@Transactional(readOnly = true)
+	public User getUserProfileById(String id) {
+		logger.debug("Fetching user profile <{}>", id);
+		return dao.getUserById(id, User.PROFILE_GRAPH);
+	}
+	
+	@Transactional(readOnly = true)
+	public String getUserPhotoHashById(String id, boolean thumbnail) {
+		logger.debug("Fetching {} reference of user <{}>", thumbnail ? "thumbnail" : "photo", id);
+		return dao.getUserPhotoHashById(id, thumbnail);
+	}
+	
+	/*
+	 *  Referencias vigentes, para el barrido de blobs huérfanos; se leen del primario.
+	 */
+	public List<String> getPhotoHashes() {
+		logger.debug("Fetching photo references of all users");
+		return dao.getPhotoHashes();
+	}
+	
+	/*
+	 *  Fotos aún almacenadas en las columnas heredadas, para su migración al BlobStore; se leen del primario.
+	 */
+	public List<LegacyImage<String>> getLegacyPhotos(String afterId, int limit) {
+		logger.debug("Fetching up to <{}> legacy user photos after user <{}>", limit, afterId);
+		return dao.getLegacyPhotos(afterId, limit);
+	}
+	
+	/*
+	 *  Registra las referencias de una foto heredada ya copiada al BlobStore. Si mientras tanto el usuario subió
+	 *  una foto nueva, se conserva esa y devuelve false.
+	 */
+	public boolean migrateLegacyPhotoById(String id, String photoHash, String thumbnailHash) {
+		if (!dao.setLegacyPhotoHashes(id, photoHash, thumbnailHash))
+			return false;
+		logger.debug("Legacy photo of user <{}> migrated to <{}>", id, photoHash);
+		return true;
+	}
+	
+	@Transactional(readOnly = true)
 	public User getUserByEmail(String email) {
 		logger.debug("Fetching user by email <{}>", email);
 		return dao.getUserByEmail(email);
 	}
 	
 	/*
-	 *  Actualiza la foto y el thumbnail del Usuario haciendo un resize de la foto suscripta,
-	 *  Si el parámetro <foto> es nulo, eliminamos la foto y thumbnail actual del usuario.
+	 *  Actualiza las referencias a la foto y el thumbnail del Usuario, ya almacenados en el BlobStore
+	 *  por ImageProcessingService, de modo que la transacción solo abarque la escritura de las referencias.
+	 *  Si el parámetro <photoHash> es nulo, eliminamos la foto y thumbnail actual del usuario.
 	 */
-	public void updateUserPhotoById(String id, byte[] photo) {
+	public void updateUserPhotoById(String id, String photoHash, String thumbnailHash) {
 		User entity = dao.getUserById(id);
-		if (photo != null) {
-	        try {
-	        	// Reformateamos la imagen suscripta para normalizar archivos muy grandes, y generamos el thumbnail
-	        	InputStream is = new ByteArrayInputStream(photo);
-		        BufferedImage img = ImageIO.read(is);
-		        logger.debug("Resizing input image");
-		        BufferedImage userPhoto = Scalr.resize(img, Method.ULTRA_QUALITY,
-	                    Mode.AUTOMATIC, 300, 300);
-		        logger.debug("Building thumbnail from input image");
-		        BufferedImage userThumbnail = Scalr.resize(img, Method.ULTRA_QUALITY,
-	                    Mode.AUTOMATIC, 100, 100);
-		        
-		        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		        ImageIO.write(userPhoto, "png", baos);
-		        logger.debug("Updating attribute 'Foto' from user <{}>",id);
-	        	entity.setFoto(baos.toByteArray());
-	        	
-	        	baos.reset();
-	        	ImageIO.write(userThumbnail, "png", baos);
-	        	logger.debug("Updating attribute 'Thumbnail' from user <{}>",id);
-		        entity.setThumbnail(baos.toByteArray());
-		        
-		        img.flush();
-		        userPhoto.flush();
-		        userThumbnail.flush();
-		        baos.close();		        
-	        }
-	        catch (IOException e) {
-	        	logger.error("IOException: "+e.getMessage());
-		        throw new RuntimeException(e.getMessage());
-	        }
-	        finally {
-	        	logger.info("Commiting update for user <{}>", id);
-	        }
+		if (entity == null)
+			throw new CustomResponseError("User","id",
+					messageSource.getMessage("user.doesnt.exist", new String[]{id}, Locale.getDefault()));
+		if (photoHash != null) {
+			logger.debug("Updating attribute 'Foto' and 'Thumbnail' from user <{}>",id);
+			entity.setHashFoto(photoHash);
+			entity.setHashThumbnail(thumbnailHash);
+			logger.info("Commiting update for user <{}>", id);
 		}
 		else {
-			if (entity.getFoto() != null || entity.getThumbnail() != null) {
+			if (entity.getHashFoto() != null || entity.getHashThumbnail() != null) {
 				logger.debug("Deleting attribute 'Foto' and 'Thumbnail' from user <{}>",id);
 				
-				entity.setFoto(null);
-				entity.setThumbnail(null);
+				entity.setHashFoto(null);
+				entity.setHashThumbnail(null);
 			}
 			
 			logger.debug("No 'Foto' nor 'Thumbnail' registered for user <{}>, discarding transaction.",id);
 		}
 	}
 	
+	@Transactional(readOnly = true)
 	public boolean isProvider(User user) {
 		logger.debug("Verifying if user's <{}> is of type PRESTADOR", user.getId());
-		for (Role role : roleService.getAllPrestadorRoles()) {
-			if (user.getRoles().contains(role))
-				return true;
-		}
-		return false;
+		return RoleClassifier.hasAny(roleClassifier.classifyRoles(user.getRoles()), RoleClassifier.USUARIO_PRESTADOR);
 	}
 	
+	@Transactional(readOnly = true)
 	public boolean isCustomer(User user) {
 		logger.debug("Verifying if user's <{}> is of type FINAL", user.getId());
-		for (Role role : roleService.getAllFinalRoles()) {
-			if (user.getRoles().contains(role))
-				return true;
-		}
-		return false;
+		return RoleClassifier.hasAny(roleClassifier.classifyRoles(user.getRoles()), RoleClassifier.USUARIO_FINAL);
 	}
 	
+	@Transactional(readOnly = true)
 	public boolean isServiceAccountOrAdministrator(User user) {
 		logger.debug("Verifying if user's <{}> is of type CUENTA SERVICIO or ADMINISTRADOR", user.getId());
-		if (user.getRoles().contains(roleService.getRoleById(environment.getProperty("role.id.serviceaccount")))
-		 || user.getRoles().contains(roleService.getRoleById(environment.getProperty("role.id.administrator"))))
-			return true;
-		return false;
+		return RoleClassifier.hasAny(roleClassifier.classifyRoles(user.getRoles()), RoleClassifier.SERVICE_ACCOUNT_OR_ADMINISTRATOR);
 	}
 	
 	public boolean hasMembershipAllowance(User user) {
+		return hasMembershipAllowance(user, false);
+	}
+	
+	/*
+	 *  La franquicia se compara con la cantidad de servicios vigentes del usuario en la base (primario, no réplica).
+	 *  Con <lock>, la fila del usuario queda bloqueada hasta el fin de la transacción, de modo que dos altas
+	 *  concurrentes del mismo prestador no excedan la franquicia.
+	 */
+	public boolean hasMembershipAllowance(User user, boolean lock) {
 		logger.debug("Verifying if user's <{}> has sufficient membership allowance", user.getId());
-		int membershipServiceCreationAlowance = 
-				Integer.parseInt(environment.getProperty("membership.service.creation.allowance."+user.getMembresia().toLowerCase()));
-		int currentServiceCount = user.getServicios().size();
+		if (lock)
+			dao.lockUserById(user.getId());
+		int membershipServiceCreationAlowance = membershipAllowances.computeIfAbsent(user.getMembresia().toLowerCase(), 
+				membership -> Integer.parseInt(environment.getProperty("membership.service.creation.allowance."+membership)));
+		int currentServiceCount = serviceDao.countActiveServicesByProvider(user.getId());
 		return (currentServiceCount < membershipServiceCreationAlowance);
 	}
+	
+	/*
+	 *  Bloquea la fila del usuario hasta el fin de la transacción: serializa las altas y modificaciones
+	 *  concurrentes de servicios de un mismo prestador.
+	 */
+	public void lockUserById(String id) {
+		dao.lockUserById(id);
+	}
 }
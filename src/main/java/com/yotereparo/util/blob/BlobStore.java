@@ -0,0 +1,43 @@
+package com.yotereparo.util.blob;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Set;
+
+/**
+ * Almacenamiento de contenido binario direccionado por contenido: la clave de cada blob es el hash SHA-256
+ * (hexadecimal) de sus bytes, por lo que un mismo contenido se almacena una única vez y nunca se modifica.
+ * Las entidades solo persisten la clave.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public interface BlobStore {
+
+	/*
+	 * Almacena el contenido (si ya existe, solo renueva su fecha de escritura) y devuelve su clave.
+	 */
+	String put(byte[] content) throws IOException;
+
+	boolean exists(String key);
+
+	long getSize(String key) throws IOException;
+
+	/*
+	 * Instante de la última escritura del blob, en milisegundos desde epoch.
+	 */
+	long getLastModified(String key) throws IOException;
+
+	/*
+	 * Transfiere el contenido completo del blob al canal indicado, devolviendo la cantidad de bytes escritos.
+	 */
+	long transferTo(String key, WritableByteChannel target) throws IOException;
+
+	void delete(String key) throws IOException;
+
+	/*
+	 * Elimina los blobs cuya clave no está en <referencedKeys> y cuya última escritura es anterior a <modifiedBefore>
+	 * (milisegundos desde epoch). Devuelve la cantidad de blobs eliminados.
+	 */
+	int deleteUnreferenced(Set<String> referencedKeys, long modifiedBefore) throws IOException;
+}
@@ -0,0 +1,164 @@
+package com.yotereparo.util.blob;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementación de BlobStore sobre el filesystem local.
+ * Cada blob se guarda en <root>/<ab>/<cd>/<clave>, donde <ab> y <cd> son los primeros caracteres de la clave,
+ * para no acumular todos los archivos en un único directorio.
+ * La escritura se hace sobre un archivo temporal que luego se mueve atómicamente a su ubicación final,
+ * de modo que un lector nunca observa un blob parcialmente escrito.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class FileSystemBlobStore implements BlobStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+	private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final Path root;
+	private final Path tmp;
+
+	public FileSystemBlobStore(Path root) throws IOException {
+		this.root = root.toAbsolutePath();
+		this.tmp = this.root.resolve("tmp");
+		Files.createDirectories(tmp);
+		logger.info("Blob store initialized at <{}>", this.root);
+	}
+
+	@Override
+	public String put(byte[] content) throws IOException {
+		String key = hash(content);
+		Path target = resolve(key);
+		if (Files.exists(target)) {
+			try {
+				// Con la fecha renovada, el barrido de huérfanos no elimina un blob que vuelve a referenciarse
+				Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+				logger.debug("Blob <{}> already stored, skipping write", key);
+				return key;
+			}
+			catch (NoSuchFileException e) {
+				logger.debug("Blob <{}> deleted concurrently, writing it again", key);
+			}
+		}
+		Files.createDirectories(target.getParent());
+		Path temporary = Files.createTempFile(tmp, key, ".tmp");
+		try {
+			Files.write(temporary, content);
+			Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+			logger.debug("Blob <{}> stored ({} bytes)", key, content.length);
+		}
+		catch (FileAlreadyExistsException e) {
+			// Otro worker almacenó el mismo contenido en paralelo
+			logger.debug("Blob <{}> stored concurrently, discarding duplicate", key);
+		}
+		finally {
+			Files.deleteIfExists(temporary);
+		}
+		return key;
+	}
+
+	@Override
+	public boolean exists(String key) {
+		return Files.exists(resolve(key));
+	}
+
+	@Override
+	public long getSize(String key) throws IOException {
+		return Files.size(resolve(key));
+	}
+
+	@Override
+	public long getLastModified(String key) throws IOException {
+		return Files.getLastModifiedTime(resolve(key)).toMillis();
+	}
+
+	/*
+	 * Utiliza FileChannel.transferTo, que delega la copia al sistema operativo solo si el destino es un archivo o socket;
+	 * sobre cualquier otro canal (p. ej. el que envuelve el OutputStream de una respuesta) copia a través de un buffer.
+	 */
+	@Override
+	public long transferTo(String key, WritableByteChannel target) throws IOException {
+		try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			while (position < size)
+				position += channel.transferTo(position, size - position, target);
+			return position;
+		}
+	}
+
+	@Override
+	public void delete(String key) throws IOException {
+		if (Files.deleteIfExists(resolve(key)))
+			logger.debug("Blob <{}> deleted", key);
+	}
+
+	@Override
+	public int deleteUnreferenced(Set<String> referencedKeys, long modifiedBefore) throws IOException {
+		List<Path> candidates;
+		try (Stream<Path> files = Files.walk(root, 3)) {
+			candidates = files
+					.filter(file -> !file.startsWith(tmp) && Files.isRegularFile(file))
+					.filter(file -> KEY_PATTERN.matcher(file.getFileName().toString()).matches())
+					.filter(file -> !referencedKeys.contains(file.getFileName().toString()))
+					.collect(Collectors.toList());
+		}
+		int deleted = 0;
+		for (Path file : candidates)
+			try {
+				// La fecha se verifica al eliminar: un put() concurrente del mismo contenido la renueva
+				if (Files.getLastModifiedTime(file).toMillis() < modifiedBefore && Files.deleteIfExists(file)) {
+					logger.debug("Unreferenced blob <{}> deleted", file.getFileName());
+					deleted++;
+				}
+			}
+			catch (NoSuchFileException e) {
+				// Eliminado en paralelo
+			}
+		return deleted;
+	}
+
+	Path resolve(String key) {
+		if (key == null || !KEY_PATTERN.matcher(key).matches())
+			throw new IllegalArgumentException("Invalid blob key: " + key);
+		return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+	}
+
+	static String hash(byte[] content) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+			char[] hex = new char[digest.length * 2];
+			for (int i = 0; i < digest.length; i++) {
+				hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+				hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+			}
+			return new String(hex);
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.yotereparo.util.blob;
+
+/**
+ * Imagen almacenada en las columnas bytea anteriores al BlobStore (servicio.imagen/thumbnail, usuario.foto/thumbnail),
+ * pendiente de migrar. Identifica al registro dueño por su id.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class LegacyImage<ID> {
+
+	private final ID id;
+	private final byte[] image;
+	private final byte[] thumbnail;
+
+	public LegacyImage(ID id, byte[] image, byte[] thumbnail) {
+		this.id = id;
+		this.image = image;
+		this.thumbnail = thumbnail;
+	}
+
+	public ID getId() {
+		return id;
+	}
+
+	public byte[] getImage() {
+		return image;
+	}
+
+	public byte[] getThumbnail() {
+		return thumbnail;
+	}
+}
@@ -0,0 +1,51 @@
+package com.yotereparo.util.cache;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Registro en memoria de eventos recientes por clave, para reglas del tipo "no más de un evento cada <cooldown>".
+ * Cada clave conserva solo su último evento y queda en enfriamiento durante <cooldown> a partir de él (ventana
+ * deslizante), por lo que la verificación es constante sin importar cuántos eventos acumule la clave.
+ *
+ * Es una optimización local al nodo: una clave ausente no implica que no haya habido eventos (reinicios, otros nodos
+ * o entradas descartadas por tamaño), por lo que quien la consulta debe confirmar los negativos contra la base.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class CooldownTracker<K> {
+
+	private final ExpiringCache<K, Long> lastEvents;
+	private final long cooldownMs;
+
+	public CooldownTracker(long cooldownMs, int maxEntries) {
+		this(cooldownMs, maxEntries, System::currentTimeMillis);
+	}
+
+	public CooldownTracker(long cooldownMs, int maxEntries, LongSupplier clock) {
+		this.lastEvents = new ExpiringCache<K, Long>(maxEntries, clock);
+		this.cooldownMs = cooldownMs;
+	}
+
+	/*
+	 * Registra un evento de <key> ocurrido en <timestamp> (milisegundos desde epoch). 
+	 * Un evento anterior al último registrado no modifica la ventana.
+	 */
+	public void record(K key, long timestamp) {
+		Long last = lastEvents.get(key);
+		if (last == null || timestamp > last)
+			lastEvents.put(key, timestamp, timestamp + cooldownMs);
+	}
+
+	public boolean isCoolingDown(K key) {
+		return lastEvents.get(key) != null;
+	}
+
+	public void reset(K key) {
+		lastEvents.remove(key);
+	}
+
+	public long getCooldownMs() {
+		return cooldownMs;
+	}
+}
@@ -0,0 +1,123 @@
+package com.yotereparo.util.cache;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Cache concurrente acotado en cantidad de entradas, donde cada entrada expira en el instante indicado al insertarla.
+ * Las entradas se mantienen además ordenadas por vencimiento: las expiradas se descartan al ser consultadas o desde
+ * el frente de ese orden en cada inserción, sin recorrer el cache; si aun así no hay lugar, se descartan las próximas
+ * a vencer (el cache es una optimización, perder una entrada solo implica recalcularla).
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class ExpiringCache<K, V> {
+
+	private final Map<K, Entry<K, V>> entries = new ConcurrentHashMap<K, Entry<K, V>>();
+	// Mismas entradas, por vencimiento y orden de inserción
+	private final NavigableSet<Entry<K, V>> byExpiration = new ConcurrentSkipListSet<Entry<K, V>>(
+			Comparator.<Entry<K, V>>comparingLong(entry -> entry.expiresAt).thenComparingLong(entry -> entry.sequence));
+	private final AtomicLong sequence = new AtomicLong();
+	private final int maxEntries;
+	private final LongSupplier clock;
+
+	public ExpiringCache(int maxEntries) {
+		this(maxEntries, System::currentTimeMillis);
+	}
+
+	public ExpiringCache(int maxEntries, LongSupplier clock) {
+		this.maxEntries = maxEntries;
+		this.clock = clock;
+	}
+
+	public V get(K key) {
+		Entry<K, V> entry = entries.get(key);
+		if (entry == null)
+			return null;
+		if (entry.isExpired(clock.getAsLong())) {
+			discard(entry);
+			return null;
+		}
+		return entry.value;
+	}
+
+	/*
+	 * Inserta el valor, que dejará de ser devuelto a partir de <expiresAt> (milisegundos desde epoch).
+	 */
+	public void put(K key, V value, long expiresAt) {
+		evict();
+		Entry<K, V> entry = new Entry<K, V>(key, value, expiresAt, sequence.incrementAndGet());
+		Entry<K, V> previous = entries.put(key, entry);
+		if (previous != null)
+			byExpiration.remove(previous);
+		byExpiration.add(entry);
+	}
+
+	public void remove(K key) {
+		Entry<K, V> entry = entries.remove(key);
+		if (entry != null)
+			byExpiration.remove(entry);
+	}
+
+	/*
+	 * Recorre todo el cache: es para invalidaciones puntuales, no para el camino de cada consulta.
+	 */
+	public boolean removeIf(Predicate<? super K> predicate) {
+		boolean removed = false;
+		for (Entry<K, V> entry : entries.values())
+			if (predicate.test(entry.key))
+				removed |= discard(entry);
+		return removed;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/*
+	 * Descarta las entradas vencidas y, si el cache sigue lleno, las próximas a vencer hasta dejar lugar para una más.
+	 * Solo se toman entradas del frente del orden por vencimiento: el costo es proporcional a lo descartado.
+	 */
+	private void evict() {
+		long now = clock.getAsLong();
+		Iterator<Entry<K, V>> iterator = byExpiration.iterator();
+		while (iterator.hasNext()) {
+			Entry<K, V> entry = iterator.next();
+			if (!entry.isExpired(now) && entries.size() < maxEntries)
+				break;
+			iterator.remove();
+			entries.remove(entry.key, entry);
+		}
+	}
+
+	private boolean discard(Entry<K, V> entry) {
+		byExpiration.remove(entry);
+		return entries.remove(entry.key, entry);
+	}
+
+	private static final class Entry<K, V> {
+		private final K key;
+		private final V value;
+		private final long expiresAt;
+		private final long sequence;
+
+		private Entry(K key, V value, long expiresAt, long sequence) {
+			this.key = key;
+			this.value = value;
+			this.expiresAt = expiresAt;
+			this.sequence = sequence;
+		}
+
+		private boolean isExpired(long now) {
+			return now >= expiresAt;
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.yotereparo.util.datasource;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas de la base, y las escrituras
+ * y los accesos fuera de transacción al primario.
+ *
+ * La conexión física se obtiene recién con la primera sentencia (LazyConnectionDataSourceProxy), cuando Spring
+ * ya registró si la transacción es de solo lectura. Las lecturas se reparten por turnos entre las réplicas
+ * disponibles: una réplica cuyo retraso supera <maxLagMs>, o cuya verificación falla, queda fuera de la rotación
+ * hasta la siguiente verificación, y sin réplicas disponibles las lecturas van al primario.
+ *
+ * Hibernate debe liberar la conexión al terminar cada transacción (DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION):
+ * de lo contrario, la sesión abierta durante el request conservaría la conexión de una lectura para las
+ * escrituras siguientes.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+	private static final String PRIMARY = "primary";
+
+	private final DataSource primary;
+	private final List<Replica> replicas = new ArrayList<Replica>();
+	private final String lagQuery;
+	private final long maxLagMs;
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	/*
+	 *  <replicas>: DataSource de cada réplica por nombre. <lagQuery>: consulta que, ejecutada en una réplica,
+	 *  devuelve su retraso respecto del primario en milisegundos.
+	 */
+	public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery, long maxLagMs) {
+		this.primary = primary;
+		this.lagQuery = lagQuery;
+		this.maxLagMs = maxLagMs;
+
+		Map<Object, Object> targets = new HashMap<Object, Object>();
+		targets.put(PRIMARY, primary);
+		for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+			this.replicas.add(new Replica(replica.getKey(), replica.getValue()));
+			targets.put(replica.getKey(), replica.getValue());
+		}
+
+		AbstractRoutingDataSource router = new AbstractRoutingDataSource() {
+			@Override
+			protected Object determineCurrentLookupKey() {
+				return route();
+			}
+		};
+		router.setTargetDataSources(targets);
+		router.setDefaultTargetDataSource(primary);
+		router.afterPropertiesSet();
+		setTargetDataSource(router);
+		afterPropertiesSet();
+
+		checkReplicas();
+	}
+
+	private String route() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty())
+			return PRIMARY;
+		int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+		for (int i = 0; i < replicas.size(); i++) {
+			Replica replica = replicas.get((start + i) % replicas.size());
+			if (replica.available)
+				return replica.name;
+		}
+		return PRIMARY;
+	}
+
+	/*
+	 *  Mide el retraso de cada réplica y la saca de (o la devuelve a) la rotación de lecturas.
+	 */
+	@Scheduled(initialDelayString = "${jdbc.replica.lag.check.interval.ms}", fixedDelayString = "${jdbc.replica.lag.check.interval.ms}")
+	public void checkReplicas() {
+		for (Replica replica : replicas) {
+			boolean available;
+			try (Connection connection = replica.dataSource.getConnection();
+					Statement statement = connection.createStatement();
+					ResultSet resultSet = statement.executeQuery(lagQuery)) {
+				long lagMs = resultSet.next() ? resultSet.getLong(1) : Long.MAX_VALUE;
+				available = lagMs <= maxLagMs;
+				if (!available && replica.available)
+					logger.warn("Removing replica <{}> from read rotation - lag: <{}> ms", replica.name, lagMs);
+			}
+			catch (SQLException e) {
+				available = false;
+				if (replica.available)
+					logger.warn("Removing replica <{}> from read rotation - Caught exception: {}", replica.name, e.getMessage());
+			}
+			if (available && !replica.available)
+				logger.info("Adding replica <{}> to read rotation", replica.name);
+			replica.available = available;
+		}
+	}
+
+	public List<String> getAvailableReplicas() {
+		return Collections.unmodifiableList(replicas.stream()
+				.filter(replica -> replica.available)
+				.map(replica -> replica.name)
+				.collect(Collectors.toList()));
+	}
+
+	/*
+	 *  Cierra los pools de conexiones del primario y de las réplicas.
+	 */
+	@Override
+	public void close() {
+		List<DataSource> dataSources = new ArrayList<DataSource>();
+		dataSources.add(primary);
+		replicas.forEach(replica -> dataSources.add(replica.dataSource));
+		for (DataSource dataSource : dataSources)
+			if (dataSource instanceof AutoCloseable)
+				try {
+					((AutoCloseable) dataSource).close();
+				}
+				catch (Exception e) {
+					logger.warn("Unable to close data source - Caught exception: ", e);
+				}
+	}
+
+	private static final class Replica {
+		private final String name;
+		private final DataSource dataSource;
+		// Fuera de la rotación hasta la primera verificación
+		private volatile boolean available = false;
+
+		private Replica(String name, DataSource dataSource) {
+			this.name = name;
+			this.dataSource = dataSource;
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package com.yotereparo.util.error;
+
+/**
+ * El prestador no tiene franquicia de membresía para registrar otro servicio (se responde 403).
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class MembershipAllowanceError extends CustomResponseError {
+
+	private static final long serialVersionUID = 1L;
+
+	public MembershipAllowanceError(String objectName, String field, String defaultMessage) {
+		super(objectName, field, defaultMessage);
+	}
+}
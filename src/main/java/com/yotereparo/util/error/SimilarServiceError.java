@@ -0,0 +1,16 @@
+package com.yotereparo.util.error;
+
+/**
+ * El servicio es demasiado similar a otro servicio del mismo prestador (se responde 409).
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class SimilarServiceError extends CustomResponseError {
+
+	private static final long serialVersionUID = 1L;
+
+	public SimilarServiceError(String objectName, String field, String defaultMessage) {
+		super(objectName, field, defaultMessage);
+	}
+}
@@ -0,0 +1,112 @@
+package com.yotereparo.util.image;
+
+import java.util.UUID;
+
+import org.joda.time.DateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Trabajo de procesamiento de imagen encolado para su ejecución asíncrona.
+ * Su estado es actualizado por el worker que lo procesa y consultado por los clientes mediante su id.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class ImageJob {
+	// Constantes de estado
+	public static final String PENDING = "PENDIENTE";
+	public static final String PROCESSING = "EN_PROCESO";
+	public static final String COMPLETED = "FINALIZADO";
+	public static final String FAILED = "FALLIDO";
+
+	// Constantes de tipo de recurso
+	public static final String SERVICE_IMAGE = "SERVICIO";
+	public static final String USER_PHOTO = "USUARIO";
+
+	private final String id;
+	private final String tipo;
+	private final String recurso;
+	private final String solicitante;
+	private final DateTime fechaCreacion;
+	private volatile DateTime fechaFinalizacion;
+	private volatile String estado;
+	private volatile String error;
+
+	public ImageJob(String tipo, String recurso, String solicitante) {
+		this.id = UUID.randomUUID().toString();
+		this.tipo = tipo;
+		this.recurso = recurso;
+		this.solicitante = solicitante;
+		this.fechaCreacion = new DateTime();
+		this.estado = PENDING;
+	}
+
+	public void start() {
+		this.estado = PROCESSING;
+	}
+
+	public void complete() {
+		this.fechaFinalizacion = new DateTime();
+		this.estado = COMPLETED;
+	}
+
+	public void fail(String error) {
+		this.error = error;
+		this.fechaFinalizacion = new DateTime();
+		this.estado = FAILED;
+	}
+
+	@JsonIgnore
+	public boolean isFinished() {
+		return COMPLETED.equals(estado) || FAILED.equals(estado);
+	}
+
+	/*
+	 * Indica si el trabajo finalizó antes del instante indicado, y puede por lo tanto ser descartado.
+	 */
+	@JsonIgnore
+	public boolean isFinishedBefore(DateTime instant) {
+		DateTime finishedAt = fechaFinalizacion;
+		return isFinished() && finishedAt != null && finishedAt.isBefore(instant);
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getTipo() {
+		return tipo;
+	}
+
+	public String getRecurso() {
+		return recurso;
+	}
+
+	@JsonIgnore
+	public String getSolicitante() {
+		return solicitante;
+	}
+
+	public String getFechaCreacion() {
+		return fechaCreacion.toString();
+	}
+
+	public String getFechaFinalizacion() {
+		DateTime finishedAt = fechaFinalizacion;
+		return (finishedAt != null) ? finishedAt.toString() : null;
+	}
+
+	public String getEstado() {
+		return estado;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "ImageJob [id=" + id + ", tipo=" + tipo + ", recurso=" + recurso + ", estado=" + estado + "]";
+	}
+}
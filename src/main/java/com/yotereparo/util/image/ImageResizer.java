@@ -0,0 +1,75 @@
+package com.yotereparo.util.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.imgscalr.Scalr;
+import org.imgscalr.Scalr.Method;
+import org.imgscalr.Scalr.Mode;
+
+/**
+ * Clase utilitaria para normalizar imágenes suscriptas por los usuarios: redimensiona la imagen original
+ * y genera su thumbnail, ambos codificados en PNG.
+ * No mantiene estado, por lo que puede ser utilizada concurrentemente desde los workers de procesamiento.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class ImageResizer {
+
+	private ImageResizer() { }
+
+	/*
+	 * Redimensiona la imagen a <size> x <size> (manteniendo la relación de aspecto) y genera el thumbnail
+	 * de <thumbnailSize> x <thumbnailSize>. El thumbnail se obtiene a partir de la imagen ya reducida,
+	 * evitando un segundo pase ULTRA_QUALITY sobre el original.
+	 * Lanza IOException si el contenido no corresponde a un formato de imagen soportado.
+	 */
+	public static ResizedImage resize(byte[] source, int size, int thumbnailSize) throws IOException {
+		BufferedImage original = ImageIO.read(new ByteArrayInputStream(source));
+		if (original == null)
+			throw new IOException("Unsupported image format");
+		BufferedImage image = null;
+		BufferedImage thumbnail = null;
+		try {
+			image = Scalr.resize(original, Method.ULTRA_QUALITY, Mode.AUTOMATIC, size, size);
+			thumbnail = Scalr.resize(image, Method.ULTRA_QUALITY, Mode.AUTOMATIC, thumbnailSize, thumbnailSize);
+			return new ResizedImage(toPng(image), toPng(thumbnail));
+		}
+		finally {
+			original.flush();
+			if (image != null)
+				image.flush();
+			if (thumbnail != null)
+				thumbnail.flush();
+		}
+	}
+
+	private static byte[] toPng(BufferedImage image) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", baos);
+		return baos.toByteArray();
+	}
+
+	public static final class ResizedImage {
+		private final byte[] image;
+		private final byte[] thumbnail;
+
+		ResizedImage(byte[] image, byte[] thumbnail) {
+			this.image = image;
+			this.thumbnail = thumbnail;
+		}
+
+		public byte[] getImage() {
+			return image;
+		}
+
+		public byte[] getThumbnail() {
+			return thumbnail;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.yotereparo.util.image;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.yotereparo.util.blob.BlobStore;
+
+/**
+ * Clase utilitaria para la entrega de imágenes almacenadas.
+ * Las imágenes se normalizan a PNG al momento de ser procesadas y se almacenan por contenido en el BlobStore,
+ * por lo que se entregan tal cual fueron persistidas: la clave del blob es un ETag fuerte y la fecha de escritura
+ * del blob su Last-Modified.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class ImageResponseUtils {
+
+	@Autowired
+	private BlobStore blobStore;
+
+	/*
+	 * Escribe la imagen sobre la respuesta por bloques, sin cargar el blob completo en memoria. El canal que envuelve
+	 * al OutputStream de la respuesta no es un archivo ni un socket, por lo que la copia pasa por un buffer de la JVM.
+	 * Si el cliente ya posee la misma versión (If-None-Match / If-Modified-Since) se responde 304 sin cuerpo.
+	 */
+	public void writeImage(String blobKey, ServletWebRequest request) throws IOException {
+		HttpServletResponse response = request.getResponse();
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+		if (request.checkNotModified(getEntityTag(blobKey), blobStore.getLastModified(blobKey)))
+			return;
+
+		response.setContentType(MediaType.IMAGE_PNG_VALUE);
+		response.setContentLengthLong(blobStore.getSize(blobKey));
+		blobStore.transferTo(blobKey, Channels.newChannel(response.getOutputStream()));
+	}
+
+	public String getEntityTag(String blobKey) {
+		return "\"" + blobKey + "\"";
+	}
+}
@@ -0,0 +1,77 @@
+package com.yotereparo.util.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Base de los índices en memoria que se reconstruyen por completo sin bloquear las consultas: la carga se hace
+ * sobre una instancia nueva mientras las consultas siguen usando el contenido anterior, y las altas y bajas
+ * recibidas en ese lapso se aplican también sobre la instancia nueva antes de reemplazar el contenido.
+ *
+ * Las subclases modifican su contenido con el lock de escritura tomado y registran cada modificación
+ * con recordUpdate(); resuelven las consultas con el lock de lectura.
+ *
+ * @author Rodrigo Yanis
+ *
+ * @param <I> interfaz del índice, la que recibe el loader de la reconstrucción
+ * @param <S> implementación concreta, la que se instancia para la reconstrucción
+ */
+public abstract class RebuildableIndex<I, S extends I> {
+
+	protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+	// Altas y bajas recibidas durante una reconstrucción, para aplicarlas también sobre el índice nuevo
+	private List<Consumer<I>> pendingUpdates;
+
+	/*
+	 * Índice vacío, con la misma configuración que este, sobre el que se carga la reconstrucción.
+	 */
+	protected abstract S newIndex();
+
+	/*
+	 * Reemplaza el contenido de este índice por el de <rebuilt>. Se invoca con el lock de escritura tomado.
+	 */
+	protected abstract void replaceContent(S rebuilt);
+
+	/*
+	 * Registra <update> para aplicarlo sobre el índice nuevo si hay una reconstrucción en curso.
+	 * Se invoca con el lock de escritura tomado, junto con la modificación que representa.
+	 */
+	protected void recordUpdate(Consumer<I> update) {
+		if (pendingUpdates != null)
+			pendingUpdates.add(update);
+	}
+
+	public synchronized void rebuild(Consumer<I> loader) {
+		S rebuilt = newIndex();
+		List<Consumer<I>> updates = new ArrayList<Consumer<I>>();
+		lock.writeLock().lock();
+		try {
+			pendingUpdates = updates;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+
+		boolean loaded = false;
+		try {
+			loader.accept(rebuilt);
+			loaded = true;
+		}
+		finally {
+			lock.writeLock().lock();
+			try {
+				if (loaded) {
+					updates.forEach(update -> update.accept(rebuilt));
+					replaceContent(rebuilt);
+				}
+				pendingUpdates = null;
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.yotereparo.util.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Recolector de métricas del pool de conexiones JDBC.
+ * HikariCP invoca al tracker en cada adquisición/devolución de conexión; aquí solo acumulamos
+ * en histogramas libres de locks y exponemos una vista consolidada para dimensionar el pool.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+	private final LatencyHistogram acquisitionTime = new LatencyHistogram();
+	private final LatencyHistogram usageTime = new LatencyHistogram();
+	private final LatencyHistogram creationTime = new LatencyHistogram();
+	private final LongAdder acquisitionTimeouts = new LongAdder();
+
+	private volatile String poolName;
+	private volatile PoolStats poolStats;
+
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		this.poolName = poolName;
+		this.poolStats = poolStats;
+		return new IMetricsTracker() {
+			@Override
+			public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+				acquisitionTime.record(elapsedAcquiredNanos);
+			}
+
+			@Override
+			public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+				usageTime.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+			}
+
+			@Override
+			public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+				creationTime.record(connectionCreatedMillis, TimeUnit.MILLISECONDS);
+			}
+
+			@Override
+			public void recordConnectionTimeout() {
+				acquisitionTimeouts.increment();
+			}
+		};
+	}
+
+	public String getPoolName() {
+		return poolName;
+	}
+
+	public PoolStats getPoolStats() {
+		return poolStats;
+	}
+
+	public LatencyHistogram getAcquisitionTime() {
+		return acquisitionTime;
+	}
+
+	public LatencyHistogram getUsageTime() {
+		return usageTime;
+	}
+
+	public LatencyHistogram getCreationTime() {
+		return creationTime;
+	}
+
+	public long getAcquisitionTimeouts() {
+		return acquisitionTimeouts.sum();
+	}
+
+	/*
+	 * Saturación del pool: proporción de conexiones en uso sobre el máximo configurado.
+	 * Valores sostenidos cercanos a 1 con hilos en espera indican que el pool está subdimensionado.
+	 */
+	public double getSaturation() {
+		PoolStats stats = poolStats;
+		if (stats == null || stats.getMaxConnections() == 0)
+			return 0;
+		return (double) stats.getActiveConnections() / stats.getMaxConnections();
+	}
+
+	public Map<String, Object> getSnapshot() {
+		Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+		PoolStats stats = poolStats;
+		snapshot.put("pool", poolName);
+		if (stats != null) {
+			snapshot.put("activeConnections", stats.getActiveConnections());
+			snapshot.put("idleConnections", stats.getIdleConnections());
+			snapshot.put("totalConnections", stats.getTotalConnections());
+			snapshot.put("pendingThreads", stats.getPendingThreads());
+			snapshot.put("minConnections", stats.getMinConnections());
+			snapshot.put("maxConnections", stats.getMaxConnections());
+		}
+		snapshot.put("saturation", getSaturation());
+		snapshot.put("acquisitionTimeouts", getAcquisitionTimeouts());
+		snapshot.put("acquisitionTimeMs", summarize(acquisitionTime));
+		snapshot.put("usageTimeMs", summarize(usageTime));
+		snapshot.put("creationTimeMs", summarize(creationTime));
+		return snapshot;
+	}
+
+	private static Map<String, Object> summarize(LatencyHistogram histogram) {
+		Map<String, Object> summary = new LinkedHashMap<String, Object>();
+		summary.put("count", histogram.getCount());
+		summary.put("mean", toMillis(histogram.getMeanNanos()));
+		summary.put("p50", toMillis(histogram.getPercentileNanos(0.50)));
+		summary.put("p95", toMillis(histogram.getPercentileNanos(0.95)));
+		summary.put("p99", toMillis(histogram.getPercentileNanos(0.99)));
+		summary.put("max", toMillis(histogram.getMaxNanos()));
+		return summary;
+	}
+
+	private static double toMillis(double nanos) {
+		return nanos / 1_000_000d;
+	}
+}
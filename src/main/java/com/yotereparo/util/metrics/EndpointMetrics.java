@@ -0,0 +1,95 @@
+package com.yotereparo.util.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Recolector de métricas por endpoint (método de controlador): latencia, sentencias SQL por request y
+ * cantidad de respuestas por clase de status HTTP. Los endpoints se registran al recibir su primer request;
+ * a partir de ahí cada registro es una lectura del mapa y un par de incrementos atómicos.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class EndpointMetrics {
+
+	// Límites de los buckets de sentencias por request (se reutiliza el histograma con conteos en lugar de nanosegundos)
+	static final long[] QUERY_COUNT_BOUNDS = { 0, 1, 2, 3, 5, 10, 20, 50, 100, 200 };
+
+	private final ConcurrentMap<Method, Endpoint> endpoints = new ConcurrentHashMap<Method, Endpoint>();
+
+	public void record(Method handler, int status, long elapsedNanos, int queries) {
+		Endpoint endpoint = endpoints.get(handler);
+		if (endpoint == null)
+			endpoint = endpoints.computeIfAbsent(handler, Endpoint::new);
+		endpoint.latency.record(elapsedNanos);
+		endpoint.queries.record(queries);
+		endpoint.responses[statusClass(status)].increment();
+	}
+
+	/*
+	 * Endpoints con al menos un request registrado, ordenados por nombre.
+	 */
+	public Collection<Endpoint> getEndpoints() {
+		List<Endpoint> snapshot = new ArrayList<Endpoint>(endpoints.values());
+		snapshot.sort(Comparator.comparing(Endpoint::getName));
+		return snapshot;
+	}
+
+	// Índice de la clase de status: 0 -> 1xx, ..., 4 -> 5xx
+	private static int statusClass(int status) {
+		int statusClass = status / 100 - 1;
+		return (statusClass < 0 || statusClass > 4) ? 4 : statusClass;
+	}
+
+	public static final class Endpoint {
+		private final String controller;
+		private final String method;
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final LatencyHistogram queries = new LatencyHistogram(QUERY_COUNT_BOUNDS);
+		private final LongAdder[] responses = new LongAdder[5];
+
+		private Endpoint(Method handler) {
+			this.controller = handler.getDeclaringClass().getSimpleName();
+			this.method = handler.getName();
+			for (int i = 0; i < responses.length; i++)
+				responses[i] = new LongAdder();
+		}
+
+		public String getName() {
+			return controller + "." + method;
+		}
+
+		public String getController() {
+			return controller;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		public LatencyHistogram getQueries() {
+			return queries;
+		}
+
+		/*
+		 * Cantidad de respuestas con status <statusClass>xx (1 a 5).
+		 */
+		public long getResponses(int statusClass) {
+			return responses[statusClass - 1].sum();
+		}
+	}
+}
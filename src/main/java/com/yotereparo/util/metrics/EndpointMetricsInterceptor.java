@@ -0,0 +1,58 @@
+package com.yotereparo.util.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Interceptor que mide cada request atendido por un controlador y lo registra en EndpointMetrics.
+ * La medición cubre la ejecución del handler y la serialización de la respuesta, incluyendo el cierre
+ * de la sesión de hibernate (open session in view), y se complementa con las sentencias SQL del hilo del request.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class EndpointMetricsInterceptor implements HandlerInterceptor {
+
+	private static final String START_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".start";
+
+	@Autowired
+	private EndpointMetrics endpointMetrics;
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		if (handler instanceof HandlerMethod) {
+			QueryCounter.reset();
+			request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+		}
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		Object start = request.getAttribute(START_ATTRIBUTE);
+		if (start == null)
+			return;
+		long elapsed = System.nanoTime() - (Long) start;
+		endpointMetrics.record(((HandlerMethod) handler).getMethod(), status(response, ex), elapsed, QueryCounter.get());
+	}
+
+	/*
+	 * Las excepciones que escapan del handler se resuelven en filtros posteriores: la denegación de acceso
+	 * (@PreAuthorize) termina en un 403 y cualquier otra en un 500.
+	 */
+	private static int status(HttpServletResponse response, Exception ex) {
+		if (ex == null)
+			return response.getStatus();
+		if (ex instanceof AccessDeniedException)
+			return HttpStatus.FORBIDDEN.value();
+		return HttpStatus.INTERNAL_SERVER_ERROR.value();
+	}
+}
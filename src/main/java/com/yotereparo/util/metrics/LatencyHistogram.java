@@ -0,0 +1,133 @@
+package com.yotereparo.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias de buckets fijos, libre de locks.
+ * Cada registro es un incremento atómico sobre el bucket correspondiente, por lo que puede
+ * ser utilizado concurrentemente desde los hilos de request sin contención relevante.
+ *
+ * Los percentiles son aproximados: se devuelve el límite superior del bucket que los contiene.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class LatencyHistogram {
+
+	// Límites superiores (inclusive) de cada bucket, en nanosegundos.
+	private static final long[] DEFAULT_BOUNDS_NANOS = {
+			TimeUnit.MICROSECONDS.toNanos(50),
+			TimeUnit.MICROSECONDS.toNanos(100),
+			TimeUnit.MICROSECONDS.toNanos(250),
+			TimeUnit.MICROSECONDS.toNanos(500),
+			TimeUnit.MILLISECONDS.toNanos(1),
+			TimeUnit.MICROSECONDS.toNanos(2500),
+			TimeUnit.MILLISECONDS.toNanos(5),
+			TimeUnit.MILLISECONDS.toNanos(10),
+			TimeUnit.MILLISECONDS.toNanos(25),
+			TimeUnit.MILLISECONDS.toNanos(50),
+			TimeUnit.MILLISECONDS.toNanos(100),
+			TimeUnit.MILLISECONDS.toNanos(250),
+			TimeUnit.MILLISECONDS.toNanos(500),
+			TimeUnit.SECONDS.toNanos(1),
+			TimeUnit.MILLISECONDS.toNanos(2500),
+			TimeUnit.SECONDS.toNanos(5),
+			TimeUnit.SECONDS.toNanos(10)
+	};
+
+	private final long[] bounds;
+	// Un bucket adicional al final para los valores que exceden el último límite (+Inf).
+	private final AtomicLongArray buckets;
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Long::max, 0L);
+
+	public LatencyHistogram() {
+		this(DEFAULT_BOUNDS_NANOS);
+	}
+
+	public LatencyHistogram(long[] boundsNanos) {
+		this.bounds = boundsNanos.clone();
+		this.buckets = new AtomicLongArray(bounds.length + 1);
+	}
+
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		buckets.incrementAndGet(indexOf(nanos));
+		count.increment();
+		sum.add(nanos);
+		max.accumulate(nanos);
+	}
+
+	public void record(long duration, TimeUnit unit) {
+		record(unit.toNanos(duration));
+	}
+
+	private int indexOf(long nanos) {
+		// Búsqueda binaria sobre los límites, el bucket i contiene los valores <= bounds[i]
+		int low = 0, high = bounds.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (nanos <= bounds[mid])
+				high = mid;
+			else
+				low = mid + 1;
+		}
+		return low;
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getSumNanos() {
+		return sum.sum();
+	}
+
+	public long getMaxNanos() {
+		return max.get();
+	}
+
+	public long[] getBoundsNanos() {
+		return bounds.clone();
+	}
+
+	/*
+	 * Devuelve los conteos por bucket (no acumulativos). El último elemento corresponde a +Inf.
+	 */
+	public long[] getBucketCounts() {
+		long[] counts = new long[buckets.length()];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = buckets.get(i);
+		return counts;
+	}
+
+	/*
+	 * Percentil aproximado (0 < quantile <= 1), en nanosegundos.
+	 */
+	public long getPercentileNanos(double quantile) {
+		long[] counts = getBucketCounts();
+		long total = 0;
+		for (long c : counts)
+			total += c;
+		if (total == 0)
+			return 0;
+		long rank = (long) Math.ceil(quantile * total);
+		long accumulated = 0;
+		for (int i = 0; i < counts.length; i++) {
+			accumulated += counts[i];
+			if (accumulated >= rank)
+				return (i < bounds.length) ? Math.min(bounds[i], getMaxNanos()) : getMaxNanos();
+		}
+		return getMaxNanos();
+	}
+
+	public double getMeanNanos() {
+		long c = getCount();
+		return (c == 0) ? 0 : (double) getSumNanos() / c;
+	}
+}
@@ -0,0 +1,119 @@
+package com.yotereparo.util.metrics;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.yotereparo.service.ImageProcessingService;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+/**
+ * Consolida las métricas de la aplicación en el formato de exposición de Prometheus:
+ * - requests por endpoint (latencia, sentencias SQL por request, respuestas por clase de status),
+ * - estadísticas de hibernate (sentencias, cargas de entidades y colecciones, cache de segundo nivel),
+ * - pool de conexiones JDBC,
+ * - cola de procesamiento de imágenes.
+ *
+ * Todo se lee de contadores ya acumulados: el costo del scrape no recae sobre los hilos de request.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class PrometheusMetricsExporter {
+
+	@Autowired
+	private EndpointMetrics endpointMetrics;
+	@Autowired
+	private ConnectionPoolMetrics connectionPoolMetrics;
+	@Autowired
+	private SessionFactory sessionFactory;
+	@Autowired
+	private ImageProcessingService imageProcessingService;
+
+	public String scrape() {
+		PrometheusTextWriter writer = new PrometheusTextWriter();
+		writeEndpoints(writer);
+		writeHibernate(writer);
+		writeConnectionPool(writer);
+		writeImageProcessing(writer);
+		return writer.toString();
+	}
+
+	private void writeEndpoints(PrometheusTextWriter writer) {
+		writer.metric("http_server_requests_seconds", "histogram", "Request latency by controller endpoint.");
+		for (EndpointMetrics.Endpoint endpoint : endpointMetrics.getEndpoints())
+			writer.histogram("http_server_requests_seconds", endpoint.getLatency(), PrometheusTextWriter.NANOS_TO_SECONDS,
+					"controller", endpoint.getController(), "method", endpoint.getMethod());
+
+		writer.metric("http_server_requests_total", "counter", "Responses by controller endpoint and status class.");
+		for (EndpointMetrics.Endpoint endpoint : endpointMetrics.getEndpoints())
+			for (int statusClass = 1; statusClass <= 5; statusClass++) {
+				long responses = endpoint.getResponses(statusClass);
+				if (responses > 0)
+					writer.sample("http_server_requests_total", responses, "controller", endpoint.getController(),
+							"method", endpoint.getMethod(), "status", statusClass + "xx");
+			}
+
+		writer.metric("http_server_request_queries", "histogram", "SQL statements issued per request by controller endpoint.");
+		for (EndpointMetrics.Endpoint endpoint : endpointMetrics.getEndpoints())
+			writer.histogram("http_server_request_queries", endpoint.getQueries(), 1,
+					"controller", endpoint.getController(), "method", endpoint.getMethod());
+	}
+
+	private void writeHibernate(PrometheusTextWriter writer) {
+		Statistics statistics = sessionFactory.getStatistics();
+		if (!statistics.isStatisticsEnabled())
+			return;
+		counter(writer, "hibernate_statements_prepared_total", "JDBC statements prepared.", statistics.getPrepareStatementCount());
+		counter(writer, "hibernate_query_executions_total", "HQL and Criteria queries executed.", statistics.getQueryExecutionCount());
+		counter(writer, "hibernate_entity_loads_total", "Entities loaded from the database.", statistics.getEntityLoadCount());
+		counter(writer, "hibernate_entity_fetches_total", "Entities fetched by a separate statement (lazy loading).", statistics.getEntityFetchCount());
+		counter(writer, "hibernate_collection_loads_total", "Collections loaded from the database.", statistics.getCollectionLoadCount());
+		counter(writer, "hibernate_collection_fetches_total", "Collections fetched by a separate statement (lazy loading).", statistics.getCollectionFetchCount());
+		counter(writer, "hibernate_second_level_cache_hits_total", "Second-level cache hits.", statistics.getSecondLevelCacheHitCount());
+		counter(writer, "hibernate_second_level_cache_misses_total", "Second-level cache misses.", statistics.getSecondLevelCacheMissCount());
+		counter(writer, "hibernate_second_level_cache_puts_total", "Second-level cache puts.", statistics.getSecondLevelCachePutCount());
+		counter(writer, "hibernate_flushes_total", "Session flushes.", statistics.getFlushCount());
+		counter(writer, "hibernate_transactions_total", "Completed transactions.", statistics.getTransactionCount());
+		counter(writer, "hibernate_sessions_opened_total", "Sessions opened.", statistics.getSessionOpenCount());
+	}
+
+	private void writeConnectionPool(PrometheusTextWriter writer) {
+		String pool = connectionPoolMetrics.getPoolName();
+		if (pool == null)
+			return;
+		PoolStats stats = connectionPoolMetrics.getPoolStats();
+		writer.metric("jdbc_pool_connections", "gauge", "Connections by state.");
+		writer.sample("jdbc_pool_connections", stats.getActiveConnections(), "pool", pool, "state", "active");
+		writer.sample("jdbc_pool_connections", stats.getIdleConnections(), "pool", pool, "state", "idle");
+		writer.metric("jdbc_pool_connections_max", "gauge", "Maximum pool size.");
+		writer.sample("jdbc_pool_connections_max", stats.getMaxConnections(), "pool", pool);
+		writer.metric("jdbc_pool_pending_threads", "gauge", "Threads waiting for a connection.");
+		writer.sample("jdbc_pool_pending_threads", stats.getPendingThreads(), "pool", pool);
+		writer.metric("jdbc_pool_acquisition_timeouts_total", "counter", "Connection requests that timed out.");
+		writer.sample("jdbc_pool_acquisition_timeouts_total", connectionPoolMetrics.getAcquisitionTimeouts(), "pool", pool);
+		writer.metric("jdbc_pool_acquisition_seconds", "histogram", "Time waiting to acquire a connection.");
+		writer.histogram("jdbc_pool_acquisition_seconds", connectionPoolMetrics.getAcquisitionTime(),
+				PrometheusTextWriter.NANOS_TO_SECONDS, "pool", pool);
+		writer.metric("jdbc_pool_usage_seconds", "histogram", "Time a connection is borrowed.");
+		writer.histogram("jdbc_pool_usage_seconds", connectionPoolMetrics.getUsageTime(),
+				PrometheusTextWriter.NANOS_TO_SECONDS, "pool", pool);
+	}
+
+	private void writeImageProcessing(PrometheusTextWriter writer) {
+		writer.metric("image_jobs_queued", "gauge", "Image jobs waiting for a worker.");
+		writer.sample("image_jobs_queued", imageProcessingService.getQueuedJobs());
+		writer.metric("image_jobs_queue_capacity", "gauge", "Image job queue capacity.");
+		writer.sample("image_jobs_queue_capacity", imageProcessingService.getQueueCapacity());
+		writer.metric("image_jobs_active", "gauge", "Image jobs being processed.");
+		writer.sample("image_jobs_active", imageProcessingService.getActiveJobs());
+		counter(writer, "image_jobs_rejected_total", "Image jobs rejected because the queue was full.",
+				imageProcessingService.getRejectedJobs());
+	}
+
+	private static void counter(PrometheusTextWriter writer, String name, String help, long value) {
+		writer.metric(name, "counter", help).sample(name, value);
+	}
+}
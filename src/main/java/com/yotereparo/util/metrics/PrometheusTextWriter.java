@@ -0,0 +1,96 @@
+package com.yotereparo.util.metrics;
+
+/**
+ * Escritor del formato de texto de exposición de Prometheus (version 0.0.4), el que consumen los scrapers
+ * estándar: un bloque "# HELP"/"# TYPE" por métrica seguido de sus muestras, una por línea.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class PrometheusTextWriter {
+
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=UTF-8";
+
+	public static final double NANOS_TO_SECONDS = 1e-9;
+
+	private final StringBuilder out = new StringBuilder(8192);
+
+	/*
+	 * Encabezado de la métrica; debe preceder a todas sus muestras. <type> es counter, gauge o histogram.
+	 */
+	public PrometheusTextWriter metric(String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+		return this;
+	}
+
+	/*
+	 * <labels> son pares nombre, valor.
+	 */
+	public PrometheusTextWriter sample(String name, double value, String... labels) {
+		out.append(name);
+		appendLabels(labels, null);
+		out.append(' ').append(format(value)).append('\n');
+		return this;
+	}
+
+	/*
+	 * Muestras de un histograma: buckets acumulativos (le), _sum y _count. Los límites y la suma se multiplican
+	 * por <scale>, p. ej. NANOS_TO_SECONDS para latencias, o 1 para histogramas de conteos.
+	 */
+	public PrometheusTextWriter histogram(String name, LatencyHistogram histogram, double scale, String... labels) {
+		long[] bounds = histogram.getBoundsNanos();
+		long[] counts = histogram.getBucketCounts();
+		long accumulated = 0;
+		for (int i = 0; i < counts.length; i++) {
+			accumulated += counts[i];
+			out.append(name).append("_bucket");
+			appendLabels(labels, (i < bounds.length) ? format(bounds[i] * scale) : "+Inf");
+			out.append(' ').append(accumulated).append('\n');
+		}
+		// El total se toma de los buckets leídos, para que _count coincida con el bucket +Inf
+		sample(name + "_sum", histogram.getSumNanos() * scale, labels);
+		out.append(name).append("_count");
+		appendLabels(labels, null);
+		out.append(' ').append(accumulated).append('\n');
+		return this;
+	}
+
+	private void appendLabels(String[] labels, String le) {
+		if (labels.length == 0 && le == null)
+			return;
+		out.append('{');
+		for (int i = 0; i + 1 < labels.length; i += 2) {
+			if (i > 0)
+				out.append(',');
+			out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+		}
+		if (le != null) {
+			if (labels.length > 0)
+				out.append(',');
+			out.append("le=\"").append(le).append('"');
+		}
+		out.append('}');
+	}
+
+	private static String escape(String value) {
+		if (value == null)
+			return "";
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static String format(double value) {
+		if (Double.isNaN(value))
+			return "NaN";
+		if (Double.isInfinite(value))
+			return (value > 0) ? "+Inf" : "-Inf";
+		if (value == Math.rint(value) && Math.abs(value) < 1e15)
+			return Long.toString((long) value);
+		return Double.toString(value);
+	}
+
+	@Override
+	public String toString() {
+		return out.toString();
+	}
+}
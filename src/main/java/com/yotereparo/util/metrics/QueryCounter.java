@@ -0,0 +1,32 @@
+package com.yotereparo.util.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Contador de sentencias SQL preparadas por hibernate en el hilo actual.
+ * Se registra como StatementInspector de la SessionFactory: cada sentencia incrementa un contador del hilo,
+ * sin sincronización, que el interceptor de métricas reinicia al comenzar el request y lee al completarlo.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class QueryCounter implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+	@Override
+	public String inspect(String sql) {
+		COUNT.get()[0]++;
+		return sql;
+	}
+
+	public static void reset() {
+		COUNT.get()[0] = 0;
+	}
+
+	public static int get() {
+		return COUNT.get()[0];
+	}
+}
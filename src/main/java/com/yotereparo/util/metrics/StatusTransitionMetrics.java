@@ -0,0 +1,64 @@
+package com.yotereparo.util.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Recolector de métricas de las transiciones de estado ejecutadas por StatusTransitionScheduler.
+ * Por cada transición registra los registros actualizados en la última ejecución y el acumulado desde el arranque.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class StatusTransitionMetrics {
+
+	private final LatencyHistogram runTime = new LatencyHistogram();
+	private final LongAdder runs = new LongAdder();
+	private final LongAdder failedRuns = new LongAdder();
+	private final Map<String, LongAdder> totals = new ConcurrentHashMap<String, LongAdder>();
+
+	private volatile Map<String, Integer> lastRun = Collections.emptyMap();
+	private volatile long lastRunAt;
+
+	public void recordRun(Map<String, Integer> transitioned, long elapsedNanos) {
+		transitioned.forEach((transition, count) ->
+			totals.computeIfAbsent(transition, key -> new LongAdder()).add(count));
+		lastRun = Collections.unmodifiableMap(new LinkedHashMap<String, Integer>(transitioned));
+		lastRunAt = System.currentTimeMillis();
+		runTime.record(elapsedNanos);
+		runs.increment();
+	}
+
+	public void recordFailure(long elapsedNanos) {
+		lastRunAt = System.currentTimeMillis();
+		runTime.record(elapsedNanos);
+		failedRuns.increment();
+	}
+
+	public Map<String, Object> getSnapshot() {
+		Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+		snapshot.put("runs", runs.sum());
+		snapshot.put("failedRuns", failedRuns.sum());
+		snapshot.put("lastRunAt", lastRunAt);
+		snapshot.put("lastRun", lastRun);
+
+		Map<String, Long> total = new TreeMap<String, Long>();
+		totals.forEach((transition, count) -> total.put(transition, count.sum()));
+		snapshot.put("total", total);
+
+		Map<String, Object> runTimeMs = new LinkedHashMap<String, Object>();
+		runTimeMs.put("count", runTime.getCount());
+		runTimeMs.put("mean", runTime.getMeanNanos() / 1_000_000d);
+		runTimeMs.put("p99", runTime.getPercentileNanos(0.99) / 1_000_000d);
+		runTimeMs.put("max", runTime.getMaxNanos() / 1_000_000d);
+		snapshot.put("runTimeMs", runTimeMs);
+		return snapshot;
+	}
+}
@@ -0,0 +1,122 @@
+package com.yotereparo.util.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.joda.time.DateTime;
+
+/**
+ * Posición opaca dentro de un listado ordenado por (fecha, id).
+ * Se serializa en base64 url-safe para ser devuelta al cliente y recibida en el parámetro <after>.
+ * El id puede ser numérico (Integer) o alfanumérico (String), según la entidad paginada.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class Cursor implements Comparable<Cursor> {
+
+	private static final String SEPARATOR = ":";
+	private static final String INTEGER_ID = "i";
+	private static final String STRING_ID = "s";
+
+	private final long timestamp;
+	private final Comparable<?> id;
+
+	private Cursor(long timestamp, Comparable<?> id) {
+		this.timestamp = timestamp;
+		this.id = id;
+	}
+
+	public static Cursor of(DateTime timestamp, Integer id) {
+		return new Cursor(timestamp.getMillis(), id);
+	}
+
+	public static Cursor of(DateTime timestamp, String id) {
+		return new Cursor(timestamp.getMillis(), id);
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public DateTime getDateTime() {
+		return new DateTime(timestamp);
+	}
+
+	public Comparable<?> getId() {
+		return id;
+	}
+
+	/*
+	 * Devuelve el id como Integer, o null si el cursor fue generado para una entidad de id alfanumérico.
+	 */
+	public Integer getIntegerId() {
+		return (id instanceof Integer) ? (Integer) id : null;
+	}
+
+	/*
+	 * Devuelve el id como String, o null si el cursor fue generado para una entidad de id numérico.
+	 */
+	public String getStringId() {
+		return (id instanceof String) ? (String) id : null;
+	}
+
+	public String encode() {
+		String type = (id instanceof Integer) ? INTEGER_ID : STRING_ID;
+		String raw = timestamp + SEPARATOR + type + SEPARATOR + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * Reconstruye un cursor a partir de su representación opaca.
+	 * Lanza IllegalArgumentException si el valor no fue generado por encode().
+	 */
+	public static Cursor decode(String encoded) {
+		if (encoded == null || encoded.isEmpty())
+			throw new IllegalArgumentException("Empty cursor");
+		String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+		String[] parts = raw.split(SEPARATOR, 3);
+		if (parts.length != 3 || parts[2].isEmpty())
+			throw new IllegalArgumentException("Malformed cursor: " + encoded);
+		long timestamp = Long.parseLong(parts[0]);
+		switch (parts[1]) {
+			case INTEGER_ID:
+				return new Cursor(timestamp, Integer.valueOf(parts[2]));
+			case STRING_ID:
+				return new Cursor(timestamp, parts[2]);
+			default:
+				throw new IllegalArgumentException("Malformed cursor: " + encoded);
+		}
+	}
+
+	@Override
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public int compareTo(Cursor other) {
+		int byTimestamp = Long.compare(timestamp, other.timestamp);
+		if (byTimestamp != 0)
+			return byTimestamp;
+		if (id.getClass() != other.id.getClass())
+			return (id instanceof Integer) ? -1 : 1;
+		return ((Comparable) id).compareTo(other.id);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(timestamp) + id.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof Cursor))
+			return false;
+		Cursor other = (Cursor) obj;
+		return timestamp == other.timestamp && id.equals(other.id);
+	}
+
+	@Override
+	public String toString() {
+		return "Cursor [timestamp=" + timestamp + ", id=" + id + "]";
+	}
+}
@@ -0,0 +1,68 @@
+package com.yotereparo.util.pagination;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Resultado de una consulta paginada: los elementos de la página y, si existen más, el cursor de la siguiente.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class Page<T> {
+
+	private final List<T> items;
+	private final Cursor nextCursor;
+
+	private Page(List<T> items, Cursor nextCursor) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+	}
+
+	/*
+	 * Construye la página a partir de las filas obtenidas con PageRequest.getFetchSize(),
+	 * ya ordenadas por la clave del cursor. La fila excedente solo indica que existe una página siguiente.
+	 */
+	public static <T> Page<T> of(List<T> fetched, PageRequest request, Function<T, Cursor> keyExtractor) {
+		if (fetched == null || fetched.isEmpty())
+			return new Page<T>(Collections.emptyList(), null);
+		if (fetched.size() <= request.getLimit())
+			return new Page<T>(fetched, null);
+		List<T> items = fetched.subList(0, request.getLimit());
+		return new Page<T>(items, keyExtractor.apply(items.get(items.size() - 1)));
+	}
+
+	/*
+	 * Pagina en memoria una colección ya cargada, respetando el mismo orden y semántica de cursor que las consultas.
+	 */
+	public static <T> Page<T> slice(Collection<T> all, PageRequest request, Function<T, Cursor> keyExtractor) {
+		if (all == null || all.isEmpty())
+			return new Page<T>(Collections.emptyList(), null);
+		Cursor after = request.getAfter();
+		List<T> fetched = all.stream()
+				.filter(item -> after == null || keyExtractor.apply(item).compareTo(after) > 0)
+				.sorted((a, b) -> keyExtractor.apply(a).compareTo(keyExtractor.apply(b)))
+				.limit(request.getFetchSize())
+				.collect(Collectors.toList());
+		return of(fetched, request, keyExtractor);
+	}
+
+	public List<T> getItems() {
+		return items;
+	}
+
+	public Cursor getNextCursor() {
+		return nextCursor;
+	}
+
+	public boolean hasNext() {
+		return nextCursor != null;
+	}
+
+	public boolean isEmpty() {
+		return items.isEmpty();
+	}
+}
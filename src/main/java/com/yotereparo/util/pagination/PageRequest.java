@@ -0,0 +1,41 @@
+package com.yotereparo.util.pagination;
+
+/**
+ * Parámetros de una solicitud de página: cantidad máxima de elementos y cursor a partir del cual continuar.
+ * Un cursor nulo indica la primera página.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class PageRequest {
+
+	private final int limit;
+	private final Cursor after;
+
+	public PageRequest(int limit, Cursor after) {
+		if (limit < 1)
+			throw new IllegalArgumentException("Page limit must be positive: " + limit);
+		this.limit = limit;
+		this.after = after;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public Cursor getAfter() {
+		return after;
+	}
+
+	/*
+	 * Cantidad de filas a solicitar a la base: una más que el límite para saber si existe una página siguiente.
+	 */
+	public int getFetchSize() {
+		return limit + 1;
+	}
+
+	@Override
+	public String toString() {
+		return "PageRequest [limit=" + limit + ", after=" + after + "]";
+	}
+}
@@ -0,0 +1,69 @@
+package com.yotereparo.util.pagination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Clase utilitaria para la paginación por cursor (keyset) de los listados expuestos por la API.
+ * El cuerpo de la respuesta se mantiene como un arreglo JSON; la página siguiente se informa mediante
+ * los encabezados <X-Next-Cursor> y <Link rel="next">.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+@Component
+public class PaginationUtils {
+
+	private static final Logger logger = LoggerFactory.getLogger(PaginationUtils.class);
+
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	public static final String LIMIT_PARAMETER = "limit";
+	public static final String AFTER_PARAMETER = "after";
+
+	@Autowired
+	private Environment environment;
+
+	/*
+	 * Construye la solicitud de página a partir de los parámetros del cliente.
+	 * Si no se indica límite se utiliza el valor por defecto, y nunca se supera el máximo configurado.
+	 * Devuelve null si alguno de los parámetros es inválido.
+	 */
+	public PageRequest getPageRequest(Integer limit, String after) {
+		int maxLimit = Integer.parseInt(environment.getProperty("pagination.limit.max"));
+		int pageLimit = (limit != null) ? limit : Integer.parseInt(environment.getProperty("pagination.limit.default"));
+		if (pageLimit < 1) {
+			logger.debug("Invalid page limit <{}>", limit);
+			return null;
+		}
+		Cursor cursor = null;
+		if (after != null && !after.isEmpty()) {
+			try {
+				cursor = Cursor.decode(after);
+			}
+			catch (IllegalArgumentException e) {
+				logger.debug("Invalid page cursor <{}>", after);
+				return null;
+			}
+		}
+		return new PageRequest(Math.min(pageLimit, maxLimit), cursor);
+	}
+
+	public HttpHeaders getPaginationHeaders(Page<?> page) {
+		HttpHeaders headers = new HttpHeaders();
+		if (page.hasNext()) {
+			String nextCursor = page.getNextCursor().encode();
+			String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam(AFTER_PARAMETER, nextCursor)
+					.build()
+					.toUriString();
+			headers.add(NEXT_CURSOR_HEADER, nextCursor);
+			headers.add(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+		}
+		return headers;
+	}
+}
@@ -0,0 +1,228 @@
+package com.yotereparo.util.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import com.yotereparo.util.index.RebuildableIndex;
+
+/**
+ * Índice invertido en memoria: término -> servicios que lo contienen, con su frecuencia en el título y en la descripción.
+ * Los términos se mantienen ordenados para resolver por rango la búsqueda por prefijo del último término.
+ *
+ * La relevancia es un tf-idf con mayor peso para el título, penalizado por la proporción de términos de la consulta
+ * que el servicio no contiene.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class InMemoryServiceSearchIndex extends RebuildableIndex<ServiceSearchIndex, InMemoryServiceSearchIndex>
+		implements ServiceSearchIndex {
+
+	private static final int TITLE = 0;
+	private static final int DESCRIPTION = 1;
+	private static final double TITLE_WEIGHT = 2.0;
+	private static final double DESCRIPTION_WEIGHT = 1.0;
+	// Prefijos más cortos expandirían a gran parte del vocabulario
+	private static final int MIN_PREFIX_LENGTH = 3;
+
+	private NavigableMap<String, Map<Integer, int[]>> postings = new TreeMap<String, Map<Integer, int[]>>();
+	// Términos indexados de cada servicio, para poder reindexarlo o eliminarlo
+	private Map<Integer, Set<String>> documents = new HashMap<Integer, Set<String>>();
+
+	@Override
+	public void index(Integer serviceId, String title, String description) {
+		Map<String, int[]> frequencies = new HashMap<String, int[]>();
+		for (String term : SpanishAnalyzer.analyze(title))
+			frequencies.computeIfAbsent(term, key -> new int[2])[TITLE]++;
+		for (String term : SpanishAnalyzer.analyze(description))
+			frequencies.computeIfAbsent(term, key -> new int[2])[DESCRIPTION]++;
+
+		lock.writeLock().lock();
+		try {
+			removeDocument(serviceId);
+			frequencies.forEach((term, frequency) ->
+				postings.computeIfAbsent(term, key -> new HashMap<Integer, int[]>()).put(serviceId, frequency));
+			documents.put(serviceId, new HashSet<String>(frequencies.keySet()));
+			recordUpdate(index -> index.index(serviceId, title, description));
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Integer serviceId) {
+		lock.writeLock().lock();
+		try {
+			removeDocument(serviceId);
+			recordUpdate(index -> index.remove(serviceId));
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			postings.clear();
+			documents.clear();
+			recordUpdate(ServiceSearchIndex::clear);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected InMemoryServiceSearchIndex newIndex() {
+		return new InMemoryServiceSearchIndex();
+	}
+
+	@Override
+	protected void replaceContent(InMemoryServiceSearchIndex rebuilt) {
+		postings = rebuilt.postings;
+		documents = rebuilt.documents;
+	}
+
+	@Override
+	public Set<Integer> match(Field field, String text) {
+		int position = (field == Field.TITLE) ? TITLE : DESCRIPTION;
+		List<QueryTerm> query = parse(text);
+		if (query.isEmpty())
+			return Collections.emptySet();
+
+		lock.readLock().lock();
+		try {
+			Set<Integer> matches = null;
+			for (QueryTerm queryTerm : query) {
+				Set<Integer> termMatches = new HashSet<Integer>();
+				for (Map<Integer, int[]> documentFrequencies : expand(queryTerm))
+					documentFrequencies.forEach((serviceId, frequency) -> {
+						if (frequency[position] > 0)
+							termMatches.add(serviceId);
+					});
+				if (matches == null)
+					matches = termMatches;
+				else
+					matches.retainAll(termMatches);
+				if (matches.isEmpty())
+					break;
+			}
+			return matches;
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Integer> search(String text, int limit) {
+		List<QueryTerm> query = parse(text);
+		if (query.isEmpty() || limit < 1)
+			return Collections.emptyList();
+
+		Map<Integer, Double> scores = new HashMap<Integer, Double>();
+		Map<Integer, Integer> matchedTerms = new HashMap<Integer, Integer>();
+		lock.readLock().lock();
+		try {
+			int documentCount = documents.size();
+			for (QueryTerm queryTerm : query) {
+				Set<Integer> termMatches = new HashSet<Integer>();
+				for (Map<Integer, int[]> documentFrequencies : expand(queryTerm)) {
+					double idf = Math.log(1 + (double) documentCount / documentFrequencies.size());
+					documentFrequencies.forEach((serviceId, frequency) -> {
+						double score = idf * (TITLE_WEIGHT * weight(frequency[TITLE]) 
+								+ DESCRIPTION_WEIGHT * weight(frequency[DESCRIPTION]));
+						scores.merge(serviceId, score, Double::sum);
+						termMatches.add(serviceId);
+					});
+				}
+				termMatches.forEach(serviceId -> matchedTerms.merge(serviceId, 1, Integer::sum));
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+
+		Map<Integer, Double> ranking = new HashMap<Integer, Double>();
+		scores.forEach((serviceId, score) -> 
+			ranking.put(serviceId, score * matchedTerms.get(serviceId) / query.size()));
+		return ranking.entrySet().stream()
+				.sorted(Comparator.comparing(Map.Entry<Integer, Double>::getValue).reversed()
+						.thenComparing(Map.Entry::getKey))
+				.limit(limit)
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+	}
+
+	@Override
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void removeDocument(Integer serviceId) {
+		Set<String> terms = documents.remove(serviceId);
+		if (terms != null)
+			for (String term : terms) {
+				Map<Integer, int[]> documentFrequencies = postings.get(term);
+				documentFrequencies.remove(serviceId);
+				if (documentFrequencies.isEmpty())
+					postings.remove(term);
+			}
+	}
+
+	/*
+	 * Postings de los términos del índice que satisfacen el término de la consulta (exacto, o por prefijo).
+	 */
+	private Collection<Map<Integer, int[]>> expand(QueryTerm queryTerm) {
+		if (!queryTerm.prefix) {
+			Map<Integer, int[]> documentFrequencies = postings.get(queryTerm.term);
+			return (documentFrequencies != null) 
+					? Collections.singletonList(documentFrequencies) : Collections.emptyList();
+		}
+		return postings.subMap(queryTerm.term, true, queryTerm.term + Character.MAX_VALUE, true).values();
+	}
+
+	private static List<QueryTerm> parse(String text) {
+		List<String> terms = SpanishAnalyzer.analyze(text);
+		List<QueryTerm> query = new ArrayList<QueryTerm>(terms.size());
+		for (int i = 0; i < terms.size(); i++) {
+			String term = terms.get(i);
+			boolean last = (i == terms.size() - 1);
+			query.add(new QueryTerm(term, last && term.length() >= MIN_PREFIX_LENGTH));
+		}
+		return query;
+	}
+
+	private static double weight(int frequency) {
+		return (frequency == 0) ? 0 : 1 + Math.log(frequency);
+	}
+
+	private static final class QueryTerm {
+		private final String term;
+		private final boolean prefix;
+
+		private QueryTerm(String term, boolean prefix) {
+			this.term = term;
+			this.prefix = prefix;
+		}
+	}
+}
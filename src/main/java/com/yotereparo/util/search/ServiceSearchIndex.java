@@ -0,0 +1,46 @@
+package com.yotereparo.util.search;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Índice de búsqueda de texto sobre el título y la descripción de los Servicios.
+ * El índice solo conoce ids: el estado y el resto de los filtros se siguen resolviendo en la base.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public interface ServiceSearchIndex {
+
+	enum Field { TITLE, DESCRIPTION }
+
+	/*
+	 * Indexa (o reindexa, si ya existía) el servicio con el título y descripción recibidos.
+	 */
+	void index(Integer serviceId, String title, String description);
+
+	void remove(Integer serviceId);
+
+	void clear();
+
+	/*
+	 * Reemplaza el contenido del índice por el que <loader> carga en un índice nuevo. Mientras dura la carga
+	 * las consultas se siguen resolviendo con el contenido anterior; las altas y bajas recibidas en ese lapso
+	 * se aplican también sobre el índice nuevo antes del reemplazo.
+	 */
+	void rebuild(Consumer<ServiceSearchIndex> loader);
+
+	/*
+	 * Ids de los servicios cuyo campo contiene todos los términos del texto.
+	 * El último término se compara por prefijo, para soportar búsquedas a medida que se escribe.
+	 */
+	Set<Integer> match(Field field, String text);
+
+	/*
+	 * Hasta <limit> ids de servicios que contienen alguno de los términos del texto, ordenados por relevancia.
+	 */
+	List<Integer> search(String text, int limit);
+
+	int size();
+}
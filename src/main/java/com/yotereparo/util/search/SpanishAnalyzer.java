@@ -0,0 +1,81 @@
+package com.yotereparo.util.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Analizador de texto en español para el índice de búsqueda: separa en tokens alfanuméricos,
+ * normaliza a minúsculas sin acentos, descarta stopwords y aplica un stemming liviano
+ * (plurales y género), de modo que "Reparación de Heladeras" y "reparacion heladera" generen los mismos términos.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class SpanishAnalyzer {
+
+	private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	private static final Set<String> STOPWORDS = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(
+			"a", "al", "ante", "con", "contra", "de", "del", "desde", "e", "el", "en", "entre", "es", "esta", "este",
+			"hasta", "la", "las", "lo", "los", "mas", "me", "mi", "mis", "muy", "ni", "o", "para", "pero", "por",
+			"que", "se", "sin", "sobre", "su", "sus", "te", "tu", "u", "un", "una", "unas", "unos", "y", "ya")));
+
+	private SpanishAnalyzer() {
+	}
+
+	/*
+	 * Devuelve los términos del texto, en orden de aparición y con repeticiones (para calcular frecuencias).
+	 */
+	public static List<String> analyze(String text) {
+		List<String> terms = new ArrayList<String>();
+		for (String token : tokenize(text))
+			if (!STOPWORDS.contains(token))
+				terms.add(stem(token));
+		return terms;
+	}
+
+	/*
+	 * Tokens normalizados (minúsculas, sin acentos), sin descartar stopwords ni aplicar stemming.
+	 */
+	public static List<String> tokenize(String text) {
+		if (text == null || text.isEmpty())
+			return Collections.emptyList();
+		String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+		List<String> tokens = new ArrayList<String>();
+		for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT)))
+			if (!token.isEmpty())
+				tokens.add(token);
+		return tokens;
+	}
+
+	/*
+	 * Stemming liviano: elimina la vocal final de género y los sufijos de plural en palabras de 5 o más letras
+	 * (plomero/plomera/plomeros -> plomer, reparaciones -> reparacion, luces -> luz).
+	 */
+	public static String stem(String token) {
+		int length = token.length();
+		if (length < 5)
+			return token;
+		char last = token.charAt(length - 1);
+		if (last == 'o' || last == 'a' || last == 'e')
+			return token.substring(0, length - 1);
+		if (last == 's') {
+			if (token.endsWith("eses"))
+				return token.substring(0, length - 2);
+			if (token.endsWith("ces"))
+				return token.substring(0, length - 3) + "z";
+			char beforeLast = token.charAt(length - 2);
+			if (beforeLast == 'o' || beforeLast == 'a' || beforeLast == 'e')
+				return token.substring(0, length - 2);
+		}
+		return token;
+	}
+}
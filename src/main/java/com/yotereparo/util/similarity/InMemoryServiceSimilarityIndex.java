@@ -0,0 +1,208 @@
+package com.yotereparo.util.similarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.yotereparo.util.index.RebuildableIndex;
+
+/**
+ * Índice de huellas en memoria. Los candidatos a duplicado se obtienen de tres índices invertidos:
+ * - título normalizado -> servicios,
+ * - firma de atributos -> servicios,
+ * - bandas de la firma MinHash -> servicios (LSH: dos servicios comparten alguna banda con alta probabilidad
+ *   cuando su contenido es similar), de modo que solo se calcula la similitud sobre esos candidatos.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class InMemoryServiceSimilarityIndex extends RebuildableIndex<ServiceSimilarityIndex, InMemoryServiceSimilarityIndex>
+		implements ServiceSimilarityIndex {
+
+	// 16 bandas de 4 posiciones: con similitud 0.8 se comparte alguna banda con probabilidad > 99.9%
+	private static final int BANDS = 16;
+	private static final int ROWS = ServiceFingerprint.HASHES / BANDS;
+
+	private final double threshold;
+
+	private Map<Integer, Entry> entries = new HashMap<Integer, Entry>();
+	private Map<String, Set<Integer>> byTitle = new HashMap<String, Set<Integer>>();
+	private Map<Long, Set<Integer>> byFieldSignature = new HashMap<Long, Set<Integer>>();
+	private Map<Long, Set<Integer>> byBand = new HashMap<Long, Set<Integer>>();
+
+	public InMemoryServiceSimilarityIndex(double threshold) {
+		this.threshold = threshold;
+	}
+
+	@Override
+	public void index(Integer serviceId, String providerId, ServiceFingerprint fingerprint) {
+		Entry entry = new Entry(providerId, fingerprint, bands(fingerprint));
+		lock.writeLock().lock();
+		try {
+			removeEntry(serviceId);
+			entries.put(serviceId, entry);
+			add(byTitle, fingerprint.getTitle(), serviceId);
+			add(byFieldSignature, fingerprint.getFieldSignature(), serviceId);
+			for (long band : entry.bands)
+				add(byBand, band, serviceId);
+			recordUpdate(index -> index.index(serviceId, providerId, fingerprint));
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void remove(Integer serviceId) {
+		lock.writeLock().lock();
+		try {
+			removeEntry(serviceId);
+			recordUpdate(index -> index.remove(serviceId));
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			entries.clear();
+			byTitle.clear();
+			byFieldSignature.clear();
+			byBand.clear();
+			recordUpdate(ServiceSimilarityIndex::clear);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected InMemoryServiceSimilarityIndex newIndex() {
+		return new InMemoryServiceSimilarityIndex(threshold);
+	}
+
+	@Override
+	protected void replaceContent(InMemoryServiceSimilarityIndex rebuilt) {
+		entries = rebuilt.entries;
+		byTitle = rebuilt.byTitle;
+		byFieldSignature = rebuilt.byFieldSignature;
+		byBand = rebuilt.byBand;
+	}
+
+	@Override
+	public Set<Integer> findDuplicates(ServiceFingerprint fingerprint, String providerId, Integer excludedServiceId) {
+		Set<Integer> duplicates = new HashSet<Integer>();
+		lock.readLock().lock();
+		try {
+			Set<Integer> candidates = new HashSet<Integer>(byTitle.getOrDefault(fingerprint.getTitle(), Collections.emptySet()));
+			candidates.addAll(byFieldSignature.getOrDefault(fingerprint.getFieldSignature(), Collections.emptySet()));
+			for (Integer candidate : candidates) {
+				Entry entry = entries.get(candidate);
+				if (candidate.equals(excludedServiceId) || !entry.providerId.equals(providerId))
+					continue;
+				if (entry.fingerprint.getTitle().equals(fingerprint.getTitle())
+						|| (entry.fingerprint.getFieldSignature() == fingerprint.getFieldSignature()
+							&& entry.fingerprint.contentSimilarity(fingerprint) >= threshold))
+					duplicates.add(candidate);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		return duplicates;
+	}
+
+	@Override
+	public List<Integer> findNearDuplicates(ServiceFingerprint fingerprint, Integer excludedServiceId, int limit) {
+		Map<Integer, Double> similarities = new HashMap<Integer, Double>();
+		lock.readLock().lock();
+		try {
+			Set<Integer> candidates = new HashSet<Integer>(byTitle.getOrDefault(fingerprint.getTitle(), Collections.emptySet()));
+			for (long band : bands(fingerprint))
+				candidates.addAll(byBand.getOrDefault(band, Collections.emptySet()));
+			for (Integer candidate : candidates) {
+				if (candidate.equals(excludedServiceId))
+					continue;
+				ServiceFingerprint other = entries.get(candidate).fingerprint;
+				double similarity = other.getTitle().equals(fingerprint.getTitle())
+						? 1.0 : other.contentSimilarity(fingerprint);
+				if (similarity >= threshold)
+					similarities.put(candidate, similarity);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+
+		List<Integer> ranking = new ArrayList<Integer>(similarities.keySet());
+		ranking.sort((a, b) -> {
+			int bySimilarity = Double.compare(similarities.get(b), similarities.get(a));
+			return (bySimilarity != 0) ? bySimilarity : a.compareTo(b);
+		});
+		return (ranking.size() > limit) ? ranking.subList(0, limit) : ranking;
+	}
+
+	@Override
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return entries.size();
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void removeEntry(Integer serviceId) {
+		Entry entry = entries.remove(serviceId);
+		if (entry == null)
+			return;
+		discard(byTitle, entry.fingerprint.getTitle(), serviceId);
+		discard(byFieldSignature, entry.fingerprint.getFieldSignature(), serviceId);
+		for (long band : entry.bands)
+			discard(byBand, band, serviceId);
+	}
+
+	private static <K> void add(Map<K, Set<Integer>> index, K key, Integer serviceId) {
+		index.computeIfAbsent(key, k -> new HashSet<Integer>()).add(serviceId);
+	}
+
+	private static <K> void discard(Map<K, Set<Integer>> index, K key, Integer serviceId) {
+		Collection<Integer> ids = index.get(key);
+		if (ids != null && ids.remove(serviceId) && ids.isEmpty())
+			index.remove(key);
+	}
+
+	// Clave de cada banda: hash de sus posiciones de la firma, combinado con el número de banda
+	private static long[] bands(ServiceFingerprint fingerprint) {
+		long[] minHash = fingerprint.getMinHash();
+		long[] bands = new long[BANDS];
+		for (int band = 0; band < BANDS; band++) {
+			long hash = band;
+			for (int row = 0; row < ROWS; row++)
+				hash = ServiceFingerprint.mix(hash * 31 + minHash[band * ROWS + row]);
+			bands[band] = hash;
+		}
+		return bands;
+	}
+
+	private static final class Entry {
+		private final String providerId;
+		private final ServiceFingerprint fingerprint;
+		private final long[] bands;
+
+		private Entry(String providerId, ServiceFingerprint fingerprint, long[] bands) {
+			this.providerId = providerId;
+			this.fingerprint = fingerprint;
+			this.bands = bands;
+		}
+	}
+}
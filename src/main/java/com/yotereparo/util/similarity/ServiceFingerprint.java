@@ -0,0 +1,120 @@
+package com.yotereparo.util.similarity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.yotereparo.util.search.SpanishAnalyzer;
+
+/**
+ * Huella de un Servicio para la detección de duplicados:
+ * - título normalizado (minúsculas, sin acentos ni puntuación),
+ * - firma MinHash del contenido (título + descripción), que estima la similitud de Jaccard entre los conjuntos
+ *   de pares de palabras consecutivas de ambos textos,
+ * - firma de atributos: hash de los valores del resto de los campos que definen al servicio.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public final class ServiceFingerprint {
+
+	static final int HASHES = 64;
+	private static final long[] SEEDS = new long[HASHES];
+	static {
+		long seed = 0x5DEECE66DL;
+		for (int i = 0; i < HASHES; i++)
+			SEEDS[i] = seed = mix(seed + 0x9E3779B97F4A7C15L);
+	}
+
+	private final String title;
+	private final long[] minHash;
+	private final long fieldSignature;
+
+	private ServiceFingerprint(String title, long[] minHash, long fieldSignature) {
+		this.title = title;
+		this.minHash = minHash;
+		this.fieldSignature = fieldSignature;
+	}
+
+	/*
+	 * <fields> son los valores de los atributos a comparar por igualdad; su orden debe ser siempre el mismo.
+	 */
+	public static ServiceFingerprint of(String title, String description, List<?> fields) {
+		return new ServiceFingerprint(normalizeTitle(title), minHash(title, description), fieldSignature(fields));
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public long getFieldSignature() {
+		return fieldSignature;
+	}
+
+	long[] getMinHash() {
+		return minHash;
+	}
+
+	/*
+	 * Estimación de la similitud de Jaccard del contenido: proporción de posiciones coincidentes entre ambas firmas.
+	 */
+	public double contentSimilarity(ServiceFingerprint other) {
+		int matches = 0;
+		for (int i = 0; i < HASHES; i++)
+			if (minHash[i] == other.minHash[i])
+				matches++;
+		return (double) matches / HASHES;
+	}
+
+	public static String normalizeTitle(String title) {
+		return String.join(" ", SpanishAnalyzer.tokenize(title));
+	}
+
+	private static long[] minHash(String title, String description) {
+		List<String> tokens = SpanishAnalyzer.tokenize((title == null ? "" : title) + " " + (description == null ? "" : description));
+		Set<String> shingles = new LinkedHashSet<String>();
+		if (tokens.size() < 2)
+			shingles.addAll(tokens);
+		else
+			for (int i = 1; i < tokens.size(); i++)
+				shingles.add(tokens.get(i - 1) + " " + tokens.get(i));
+
+		long[] signature = new long[HASHES];
+		Arrays.fill(signature, Long.MAX_VALUE);
+		for (String shingle : shingles) {
+			long base = hash(shingle);
+			for (int i = 0; i < HASHES; i++) {
+				long value = mix(base ^ SEEDS[i]);
+				if (value < signature[i])
+					signature[i] = value;
+			}
+		}
+		return signature;
+	}
+
+	private static long fieldSignature(List<?> fields) {
+		long hash = 0xCBF29CE484222325L;
+		for (Object field : fields) {
+			hash = (hash ^ hash(String.valueOf(field))) * 0x100000001B3L;
+			hash = (hash ^ 0x1F) * 0x100000001B3L;
+		}
+		return hash;
+	}
+
+	// FNV-1a de 64 bits sobre los bytes UTF-8
+	private static long hash(String value) {
+		long hash = 0xCBF29CE484222325L;
+		for (byte b : value.getBytes(StandardCharsets.UTF_8))
+			hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+		return hash;
+	}
+
+	// Finalizador de SplitMix64
+	static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
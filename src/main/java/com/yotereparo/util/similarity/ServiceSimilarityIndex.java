@@ -0,0 +1,44 @@
+package com.yotereparo.util.similarity;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Índice de huellas de Servicios para detectar duplicados sin comparar cada servicio contra todos los demás.
+ * Como el índice de búsqueda, solo conoce ids: los servicios se resuelven luego en la base.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public interface ServiceSimilarityIndex {
+
+	/*
+	 * Indexa (o reindexa, si ya existía) el servicio del prestador con la huella recibida.
+	 */
+	void index(Integer serviceId, String providerId, ServiceFingerprint fingerprint);
+
+	void remove(Integer serviceId);
+
+	void clear();
+
+	/*
+	 * Reemplaza el contenido del índice por el que <loader> carga en un índice nuevo; como en ServiceSearchIndex,
+	 * las consultas usan el contenido anterior hasta el reemplazo, y las altas y bajas del lapso se conservan.
+	 */
+	void rebuild(Consumer<ServiceSimilarityIndex> loader);
+
+	/*
+	 * Servicios del prestador que duplican a la huella: mismo título normalizado, o mismos atributos
+	 * y similitud de contenido mayor o igual al umbral. <excludedServiceId> es el propio servicio, al actualizarlo.
+	 */
+	Set<Integer> findDuplicates(ServiceFingerprint fingerprint, String providerId, Integer excludedServiceId);
+
+	/*
+	 * Hasta <limit> servicios de cualquier prestador con el mismo título normalizado o similitud de contenido
+	 * mayor o igual al umbral, del más al menos similar.
+	 */
+	List<Integer> findNearDuplicates(ServiceFingerprint fingerprint, Integer excludedServiceId, int limit);
+
+	int size();
+}
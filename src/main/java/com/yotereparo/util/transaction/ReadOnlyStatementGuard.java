@@ -0,0 +1,39 @@
+package com.yotereparo.util.transaction;
+
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * StatementInspector que rechaza las sentencias de escritura (INSERT, UPDATE, DELETE, MERGE) emitidas dentro de
+ * una transacción de solo lectura, antes de que lleguen a la base.
+ *
+ * Las transacciones de solo lectura no hacen flush al confirmarse: sin este control, una modificación de entidades
+ * se descartaría en silencio, mientras que un persist o una consulta de actualización se ejecutarían igual.
+ * Delega luego en el StatementInspector recibido (p.ej. QueryCounter).
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class ReadOnlyStatementGuard implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Pattern WRITE_STATEMENT =
+			Pattern.compile("^\\s*(/\\*.*?\\*/\\s*)*(insert|update|delete|merge)\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+	private final StatementInspector delegate;
+
+	public ReadOnlyStatementGuard(StatementInspector delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public String inspect(String sql) {
+		if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && WRITE_STATEMENT.matcher(sql).find())
+			throw new IllegalTransactionStateException("Write statement issued within a read-only transaction: " + sql);
+		return delegate.inspect(sql);
+	}
+}
@@ -0,0 +1,116 @@
+package com.yotereparo.configuration;
+
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.ComponentScan.Filter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
+import org.springframework.orm.hibernate5.support.OpenSessionInViewInterceptor;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.yotereparo.controller.AuthController;
+import com.yotereparo.security.WebSecurityConfig;
+import com.yotereparo.util.metrics.QueryRecorder;
+import com.yotereparo.util.transaction.ReadOnlyStatementGuard;
+
+/*
+ * Contexto web completo (controladores, servicios y DAOs) sobre H2, para las pruebas de integración de los endpoints.
+ * Equivale a AppConfig + HibernateConfiguration salvo por el DataSource, la seguridad HTTP (las pruebas autentican
+ * directamente en el SecurityContextHolder, por lo que se excluye AuthController) y el registro de sentencias SQL
+ * por request (QueryRecorder, detrás del mismo control de escrituras en transacciones de solo lectura).
+ * El dataset de QueryCountDataSet.sql se carga una vez creado el esquema, antes de que se construyan los índices.
+ */
+@Configuration
+@EnableWebMvc
+@EnableTransactionManagement
+@ComponentScan(basePackages = "com.yotereparo", excludeFilters = {
+		@Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+				AppConfig.class, AppInitializer.class, HibernateConfiguration.class, HibernateTestConfiguration.class,
+				WebSecurityConfig.class, AuthController.class })
+})
+@PropertySource(value = {"classpath:application.properties"})
+public class WebTestConfiguration implements WebMvcConfigurer {
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		OpenSessionInViewInterceptor openSessionInViewInterceptor = new OpenSessionInViewInterceptor();
+		openSessionInViewInterceptor.setSessionFactory(sessionFactory);
+		registry.addWebRequestInterceptor(openSessionInViewInterceptor);
+	}
+
+	@Bean
+    public MessageSource messageSource() {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("ValidationMessages");
+        return messageSource;
+    }
+
+    @Bean
+    public LocalSessionFactoryBean sessionFactory() {
+        LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
+        sessionFactory.setDataSource(dataSource());
+        sessionFactory.setPackagesToScan(new String[] { "com.yotereparo.model" });
+        sessionFactory.setHibernateProperties(hibernateProperties());
+        return sessionFactory;
+    }
+
+    @Bean(name = "dataSource")
+    public DataSource dataSource() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:web;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        return dataSource;
+    }
+
+    @Bean
+    @DependsOn("sessionFactory")
+    public DataSourceInitializer dataSourceInitializer() {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource());
+        initializer.setDatabasePopulator(
+        		new ResourceDatabasePopulator(false, false, "UTF-8", new ClassPathResource("QueryCountDataSet.sql")));
+        return initializer;
+    }
+
+    private Properties hibernateProperties() {
+        Properties properties = new Properties();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        properties.put("hibernate.generate_statistics", "true");
+        properties.put("hibernate.session.events.log", "false");
+        properties.put("hibernate.session_factory.statement_inspector", new ReadOnlyStatementGuard(new QueryRecorder()));
+        return properties;
+    }
+
+    @Bean
+    @Autowired
+    public HibernateTransactionManager transactionManager(SessionFactory s) {
+        HibernateTransactionManager txManager = new HibernateTransactionManager();
+        txManager.setSessionFactory(s);
+        return txManager;
+    }
+}
@@ -0,0 +1,201 @@
+package com.yotereparo.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.security.RoleClassifier;
+import com.yotereparo.security.service.UserDetailsImpl;
+import com.yotereparo.util.metrics.QueryRecorder;
+
+/*
+ * Cotas de sentencias SQL por request de los endpoints de lectura, sobre el dataset de QueryCountDataSet.sql.
+ * Cada prueba ejecuta el request completo (controlador, servicio, DAO y mappers, con la sesión abierta durante
+ * el request) y falla si se supera la cota, listando las sentencias ejecutadas: una asociación que pasa a
+ * resolverse fila por fila (N+1) se detecta al crecer la cantidad de sentencias con las filas hijas del dataset.
+ * Si un cambio reduce las consultas de un endpoint, se ajusta su cota para fijar la mejora.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class EndpointQueryCountTest extends AbstractTestNGSpringContextTests {
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private RoleClassifier roleClassifier;
+
+	private MockMvc mockMvc;
+
+	@BeforeClass
+	public void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+	}
+
+	@AfterMethod
+	public void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	/*
+	 * Los listados de servicios y usuarios cargan cada colección (medios de pago, requerimientos, mensajes, roles,
+	 * direcciones, barrios) en una sola consulta por lote para todas las filas (@BatchSize); solo los barrios de las
+	 * ciudades se consultan una vez por ciudad distinta. Las cotas son las cantidades actuales: un N+1 las supera.
+	 */
+	@Test
+	public void listServices() throws Exception {
+		assertMaxQueries(get("/services"), 6);
+	}
+
+	@Test
+	public void listServicesFilteredByCityAndTitle() throws Exception {
+		assertMaxQueries(get("/services").param("city", "venado_tuerto").param("title", "plomeria"), 5);
+	}
+
+	@Test
+	public void getService() throws Exception {
+		assertMaxQueries(get("/services/{id}", 1), 4);
+	}
+
+	@Test
+	public void listUsers() throws Exception {
+		authenticate("admin", "ADMINISTRATOR");
+		assertMaxQueries(get("/users"), 10);
+	}
+
+	/*
+	 * El plan de perfil trae solo los roles en el join; direcciones y barrios son una consulta cada una,
+	 * a cambio de no multiplicar las filas del usuario.
+	 */
+	@Test
+	public void getUser() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		assertMaxQueries(get("/users/{id}", "prestador1"), 8);
+	}
+
+	@Test
+	public void listCustomerMessages() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		assertMaxQueries(get("/messages").param("userRole", "customer"), 1);
+	}
+
+	@Test
+	public void listProviderMessages() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		assertMaxQueries(get("/messages").param("userRole", "provider"), 1);
+	}
+
+	@Test
+	public void listProviderMessagesFilteredByStatus() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		assertMaxQueries(get("/messages").param("userRole", "provider").param("status", "ESPERANDO_RESPUESTA"), 1);
+	}
+
+	@Test
+	public void getMessage() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		assertMaxQueries(get("/messages/{id}", 1), 1);
+	}
+
+	@Test
+	public void listCustomerQuotes() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		assertMaxQueries(get("/quotes").param("userRole", "customer"), 1);
+	}
+
+	@Test
+	public void listProviderQuotes() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		assertMaxQueries(get("/quotes").param("userRole", "provider"), 1);
+	}
+
+	@Test
+	public void getQuote() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		assertMaxQueries(get("/quotes/{id}", 1), 1);
+	}
+
+	@Test
+	public void listCustomerContracts() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		assertMaxQueries(get("/contracts").param("userRole", "customer"), 1);
+	}
+
+	@Test
+	public void listProviderContracts() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		assertMaxQueries(get("/contracts").param("userRole", "provider"), 1);
+	}
+
+	@Test
+	public void listProviderContractsFilteredByDate() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		assertMaxQueries(get("/contracts").param("userRole", "provider")
+				.param("from", "2020-02-22").param("to", "2020-03-01"), 1);
+	}
+
+	@Test
+	public void getContract() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		assertMaxQueries(get("/contracts/{id}", 1), 1);
+	}
+
+	@Test
+	public void listCities() throws Exception {
+		assertMaxQueries(get("/cities"), 0);
+	}
+
+	@Test
+	public void getCity() throws Exception {
+		assertMaxQueries(get("/cities/{id}", "venado_tuerto"), 0);
+	}
+
+	/*
+	 * Ejecuta el request y verifica que responda 200 sin superar <maxQueries> sentencias SQL.
+	 */
+	private void assertMaxQueries(MockHttpServletRequestBuilder request, int maxQueries) throws Exception {
+		QueryRecorder.clear();
+		MvcResult result = mockMvc.perform(request).andReturn();
+		List<String> statements = QueryRecorder.getStatements();
+		String description = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI()
+				+ result.getRequest().getParameterMap().entrySet().stream()
+						.map(parameter -> parameter.getKey() + "=" + String.join(",", parameter.getValue()))
+						.collect(Collectors.joining("&", "?", "")).replaceFirst("\\?$", "");
+
+		logger.info(description + " - " + statements.size() + " queries");
+		Assert.assertEquals(result.getResponse().getStatus(), 200, description + " - Unexpected status");
+		Assert.assertTrue(statements.size() <= maxQueries, String.format("%s - %d queries (max %d):%n%s",
+				description, statements.size(), maxQueries, String.join(System.lineSeparator(), statements)));
+	}
+
+	private void authenticate(String username, String... roles) {
+		List<GrantedAuthority> authorities = Arrays.stream(roles)
+				.map(SimpleGrantedAuthority::new)
+				.collect(Collectors.toList());
+		UserDetailsImpl principal = new UserDetailsImpl(username, "", authorities,
+				roleClassifier.classifyAuthorities(authorities));
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, authorities));
+	}
+}
@@ -0,0 +1,163 @@
+package com.yotereparo.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.security.RoleClassifier;
+import com.yotereparo.security.service.UserDetailsImpl;
+import com.yotereparo.util.pagination.PaginationUtils;
+
+/*
+ * Contenido de las bandejas de /messages, /quotes y /contracts sobre el dataset de QueryCountDataSet.sql:
+ * alcance por cliente y prestador, exclusión de los registros archivados, filtros y paginación por cursor.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class InboxEndpointTest extends AbstractTestNGSpringContextTests {
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private RoleClassifier roleClassifier;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private MockMvc mockMvc;
+
+	@BeforeClass
+	public void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+	}
+
+	@AfterMethod
+	public void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	public void customerMessagesExcludeArchived() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		Assert.assertEquals(ids(get("/messages").param("userRole", "customer")), Arrays.asList(1, 3, 5));
+	}
+
+	@Test
+	public void providerMessagesAreScopedToOwnServices() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		Assert.assertEquals(ids(get("/messages").param("userRole", "provider")), Arrays.asList(1, 2, 3, 4));
+		authenticate("prestador2", "USUARIO_FINAL", "USUARIO_PRESTADOR_PLATA");
+		Assert.assertEquals(ids(get("/messages").param("userRole", "provider")), Arrays.asList(5));
+	}
+
+	@Test
+	public void providerMessagesFilteredByStatus() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		Assert.assertEquals(ids(get("/messages").param("userRole", "provider").param("status", "ESPERANDO_RESPUESTA")),
+				Arrays.asList(2, 3, 4));
+	}
+
+	@Test
+	public void providerMessagesPagedByCursor() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		MvcResult first = perform(get("/messages").param("userRole", "provider").param("limit", "3"));
+		Assert.assertEquals(ids(first), Arrays.asList(1, 2, 3));
+		String nextCursor = first.getResponse().getHeader(PaginationUtils.NEXT_CURSOR_HEADER);
+		Assert.assertNotNull(nextCursor);
+
+		MvcResult second = perform(get("/messages").param("userRole", "provider").param("limit", "3").param("after", nextCursor));
+		Assert.assertEquals(ids(second), Arrays.asList(4));
+		Assert.assertNull(second.getResponse().getHeader(PaginationUtils.NEXT_CURSOR_HEADER));
+	}
+
+	@Test
+	public void allMessagesIncludeArchived() throws Exception {
+		authenticate("admin", "USUARIO_FINAL", "ADMINISTRATOR");
+		Assert.assertEquals(ids(get("/messages")), Arrays.asList(1, 2, 3, 4, 5, 6));
+	}
+
+	@Test
+	public void customerQuotesExcludeArchived() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		Assert.assertEquals(ids(get("/quotes").param("userRole", "customer")), Arrays.asList(1, 3, 5));
+	}
+
+	@Test
+	public void providerQuotesFilteredByStatus() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		Assert.assertEquals(ids(get("/quotes").param("userRole", "provider")), Arrays.asList(1, 2, 3, 4));
+		Assert.assertEquals(ids(get("/quotes").param("userRole", "provider").param("status", "ACEPTADO_USUARIO_FINAL")),
+				Arrays.asList(1, 2, 4));
+	}
+
+	@Test
+	public void customerContractsExcludeArchivedQuotes() throws Exception {
+		authenticate("cliente1", "USUARIO_FINAL");
+		Assert.assertEquals(ids(get("/contracts").param("userRole", "customer")), Arrays.asList(1));
+	}
+
+	@Test
+	public void providerContractsFilteredByDate() throws Exception {
+		authenticate("prestador1", "USUARIO_FINAL", "USUARIO_PRESTADOR_ORO");
+		Assert.assertEquals(ids(get("/contracts").param("userRole", "provider")), Arrays.asList(1, 2, 3));
+		Assert.assertEquals(ids(get("/contracts").param("userRole", "provider")
+				.param("from", "2020-02-22").param("to", "2020-03-01")), Arrays.asList(2, 3));
+		Assert.assertEquals(ids(get("/contracts").param("userRole", "provider")
+				.param("from", "2020-02-22").param("to", "2020-02-27")), Arrays.asList(2));
+	}
+
+	private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+		return mockMvc.perform(request).andReturn();
+	}
+
+	private List<Integer> ids(MockHttpServletRequestBuilder request) throws Exception {
+		return ids(perform(request));
+	}
+
+	/*
+	 * Ids de los elementos de la respuesta, en orden; una respuesta sin contenido (204) equivale a una lista vacía.
+	 */
+	private List<Integer> ids(MvcResult result) throws Exception {
+		List<Integer> ids = new ArrayList<Integer>();
+		if (result.getResponse().getStatus() == 204)
+			return ids;
+		Assert.assertEquals(result.getResponse().getStatus(), 200, result.getResponse().getContentAsString());
+		for (JsonNode item : objectMapper.readTree(result.getResponse().getContentAsString()))
+			ids.add(item.get("id").asInt());
+		return ids;
+	}
+
+	private void authenticate(String username, String... roles) {
+		List<GrantedAuthority> authorities = Arrays.stream(roles)
+				.map(SimpleGrantedAuthority::new)
+				.collect(Collectors.toList());
+		UserDetailsImpl principal = new UserDetailsImpl(username, "", authorities,
+				roleClassifier.classifyAuthorities(authorities));
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, authorities));
+	}
+}
@@ -1,15 +1,14 @@
 package com.yotereparo.controller;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 
-import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Base64;
@@ -29,9 +28,14 @@ import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -44,7 +48,12 @@ import com.yotereparo.model.Address;
 import com.yotereparo.model.City;
 import com.yotereparo.model.User;
 import com.yotereparo.service.CityServiceImpl;
+import com.yotereparo.service.ImageProcessingService;
 import com.yotereparo.service.UserServiceImpl;
+import com.yotereparo.util.image.ImageJob;
+import com.yotereparo.util.image.ImageResponseUtils;
+import com.yotereparo.util.pagination.PageRequest;
+import com.yotereparo.util.pagination.PaginationUtils;
  
 public class UserControllerTest {
  
@@ -56,6 +65,15 @@ public class UserControllerTest {
     
     @Mock
     ModelMapper modelMapper;
+    
+    @Mock
+    PaginationUtils paginationUtils;
+    
+    @Mock
+    ImageProcessingService imageProcessingService;
+    
+    @Mock
+    ImageResponseUtils imageResponseUtils;
      
     @Mock
     MessageSource message;
@@ -109,12 +127,14 @@ public class UserControllerTest {
 	            HttpStatus.OK
 	        );
     	
-        when(userService.getAllUsers()).thenReturn(users);
+        PageRequest page = new PageRequest(100, null);
+        when(paginationUtils.getPageRequest(null, null)).thenReturn(page);
+        when(userService.getAllUsers(page)).thenReturn(users);
         when(modelMapper.map(user0, UserDto.class)).thenReturn(userDto0);
         when(modelMapper.map(user1, UserDto.class)).thenReturn(userDto1);
         when(cityService.getCityById(anyString())).thenReturn(city);
-        Assert.assertEquals(userController.listUsers().toString(), responseEntity.toString());
-        verify(userService, atLeastOnce()).getAllUsers();
+        Assert.assertEquals(userController.listUsers(null, null).toString(), responseEntity.toString());
+        verify(userService, atLeastOnce()).getAllUsers(page);
     }
     
     @Test
@@ -216,8 +236,13 @@ public class UserControllerTest {
     
     @Test
     public void getUserPhoto_WithValidationError_UserDoesntExist(){
+    	MockHttpServletRequest request = new MockHttpServletRequest();
+    	request.setRequestURI("/yotereparo/./photo");
+    	RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    	
+    	when(userService.getUserPhotoHashById(anyString(), anyBoolean())).thenReturn(null);
         when(userService.getUserById(anyString())).thenReturn(null);
-        Assert.assertEquals(userController.getUserPhoto(anyString()).getStatusCode(), HttpStatus.NOT_FOUND);
+        Assert.assertEquals(userController.getUserPhoto("testuser", new ServletWebRequest(request)).getStatusCode(), HttpStatus.NOT_FOUND);
     }
     
     @Test
@@ -228,36 +253,31 @@ public class UserControllerTest {
     	request.setRequestURI("/yotereparo/./photo");
     	RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
     	
-        when(userService.getUserById(anyString())).thenReturn(any(User.class));
+        when(userService.getUserPhotoHashById(anyString(), anyBoolean())).thenReturn(null);
         when(userService.getUserById(anyString())).thenReturn(user);
-        Assert.assertEquals(userController.getUserPhoto(anyString()).getStatusCode(), HttpStatus.NOT_FOUND);
+        Assert.assertEquals(userController.getUserPhoto(user.getId(), new ServletWebRequest(request)).getStatusCode(), HttpStatus.NOT_FOUND);
     }
     
     @Test
     public void getUserPhoto_Success() throws IOException{
-    	User user = new User();
-    	user.setId("testUserWithPhoto");
-    	ByteArrayOutputStream os = new ByteArrayOutputStream();
-    	BufferedImage photo = ImageIO.read(getClass().getClassLoader().getResource("tstimage.png"));
-    	ImageIO.write(photo, "png", os);
-    	user.setFoto(os.toByteArray());
-    	photo.flush();
-    	os.close();
+    	String photoHash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
     	
     	MockHttpServletRequest request = new MockHttpServletRequest();
     	request.setRequestURI("/yotereparo/./photo");
     	RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    	ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
     	
-        when(userService.getUserById(anyString())).thenReturn(any(User.class));
-        when(userService.getUserById(anyString())).thenReturn(user);
-        Assert.assertEquals(userController.getUserPhoto(anyString()).getStatusCode(), HttpStatus.OK);
+        when(userService.getUserPhotoHashById(anyString(), anyBoolean())).thenReturn(photoHash);
+        doNothing().when(imageResponseUtils).writeImage(photoHash, webRequest);
+        Assert.assertNull(userController.getUserPhoto("testUserWithPhoto", webRequest));
+        verify(imageResponseUtils).writeImage(photoHash, webRequest);
     }
     
     @Test
     public void updateUserPhoto_WithValidationError_MalformedJson() {
     	ObjectMapper om = new ObjectMapper();
     	ObjectNode on = om.createObjectNode();
-        Assert.assertEquals(userController.updateUserPhoto(users.get(0).getId(), on).getStatusCode(), HttpStatus.BAD_REQUEST);
+        Assert.assertEquals(userController.updateUserPhoto(users.get(0).getId(), on, UriComponentsBuilder.newInstance()).getStatusCode(), HttpStatus.BAD_REQUEST);
     }
     
     @Test
@@ -266,7 +286,7 @@ public class UserControllerTest {
     	ObjectNode on = om.createObjectNode();
     	on.put("foto", "b64code");
     	when(userService.getUserById(anyString())).thenReturn(null);
-        Assert.assertEquals(userController.updateUserPhoto(users.get(0).getId(), on).getStatusCode(), HttpStatus.NOT_FOUND);
+        Assert.assertEquals(userController.updateUserPhoto(users.get(0).getId(), on, UriComponentsBuilder.newInstance()).getStatusCode(), HttpStatus.NOT_FOUND);
     }
     
     @Test
@@ -277,9 +297,12 @@ public class UserControllerTest {
     	ObjectNode on = om.createObjectNode();
     	on.put("foto", encodedPhoto);
     	
-    	when(userService.getUserById(anyString())).thenReturn(any(User.class));
-    	doNothing().when(userService).updateUserPhotoById(anyString(), any(byte[].class));
-        Assert.assertEquals(userController.updateUserPhoto(users.get(0).getId(), on).getStatusCode(), HttpStatus.OK);
+    	SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+    			new org.springframework.security.core.userdetails.User(users.get(0).getId(), "", new ArrayList<GrantedAuthority>()), null));
+    	when(userService.getUserById(anyString())).thenReturn(users.get(0));
+    	when(imageProcessingService.submitUserPhoto(anyString(), any(byte[].class), anyString()))
+    		.thenReturn(new ImageJob(ImageJob.USER_PHOTO, users.get(0).getId(), users.get(0).getId()));
+        Assert.assertEquals(userController.updateUserPhoto(users.get(0).getId(), on, UriComponentsBuilder.newInstance()).getStatusCode(), HttpStatus.ACCEPTED);
     }
 
     public List<User> getUsersList(){
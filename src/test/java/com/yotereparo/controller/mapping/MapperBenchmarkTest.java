@@ -0,0 +1,263 @@
+package com.yotereparo.controller.mapping;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.lang.builder.EqualsBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.LocalDate;
+import org.modelmapper.Condition;
+import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.yotereparo.controller.dto.ContractDto;
+import com.yotereparo.controller.dto.MessageDto;
+import com.yotereparo.controller.dto.QuoteDto;
+import com.yotereparo.controller.dto.ServiceDto;
+import com.yotereparo.controller.dto.UserDto;
+import com.yotereparo.model.Address;
+import com.yotereparo.model.City;
+import com.yotereparo.model.Contract;
+import com.yotereparo.model.Message;
+import com.yotereparo.model.PaymentMethod;
+import com.yotereparo.model.Quote;
+import com.yotereparo.model.Role;
+import com.yotereparo.model.Service;
+import com.yotereparo.model.ServiceType;
+import com.yotereparo.model.User;
+
+/*
+ * Compara los conversores escritos a mano contra la configuración de ModelMapper que reemplazan.
+ * La medición de costo por objeto (ns/op y bytes/op) se ejecuta solo con -Dbenchmark=true.
+ */
+public class MapperBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapperBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    private ModelMapper modelMapper;
+    private MessageMapper messageMapper;
+    private ContractMapper contractMapper;
+    private QuoteMapper quoteMapper;
+    private ServiceMapper serviceMapper;
+    private UserMapper userMapper;
+
+    private User user;
+    private Service service;
+    private Message message;
+    private Quote quote;
+    private Contract contract;
+
+    @BeforeClass
+    public void setUp() {
+        modelMapper = legacyModelMapper();
+        messageMapper = new MessageMapper();
+        contractMapper = new ContractMapper();
+        quoteMapper = new QuoteMapper();
+        serviceMapper = new ServiceMapper();
+        serviceMapper.messageMapper = messageMapper;
+        userMapper = new UserMapper();
+        userMapper.serviceMapper = serviceMapper;
+        userMapper.messageMapper = messageMapper;
+
+        City city = new City();
+        city.setId("caba");
+        city.setDescripcion("Ciudad Autónoma de Buenos Aires");
+        Role role = new Role();
+        role.setId("prestador");
+        role.setDescripcion("Prestador");
+        Address address = new Address();
+        address.setId(1);
+        address.setCalle("Corrientes");
+        address.setAltura(1234);
+
+        user = new User();
+        user.setId("rodrigo");
+        user.setNombre("Rodrigo");
+        user.setApellido("Yanis");
+        user.setEmail("rodrigo@yotereparo.com");
+        user.setFechaNacimiento(new LocalDate(1990, 1, 1));
+        user.setTelefonoPrincipal("1122334455");
+        user.setCiudad(city);
+        user.setContrasena("hash");
+        user.setEstado("ACTIVO");
+        user.setIntentosIngreso(0);
+        user.setFechaCreacion(new DateTime(2020, 1, 1, 0, 0));
+        user.setMembresia("PLATINUM");
+        user.addRole(role);
+        user.addDireccion(address);
+
+        ServiceType serviceType = new ServiceType();
+        serviceType.setId(1);
+        serviceType.setDescripcion("Plomería");
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1);
+        paymentMethod.setDescripcion("Efectivo");
+
+        service = new Service();
+        service.setId(10);
+        service.setUsuarioPrestador(user);
+        service.setTitulo("Reparación de cañerías");
+        service.setDescripcion("Reparación y reemplazo de cañerías de agua");
+        service.setDisponibilidad("Lunes a viernes");
+        service.setInsitu(true);
+        service.setPrecioMaximo(2000f);
+        service.setPrecioMinimo(1000f);
+        service.setPrecioPromedio(null);
+        service.setPrecioInsumos(300f);
+        service.setHorasEstimadasEjecucion(4f);
+        service.setCantidadTrabajadores(2);
+        service.setFacturaEmitida(true);
+        service.setTipoServicio(serviceType);
+        service.setFechaCreacion(new DateTime(2020, 2, 1, 0, 0));
+        service.setEstado("ACTIVO");
+        service.addMedioDePago(paymentMethod);
+
+        message = new Message();
+        message.setId(100);
+        message.setServicio(service);
+        message.setUsuarioFinal(user);
+        message.setFechaConsulta(new DateTime(2020, 3, 1, 10, 0));
+        message.setConsulta("¿Trabajan los sábados?");
+        message.setEstado("PENDIENTE");
+
+        quote = new Quote();
+        quote.setId(1000);
+        quote.setServicio(service);
+        quote.setUsuarioFinal(user);
+        quote.setDescripcionSolicitud("Pérdida en la cocina");
+        quote.setPrecioPresupuestado(1500f);
+        quote.setFechaInicioEjecucionPropuesta(new DateTime(2020, 4, 1, 9, 0));
+        // Con la fecha de fin en null, ModelMapper elegía el setter String de QuoteDto y la completaba con la fecha actual
+        quote.setFechaFinEjecucionPropuesta(new DateTime(2020, 4, 1, 18, 0));
+        quote.setIncluyeInsumos(true);
+        quote.setFechaSolicitud(new DateTime(2020, 3, 20, 9, 0));
+        quote.setEstado("ACEPTADO");
+        quote.setDireccionUsuarioFinal(address);
+
+        contract = new Contract();
+        contract.setId(5000);
+        contract.setPresupuesto(quote);
+        contract.setFechaInicioEjecucion(new DateTime(2020, 4, 1, 9, 0));
+        contract.setPrecioFinal(1800f);
+        contract.setValoracion(9);
+        contract.setDescripcionValoracion("Excelente");
+        contract.setEstado("FINALIZADO");
+    }
+
+    @Test
+    public void convertToDtoMatchesLegacyMapping() {
+        assertSameFields(messageMapper.convertToDto(message), modelMapper.map(message, MessageDto.class));
+        assertSameFields(contractMapper.convertToDto(contract), modelMapper.map(contract, ContractDto.class));
+        assertSameFields(quoteMapper.convertToDto(quote), legacyQuoteDto(quote));
+        assertSameFields(serviceMapper.convertToDto(service), legacyServiceDto(service));
+        assertSameFields(userMapper.convertToDto(userWithoutServices()), modelMapper.map(userWithoutServices(), UserDto.class));
+    }
+
+    @Test
+    public void benchmarkServiceToDto() {
+        if (!Boolean.getBoolean("benchmark"))
+            throw new SkipException("Ejecutar con -Dbenchmark=true");
+
+        report("ModelMapper", measure(this::legacyServiceDto));
+        report("ServiceMapper", measure(serviceMapper::convertToDto));
+    }
+
+    private long[] measure(Function<Service, ServiceDto> mapping) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            sink = mapping.apply(service);
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+            sink = mapping.apply(service);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        Assert.assertNotNull(sink);
+        return new long[] { elapsed / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS };
+    }
+
+    private static void report(String name, long[] result) {
+        logger.info(String.format("%-14s %8d ns/op %8d bytes/op", name, result[0], result[1]));
+    }
+
+    private static void assertSameFields(Object actual, Object expected) {
+        Assert.assertTrue(EqualsBuilder.reflectionEquals(actual, expected),
+                "Conversión distinta a la de ModelMapper para " + actual.getClass().getSimpleName());
+    }
+
+    private User userWithoutServices() {
+        user.getServicios().clear();
+        return user;
+    }
+
+    // Reproduce la conversión previa: ModelMapper más los campos derivados que completaba cada conversor
+    private QuoteDto legacyQuoteDto(Quote quote) {
+        QuoteDto quoteDto = modelMapper.map(quote, QuoteDto.class);
+        quoteDto.setPrecioTotal(quote.getServicio().getPrecioMinimo(), quote.getServicio().getPrecioInsumos(), quote.getServicio().getPrecioAdicionales());
+        return quoteDto;
+    }
+
+    private ServiceDto legacyServiceDto(Service service) {
+        ServiceDto serviceDto = modelMapper.map(service, ServiceDto.class);
+        serviceDto.setValoracionPromedio(service.getValoracion().getPromedio());
+        serviceDto.setCantidadValoraciones(service.getValoracion().getCantidad());
+        serviceDto.setDistribucionValoraciones(service.getValoracion().getDistribucion());
+        return serviceDto;
+    }
+
+    /*
+     * Misma configuración que tenía el bean de AppConfig. Las propiedades explícitas se omiten con una condición y se
+     * asignan en un post-converter en lugar de addMappings(), que requiere proxies que ModelMapper 2.3.5 no puede
+     * generar en JDKs recientes.
+     */
+    private static ModelMapper legacyModelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.createTypeMap(User.class, UserDto.class).setPropertyCondition(skipping("ciudad", "servicios")).setPostConverter(context -> {
+            UserDto dto = context.getDestination();
+            dto.setCiudad(context.getSource().getCiudad().getId());
+            return dto;
+        });
+        modelMapper.createTypeMap(Service.class, ServiceDto.class).setPropertyCondition(skipping("tipoServicio", "usuarioPrestador")).setPostConverter(context -> {
+            ServiceDto dto = context.getDestination();
+            dto.setTipoServicio(context.getSource().getTipoServicio().getDescripcion());
+            dto.setUsuarioPrestador(context.getSource().getUsuarioPrestador().getId());
+            return dto;
+        });
+        modelMapper.createTypeMap(Quote.class, QuoteDto.class).setPropertyCondition(skipping("usuarioFinal", "servicio", "contrato")).setPostConverter(context -> {
+            QuoteDto dto = context.getDestination();
+            dto.setUsuarioFinal(context.getSource().getUsuarioFinal().getId());
+            dto.setServicio(context.getSource().getServicio().getId());
+            return dto;
+        });
+        modelMapper.createTypeMap(Contract.class, ContractDto.class).setPropertyCondition(skipping("presupuesto")).setPostConverter(context -> {
+            ContractDto dto = context.getDestination();
+            dto.setPresupuesto(context.getSource().getPresupuesto().getId());
+            return dto;
+        });
+        modelMapper.createTypeMap(Message.class, MessageDto.class).setPropertyCondition(skipping("usuarioFinal", "servicio")).setPostConverter(context -> {
+            MessageDto dto = context.getDestination();
+            dto.setUsuarioFinal(context.getSource().getUsuarioFinal().getId());
+            dto.setServicio(context.getSource().getServicio().getId());
+            return dto;
+        });
+        return modelMapper;
+    }
+
+    private static Condition<Object, Object> skipping(String... properties) {
+        List<String> skipped = Arrays.asList(properties);
+        return context -> !skipped.contains(context.getMapping().getLastDestinationProperty().getName());
+    }
+}
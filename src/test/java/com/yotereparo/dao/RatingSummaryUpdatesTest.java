@@ -0,0 +1,86 @@
+package com.yotereparo.dao;
+
+import java.util.Map;
+
+import org.hibernate.SessionFactory;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.model.RatingSummary;
+import com.yotereparo.model.Service;
+import com.yotereparo.model.User;
+
+/*
+ * Los incrementos del resumen de valoraciones sobreviven al guardado de una entidad cargada antes de aplicarlos.
+ * Usa el dataset de QueryCountDataSet.sql; cada prueba se revierte al finalizar.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class RatingSummaryUpdatesTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	@Autowired
+	private ServiceDaoImpl serviceDao;
+
+	@Autowired
+	private UserDaoImpl userDao;
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@Test
+	public void serviceSaveAfterDeltaKeepsDelta() {
+		Service service = serviceDao.getServiceById(1);
+		serviceDao.updateRatingSummary(1, RatingSummary.delta(null, 5));
+		service.setTitulo("Plomería urgente 24 hs");
+		sessionFactory.getCurrentSession().flush();
+
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+				"SELECT titulo, valoracion_cantidad, valoracion_suma, valoracion_5, valoracion_9 FROM servicio WHERE id_servicio = 1");
+		Assert.assertEquals(row.get("titulo"), "Plomería urgente 24 hs");
+		Assert.assertEquals(row.get("valoracion_cantidad"), 2);
+		Assert.assertEquals(row.get("valoracion_suma"), 14);
+		Assert.assertEquals(row.get("valoracion_5"), 1);
+		Assert.assertEquals(row.get("valoracion_9"), 1);
+	}
+
+	@Test
+	public void userSaveAfterDeltaKeepsDelta() {
+		User user = userDao.getUserById("prestador1");
+		userDao.updateRatingSummary("prestador1", RatingSummary.delta(7, 10));
+		user.setFechaUltimoIngreso(new DateTime());
+		sessionFactory.getCurrentSession().flush();
+
+		Map<String, Object> row = jdbcTemplate.queryForMap(
+				"SELECT valoracion_cantidad, valoracion_suma, valoracion_7, valoracion_10 FROM usuario WHERE id_usuario = 'prestador1'");
+		Assert.assertEquals(row.get("valoracion_cantidad"), 2);
+		Assert.assertEquals(row.get("valoracion_suma"), 19);
+		Assert.assertEquals(row.get("valoracion_7"), 0);
+		Assert.assertEquals(row.get("valoracion_10"), 1);
+	}
+
+	@Test
+	public void newServiceStartsWithEmptySummary() {
+		Service template = serviceDao.getServiceById(2);
+		Service service = new Service();
+		service.setUsuarioPrestador(template.getUsuarioPrestador());
+		service.setTipoServicio(template.getTipoServicio());
+		service.setTitulo("Plomería nocturna");
+		service.setPrecioMaximo(template.getPrecioMaximo());
+		service.setPrecioMinimo(template.getPrecioMinimo());
+		service.setHorasEstimadasEjecucion(template.getHorasEstimadasEjecucion());
+		service.setCantidadTrabajadores(template.getCantidadTrabajadores());
+		service.setFechaCreacion(new DateTime());
+		service.setEstado(Service.ACTIVE);
+		serviceDao.persist(service);
+		sessionFactory.getCurrentSession().flush();
+
+		Assert.assertEquals(jdbcTemplate.queryForObject(
+				"SELECT valoracion_cantidad FROM servicio WHERE id_servicio = ?", Integer.class, service.getId()), Integer.valueOf(0));
+	}
+}
@@ -0,0 +1,75 @@
+package com.yotereparo.dao;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.model.Service;
+import com.yotereparo.util.pagination.Cursor;
+import com.yotereparo.util.pagination.PageRequest;
+
+/*
+ * Listado de servicios restringido a los ids del índice de búsqueda, con más ids que los admitidos en una sentencia,
+ * y referencias a imágenes para el barrido de blobs. Usa el dataset de QueryCountDataSet.sql (servicios 1 a 4); cada prueba se revierte al finalizar.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class ServiceDaoImplTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	@Autowired
+	private ServiceDaoImpl serviceDao;
+
+	@Test
+	public void manyIdsAreQueriedByChunks() {
+		Assert.assertEquals(ids(serviceDao.getAllServices(null, manyIds(), null)), Arrays.asList(1, 2, 3, 4));
+	}
+
+	@Test
+	public void manyIdsArePagedInOrder() {
+		List<Service> first = serviceDao.getAllServices(null, manyIds(), new PageRequest(2, null));
+		// Una fila más que el límite, para saber si existe una página siguiente
+		Assert.assertEquals(ids(first), Arrays.asList(1, 2, 3));
+
+		Service last = first.get(1);
+		List<Service> second = serviceDao.getAllServices(null, manyIds(), 
+				new PageRequest(2, Cursor.of(last.getFechaCreacion(), last.getId())));
+		Assert.assertEquals(ids(second), Arrays.asList(3, 4));
+	}
+
+	@Test
+	public void imageHashesIncludeImagesAndThumbnails() {
+		jdbcTemplate.update("UPDATE servicio SET hash_imagen = 'a', hash_thumbnail = 'b' WHERE id_servicio = 1");
+		jdbcTemplate.update("UPDATE servicio SET hash_thumbnail = 'c' WHERE id_servicio = 2");
+		Assert.assertEquals(new HashSet<String>(serviceDao.getImageHashes()), new HashSet<String>(Arrays.asList("a", "b", "c")));
+	}
+
+	/*
+	 * Ids de los servicios del dataset repartidos entre tramos distintos, entre ids inexistentes.
+	 */
+	private static Set<Integer> manyIds() {
+		List<Integer> ids = new ArrayList<Integer>();
+		for (int id = 5; id <= 25000; id++)
+			ids.add(id);
+		ids.add(0, 3);
+		ids.add(10000, 1);
+		ids.add(20000, 4);
+		ids.add(2);
+		return new LinkedHashSet<Integer>(ids);
+	}
+
+	private static List<Integer> ids(List<Service> services) {
+		return services.stream().map(Service::getId).collect(Collectors.toList());
+	}
+}
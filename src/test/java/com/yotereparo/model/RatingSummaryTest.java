@@ -0,0 +1,38 @@
+package com.yotereparo.model;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class RatingSummaryTest {
+
+    @Test
+    public void newRatingCountsOnce() {
+        RatingSummary delta = RatingSummary.delta(null, 8);
+
+        Assert.assertEquals(delta.getCantidad(), 1);
+        Assert.assertEquals(delta.getSuma(), 8);
+        Assert.assertEquals(delta.getCantidad(8), 1);
+    }
+
+    @Test
+    public void changedRatingMovesBetweenBuckets() {
+        RatingSummary delta = RatingSummary.delta(3, 9);
+
+        Assert.assertEquals(delta.getCantidad(), 0);
+        Assert.assertEquals(delta.getSuma(), 6);
+        Assert.assertEquals(delta.getCantidad(3), -1);
+        Assert.assertEquals(delta.getCantidad(9), 1);
+    }
+
+    @Test
+    public void averageIsRoundedToOneDecimal() {
+        RatingSummary summary = new RatingSummary();
+        Assert.assertNull(summary.getPromedio());
+
+        summary.addAll(7, 2);
+        summary.addAll(10, 1);
+        Assert.assertEquals(summary.getCantidad(), 3);
+        Assert.assertEquals(summary.getPromedio(), Float.valueOf(8.0f));
+        Assert.assertEquals(summary.getDistribucion().get(7), Integer.valueOf(2));
+    }
+}
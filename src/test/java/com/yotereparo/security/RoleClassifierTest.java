@@ -0,0 +1,66 @@
+package com.yotereparo.security;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yotereparo.security.service.UserDetailsImpl;
+
+public class RoleClassifierTest {
+
+    private RoleClassifier roleClassifier;
+
+    @BeforeMethod
+    public void setUp() {
+        Map<String, Object> roles = new HashMap<String, Object>();
+        roles.put("role.id.usuariofinal", "USUARIO_FINAL");
+        roles.put("role.id.usuarioprestador.gratuita", "USUARIO_PRESTADOR_GRATUITA");
+        roles.put("role.id.usuarioprestador.oro", "USUARIO_PRESTADOR_ORO");
+        roles.put("role.id.serviceaccount", "SERVICE_ACCOUNT");
+        roles.put("role.id.administrator", "ADMINISTRATOR");
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("roles", roles));
+
+        roleClassifier = new RoleClassifier();
+        roleClassifier.environment = environment;
+        roleClassifier.init();
+    }
+
+    @Test
+    public void rolesAreClassifiedByPropertyPrefix() {
+        Assert.assertEquals(roleClassifier.classify("USUARIO_FINAL"), RoleClassifier.USUARIO_FINAL);
+        Assert.assertEquals(roleClassifier.classify("USUARIO_PRESTADOR_ORO"), RoleClassifier.USUARIO_PRESTADOR);
+        Assert.assertEquals(roleClassifier.classify("USUARIO_PRESTADOR_GRATUITA"), RoleClassifier.USUARIO_PRESTADOR);
+        Assert.assertEquals(roleClassifier.classify("ADMINISTRATOR"), RoleClassifier.ADMINISTRATOR);
+        Assert.assertEquals(roleClassifier.classify("DESCONOCIDO"), 0);
+    }
+
+    @Test
+    public void capabilitiesAreTheUnionOfAllRoles() {
+        int capabilities = roleClassifier.classifyAuthorities(Arrays.asList(
+                new SimpleGrantedAuthority("USUARIO_FINAL"), new SimpleGrantedAuthority("USUARIO_PRESTADOR_ORO")));
+
+        Assert.assertTrue(RoleClassifier.hasAny(capabilities, RoleClassifier.USUARIO_FINAL));
+        Assert.assertTrue(RoleClassifier.hasAny(capabilities, RoleClassifier.USUARIO_PRESTADOR));
+        Assert.assertFalse(RoleClassifier.hasAny(capabilities, RoleClassifier.SERVICE_ACCOUNT_OR_ADMINISTRATOR));
+    }
+
+    @Test
+    public void authenticationUsesCapabilitiesComputedForThePrincipal() {
+        UserDetailsImpl principal = new UserDetailsImpl("admin", "secret",
+                Arrays.<GrantedAuthority>asList(new SimpleGrantedAuthority("ADMINISTRATOR")), RoleClassifier.ADMINISTRATOR);
+
+        Assert.assertTrue(roleClassifier.isServiceAccountOrAdministrator(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())));
+        Assert.assertFalse(roleClassifier.isServiceAccountOrAdministrator(null));
+    }
+}
@@ -0,0 +1,58 @@
+package com.yotereparo.security.service;
+
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+
+/*
+ * Invalidaciones registradas por otro nodo: se simulan insertando directamente en invalidacion_principal.
+ * Cada prueba se revierte al finalizar.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class PrincipalCacheTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Test
+	public void invalidationFromAnotherNodeEvictsPrincipal() {
+		principalCache.put("cliente1", 1L, principal("cliente1"));
+		principalCache.put("cliente2", 1L, principal("cliente2"));
+		registerInvalidation("cliente1");
+
+		principalCache.applyInvalidations();
+
+		Assert.assertNull(principalCache.get("cliente1", 1L));
+		Assert.assertNotNull(principalCache.get("cliente2", 1L));
+	}
+
+	@Test
+	public void invalidationIsAppliedOnlyOnce() {
+		registerInvalidation("cliente1");
+		principalCache.applyInvalidations();
+
+		// El principal cacheado luego de la invalidación ya refleja el estado nuevo
+		principalCache.put("cliente1", 1L, principal("cliente1"));
+		principalCache.applyInvalidations();
+
+		Assert.assertNotNull(principalCache.get("cliente1", 1L));
+	}
+
+	private void registerInvalidation(String username) {
+		jdbcTemplate.update("INSERT INTO invalidacion_principal (id_usuario, fecha) VALUES (?, CURRENT_TIMESTAMP)", username);
+	}
+
+	private static UserDetails principal(String username) {
+		return new User(username, "", Collections.emptyList());
+	}
+}
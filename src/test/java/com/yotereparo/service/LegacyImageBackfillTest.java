@@ -0,0 +1,87 @@
+package com.yotereparo.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.util.blob.BlobStore;
+
+/*
+ * Migración de las imágenes de las columnas bytea heredadas al BlobStore. El esquema de prueba se genera a partir
+ * del modelo, que ya no mapea esas columnas: se agregan para la clase y se eliminan al finalizar.
+ * Usa el dataset de QueryCountDataSet.sql; cada prueba se revierte al finalizar.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class LegacyImageBackfillTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	@Autowired
+	private ImageProcessingService imageProcessingService;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	@BeforeClass
+	public void addLegacyColumns() {
+		jdbcTemplate.execute("ALTER TABLE servicio ADD COLUMN imagen VARBINARY(1024)");
+		jdbcTemplate.execute("ALTER TABLE servicio ADD COLUMN thumbnail VARBINARY(1024)");
+		jdbcTemplate.execute("ALTER TABLE usuario ADD COLUMN foto VARBINARY(1024)");
+		jdbcTemplate.execute("ALTER TABLE usuario ADD COLUMN thumbnail VARBINARY(1024)");
+	}
+
+	@AfterClass(alwaysRun = true)
+	public void dropLegacyColumns() {
+		jdbcTemplate.execute("ALTER TABLE servicio DROP COLUMN imagen");
+		jdbcTemplate.execute("ALTER TABLE servicio DROP COLUMN thumbnail");
+		jdbcTemplate.execute("ALTER TABLE usuario DROP COLUMN foto");
+		jdbcTemplate.execute("ALTER TABLE usuario DROP COLUMN thumbnail");
+	}
+
+	@Test
+	public void legacyImagesAreCopiedToTheBlobStore() throws IOException {
+		byte[] image = bytes("imagen del servicio 1");
+		byte[] thumbnail = bytes("thumbnail del servicio 1");
+		byte[] photo = bytes("foto de cliente1");
+		jdbcTemplate.update("UPDATE servicio SET imagen = ?, thumbnail = ?, hash_imagen = NULL, hash_thumbnail = NULL "
+				+ "WHERE id_servicio = 1", image, thumbnail);
+		jdbcTemplate.update("UPDATE usuario SET foto = ?, hash_foto = NULL, hash_thumbnail = NULL "
+				+ "WHERE id_usuario = 'cliente1'", photo);
+
+		Assert.assertEquals(imageProcessingService.backfillLegacyImages(), 2);
+
+		Assert.assertEquals(column("SELECT hash_imagen FROM servicio WHERE id_servicio = 1"), blobStore.put(image));
+		Assert.assertEquals(column("SELECT hash_thumbnail FROM servicio WHERE id_servicio = 1"), blobStore.put(thumbnail));
+		Assert.assertEquals(column("SELECT hash_foto FROM usuario WHERE id_usuario = 'cliente1'"), blobStore.put(photo));
+		Assert.assertNull(column("SELECT hash_thumbnail FROM usuario WHERE id_usuario = 'cliente1'"));
+		// Ya migradas: una nueva pasada no encuentra imágenes pendientes
+		Assert.assertEquals(imageProcessingService.backfillLegacyImages(), 0);
+	}
+
+	@Test
+	public void newerBlobStoreImageIsKept() {
+		String newer = "ab".concat(String.join("", Collections.nCopies(31, "cd")));
+		jdbcTemplate.update("UPDATE servicio SET imagen = ?, hash_imagen = ?, hash_thumbnail = ? WHERE id_servicio = 2",
+				bytes("imagen anterior del servicio 2"), newer, newer);
+
+		Assert.assertEquals(imageProcessingService.backfillLegacyImages(), 0);
+		Assert.assertEquals(column("SELECT hash_imagen FROM servicio WHERE id_servicio = 2"), newer);
+	}
+
+	private String column(String sql) {
+		return jdbcTemplate.queryForObject(sql, String.class);
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,93 @@
+package com.yotereparo.service;
+
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.dao.ServiceDaoImpl;
+import com.yotereparo.model.Service;
+import com.yotereparo.model.User;
+import com.yotereparo.util.error.MembershipAllowanceError;
+
+/*
+ * Franquicia de creación de servicios por membresía, verificada contra la cantidad de servicios en la base.
+ * Usa el dataset de QueryCountDataSet.sql (prestador2, membresía PLATA: 10 servicios, con 1 registrado);
+ * cada prueba se revierte al finalizar.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class MembershipAllowanceTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	@Autowired
+	private ServiceDaoImpl serviceDao;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ServiceManager serviceManager;
+
+	@Test
+	public void archivedAndBlockedServicesAreNotCounted() {
+		Assert.assertEquals(serviceDao.countActiveServicesByProvider("prestador1"), 3);
+		jdbcTemplate.update("UPDATE servicio SET estado = ? WHERE id_servicio = 2", Service.ARCHIVED);
+		jdbcTemplate.update("UPDATE servicio SET estado = ? WHERE id_servicio = 3", Service.BLOCKED);
+		Assert.assertEquals(serviceDao.countActiveServicesByProvider("prestador1"), 1);
+		jdbcTemplate.update("UPDATE servicio SET estado = ? WHERE id_servicio = 1", Service.INACTIVE);
+		Assert.assertEquals(serviceDao.countActiveServicesByProvider("prestador1"), 1);
+	}
+
+	@Test
+	public void allowanceFollowsDatabaseCount() {
+		User provider = userService.getUserById("prestador2");
+		Assert.assertTrue(userService.hasMembershipAllowance(provider));
+
+		insertServices("prestador2", 9);
+		Assert.assertFalse(userService.hasMembershipAllowance(provider));
+		Assert.assertFalse(userService.hasMembershipAllowance(provider, true));
+
+		jdbcTemplate.update("UPDATE servicio SET estado = ? WHERE id_servicio = 900", Service.ARCHIVED);
+		Assert.assertTrue(userService.hasMembershipAllowance(provider, true));
+	}
+
+	@Test
+	public void createServiceEnforcesAllowance() {
+		jdbcTemplate.update("INSERT INTO direccion (id_direccion, calle, altura, id_usuario) VALUES (900, 'Oroño', 500, 'prestador2')");
+		insertServices("prestador2", 9);
+		User provider = userService.getUserById("prestador2");
+
+		Assert.assertThrows(MembershipAllowanceError.class, () -> serviceManager.createService(newService(provider)));
+
+		jdbcTemplate.update("UPDATE servicio SET estado = ? WHERE id_servicio = 900", Service.ARCHIVED);
+		serviceManager.createService(newService(provider));
+		Assert.assertEquals(serviceDao.countActiveServicesByProvider("prestador2"), 10);
+	}
+
+	private void insertServices(String providerId, int count) {
+		for (int i = 0; i < count; i++)
+			jdbcTemplate.update("INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, "
+					+ "insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, "
+					+ "id_tiposervicio, fecha_creacion, estado) "
+					+ "VALUES (?, ?, ?, 'Tableros', 'Lunes a viernes', FALSE, 9000, 6000, 8, 3, TRUE, 2, '2020-01-06 00:00:00', 'ACTIVO')",
+					900 + i, providerId, "Electricidad " + i);
+	}
+
+	private static Service newService(User provider) {
+		Service service = new Service();
+		service.setUsuarioPrestador(provider);
+		service.setTipoServicio(provider.getServicios().iterator().next().getTipoServicio());
+		service.setTitulo("Electricidad nocturna " + System.nanoTime());
+		service.setDescripcion("Guardias nocturnas");
+		service.setPrecioMaximo(9000f);
+		service.setPrecioMinimo(6000f);
+		service.setHorasEstimadasEjecucion(8f);
+		service.setCantidadTrabajadores(3);
+		service.setFechaCreacion(new DateTime());
+		return service;
+	}
+}
@@ -0,0 +1,83 @@
+package com.yotereparo.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yotereparo.model.City;
+import com.yotereparo.model.District;
+import com.yotereparo.model.PaymentMethod;
+import com.yotereparo.model.Requirement;
+import com.yotereparo.model.Role;
+import com.yotereparo.model.ServiceType;
+
+public class ReferenceDataTest {
+
+    private ReferenceData referenceData;
+
+    @BeforeMethod
+    public void setUp() {
+        District palermo = district(1000, "Palermo");
+        District belgrano = district(1001, "Belgrano");
+        District centro = district(2000, "Centro");
+
+        City caba = new City();
+        caba.setId("caba");
+        caba.setBarrios(new HashSet<District>(Arrays.asList(palermo, belgrano)));
+        City rosario = new City();
+        rosario.setId("rosario");
+        rosario.setBarrios(new HashSet<District>(Collections.singleton(centro)));
+
+        ServiceType plomeria = new ServiceType();
+        plomeria.setId(1);
+        plomeria.setDescripcion("Plomería");
+        PaymentMethod efectivo = new PaymentMethod();
+        efectivo.setId(1);
+        efectivo.setDescripcion("Efectivo");
+
+        referenceData = new ReferenceData(
+                Arrays.asList(caba, rosario),
+                Arrays.asList(palermo, belgrano, centro),
+                Collections.<Role>emptyList(),
+                Collections.singletonList(efectivo),
+                Collections.<Requirement>emptyList(),
+                Collections.singletonList(plomeria));
+    }
+
+    private static District district(Integer id, String descripcion) {
+        District district = new District();
+        district.setId(id);
+        district.setDescripcion(descripcion);
+        return district;
+    }
+
+    @Test
+    public void lookupsResolveByIdAndDescription() {
+        Assert.assertEquals(referenceData.getCityById("caba").getId(), "caba");
+        Assert.assertEquals(referenceData.getDistrictById(2000).getDescripcion(), "Centro");
+        Assert.assertEquals(referenceData.getServiceTypeByDescription("Plomería").getId(), Integer.valueOf(1));
+        Assert.assertEquals(referenceData.getPaymentMethodById(1).getDescripcion(), "Efectivo");
+        Assert.assertNull(referenceData.getCityById("cordoba"));
+        Assert.assertNull(referenceData.getServiceTypeByDescription("plomería"));
+    }
+
+    @Test
+    public void cityContainsOnlyItsOwnDistricts() {
+        Assert.assertTrue(referenceData.cityContainsDistrict("caba", 1000));
+        // IDs fuera del rango cacheado de Integer: la comparación no puede depender de identidad
+        Integer districtId = Integer.valueOf(1001);
+        Assert.assertNotSame(districtId, Integer.valueOf(1001), "1001 no debe estar en el cache de Integer");
+        Assert.assertTrue(referenceData.cityContainsDistrict("caba", districtId));
+        Assert.assertFalse(referenceData.cityContainsDistrict("caba", 2000));
+        Assert.assertFalse(referenceData.cityContainsDistrict("cordoba", 1000));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void listsCannotBeModified() {
+        referenceData.getCities().clear();
+    }
+}
@@ -0,0 +1,129 @@
+package com.yotereparo.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.dao.ServiceDaoImpl;
+import com.yotereparo.model.Service;
+import com.yotereparo.model.User;
+import com.yotereparo.util.error.SimilarServiceError;
+import com.yotereparo.util.metrics.QueryRecorder;
+import com.yotereparo.util.similarity.ServiceFingerprint;
+import com.yotereparo.util.similarity.ServiceSimilarityIndex;
+
+/*
+ * Detección de servicios similares contra la base, con el índice de huellas solo como acelerador, y recorrido
+ * por páginas del catálogo para construir el índice. Usa el dataset de QueryCountDataSet.sql; cada prueba se revierte.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class SimilarServiceTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	@Autowired
+	private ServiceManager serviceManager;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ServiceDaoImpl serviceDao;
+
+	@Autowired
+	private ServiceSimilarityIndex similarityIndex;
+
+	@Autowired
+	private SessionFactory sessionFactory;
+
+	@Test
+	public void titleIsCheckedAgainstTheDatabase() {
+		// Registrado por otro nodo: el índice local no lo conoce
+		jdbcTemplate.update("INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, "
+				+ "insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, "
+				+ "id_tiposervicio, fecha_creacion, estado) "
+				+ "VALUES (900, 'prestador1', 'Gasista matriculado', 'Instalaciones de gas', 'Lunes a viernes', TRUE, 3000, 1500, "
+				+ "3, 1, FALSE, 2, '2020-01-06 00:00:00', 'ACTIVO')");
+		User provider = userService.getUserById("prestador1");
+
+		Assert.assertTrue(serviceManager.similarExist(newService(provider, "GASISTA,  matriculado")));
+		Assert.assertFalse(serviceManager.similarExist(newService(provider, "Gasista de guardia")));
+		Assert.assertFalse(serviceManager.similarExist(newService(userService.getUserById("prestador2"), "Gasista matriculado")));
+	}
+
+	@Test
+	public void indexCandidatesMustStillBeRegistered() {
+		// Entrada del índice de un servicio ya eliminado de la base
+		similarityIndex.index(999, "prestador1", ServiceFingerprint.of("Cerrajería", "Aperturas", Collections.emptyList()));
+		try {
+			Assert.assertFalse(serviceManager.similarExist(newService(userService.getUserById("prestador1"), "Cerrajería")));
+		}
+		finally {
+			similarityIndex.remove(999);
+		}
+	}
+
+	@Test
+	public void createServiceRejectsDuplicateTitle() {
+		jdbcTemplate.update("INSERT INTO direccion (id_direccion, calle, altura, id_usuario) VALUES (900, 'Oroño', 500, 'prestador1')");
+		User provider = userService.getUserById("prestador1");
+
+		Assert.assertThrows(SimilarServiceError.class, () -> serviceManager.createService(newService(provider, "Plomería Urgente")));
+		serviceManager.createService(newService(provider, "Gasista matriculado"));
+		Assert.assertThrows(SimilarServiceError.class, () -> serviceManager.createService(newService(provider, "Gasista matriculado")));
+	}
+
+	@Test
+	public void forEachServiceQueriesDoNotGrowWithServices() {
+		List<String> statements = forEachServiceStatements();
+		for (int i = 0; i < 6; i++) {
+			jdbcTemplate.update("INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, "
+					+ "insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, "
+					+ "id_tiposervicio, fecha_creacion, estado) "
+					+ "VALUES (?, ?, ?, 'Tableros', 'Lunes a viernes', FALSE, 9000, 6000, 8, 3, TRUE, 2, '2020-01-06 00:00:00', 'ACTIVO')",
+					900 + i, i % 2 == 0 ? "prestador1" : "prestador2", "Electricidad " + i);
+			jdbcTemplate.update("INSERT INTO servicio_mediodepago (id_servicio, id_mediodepago) VALUES (?, 1)", 900 + i);
+			jdbcTemplate.update("INSERT INTO servicio_requerimiento (id_servicio, id_requerimiento) VALUES (?, 2)", 900 + i);
+		}
+		Assert.assertEquals(forEachServiceStatements().size(), statements.size(), statements.toString());
+	}
+
+	/*
+	 * Sentencias ejecutadas al recorrer el catálogo y leer las colecciones que usa la huella de cada servicio.
+	 */
+	private List<String> forEachServiceStatements() {
+		sessionFactory.getCurrentSession().clear();
+		List<Integer> ids = new ArrayList<Integer>();
+		QueryRecorder.clear();
+		serviceDao.forEachService(service -> {
+			ids.add(service.getId());
+			service.getMediosDePago().size();
+			service.getRequerimientos().size();
+		});
+		Assert.assertEquals(ids, jdbcTemplate.queryForList("SELECT id_servicio FROM servicio ORDER BY id_servicio", Integer.class));
+		return QueryRecorder.getStatements();
+	}
+
+	private static Service newService(User provider, String title) {
+		Service service = new Service();
+		service.setUsuarioPrestador(provider);
+		service.setTipoServicio(provider.getServicios().iterator().next().getTipoServicio());
+		service.setTitulo(title);
+		service.setDescripcion("Guardias nocturnas");
+		service.setPrecioMaximo(9000f);
+		service.setPrecioMinimo(6000f);
+		service.setHorasEstimadasEjecucion(8f);
+		service.setCantidadTrabajadores(3);
+		service.setFechaCreacion(new DateTime());
+		return service;
+	}
+}
@@ -0,0 +1,160 @@
+package com.yotereparo.service;
+
+import java.sql.Timestamp;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTransactionalTestNGSpringContextTests;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.yotereparo.configuration.WebTestConfiguration;
+import com.yotereparo.dao.ContractDaoImpl;
+import com.yotereparo.dao.MessageDaoImpl;
+import com.yotereparo.model.Contract;
+import com.yotereparo.model.Message;
+import com.yotereparo.util.metrics.StatusTransitionMetrics;
+
+/*
+ * Límites de las transiciones de estado temporales: un registro cambia de estado recién cuando su fecha es
+ * anterior al corte (1 ms antes), y no cuando coincide con él o es 1 ms posterior.
+ * Usa el dataset de QueryCountDataSet.sql; las filas de prueba tienen ids 900+ y cada prueba se revierte al finalizar.
+ */
+@WebAppConfiguration
+@ContextConfiguration(classes = { WebTestConfiguration.class })
+public class StatusTransitionTest extends AbstractTransactionalTestNGSpringContextTests {
+
+	private static final DateTime CUTOFF = new DateTime(2020, 4, 1, 10, 0, 0, 0);
+
+	@Autowired
+	private MessageDaoImpl messageDao;
+
+	@Autowired
+	private ContractDaoImpl contractDao;
+
+	@Autowired
+	private StatusTransitionScheduler scheduler;
+
+	@Autowired
+	private StatusTransitionMetrics metrics;
+
+	@Test
+	public void messagesExpireStrictlyBeforeCutoff() {
+		insertMessage(900, CUTOFF.minusMillis(1), null, Message.AWAITING_RESPONSE);
+		insertMessage(901, CUTOFF, null, Message.AWAITING_RESPONSE);
+		insertMessage(902, CUTOFF.plusMillis(1), null, Message.AWAITING_RESPONSE);
+
+		messageDao.expireMessages(CUTOFF);
+
+		Assert.assertEquals(messageStatus(900), Message.EXPIRED);
+		Assert.assertEquals(messageStatus(901), Message.AWAITING_RESPONSE);
+		Assert.assertEquals(messageStatus(902), Message.AWAITING_RESPONSE);
+	}
+
+	@Test
+	public void messagesArchiveStrictlyBeforeCutoff() {
+		// Cerrados: se compara la fecha de respuesta
+		DateTime asked = CUTOFF.minusDays(1);
+		insertMessage(900, asked, CUTOFF.minusMillis(1), Message.CLOSED);
+		insertMessage(901, asked, CUTOFF, Message.CLOSED);
+		insertMessage(902, asked, CUTOFF.plusMillis(1), Message.CLOSED);
+		// Expirados: se compara la fecha de consulta
+		insertMessage(903, CUTOFF.minusMillis(1), null, Message.EXPIRED);
+		insertMessage(904, CUTOFF, null, Message.EXPIRED);
+		insertMessage(905, CUTOFF.plusMillis(1), null, Message.EXPIRED);
+
+		messageDao.archiveMessages(CUTOFF);
+
+		Assert.assertEquals(messageStatus(900), Message.ARCHIVED);
+		Assert.assertEquals(messageStatus(901), Message.CLOSED);
+		Assert.assertEquals(messageStatus(902), Message.CLOSED);
+		Assert.assertEquals(messageStatus(903), Message.ARCHIVED);
+		Assert.assertEquals(messageStatus(904), Message.EXPIRED);
+		Assert.assertEquals(messageStatus(905), Message.EXPIRED);
+	}
+
+	@Test
+	public void contractsStartStrictlyBeforeCutoff() {
+		DateTime end = CUTOFF.plusDays(1);
+		insertContract(900, CUTOFF.minusMillis(1), end, Contract.PENDING_EXECUTION);
+		insertContract(901, CUTOFF, end, Contract.PENDING_EXECUTION);
+		insertContract(902, CUTOFF.plusMillis(1), end, Contract.PENDING_EXECUTION);
+
+		contractDao.startContracts(CUTOFF);
+
+		Assert.assertEquals(contractStatus(900), Contract.ONGOING_EXECUTION);
+		Assert.assertEquals(contractStatus(901), Contract.PENDING_EXECUTION);
+		Assert.assertEquals(contractStatus(902), Contract.PENDING_EXECUTION);
+	}
+
+	@Test
+	public void contractsFinishStrictlyBeforeCutoff() {
+		DateTime start = CUTOFF.minusDays(1);
+		insertContract(900, start, CUTOFF.minusMillis(1), Contract.ONGOING_EXECUTION);
+		insertContract(901, start, CUTOFF, Contract.ONGOING_EXECUTION);
+		insertContract(902, start, CUTOFF.plusMillis(1), Contract.ONGOING_EXECUTION);
+		insertContract(903, start, CUTOFF.minusMillis(1), Contract.PENDING_EXECUTION);
+
+		contractDao.finishContracts(CUTOFF);
+
+		Assert.assertEquals(contractStatus(900), Contract.ALREADY_EXECUTED);
+		Assert.assertEquals(contractStatus(901), Contract.ONGOING_EXECUTION);
+		Assert.assertEquals(contractStatus(902), Contract.ONGOING_EXECUTION);
+		Assert.assertEquals(contractStatus(903), Contract.ALREADY_EXECUTED);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void pastContractsFinishWithoutStarting() {
+		DateTime now = new DateTime();
+		// Toda la ventana de ejecución ya pasó
+		insertContract(900, now.minusDays(2), now.minusDays(1), Contract.PENDING_EXECUTION);
+		// En ejecución
+		insertContract(901, now.minusDays(1), now.plusDays(1), Contract.PENDING_EXECUTION);
+		int ongoingBefore = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM contrato WHERE estado = ?", Integer.class, Contract.ONGOING_EXECUTION);
+
+		scheduler.run();
+
+		Assert.assertEquals(contractStatus(900), Contract.ALREADY_EXECUTED);
+		Assert.assertEquals(contractStatus(901), Contract.ONGOING_EXECUTION);
+		Map<String, Integer> lastRun = (Map<String, Integer>) metrics.getSnapshot().get("lastRun");
+		Assert.assertEquals(lastRun.get("contractsStarted"), Integer.valueOf(1));
+		// Los contratos en ejecución del dataset, ya vencidos, y el contrato 900
+		Assert.assertEquals(lastRun.get("contractsFinished"), Integer.valueOf(ongoingBefore + 1));
+	}
+
+	private void insertMessage(int id, DateTime asked, DateTime answered, String status) {
+		jdbcTemplate.update("INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, fecha_respuesta, "
+				+ "consulta, respuesta, estado) VALUES (?, 1, 'cliente2', ?, ?, '¿Trabajan los domingos?', ?, ?)",
+				id, timestamp(asked), timestamp(answered), answered != null ? "No." : null, status);
+	}
+
+	/*
+	 * Contrato <id> sobre su propio presupuesto, también <id>.
+	 */
+	private void insertContract(int id, DateTime start, DateTime end, String status) {
+		jdbcTemplate.update("INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, "
+				+ "fecha_inicio_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_creacion, estado) "
+				+ "VALUES (?, 2, 'cliente2', 'Cambio de canilla', ?, FALSE, FALSE, '2020-02-25 10:00:00', '2020-02-25 10:00:00', "
+				+ "'ACEPTADO_USUARIO_FINAL')", id, timestamp(start));
+		jdbcTemplate.update("INSERT INTO contrato (id_contrato, id_presupuesto, fecha_inicio_ejecucion, fecha_fin_ejecucion, "
+				+ "precio_final, fecha_creacion, estado) VALUES (?, ?, ?, ?, 1500, '2020-02-25 10:00:00', ?)",
+				id, id, timestamp(start), timestamp(end), status);
+	}
+
+	private String messageStatus(int id) {
+		return jdbcTemplate.queryForObject("SELECT estado FROM mensaje WHERE id_mensaje = ?", String.class, id);
+	}
+
+	private String contractStatus(int id) {
+		return jdbcTemplate.queryForObject("SELECT estado FROM contrato WHERE id_contrato = ?", String.class, id);
+	}
+
+	private static Timestamp timestamp(DateTime dateTime) {
+		return dateTime != null ? new Timestamp(dateTime.getMillis()) : null;
+	}
+}
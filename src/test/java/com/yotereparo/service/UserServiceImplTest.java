@@ -26,6 +26,7 @@ import com.yotereparo.model.Address;
 import com.yotereparo.model.City;
 import com.yotereparo.model.Role;
 import com.yotereparo.model.User;
+import com.yotereparo.security.service.PrincipalCache;
 
 public class UserServiceImplTest {
 	
@@ -40,6 +41,9 @@ public class UserServiceImplTest {
 	
 	@Mock
 	RoleServiceImpl roleService;
+	
+	@Mock
+	PrincipalCache principalCache;
      
     @InjectMocks
     UserServiceImpl userService;
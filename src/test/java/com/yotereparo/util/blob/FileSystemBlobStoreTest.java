@@ -0,0 +1,98 @@
+package com.yotereparo.util.blob;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class FileSystemBlobStoreTest {
+
+    private static final byte[] CONTENT = "yotereparo".getBytes(StandardCharsets.UTF_8);
+
+    private Path root;
+    private FileSystemBlobStore blobStore;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("blobs");
+        blobStore = new FileSystemBlobStore(root);
+    }
+
+    @Test
+    public void putStoresContentUnderShardedHashPath() throws IOException {
+        String key = blobStore.put(CONTENT);
+
+        Assert.assertEquals(key, FileSystemBlobStore.hash(CONTENT));
+        Assert.assertEquals(blobStore.resolve(key), root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key));
+        Assert.assertTrue(blobStore.exists(key));
+        Assert.assertEquals(blobStore.getSize(key), CONTENT.length);
+    }
+
+    @Test
+    public void identicalContentIsStoredOnce() throws IOException {
+        String first = blobStore.put(CONTENT);
+        String second = blobStore.put(CONTENT.clone());
+
+        Assert.assertEquals(second, first);
+        try (Stream<Path> files = Files.walk(root)) {
+            Assert.assertEquals(files.filter(Files::isRegularFile).count(), 1);
+        }
+    }
+
+    @Test
+    public void transferToCopiesWholeBlob() throws IOException {
+        String key = blobStore.put(CONTENT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Assert.assertEquals(blobStore.transferTo(key, Channels.newChannel(out)), CONTENT.length);
+        Assert.assertEquals(out.toByteArray(), CONTENT);
+    }
+
+    @Test
+    public void deleteUnreferencedKeepsReferencedAndRecentBlobs() throws IOException {
+        String referenced = blobStore.put(CONTENT);
+        String orphan = blobStore.put("huérfano".getBytes(StandardCharsets.UTF_8));
+        String recent = blobStore.put("reciente".getBytes(StandardCharsets.UTF_8));
+        long cutoff = System.currentTimeMillis() - 60_000;
+        age(referenced);
+        age(orphan);
+        Files.createTempFile(root.resolve("tmp"), "pendiente", ".tmp");
+
+        Assert.assertEquals(blobStore.deleteUnreferenced(Collections.singleton(referenced), cutoff), 1);
+        Assert.assertTrue(blobStore.exists(referenced));
+        Assert.assertFalse(blobStore.exists(orphan));
+        Assert.assertTrue(blobStore.exists(recent));
+        try (Stream<Path> pending = Files.list(root.resolve("tmp"))) {
+            Assert.assertEquals(pending.count(), 1);
+        }
+    }
+
+    @Test
+    public void putOfStoredContentRenewsLastModified() throws IOException {
+        String key = blobStore.put(CONTENT);
+        age(key);
+        long cutoff = System.currentTimeMillis() - 60_000;
+
+        blobStore.put(CONTENT);
+        Assert.assertTrue(blobStore.getLastModified(key) >= cutoff);
+        Assert.assertEquals(blobStore.deleteUnreferenced(Collections.emptySet(), cutoff), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void keysOutsideTheHashFormatAreRejected() {
+        blobStore.exists("../../etc/passwd");
+    }
+
+    private void age(String key) throws IOException {
+        Files.setLastModifiedTime(blobStore.resolve(key), FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+    }
+}
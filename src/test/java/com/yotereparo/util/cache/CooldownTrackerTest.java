@@ -0,0 +1,47 @@
+package com.yotereparo.util.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CooldownTrackerTest {
+
+    @Test
+    public void keyCoolsDownUntilWindowSinceLastEventElapses() {
+        AtomicLong now = new AtomicLong(10_000);
+        CooldownTracker<String> tracker = new CooldownTracker<String>(1_000, 10, now::get);
+
+        Assert.assertFalse(tracker.isCoolingDown("1:cliente1"));
+        tracker.record("1:cliente1", 10_000);
+        Assert.assertTrue(tracker.isCoolingDown("1:cliente1"));
+        Assert.assertFalse(tracker.isCoolingDown("2:cliente1"));
+
+        now.set(10_999);
+        Assert.assertTrue(tracker.isCoolingDown("1:cliente1"));
+        now.set(11_000);
+        Assert.assertFalse(tracker.isCoolingDown("1:cliente1"));
+    }
+
+    @Test
+    public void windowSlidesWithNewerEventsOnly() {
+        AtomicLong now = new AtomicLong(10_000);
+        CooldownTracker<String> tracker = new CooldownTracker<String>(1_000, 10, now::get);
+
+        tracker.record("1:cliente1", 10_500);
+        tracker.record("1:cliente1", 10_000);
+        now.set(11_200);
+        Assert.assertTrue(tracker.isCoolingDown("1:cliente1"));
+        now.set(11_500);
+        Assert.assertFalse(tracker.isCoolingDown("1:cliente1"));
+    }
+
+    @Test
+    public void eventsOutsideTheWindowAreIgnored() {
+        AtomicLong now = new AtomicLong(10_000);
+        CooldownTracker<String> tracker = new CooldownTracker<String>(1_000, 10, now::get);
+
+        tracker.record("1:cliente1", 8_000);
+        Assert.assertFalse(tracker.isCoolingDown("1:cliente1"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.yotereparo.util.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ExpiringCacheTest {
+
+    @Test
+    public void entriesExpireAtTheirDeadline() {
+        AtomicLong now = new AtomicLong(1_000);
+        ExpiringCache<String, String> cache = new ExpiringCache<String, String>(10, now::get);
+
+        cache.put("token", "claims", 2_000);
+        Assert.assertEquals(cache.get("token"), "claims");
+
+        now.set(2_000);
+        Assert.assertNull(cache.get("token"));
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void fullCacheDropsExpiredEntriesFirst() {
+        AtomicLong now = new AtomicLong(1_000);
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<Integer, Integer>(2, now::get);
+
+        cache.put(1, 1, 1_500);
+        cache.put(2, 2, 5_000);
+        now.set(2_000);
+        cache.put(3, 3, 5_000);
+
+        Assert.assertNull(cache.get(1));
+        Assert.assertEquals(cache.get(2), Integer.valueOf(2));
+        Assert.assertEquals(cache.get(3), Integer.valueOf(3));
+    }
+
+    @Test
+    public void sizeNeverExceedsBound() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<Integer, Integer>(3, () -> 0L);
+
+        for (int i = 0; i < 10; i++)
+            cache.put(i, i, Long.MAX_VALUE);
+
+        Assert.assertEquals(cache.size(), 3);
+        Assert.assertEquals(cache.get(9), Integer.valueOf(9));
+    }
+
+    @Test
+    public void fullCacheDropsEntriesClosestToExpiration() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<Integer, Integer>(2, () -> 0L);
+
+        cache.put(1, 1, 9_000);
+        cache.put(2, 2, 3_000);
+        cache.put(3, 3, 6_000);
+
+        Assert.assertEquals(cache.get(1), Integer.valueOf(1));
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals(cache.get(3), Integer.valueOf(3));
+    }
+
+    @Test
+    public void replacedEntryTakesTheNewExpiration() {
+        AtomicLong now = new AtomicLong(1_000);
+        ExpiringCache<String, String> cache = new ExpiringCache<String, String>(2, now::get);
+
+        cache.put("token", "old", 2_000);
+        cache.put("token", "new", 5_000);
+        cache.put("other", "claims", 3_000);
+        now.set(2_500);
+        cache.put("third", "claims", 5_000);
+
+        Assert.assertEquals(cache.get("token"), "new");
+        Assert.assertNull(cache.get("other"));
+        Assert.assertEquals(cache.get("third"), "claims");
+        Assert.assertEquals(cache.size(), 2);
+    }
+}
@@ -0,0 +1,104 @@
+package com.yotereparo.util.datasource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/*
+ * Enrutamiento entre dos bases H2 en memoria: "primary" y "replica". Cada una se identifica en la tabla node,
+ * y la réplica informa su retraso en la tabla replica_lag.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT lag_ms FROM replica_lag";
+    private static final long MAX_LAG_MS = 1_000;
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeMethod
+    public void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+        new JdbcTemplate(replica).execute("INSERT INTO replica_lag VALUES (0)");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<String, DataSource>();
+        replicas.put("replica", replica);
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replicas, LAG_QUERY, MAX_LAG_MS);
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routingDataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    public void readOnlyTransactionsGoToReplica() {
+        Assert.assertEquals(routingDataSource.getAvailableReplicas(), Collections.singletonList("replica"));
+        Assert.assertEquals(readOnly.execute(status -> currentNode()), "replica");
+    }
+
+    @Test
+    public void writesAndNonTransactionalAccessGoToPrimary() {
+        Assert.assertEquals(readWrite.execute(status -> currentNode()), "primary");
+        Assert.assertEquals(currentNode(), "primary");
+    }
+
+    @Test
+    public void laggingReplicaFallsBackToPrimaryUntilItCatchesUp() {
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET lag_ms = ?", MAX_LAG_MS + 1);
+        routingDataSource.checkReplicas();
+        Assert.assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+        Assert.assertEquals(readOnly.execute(status -> currentNode()), "primary");
+
+        new JdbcTemplate(replica).update("UPDATE replica_lag SET lag_ms = ?", MAX_LAG_MS);
+        routingDataSource.checkReplicas();
+        Assert.assertEquals(readOnly.execute(status -> currentNode()), "replica");
+    }
+
+    @Test
+    public void failingReplicaFallsBackToPrimary() {
+        new JdbcTemplate(replica).execute("DROP TABLE replica_lag");
+        routingDataSource.checkReplicas();
+        Assert.assertEquals(readOnly.execute(status -> currentNode()), "primary");
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
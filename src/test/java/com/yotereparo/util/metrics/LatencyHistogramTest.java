@@ -0,0 +1,44 @@
+package com.yotereparo.util.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void recordsCountSumAndMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2, TimeUnit.MILLISECONDS);
+        histogram.record(4, TimeUnit.MILLISECONDS);
+        histogram.record(30, TimeUnit.SECONDS);
+
+        Assert.assertEquals(histogram.getCount(), 3);
+        Assert.assertEquals(histogram.getMaxNanos(), TimeUnit.SECONDS.toNanos(30));
+        Assert.assertEquals(histogram.getSumNanos(),
+                TimeUnit.MILLISECONDS.toNanos(6) + TimeUnit.SECONDS.toNanos(30));
+        // El último bucket acumula los valores por encima del último límite
+        long[] counts = histogram.getBucketCounts();
+        Assert.assertEquals(counts[counts.length - 1], 1);
+    }
+
+    @Test
+    public void percentilesReturnBucketUpperBound() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++)
+            histogram.record(800, TimeUnit.MICROSECONDS);
+        histogram.record(40, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(histogram.getPercentileNanos(0.50), TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(histogram.getPercentileNanos(0.99), TimeUnit.MILLISECONDS.toNanos(1));
+        Assert.assertEquals(histogram.getPercentileNanos(1.0), TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getPercentileNanos(0.99), 0);
+        Assert.assertEquals(histogram.getMeanNanos(), 0d);
+    }
+}
@@ -0,0 +1,49 @@
+package com.yotereparo.util.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PrometheusTextWriterTest {
+
+    @Test
+    public void histogramBucketsAreCumulative() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[] { 1, 5 });
+        histogram.record(1);
+        histogram.record(3);
+        histogram.record(9);
+
+        String text = new PrometheusTextWriter()
+                .metric("queries", "histogram", "Queries per request.")
+                .histogram("queries", histogram, 1, "method", "getService")
+                .toString();
+
+        Assert.assertEquals(text,
+                "# HELP queries Queries per request.\n"
+                + "# TYPE queries histogram\n"
+                + "queries_bucket{method=\"getService\",le=\"1\"} 1\n"
+                + "queries_bucket{method=\"getService\",le=\"5\"} 2\n"
+                + "queries_bucket{method=\"getService\",le=\"+Inf\"} 3\n"
+                + "queries_sum{method=\"getService\"} 13\n"
+                + "queries_count{method=\"getService\"} 3\n");
+    }
+
+    @Test
+    public void latencyBoundsAreExposedInSeconds() {
+        LatencyHistogram histogram = new LatencyHistogram(new long[] { 2_500_000 });
+        histogram.record(1_000_000);
+
+        String text = new PrometheusTextWriter()
+                .histogram("latency_seconds", histogram, PrometheusTextWriter.NANOS_TO_SECONDS)
+                .toString();
+
+        Assert.assertTrue(text.startsWith("latency_seconds_bucket{le=\"0.0025\"} 1\n"), text);
+        Assert.assertTrue(text.contains("latency_seconds_sum 0.001\n"), text);
+    }
+
+    @Test
+    public void labelValuesAreEscaped() {
+        String text = new PrometheusTextWriter().sample("up", 1, "pool", "a\"b\\c").toString();
+
+        Assert.assertEquals(text, "up{pool=\"a\\\"b\\\\c\"} 1\n");
+    }
+}
@@ -0,0 +1,33 @@
+package com.yotereparo.util.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * QueryCounter que además conserva las sentencias del hilo actual, para que las pruebas puedan
+ * informar qué consultas se ejecutaron cuando un endpoint supera su cota.
+ *
+ * @author Rodrigo Yanis
+ *
+ */
+public class QueryRecorder extends QueryCounter {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.get().add(sql);
+		return super.inspect(sql);
+	}
+
+	public static void clear() {
+		reset();
+		STATEMENTS.get().clear();
+	}
+
+	public static List<String> getStatements() {
+		return new ArrayList<String>(STATEMENTS.get());
+	}
+}
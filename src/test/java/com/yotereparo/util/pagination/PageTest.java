@@ -0,0 +1,66 @@
+package com.yotereparo.util.pagination;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.joda.time.DateTime;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PageTest {
+
+    private static final DateTime T0 = new DateTime(1_600_000_000_000L);
+    private static final Function<Integer, Cursor> key = id -> Cursor.of(T0.plusSeconds(id / 10), id);
+
+    @Test
+    public void cursorRoundTrip() {
+        Cursor integerCursor = Cursor.of(T0, 42);
+        Cursor stringCursor = Cursor.of(T0, "rodrigo.yanis");
+
+        Assert.assertEquals(Cursor.decode(integerCursor.encode()), integerCursor);
+        Assert.assertEquals(Cursor.decode(integerCursor.encode()).getIntegerId(), Integer.valueOf(42));
+        Assert.assertEquals(Cursor.decode(stringCursor.encode()).getStringId(), "rodrigo.yanis");
+        Assert.assertNull(Cursor.decode(stringCursor.encode()).getIntegerId());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void malformedCursorIsRejected() {
+        Cursor.decode("bm90LWEtY3Vyc29y");
+    }
+
+    @Test
+    public void cursorsOrderByTimestampThenNumericId() {
+        Assert.assertTrue(Cursor.of(T0, 9).compareTo(Cursor.of(T0, 10)) < 0);
+        Assert.assertTrue(Cursor.of(T0.plusMillis(1), 1).compareTo(Cursor.of(T0, 10)) > 0);
+    }
+
+    @Test
+    public void fetchedRowsBeyondLimitProduceNextCursor() {
+        PageRequest request = new PageRequest(2, null);
+        Page<Integer> page = Page.of(Arrays.asList(1, 2, 3), request, key);
+
+        Assert.assertEquals(page.getItems(), Arrays.asList(1, 2));
+        Assert.assertEquals(page.getNextCursor(), key.apply(2));
+        Assert.assertFalse(Page.of(Arrays.asList(1, 2), request, key).hasNext());
+    }
+
+    @Test
+    public void sliceWalksCollectionInKeyOrder() {
+        Set<Integer> all = new HashSet<Integer>(Arrays.asList(25, 3, 14, 7, 31));
+        PageRequest first = new PageRequest(2, null);
+
+        Page<Integer> page = Page.slice(all, first, key);
+        Assert.assertEquals(page.getItems(), Arrays.asList(3, 7));
+
+        page = Page.slice(all, new PageRequest(2, page.getNextCursor()), key);
+        Assert.assertEquals(page.getItems(), Arrays.asList(14, 25));
+
+        page = Page.slice(all, new PageRequest(2, page.getNextCursor()), key);
+        List<Integer> last = page.getItems();
+        Assert.assertEquals(last, Arrays.asList(31));
+        Assert.assertFalse(page.hasNext());
+    }
+}
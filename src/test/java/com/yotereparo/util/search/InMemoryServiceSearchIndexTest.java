@@ -0,0 +1,90 @@
+package com.yotereparo.util.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.yotereparo.util.search.ServiceSearchIndex.Field;
+
+public class InMemoryServiceSearchIndexTest {
+
+    private InMemoryServiceSearchIndex index;
+
+    @BeforeMethod
+    public void setUp() {
+        index = new InMemoryServiceSearchIndex();
+        index.index(1, "Reparación de heladeras", "Service técnico de heladeras y freezers a domicilio.");
+        index.index(2, "Plomería general", "Destapaciones, pérdidas y reparaciones de cañerías.");
+        index.index(3, "Electricista matriculado", "Instalación de luces y tableros. También reparo heladeras.");
+    }
+
+    @Test
+    public void matchIsAccentAndPluralInsensitive() {
+        Assert.assertEquals(index.match(Field.TITLE, "REPARACION HELADERA"), Collections.singleton(1));
+        Assert.assertEquals(index.match(Field.DESCRIPTION, "reparación"), Collections.singleton(2));
+        Assert.assertEquals(index.match(Field.DESCRIPTION, "luz"), Collections.singleton(3));
+    }
+
+    @Test
+    public void lastTermMatchesByPrefix() {
+        Assert.assertEquals(index.match(Field.TITLE, "plome"), Collections.singleton(2));
+        Assert.assertEquals(index.match(Field.TITLE, "electricista matri"), Collections.singleton(3));
+        Assert.assertTrue(index.match(Field.TITLE, "matri electricista").isEmpty());
+    }
+
+    @Test
+    public void searchRanksTitleMatchesFirst() {
+        Assert.assertEquals(index.search("heladeras", 10), Arrays.asList(1, 3));
+        Assert.assertEquals(index.search("heladeras", 1), Arrays.asList(1));
+    }
+
+    @Test
+    public void reindexAndRemoveKeepIndexConsistent() {
+        index.index(1, "Reparación de lavarropas", "Service técnico a domicilio.");
+        Assert.assertEquals(new HashSet<Integer>(index.search("heladera", 10)), Collections.singleton(3));
+        Assert.assertEquals(index.match(Field.TITLE, "lavarropas"), Collections.singleton(1));
+
+        index.remove(3);
+        Assert.assertTrue(index.search("heladera", 10).isEmpty());
+        Assert.assertEquals(index.size(), 2);
+    }
+
+    @Test
+    public void rebuildServesPreviousContentUntilLoaded() {
+        index.rebuild(rebuilt -> {
+            rebuilt.index(1, "Reparación de lavarropas", "Service técnico a domicilio.");
+            Assert.assertEquals(index.search("heladeras", 10), Arrays.asList(1, 3));
+            Assert.assertEquals(index.size(), 3);
+        });
+        Assert.assertEquals(index.match(Field.TITLE, "lavarropas"), Collections.singleton(1));
+        Assert.assertTrue(index.search("heladeras", 10).isEmpty());
+        Assert.assertEquals(index.size(), 1);
+    }
+
+    @Test
+    public void updatesDuringRebuildAreKept() {
+        index.rebuild(rebuilt -> {
+            rebuilt.index(1, "Reparación de heladeras", "Service técnico de heladeras y freezers a domicilio.");
+            rebuilt.index(2, "Plomería general", "Destapaciones, pérdidas y reparaciones de cañerías.");
+            index.index(4, "Gasista matriculado", "Instalaciones de gas.");
+            index.remove(2);
+        });
+        Assert.assertEquals(index.match(Field.TITLE, "gasista"), Collections.singleton(4));
+        Assert.assertTrue(index.match(Field.TITLE, "plomeria").isEmpty());
+        Assert.assertEquals(index.size(), 2);
+    }
+
+    @Test
+    public void failedRebuildKeepsPreviousContent() {
+        Assert.assertThrows(IllegalStateException.class, () -> index.rebuild(rebuilt -> {
+            rebuilt.index(4, "Gasista matriculado", "Instalaciones de gas.");
+            throw new IllegalStateException();
+        }));
+        Assert.assertEquals(index.size(), 3);
+        Assert.assertTrue(index.match(Field.TITLE, "gasista").isEmpty());
+    }
+}
@@ -0,0 +1,85 @@
+package com.yotereparo.util.similarity;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class InMemoryServiceSimilarityIndexTest {
+
+    private static final String DESCRIPTION =
+            "Service técnico de heladeras, freezers y exhibidoras comerciales a domicilio en toda la zona norte. "
+            + "Carga de gas, cambio de motores, termostatos, burletes y plaquetas electrónicas de todas las marcas. "
+            + "Presupuesto sin cargo en el momento, trabajos garantizados por escrito durante seis meses, "
+            + "atención de lunes a sábados incluyendo feriados, urgencias dentro del mismo día, "
+            + "repuestos originales y alternativos, factura oficial y todos los medios de pago.";
+
+    private static final List<Object> FIELDS = Arrays.<Object>asList("lunes a sábados", true, 3000.0f, 1000.0f, 1);
+
+    private InMemoryServiceSimilarityIndex index;
+
+    @BeforeMethod
+    public void setUp() {
+        index = new InMemoryServiceSimilarityIndex(0.9);
+        index.index(1, "ana", ServiceFingerprint.of("Reparación de heladeras", DESCRIPTION, FIELDS));
+        index.index(2, "ana", ServiceFingerprint.of("Plomería general", "Destapaciones, pérdidas y reparaciones de cañerías.", FIELDS));
+        index.index(3, "juan", ServiceFingerprint.of("Heladeras y freezers", DESCRIPTION, Arrays.asList("otro")));
+    }
+
+    @Test
+    public void sameTitleIsDuplicateWithinTheProvider() {
+        ServiceFingerprint fingerprint = ServiceFingerprint.of("REPARACION de heladeras!", "Otro texto", Arrays.asList("otro"));
+
+        Assert.assertEquals(index.findDuplicates(fingerprint, "ana", null), Collections.singleton(1));
+        Assert.assertTrue(index.findDuplicates(fingerprint, "ana", 1).isEmpty());
+        Assert.assertTrue(index.findDuplicates(fingerprint, "juan", null).isEmpty());
+    }
+
+    @Test
+    public void sameFieldsRequireSimilarContent() {
+        ServiceFingerprint similar = ServiceFingerprint.of("Reparación de heladeras y freezers", DESCRIPTION, FIELDS);
+        ServiceFingerprint otherFields = ServiceFingerprint.of("Reparación de heladeras y freezers", DESCRIPTION, Arrays.asList("otro"));
+        ServiceFingerprint otherContent = ServiceFingerprint.of("Gasista matriculado", "Instalaciones de gas.", FIELDS);
+
+        Assert.assertEquals(index.findDuplicates(similar, "ana", null), Collections.singleton(1));
+        Assert.assertTrue(index.findDuplicates(otherFields, "ana", null).isEmpty());
+        Assert.assertTrue(index.findDuplicates(otherContent, "ana", null).isEmpty());
+    }
+
+    @Test
+    public void nearDuplicatesSpanProvidersAndAreRankedBySimilarity() {
+        ServiceFingerprint fingerprint = ServiceFingerprint.of("Reparación de heladeras", DESCRIPTION, FIELDS);
+
+        Assert.assertEquals(index.findNearDuplicates(fingerprint, null, 10), Arrays.asList(1, 3));
+        Assert.assertEquals(index.findNearDuplicates(fingerprint, 1, 10), Arrays.asList(3));
+        Assert.assertEquals(index.findNearDuplicates(fingerprint, null, 1), Arrays.asList(1));
+    }
+
+    @Test
+    public void removedServicesAreNoLongerCandidates() {
+        index.remove(1);
+        ServiceFingerprint fingerprint = ServiceFingerprint.of("Reparación de heladeras", DESCRIPTION, FIELDS);
+
+        Assert.assertTrue(index.findDuplicates(fingerprint, "ana", null).isEmpty());
+        Assert.assertEquals(index.findNearDuplicates(fingerprint, null, 10), Arrays.asList(3));
+        Assert.assertEquals(index.size(), 2);
+    }
+
+    @Test
+    public void rebuildKeepsPreviousContentAndConcurrentUpdates() {
+        ServiceFingerprint fingerprint = ServiceFingerprint.of("Reparación de heladeras", DESCRIPTION, FIELDS);
+        index.rebuild(rebuilt -> {
+            rebuilt.index(1, "ana", fingerprint);
+            rebuilt.index(3, "juan", ServiceFingerprint.of("Heladeras y freezers", DESCRIPTION, Arrays.asList("otro")));
+            Assert.assertEquals(index.size(), 3);
+            index.remove(3);
+        });
+
+        Assert.assertEquals(index.findDuplicates(fingerprint, "ana", null), Collections.singleton(1));
+        Assert.assertEquals(index.findNearDuplicates(fingerprint, null, 10), Arrays.asList(1));
+        Assert.assertEquals(index.size(), 1);
+    }
+}
@@ -0,0 +1,41 @@
+package com.yotereparo.util.transaction;
+
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public class ReadOnlyStatementGuardTest {
+
+    private final ReadOnlyStatementGuard guard = new ReadOnlyStatementGuard(sql -> sql);
+
+    @AfterMethod
+    public void clearTransactionState() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void readsPassThroughWithinReadOnlyTransactions() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        String select = "select s.id_servicio from servicio s where s.estado = ?";
+        Assert.assertEquals(guard.inspect(select), select);
+    }
+
+    @Test
+    public void writesPassThroughOutsideReadOnlyTransactions() {
+        String update = "update servicio set estado = ? where id_servicio = ?";
+        Assert.assertEquals(guard.inspect(update), update);
+    }
+
+    @Test
+    public void writesAreRejectedWithinReadOnlyTransactions() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        for (String write : new String[] {
+                "insert into mensaje (id_mensaje) values (?)",
+                "  UPDATE servicio set estado = ? where id_servicio = ?",
+                "/* delete com.yotereparo.model.Service */ delete from servicio where id_servicio = ?" }) {
+            Assert.assertThrows(IllegalTransactionStateException.class, () -> guard.inspect(write));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+-- Dataset de EndpointQueryCountTest: cada entidad tiene varias filas hijas, de modo que una consulta por fila (N+1)
+-- se traduzca en una cantidad de sentencias mayor a la cota del endpoint.
+-- InboxEndpointTest verifica además sobre estas filas el contenido de las bandejas (el mensaje 6 y el presupuesto 6,
+-- con su contrato 4, están archivados).
+
+INSERT INTO provincia (id_provincia, descripcion) VALUES ('santa_fe', 'Santa Fe');
+INSERT INTO ciudad (id_ciudad, descripcion, id_provincia) VALUES ('venado_tuerto', 'Venado Tuerto', 'santa_fe');
+INSERT INTO ciudad (id_ciudad, descripcion, id_provincia) VALUES ('rosario', 'Rosario', 'santa_fe');
+INSERT INTO barrio (id_barrio, descripcion, codigo_postal, id_ciudad) VALUES (1, 'Centro', 2600, 'venado_tuerto');
+INSERT INTO barrio (id_barrio, descripcion, codigo_postal, id_ciudad) VALUES (2, 'San Martín', 2600, 'venado_tuerto');
+INSERT INTO barrio (id_barrio, descripcion, codigo_postal, id_ciudad) VALUES (3, 'Pichincha', 2000, 'rosario');
+
+INSERT INTO rol (id_rol, descripcion, estado) VALUES ('USUARIO_FINAL', 'Usuario final', 'ACTIVO');
+INSERT INTO rol (id_rol, descripcion, estado) VALUES ('USUARIO_PRESTADOR_GRATUITA', 'Usuario prestador gratuita', 'ACTIVO');
+INSERT INTO rol (id_rol, descripcion, estado) VALUES ('USUARIO_PRESTADOR_PLATA', 'Usuario prestador plata', 'ACTIVO');
+INSERT INTO rol (id_rol, descripcion, estado) VALUES ('USUARIO_PRESTADOR_ORO', 'Usuario prestador oro', 'ACTIVO');
+INSERT INTO rol (id_rol, descripcion, estado) VALUES ('SERVICE_ACCOUNT', 'Cuenta de servicio', 'PROTEGIDO');
+INSERT INTO rol (id_rol, descripcion, estado) VALUES ('ADMINISTRATOR', 'Administrador', 'PROTEGIDO');
+
+INSERT INTO tipo_servicio (id_tiposervicio, descripcion) VALUES (1, 'Plomería');
+INSERT INTO tipo_servicio (id_tiposervicio, descripcion) VALUES (2, 'Electricidad');
+INSERT INTO medio_de_pago (id_mediodepago, descripcion) VALUES (1, 'Efectivo');
+INSERT INTO medio_de_pago (id_mediodepago, descripcion) VALUES (2, 'Transferencia');
+INSERT INTO requerimiento (id_requerimiento, descripcion) VALUES (1, 'Conexión eléctrica');
+INSERT INTO requerimiento (id_requerimiento, descripcion) VALUES (2, 'Conexión de agua');
+
+INSERT INTO usuario (id_usuario, nombre, apellido, email, id_ciudad, contrasena, salt, estado, intentos_ingreso, fecha_creacion, membresia)
+	VALUES ('prestador1', 'Prestador', 'Uno', 'prestador1@yotereparo.com', 'venado_tuerto', 'hash', 'salt', 'ACTIVO', 0, '2020-01-01 00:00:00', 'ORO');
+INSERT INTO usuario (id_usuario, nombre, apellido, email, id_ciudad, contrasena, salt, estado, intentos_ingreso, fecha_creacion, membresia)
+	VALUES ('prestador2', 'Prestador', 'Dos', 'prestador2@yotereparo.com', 'rosario', 'hash', 'salt', 'ACTIVO', 0, '2020-01-01 00:00:00', 'PLATA');
+INSERT INTO usuario (id_usuario, nombre, apellido, email, id_ciudad, contrasena, salt, estado, intentos_ingreso, fecha_creacion)
+	VALUES ('cliente1', 'Cliente', 'Uno', 'cliente1@yotereparo.com', 'venado_tuerto', 'hash', 'salt', 'ACTIVO', 0, '2020-01-01 00:00:00');
+INSERT INTO usuario (id_usuario, nombre, apellido, email, id_ciudad, contrasena, salt, estado, intentos_ingreso, fecha_creacion)
+	VALUES ('cliente2', 'Cliente', 'Dos', 'cliente2@yotereparo.com', 'venado_tuerto', 'hash', 'salt', 'ACTIVO', 0, '2020-01-01 00:00:00');
+INSERT INTO usuario (id_usuario, nombre, apellido, email, id_ciudad, contrasena, salt, estado, intentos_ingreso, fecha_creacion)
+	VALUES ('cliente3', 'Cliente', 'Tres', 'cliente3@yotereparo.com', 'rosario', 'hash', 'salt', 'ACTIVO', 0, '2020-01-01 00:00:00');
+INSERT INTO usuario (id_usuario, nombre, apellido, email, id_ciudad, contrasena, salt, estado, intentos_ingreso, fecha_creacion)
+	VALUES ('admin', 'Admin', 'Istrador', 'admin@yotereparo.com', 'rosario', 'hash', 'salt', 'ACTIVO', 0, '2020-01-01 00:00:00');
+
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('prestador1', 'USUARIO_FINAL');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('prestador1', 'USUARIO_PRESTADOR_ORO');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('prestador2', 'USUARIO_FINAL');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('prestador2', 'USUARIO_PRESTADOR_PLATA');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('cliente1', 'USUARIO_FINAL');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('cliente2', 'USUARIO_FINAL');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('cliente3', 'USUARIO_FINAL');
+INSERT INTO usuario_rol (id_usuario, id_rol) VALUES ('admin', 'ADMINISTRATOR');
+INSERT INTO usuario_barrio (id_usuario, id_barrio) VALUES ('prestador1', 1);
+INSERT INTO usuario_barrio (id_usuario, id_barrio) VALUES ('prestador1', 2);
+INSERT INTO usuario_barrio (id_usuario, id_barrio) VALUES ('prestador2', 3);
+
+INSERT INTO direccion (id_direccion, calle, altura, id_usuario) VALUES (1, 'San Martín', 100, 'cliente1');
+INSERT INTO direccion (id_direccion, calle, altura, id_usuario) VALUES (2, 'Belgrano', 200, 'cliente1');
+INSERT INTO direccion (id_direccion, calle, altura, id_usuario) VALUES (3, 'Mitre', 300, 'cliente2');
+INSERT INTO direccion (id_direccion, calle, altura, id_usuario) VALUES (4, 'Córdoba', 400, 'cliente3');
+
+INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, id_tiposervicio, fecha_creacion, estado)
+	VALUES (1, 'prestador1', 'Plomería urgente', 'Reparación de cañerías. Presupuesto sin cargo.', 'Lunes a viernes', TRUE, 2000, 1000, 2, 1, TRUE, 1, '2020-01-02 00:00:00', 'ACTIVO');
+INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, id_tiposervicio, fecha_creacion, estado)
+	VALUES (2, 'prestador1', 'Plomería a domicilio', 'Instalación de termotanques. Trabajos con garantía.', 'Lunes a sábados', TRUE, 5000, 3000, 4, 2, TRUE, 1, '2020-01-03 00:00:00', 'ACTIVO');
+INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, id_tiposervicio, fecha_creacion, estado)
+	VALUES (3, 'prestador1', 'Electricidad matriculado', 'Instalaciones eléctricas domiciliarias.', 'Lunes a viernes', TRUE, 3000, 1500, 3, 1, FALSE, 2, '2020-01-04 00:00:00', 'ACTIVO');
+INSERT INTO servicio (id_servicio, id_usuario_prestador, titulo, descripcion, disponibilidad, insitu, precio_maximo, precio_minimo, horas_estimadas_ejecucion, cantidad_trabajadores, factura_emitida, id_tiposervicio, fecha_creacion, estado)
+	VALUES (4, 'prestador2', 'Electricidad industrial', 'Tableros y motores trifásicos.', 'Lunes a viernes', FALSE, 9000, 6000, 8, 3, TRUE, 2, '2020-01-05 00:00:00', 'ACTIVO');
+INSERT INTO servicio_mediodepago (id_servicio, id_mediodepago) VALUES (1, 1);
+INSERT INTO servicio_mediodepago (id_servicio, id_mediodepago) VALUES (1, 2);
+INSERT INTO servicio_mediodepago (id_servicio, id_mediodepago) VALUES (2, 1);
+INSERT INTO servicio_mediodepago (id_servicio, id_mediodepago) VALUES (3, 2);
+INSERT INTO servicio_mediodepago (id_servicio, id_mediodepago) VALUES (4, 1);
+INSERT INTO servicio_requerimiento (id_servicio, id_requerimiento) VALUES (1, 2);
+INSERT INTO servicio_requerimiento (id_servicio, id_requerimiento) VALUES (3, 1);
+INSERT INTO servicio_requerimiento (id_servicio, id_requerimiento) VALUES (4, 1);
+
+INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, fecha_respuesta, consulta, respuesta, estado)
+	VALUES (1, 1, 'cliente1', '2020-02-01 10:00:00', '2020-02-01 12:00:00', '¿Trabajan los sábados?', 'No.', 'CERRADO');
+INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, consulta, estado)
+	VALUES (2, 1, 'cliente2', '2020-02-02 10:00:00', '¿El presupuesto tiene cargo?', 'ESPERANDO_RESPUESTA');
+INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, consulta, estado)
+	VALUES (3, 2, 'cliente1', '2020-02-03 10:00:00', '¿Instalan termotanques solares?', 'ESPERANDO_RESPUESTA');
+INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, consulta, estado)
+	VALUES (4, 3, 'cliente3', '2020-02-04 10:00:00', '¿Tienen matrícula?', 'ESPERANDO_RESPUESTA');
+INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, consulta, estado)
+	VALUES (5, 4, 'cliente1', '2020-02-05 10:00:00', '¿Trabajan en Venado Tuerto?', 'ESPERANDO_RESPUESTA');
+INSERT INTO mensaje (id_mensaje, id_servicio, id_usuario_final, fecha_consulta, fecha_respuesta, consulta, respuesta, estado)
+	VALUES (6, 1, 'cliente1', '2020-02-06 10:00:00', '2020-02-06 12:00:00', '¿Hacen destapaciones?', 'Sí.', 'ARCHIVADO');
+
+INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, descripcion_respuesta, precio_presupuestado, fecha_inicio_ejecucion_prupuesta, fecha_fin_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_respuesta, fecha_creacion, estado, id_direccion_usuario_final)
+	VALUES (1, 1, 'cliente1', 'Pérdida en la cocina', 'Lo resolvemos en el día', 1500, '2020-03-01 09:00:00', '2020-03-01 11:00:00', TRUE, FALSE, '2020-02-20 10:00:00', '2020-02-21 10:00:00', '2020-02-20 10:00:00', 'ACEPTADO_USUARIO_FINAL', 1);
+INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, descripcion_respuesta, precio_presupuestado, fecha_inicio_ejecucion_prupuesta, fecha_fin_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_respuesta, fecha_creacion, estado, id_direccion_usuario_final)
+	VALUES (2, 1, 'cliente2', 'Pérdida en el baño', 'Lo resolvemos en el día', 1800, '2020-03-02 09:00:00', '2020-03-02 11:00:00', TRUE, TRUE, '2020-02-22 10:00:00', '2020-02-23 10:00:00', '2020-02-22 10:00:00', 'ACEPTADO_USUARIO_FINAL', 3);
+INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, precio_presupuestado, fecha_inicio_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_creacion, estado, id_direccion_usuario_final)
+	VALUES (3, 2, 'cliente1', 'Cambio de termotanque', NULL, '2020-03-05 09:00:00', FALSE, FALSE, '2020-02-25 10:00:00', '2020-02-25 10:00:00', 'ESPERANDO_USUARIO_PRESTADOR', 2);
+INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, descripcion_respuesta, precio_presupuestado, fecha_inicio_ejecucion_prupuesta, fecha_fin_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_respuesta, fecha_creacion, estado, id_direccion_usuario_final)
+	VALUES (4, 3, 'cliente3', 'Cambio de tablero', 'Incluye disyuntor', 2500, '2020-03-06 09:00:00', '2020-03-06 13:00:00', TRUE, FALSE, '2020-02-26 10:00:00', '2020-02-27 10:00:00', '2020-02-26 10:00:00', 'ACEPTADO_USUARIO_FINAL', 4);
+INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, precio_presupuestado, fecha_inicio_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_creacion, estado)
+	VALUES (5, 4, 'cliente1', 'Motor trifásico', NULL, '2020-03-07 09:00:00', FALSE, FALSE, '2020-02-28 10:00:00', '2020-02-28 10:00:00', 'ESPERANDO_USUARIO_PRESTADOR');
+INSERT INTO presupuesto (id_presupuesto, id_servicio, id_usuario_final, descripcion_solicitud, descripcion_respuesta, precio_presupuestado, fecha_inicio_ejecucion_prupuesta, fecha_fin_ejecucion_prupuesta, incluye_insumos, incluye_adicionales, fecha_solicitud, fecha_respuesta, fecha_creacion, estado, id_direccion_usuario_final)
+	VALUES (6, 1, 'cliente1', 'Destapación', 'Lo resolvemos en el día', 1200, '2020-03-03 09:00:00', '2020-03-03 10:00:00', FALSE, FALSE, '2020-02-29 10:00:00', '2020-02-29 11:00:00', '2020-02-29 10:00:00', 'ARCHIVADO', 1);
+
+INSERT INTO contrato (id_contrato, id_presupuesto, fecha_inicio_ejecucion, fecha_fin_ejecucion, precio_final, valoracion, descripcion_valoracion, fecha_valoracion, fecha_creacion, estado)
+	VALUES (1, 1, '2020-03-01 09:00:00', '2020-03-01 11:00:00', 1500, 9, 'Muy bueno', '2020-03-02 10:00:00', '2020-02-21 10:00:00', 'FINALIZADO');
+INSERT INTO contrato (id_contrato, id_presupuesto, fecha_inicio_ejecucion, fecha_fin_ejecucion, precio_final, fecha_creacion, estado)
+	VALUES (2, 2, '2020-03-02 09:00:00', '2020-03-02 11:00:00', 1800, '2020-02-23 10:00:00', 'EN_PROCESO');
+INSERT INTO contrato (id_contrato, id_presupuesto, fecha_inicio_ejecucion, fecha_fin_ejecucion, precio_final, valoracion, descripcion_valoracion, fecha_valoracion, fecha_creacion, estado)
+	VALUES (3, 4, '2020-03-06 09:00:00', '2020-03-06 13:00:00', 2500, 7, 'Bueno', '2020-03-07 10:00:00', '2020-02-27 10:00:00', 'FINALIZADO');
+INSERT INTO contrato (id_contrato, id_presupuesto, fecha_inicio_ejecucion, fecha_fin_ejecucion, precio_final, fecha_creacion, estado)
+	VALUES (4, 6, '2020-03-03 09:00:00', '2020-03-03 10:00:00', 1200, '2020-02-29 11:00:00', 'CANCELADO_USUARIO_FINAL');
+
+-- Los presupuestos que incluyen insumos o adicionales requieren sus precios en el servicio
+UPDATE servicio SET precio_insumos = precio_minimo / 10, precio_adicionales = precio_minimo / 5;
+
+-- Valoraciones agregadas de los contratos anteriores (ver RatingSummary)
+UPDATE servicio SET valoracion_cantidad = 1, valoracion_suma = 9, valoracion_9 = 1 WHERE id_servicio = 1;
+UPDATE servicio SET valoracion_cantidad = 1, valoracion_suma = 7, valoracion_7 = 1 WHERE id_servicio = 3;
+UPDATE usuario SET valoracion_cantidad = 2, valoracion_suma = 16, valoracion_7 = 1, valoracion_9 = 1 WHERE id_usuario = 'prestador1';
+
+ALTER TABLE direccion ALTER COLUMN id_direccion RESTART WITH 100;
+ALTER TABLE servicio ALTER COLUMN id_servicio RESTART WITH 100;
+ALTER TABLE mensaje ALTER COLUMN id_mensaje RESTART WITH 100;
+ALTER TABLE presupuesto ALTER COLUMN id_presupuesto RESTART WITH 100;
+ALTER TABLE contrato ALTER COLUMN id_contrato RESTART WITH 100;
@@ -6,7 +6,7 @@ import { useEffect } from "react";
 import { useRef } from "react";
 import Axios from "axios";
 import { useState } from "react";
-import { toDataURL } from "../Utils/Images";
+import { toDataURL, waitForImageJob } from "../Utils/Images";
 import ProfilePicture from "./ProfilePicture";
 import ProfileInformation from "./ProfileInformation";
 import Loading from "../Loading/Loading";
@@ -121,6 +121,10 @@ function Usuario(props) {
         foto: base64picture,
       };
 
+      // La foto se procesa en segundo plano: mientras tanto se muestra la imagen local
+      const previousPicture = userPicture;
+      setUserPicture(`data:${file.type};base64,${base64picture}`);
+
       Axios.put(
         `/YoTeReparo/users/${profile.id}/photo`,
         requestPhoto,
@@ -130,18 +134,31 @@ function Usuario(props) {
           if (response.status === 400) {
             console.log(response.json);
           } else {
-            console.log("Imagen subida correctamente");
-            toDataURL(
-              `/YoTeReparo/users/${profile.id}/photo`,
-              requestConfig
-            ).then((dataUrl) => {
-              setUserPicture(dataUrl);
-              setPictureLoading(false);
-            });
+            waitForImageJob(response.data.id, requestConfig)
+              .then((job) => {
+                if (job.estado === "FINALIZADO") {
+                  console.log("Imagen subida correctamente");
+                  toDataURL(`/YoTeReparo/users/${profile.id}/photo`, {
+                    ...requestConfig,
+                    cache: "no-cache",
+                  }).then((dataUrl) => {
+                    setUserPicture(dataUrl);
+                    setPictureLoading(false);
+                  });
+                } else {
+                  console.error(job.error);
+                  setUserPicture(previousPicture);
+                }
+              })
+              .catch((error) => {
+                // Sin el estado del trabajo se conserva la imagen local
+                console.log(error);
+              });
           }
         })
         .catch((error) => {
           console.log(error);
+          setUserPicture(previousPicture);
         });
     };
     reader.onerror = () => {
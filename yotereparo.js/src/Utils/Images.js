@@ -1,3 +1,5 @@
+import Axios from "axios";
+
 export const toDataURL = (url, requestConfig) =>
   fetch(url, requestConfig)
     .then((response) => response.blob())
@@ -10,3 +12,28 @@ export const toDataURL = (url, requestConfig) =>
           reader.readAsDataURL(blob);
         })
     );
+
+// Consulta el trabajo de procesamiento de imagen hasta que finaliza, correcta o fallidamente
+export const waitForImageJob = (
+  jobId,
+  requestConfig,
+  interval = 1000,
+  attempts = 30
+) =>
+  new Promise((resolve, reject) => {
+    const poll = (remaining) => {
+      Axios.get(`/YoTeReparo/images/jobs/${jobId}`, requestConfig)
+        .then((response) => {
+          const job = response.data;
+          if (job.estado === "FINALIZADO" || job.estado === "FALLIDO") {
+            resolve(job);
+          } else if (remaining > 0) {
+            setTimeout(() => poll(remaining - 1), interval);
+          } else {
+            reject(new Error(`Image job ${jobId} did not finish in time`));
+          }
+        })
+        .catch(reject);
+    };
+    poll(attempts);
+  });